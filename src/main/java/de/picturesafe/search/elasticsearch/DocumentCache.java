@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch;
+
+import java.util.Map;
+
+/**
+ * Service interface of a near-cache for documents loaded by ID. The {@link ElasticsearchService} caches deep copies of documents and returns
+ * a new deep copy on each hit, so callers may modify returned documents including their nested values without affecting the cache.
+ * <p>
+ * Keys are created by the {@link ElasticsearchService} from the index alias and the ID of a document. Documents are removed by the service
+ * whenever it writes them, the cache is cleared if the IDs of written documents are unknown (e.g. writes by query).
+ */
+public interface DocumentCache {
+
+    /**
+     * Gets a cached document.
+     *
+     * @param key   Key of the document
+     * @return      Document or <code>null</code> if the document is not cached
+     */
+    Map<String, Object> get(Object key);
+
+    /**
+     * Caches a document.
+     *
+     * @param key       Key of the document
+     * @param document  Document
+     */
+    void put(Object key, Map<String, Object> document);
+
+    /**
+     * Removes a cached document.
+     *
+     * @param key Key of the document
+     */
+    void remove(Object key);
+
+    /**
+     * Removes all cached documents.
+     */
+    void clear();
+}
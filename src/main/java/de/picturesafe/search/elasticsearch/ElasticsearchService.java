@@ -17,20 +17,37 @@
 package de.picturesafe.search.elasticsearch;
 
 import de.picturesafe.search.elasticsearch.config.FieldConfiguration;
+import de.picturesafe.search.elasticsearch.model.ByQueryStatus;
+import de.picturesafe.search.elasticsearch.model.ByQueryTask;
 import de.picturesafe.search.elasticsearch.model.ElasticsearchInfo;
+import de.picturesafe.search.elasticsearch.model.ExportStatus;
 import de.picturesafe.search.elasticsearch.model.IndexObject;
+import de.picturesafe.search.elasticsearch.model.MultiGetResult;
+import de.picturesafe.search.elasticsearch.model.MultiSearchItem;
 import de.picturesafe.search.elasticsearch.model.SearchResult;
+import de.picturesafe.search.elasticsearch.model.SearchResultItem;
 import de.picturesafe.search.elasticsearch.model.SuggestResult;
 import de.picturesafe.search.expression.Expression;
 import de.picturesafe.search.expression.SuggestExpression;
 import de.picturesafe.search.parameter.AccountContext;
+import de.picturesafe.search.parameter.ByQueryParameter;
+import de.picturesafe.search.parameter.ExportParameter;
+import de.picturesafe.search.parameter.GetParameter;
+import de.picturesafe.search.parameter.ScriptDefinition;
 import de.picturesafe.search.parameter.SearchParameter;
+import de.picturesafe.search.parameter.SearchRequestSpec;
+import de.picturesafe.search.parameter.UpdateDefinition;
 import org.elasticsearch.client.RestHighLevelClient;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 /**
  * Service interface to interact with elasticsearch.
@@ -141,6 +158,7 @@ public interface ElasticsearchService {
 
     /**
      * Adds a document to the index. If a document with the same ID already exists it will be updated.
+     * In mode {@link DataChangeProcessingMode#BACKGROUND} the document will be sent later together with other background writes.
      *
      * @param indexAlias                Name of the alias of the index
      * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
@@ -148,6 +166,16 @@ public interface ElasticsearchService {
      */
     void addToIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Map<String, Object> document);
 
+    /**
+     * Adds a document to the index without blocking the calling thread. If a document with the same ID already exists it will be updated.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param document                  Document to be added
+     * @return                          Future completing when the document has been added
+     */
+    CompletableFuture<Void> addToIndexAsync(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Map<String, Object> document);
+
     /**
      * Adds an object to the index. If an object with the same ID already exists it will be updated.
      *
@@ -185,8 +213,102 @@ public interface ElasticsearchService {
      */
     void addObjectsToIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, List<IndexObject<?>> objects);
 
+    /**
+     * Adds a stream of documents to the index. If a document with the same ID already exists it will be updated.
+     * The documents will be consumed lazily and sent as bulk requests with a limited number of concurrent requests, so the stream may be
+     * larger than the available memory.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param documents                 Documents to be added
+     * @param resultListener            Listener receiving the status of indexing per document (id, true|false), may be called concurrently, may be null
+     */
+    void addToIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Stream<Map<String, Object>> documents,
+                    BiConsumer<String, Boolean> resultListener);
+
+    /**
+     * Adds a stream of objects to the index. If an object with the same ID already exists it will be updated.
+     * The objects will be consumed lazily and sent as bulk requests with a limited number of concurrent requests, so the stream may be
+     * larger than the available memory.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param objects                   Objects to be added
+     * @param resultListener            Listener receiving the status of indexing per object (id, true|false), may be called concurrently, may be null
+     */
+    void addObjectsToIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Stream<? extends IndexObject<?>> objects,
+                           BiConsumer<String, Boolean> resultListener);
+
+    /**
+     * Adds documents given as JSON sources to the index. If a document with the same ID already exists it will be updated.
+     * The sources will be sent to Elasticsearch as they are: they are only parsed to extract the ID, there is no conversion of field values.
+     * Like {@link #addToIndex(String, DataChangeProcessingMode, Stream, BiConsumer)} the sources will be consumed lazily.
+     * NOTE: key "id" must be present in the sources.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param sources                   JSON sources (UTF-8) of the documents to be added
+     * @param resultListener            Listener receiving the status of indexing per document (id, true|false), may be called concurrently, may be null
+     */
+    void addSourcesToIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Stream<byte[]> sources,
+                           BiConsumer<String, Boolean> resultListener);
+
+    /**
+     * Imports documents from NDJSON (one JSON document per line, e.g. created by {@link #export(String, Expression, Locale, OutputStream, ExportParameter)}).
+     * If a document with the same ID already exists it will be updated. The lines will be sent to Elasticsearch as they are, see
+     * {@link #addSourcesToIndex(String, DataChangeProcessingMode, Stream, BiConsumer)}.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param inputStream               NDJSON input (UTF-8), will not be closed
+     * @param resultListener            Listener receiving the status of indexing per document (id, true|false), may be called concurrently, may be null
+     */
+    void importDocuments(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, InputStream inputStream,
+                         BiConsumer<String, Boolean> resultListener);
+
+    /**
+     * Updates fields of a document. Only the given fields will be sent to Elasticsearch, fields with value <code>null</code> will be set to
+     * <code>null</code>, other fields of the document remain unchanged.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param id                        ID of the document to be updated
+     * @param fields                    Fields to be changed
+     */
+    void updateFields(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Object id, Map<String, Object> fields);
+
+    /**
+     * Updates fields of multiple documents using bulk requests. Only the given fields will be sent to Elasticsearch, fields with value
+     * <code>null</code> will be set to <code>null</code>, other fields of the documents remain unchanged.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param fieldsById                Fields to be changed by document ID
+     */
+    void updateFields(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Map<?, Map<String, Object>> fieldsById);
+
+    /**
+     * Updates a document partially by changed fields or a script, optionally adding the document if it does not exist (upsert).
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param id                        ID of the document to be updated
+     * @param update                    Definition of the update
+     */
+    void updateDocument(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Object id, UpdateDefinition update);
+
+    /**
+     * Updates multiple documents partially using bulk requests.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param updates                   Definitions of the updates by document ID
+     */
+    void updateDocuments(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Map<?, UpdateDefinition> updates);
+
     /**
      * Removes a document from the index.
+     * In mode {@link DataChangeProcessingMode#BACKGROUND} the removal will be sent later together with other background writes.
      *
      * @param indexAlias                Name of the alias of the index
      * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
@@ -194,6 +316,16 @@ public interface ElasticsearchService {
      */
     void removeFromIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Object id);
 
+    /**
+     * Removes a document from the index without blocking the calling thread.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param id                        ID of the document to be removed
+     * @return                          Future completing when the document has been removed
+     */
+    CompletableFuture<Void> removeFromIndexAsync(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Object id);
+
     /**
      * Removes multiple documents from the index.
      *
@@ -203,6 +335,30 @@ public interface ElasticsearchService {
      */
     void removeFromIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Collection<?> ids);
 
+    /**
+     * Removes a stream of documents from the index using the configured bulk size and number of concurrent requests.
+     * The IDs will be consumed lazily, so the stream may be larger than the available memory.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param ids                       IDs of the documents to be removed
+     * @return                          Failure messages by ID of the documents which could not be removed (empty if all documents have been removed)
+     */
+    Map<String, String> removeFromIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Stream<?> ids);
+
+    /**
+     * Removes a stream of documents from the index. The IDs will be consumed lazily, so the stream may be larger than the available memory.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param ids                       IDs of the documents to be removed
+     * @param bulkSize                  Maximum number of IDs per bulk request
+     * @param concurrentRequests        Maximum number of concurrent bulk requests
+     * @return                          Failure messages by ID of the documents which could not be removed (empty if all documents have been removed)
+     */
+    Map<String, String> removeFromIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Stream<?> ids, int bulkSize,
+                                        int concurrentRequests);
+
     /**
      * Removes multiple documents from the index.
      *
@@ -213,6 +369,73 @@ public interface ElasticsearchService {
      */
     void removeFromIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale);
 
+    /**
+     * Removes all documents matching an expression and waits for completion.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param expression                Expression defining the search criteria for the documents to delete
+     * @param locale                    Locale for searching multilingual fields (use Locale.ROOT if it doesn't matter)
+     * @param parameter                 Parameters of the operation (slices, throttle), may be null
+     * @return                          Status of the completed operation
+     */
+    ByQueryStatus deleteByQuery(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale,
+                                ByQueryParameter parameter);
+
+    /**
+     * Submits the removal of all documents matching an expression as Elasticsearch task without waiting for completion.
+     * The returned handle allows to poll the progress, to cancel or to rethrottle the operation.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param expression                Expression defining the search criteria for the documents to delete
+     * @param locale                    Locale for searching multilingual fields (use Locale.ROOT if it doesn't matter)
+     * @param parameter                 Parameters of the operation (slices, throttle), may be null
+     * @return                          Handle of the task
+     */
+    ByQueryTask submitDeleteByQuery(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale,
+                                    ByQueryParameter parameter);
+
+    /**
+     * Updates all documents matching an expression by a script and waits for completion.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param expression                Expression defining the search criteria for the documents to update
+     * @param script                    Script modifying the documents (source accessible by <code>ctx._source</code>)
+     * @return                          Status of the completed operation
+     */
+    ByQueryStatus updateByQuery(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Expression expression, ScriptDefinition script);
+
+    /**
+     * Updates all documents matching an expression by a script and waits for completion.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param expression                Expression defining the search criteria for the documents to update
+     * @param locale                    Locale for searching multilingual fields (use Locale.ROOT if it doesn't matter)
+     * @param script                    Script modifying the documents (source accessible by <code>ctx._source</code>)
+     * @param parameter                 Parameters of the operation (slices, throttle), may be null
+     * @return                          Status of the completed operation
+     */
+    ByQueryStatus updateByQuery(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale,
+                                ScriptDefinition script, ByQueryParameter parameter);
+
+    /**
+     * Submits the update of all documents matching an expression by a script as Elasticsearch task without waiting for completion.
+     * The returned handle allows to poll the progress, to cancel or to rethrottle the operation.
+     *
+     * @param indexAlias                Name of the alias of the index
+     * @param dataChangeProcessingMode  {@link DataChangeProcessingMode}
+     * @param expression                Expression defining the search criteria for the documents to update
+     * @param locale                    Locale for searching multilingual fields (use Locale.ROOT if it doesn't matter)
+     * @param script                    Script modifying the documents (source accessible by <code>ctx._source</code>)
+     * @param parameter                 Parameters of the operation (slices, throttle), may be null
+     * @return                          Handle of the task
+     */
+    ByQueryTask submitUpdateByQuery(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale,
+                                    ScriptDefinition script, ByQueryParameter parameter);
+
     /**
      * Searches for documents.
      *
@@ -234,6 +457,123 @@ public interface ElasticsearchService {
      */
     SearchResult search(String indexAlias, AccountContext<?> accountContext, Expression expression, SearchParameter searchParameter);
 
+    /**
+     * Searches for documents without blocking the calling thread.
+     *
+     * @param indexAlias        Name of the alias of the index
+     * @param expression        Expression defining the search criteria
+     * @param searchParameter   Parameters for the search execution
+     * @return                  Future of the {@link SearchResult}
+     */
+    CompletableFuture<SearchResult> searchAsync(String indexAlias, Expression expression, SearchParameter searchParameter);
+
+    /**
+     * Searches for documents in the context of an user account without blocking the calling thread.
+     *
+     * @param indexAlias        Name of the alias of the index
+     * @param accountContext    {@link AccountContext} of the current user
+     * @param expression        Expression defining the search criteria
+     * @param searchParameter   Parameters for the search execution
+     * @return                  Future of the {@link SearchResult}
+     */
+    CompletableFuture<SearchResult> searchAsync(String indexAlias, AccountContext<?> accountContext, Expression expression,
+                                                SearchParameter searchParameter);
+
+    /**
+     * Executes several searches in one request (multi search), the latency is about the latency of the slowest search. A failing search
+     * does not affect the other searches.
+     *
+     * @param searches  Specifications of the searches
+     * @return          Results or failures of the searches (in order of the given specifications)
+     */
+    List<MultiSearchItem> multiSearch(List<SearchRequestSpec> searches);
+
+    /**
+     * Streams all documents matching the search criteria. The hits are fetched lazily page by page (see
+     * {@link SearchParameter#getPageSize()}), the next page is requested in the background while the current page is consumed. The number of
+     * hits is not limited by the max result window, but by {@link SearchParameter#getMaxResults()} only. Aggregations will be ignored, collapse
+     * options and continuation tokens are not supported.
+     * <p>
+     * The stream holds a search context in Elasticsearch until all hits have been consumed, so close it if it might not be consumed
+     * completely, e.g. by using try-with-resources.
+     *
+     * @param indexAlias        Name of the alias of the index
+     * @param expression        Expression defining the search criteria
+     * @param searchParameter   Parameters for the search execution
+     * @return                  Lazily fetched stream of the {@link SearchResultItem}s
+     */
+    Stream<SearchResultItem> stream(String indexAlias, Expression expression, SearchParameter searchParameter);
+
+    /**
+     * Streams all documents matching the search criteria in the context of an user account. The hits are fetched lazily page by page (see
+     * {@link SearchParameter#getPageSize()}), the next page is requested in the background while the current page is consumed. The number of
+     * hits is not limited by the max result window, but by {@link SearchParameter#getMaxResults()} only. Aggregations will be ignored, collapse
+     * options and continuation tokens are not supported.
+     * <p>
+     * The stream holds a search context in Elasticsearch until all hits have been consumed, so close it if it might not be consumed
+     * completely, e.g. by using try-with-resources.
+     *
+     * @param indexAlias        Name of the alias of the index
+     * @param accountContext    {@link AccountContext} of the current user
+     * @param expression        Expression defining the search criteria
+     * @param searchParameter   Parameters for the search execution
+     * @return                  Lazily fetched stream of the {@link SearchResultItem}s
+     */
+    Stream<SearchResultItem> stream(String indexAlias, AccountContext<?> accountContext, Expression expression, SearchParameter searchParameter);
+
+    /**
+     * Counts the documents matching the search criteria without fetching any hits.
+     *
+     * @param indexAlias        Name of the alias of the index
+     * @param expression        Expression defining the search criteria
+     * @return                  Number of matching documents
+     */
+    long count(String indexAlias, Expression expression);
+
+    /**
+     * Counts the documents matching the search criteria in the context of an user account without fetching any hits.
+     *
+     * @param indexAlias        Name of the alias of the index
+     * @param accountContext    {@link AccountContext} of the current user
+     * @param expression        Expression defining the search criteria
+     * @return                  Number of matching documents
+     */
+    long count(String indexAlias, AccountContext<?> accountContext, Expression expression);
+
+    /**
+     * Counts the documents matching each of several search criteria in one request without fetching any hits.
+     *
+     * @param indexAlias        Name of the alias of the index
+     * @param expressions       Expressions defining the search criteria by key
+     * @return                  Number of matching documents by key (in order of the given expressions)
+     */
+    Map<String, Long> count(String indexAlias, Map<String, Expression> expressions);
+
+    /**
+     * Counts the documents matching each of several search criteria in the context of an user account in one request without fetching any hits.
+     *
+     * @param indexAlias        Name of the alias of the index
+     * @param accountContext    {@link AccountContext} of the current user
+     * @param expressions       Expressions defining the search criteria by key
+     * @return                  Number of matching documents by key (in order of the given expressions)
+     */
+    Map<String, Long> count(String indexAlias, AccountContext<?> accountContext, Map<String, Expression> expressions);
+
+    /**
+     * Exports the sources of all documents matching the search criteria of an index as NDJSON (one JSON document per line). The documents are
+     * fetched by parallel sliced scroll searches and written to the output stream without converting them, so the export is neither limited
+     * by the max result window nor by the available memory. Use {@link java.nio.channels.Channels#newOutputStream} to export to a channel.
+     *
+     * @param indexAlias        Name of the alias of the index
+     * @param expression        Expression defining the documents to export (use {@link de.picturesafe.search.expression.FindAllExpression} to
+     *                          export the whole index)
+     * @param locale            Locale for searching multilingual fields (use Locale.ROOT if it doesn't matter)
+     * @param outputStream      Stream to write the documents to, will be flushed but not closed
+     * @param parameter         Parameters of the export (slices, batch size, buffer size, progress), may be null
+     * @return                  Status of the completed export
+     */
+    ExportStatus export(String indexAlias, Expression expression, Locale locale, OutputStream outputStream, ExportParameter parameter);
+
     /**
      * Creates an Elasticsearch query in JSON format.
      *
@@ -254,6 +594,25 @@ public interface ElasticsearchService {
      */
     Map<String, Object> getDocument(String indexAlias, Object id);
 
+    /**
+     * Gets a document from the index, resolving only selected fields to reduce payload and parsing cost.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param id            ID of the document
+     * @param parameter     Additional parameters, e.g. the fields to be resolved
+     * @return              The document or <code>null</code> if the ID does not exist
+     */
+    Map<String, Object> getDocument(String indexAlias, Object id, GetParameter parameter);
+
+    /**
+     * Gets a document from the index without blocking the calling thread.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param id            ID of the document
+     * @return              Future of the document, completing with <code>null</code> if the ID does not exist
+     */
+    CompletableFuture<Map<String, Object>> getDocumentAsync(String indexAlias, Object id);
+
     /**
      * Gets an object from the index.
      *
@@ -265,6 +624,48 @@ public interface ElasticsearchService {
      */
     <T extends IndexObject<T>> T getObject(String indexAlias, Object id, Class<T> type);
 
+    /**
+     * Gets an object from the index, resolving only selected fields to reduce payload and parsing cost.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param id            ID of the object
+     * @param type          Type class of the object
+     * @param parameter     Additional parameters, e.g. the fields to be resolved
+     * @param <T>           Generic type of the object
+     * @return              The index object or <code>null</code> if the ID does not exist
+     */
+    <T extends IndexObject<T>> T getObject(String indexAlias, Object id, Class<T> type, GetParameter parameter);
+
+    /**
+     * Gets multiple documents from the index using as few requests as possible.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param ids           IDs of the documents
+     * @return              Found documents in order of the given IDs and the IDs which do not exist
+     */
+    MultiGetResult<Map<String, Object>> getDocuments(String indexAlias, Collection<?> ids);
+
+    /**
+     * Gets multiple documents from the index using as few requests as possible.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param ids           IDs of the documents
+     * @param parameter     Additional parameters, e.g. the fields to be returned
+     * @return              Found documents in order of the given IDs and the IDs which do not exist
+     */
+    MultiGetResult<Map<String, Object>> getDocuments(String indexAlias, Collection<?> ids, GetParameter parameter);
+
+    /**
+     * Gets multiple objects from the index using as few requests as possible.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param ids           IDs of the objects
+     * @param type          Type class of the objects
+     * @param <T>           Generic type of the objects
+     * @return              Found objects in order of the given IDs and the IDs which do not exist
+     */
+    <T extends IndexObject<T>> MultiGetResult<T> getObjects(String indexAlias, Collection<?> ids, Class<T> type);
+
     /**
      * Suggests text options for search-as-you-type functionality.
      *
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch;
+
+import de.picturesafe.search.elasticsearch.model.ResultFacet;
+
+import java.util.List;
+
+/**
+ * Service interface of a cache for facets resulting from search aggregations. The {@link ElasticsearchService} caches copies of facets and
+ * sets a new copy on each search result served from the cache, so modifying the facets of a result does not affect the cache.
+ * <p>
+ * Keys are created by the {@link ElasticsearchService} from the query, the filters and the aggregation definitions only, so facets are
+ * reused across pages and sort orders of a search. Like the keys of the {@link SearchResultCache} they include a generation of the index
+ * alias which changes whenever data is written to the alias by this client.
+ */
+public interface FacetResultCache {
+
+    /**
+     * Gets cached facets.
+     *
+     * @param key   Key of the aggregations
+     * @return      Facets or <code>null</code> if no facets are cached for the key
+     */
+    List<ResultFacet> get(Object key);
+
+    /**
+     * Caches facets.
+     *
+     * @param key       Key of the aggregations
+     * @param facets    Facets
+     */
+    void put(Object key, List<ResultFacet> facets);
+
+    /**
+     * Removes all cached facets.
+     */
+    void clear();
+}
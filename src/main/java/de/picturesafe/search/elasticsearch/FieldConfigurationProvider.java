@@ -40,4 +40,15 @@ public interface FieldConfigurationProvider {
      * @return              Supported locales
      */
     List<Locale> getSupportedLocales(String indexAlias);
+
+    /**
+     * Gets the version of the field configurations for an index. The version must change whenever the field configurations or supported
+     * locales of the index change, so that consumers may cache data derived from them as long as the version stays the same.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @return              Version of the field configurations
+     */
+    default long getVersion(String indexAlias) {
+        return 0;
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch;
+
+import de.picturesafe.search.elasticsearch.model.SearchResult;
+
+/**
+ * Service interface of a cache for search results. The {@link ElasticsearchService} caches copies of search results and returns a new copy
+ * on each hit, so callers may modify returned results without affecting the cache.
+ * <p>
+ * Keys are created by the {@link ElasticsearchService} and include a generation of the index alias which changes whenever data is written
+ * to the alias by this client, so the cache does not need to handle invalidation itself. Entries of outdated generations will never be
+ * requested again and should be evicted by the cache over time.
+ */
+public interface SearchResultCache {
+
+    /**
+     * Gets a cached search result.
+     *
+     * @param key   Key of the search
+     * @return      Search result or <code>null</code> if no result is cached for the key
+     */
+    SearchResult get(Object key);
+
+    /**
+     * Caches a search result.
+     *
+     * @param key           Key of the search
+     * @param searchResult  Search result
+     */
+    void put(Object key, SearchResult searchResult);
+
+    /**
+     * Removes all cached search results.
+     */
+    void clear();
+}
@@ -23,35 +23,27 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Definition of an elasticsearch index mapping
+ * Definition of an elasticsearch index mapping (immutable)
  */
 public class MappingConfiguration {
 
     private final List<? extends FieldConfiguration> fieldConfigurations;
-    private List<LanguageSortConfiguration> languageSortConfigurations;
-
-    private Map<String, FieldConfiguration> fieldConfigurationMap = new HashMap<>();
+    private final List<LanguageSortConfiguration> languageSortConfigurations;
+    private final Map<String, FieldConfiguration> fieldConfigurationMap;
 
     /**
      * Constructor
      * @param fieldConfigurations Field configurations
      */
     public MappingConfiguration(List<? extends FieldConfiguration> fieldConfigurations) {
-        Validate.notNull(fieldConfigurations, "Parameter 'fieldConfigurations' may not be null!");
-        this.fieldConfigurations = fieldConfigurations;
-        for (FieldConfiguration fieldConfiguration : fieldConfigurations) {
-            fieldConfigurationMap.put(fieldConfiguration.getName(), fieldConfiguration);
-            if (CollectionUtils.isNotEmpty(fieldConfiguration.getInnerFields())) {
-                for (final FieldConfiguration nestedConfig : fieldConfiguration.getInnerFields()) {
-                    fieldConfigurationMap.put(fieldConfiguration.getName() + "." + nestedConfig.getName(), nestedConfig);
-                }
-            }
-        }
+        this(fieldConfigurations, null);
     }
 
     /**
@@ -61,8 +53,21 @@ public class MappingConfiguration {
      */
     public MappingConfiguration(List<? extends FieldConfiguration> fieldConfigurations,
                                 List<LanguageSortConfiguration> languageSortConfigurations) {
-        this(fieldConfigurations);
-        this.languageSortConfigurations = languageSortConfigurations;
+        Validate.notNull(fieldConfigurations, "Parameter 'fieldConfigurations' may not be null!");
+        this.fieldConfigurations = Collections.unmodifiableList(new ArrayList<>(fieldConfigurations));
+        this.languageSortConfigurations = (languageSortConfigurations != null)
+                ? Collections.unmodifiableList(new ArrayList<>(languageSortConfigurations)) : null;
+
+        final Map<String, FieldConfiguration> fieldConfigurationMap = new HashMap<>();
+        for (FieldConfiguration fieldConfiguration : fieldConfigurations) {
+            fieldConfigurationMap.put(fieldConfiguration.getName(), fieldConfiguration);
+            if (CollectionUtils.isNotEmpty(fieldConfiguration.getInnerFields())) {
+                for (final FieldConfiguration nestedConfig : fieldConfiguration.getInnerFields()) {
+                    fieldConfigurationMap.put(fieldConfiguration.getName() + "." + nestedConfig.getName(), nestedConfig);
+                }
+            }
+        }
+        this.fieldConfigurationMap = Collections.unmodifiableMap(fieldConfigurationMap);
     }
 
     /**
@@ -20,18 +20,34 @@ import de.picturesafe.search.elasticsearch.config.FieldConfiguration;
 import de.picturesafe.search.elasticsearch.config.IndexPresetConfiguration;
 import de.picturesafe.search.elasticsearch.config.MappingConfiguration;
 import de.picturesafe.search.elasticsearch.connect.dto.QueryDto;
+import de.picturesafe.search.elasticsearch.connect.dto.SearchHitDto;
+import de.picturesafe.search.elasticsearch.connect.dto.SearchRequestDto;
 import de.picturesafe.search.elasticsearch.connect.dto.SearchResultDto;
 import de.picturesafe.search.elasticsearch.connect.error.AliasAlreadyExistsException;
 import de.picturesafe.search.elasticsearch.connect.error.AliasCreateException;
 import de.picturesafe.search.elasticsearch.connect.error.AliasHasMoreThanOneIndexException;
 import de.picturesafe.search.elasticsearch.connect.error.IndexCreateException;
+import de.picturesafe.search.elasticsearch.model.ByQueryStatus;
+import de.picturesafe.search.elasticsearch.model.ByQueryTask;
 import de.picturesafe.search.elasticsearch.model.ElasticsearchInfo;
+import de.picturesafe.search.elasticsearch.model.ExportStatus;
 import de.picturesafe.search.expression.SuggestExpression;
+import de.picturesafe.search.parameter.ByQueryParameter;
+import de.picturesafe.search.parameter.ExportParameter;
+import de.picturesafe.search.parameter.GetParameter;
+import de.picturesafe.search.parameter.ScriptDefinition;
+import de.picturesafe.search.parameter.UpdateDefinition;
+import de.picturesafe.search.util.CloseableIterator;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.bytes.BytesReference;
 
+import java.io.OutputStream;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
 @SuppressWarnings({"unused"})
 public interface Elasticsearch {
@@ -48,6 +64,17 @@ public interface Elasticsearch {
      */
     void addToIndex(String indexAlias, boolean applyIndexRefresh, Map<String, Object> document);
 
+    /**
+     * Adds a document to the index without blocking the calling thread. If a document with the same ID already exists it will be updated.
+     * NOTE: key "id" must be present in document.
+     *
+     * @param indexAlias                The index alias
+     * @param applyIndexRefresh         Should the search index be forced to be updated immediately? Be careful and use false as default.
+     * @param document                  Document to be added
+     * @return                          Future which will be completed when the document has been added
+     */
+    CompletableFuture<Void> addToIndexAsync(String indexAlias, boolean applyIndexRefresh, Map<String, Object> document);
+
     /**
      * Adds multiple documents to the index. If a document with the same ID already exists it will be updated.
      * NOTE: key "id" must be present in documents.
@@ -60,6 +87,33 @@ public interface Elasticsearch {
      */
     Map<String, Boolean> addToIndex(String indexAlias, boolean applyIndexRefresh, boolean exceptionOnFailure, List<Map<String, Object>> documents);
 
+    /**
+     * Adds documents provided by an iterator to the index. If a document with the same ID already exists it will be updated.
+     * The documents will be consumed lazily and sent as bulk requests, keeping a limited number of bulk requests in flight concurrently
+     * (property 'elasticsearch.service.indexing_concurrent_requests'). Consuming the iterator blocks while the limit is reached.
+     * NOTE: key "id" must be present in documents.
+     *
+     * @param indexAlias                The index alias
+     * @param applyIndexRefresh         Should the search index be forced to be updated immediately? Be careful and use false as default.
+     * @param documents                 Documents to be added
+     * @param resultListener            Listener receiving the status of indexing per document (id, true|false), may be called concurrently, may be null
+     */
+    void addToIndex(String indexAlias, boolean applyIndexRefresh, Iterator<Map<String, Object>> documents, BiConsumer<String, Boolean> resultListener);
+
+    /**
+     * Adds documents given as JSON sources to the index. If a document with the same ID already exists it will be updated.
+     * The sources will be sent as they are, only the ID will be extracted from them. Like
+     * {@link #addToIndex(String, boolean, Iterator, BiConsumer)} the sources will be consumed lazily with a limited number of concurrent
+     * bulk requests.
+     * NOTE: key "id" must be present in the sources.
+     *
+     * @param indexAlias                The index alias
+     * @param applyIndexRefresh         Should the search index be forced to be updated immediately? Be careful and use false as default.
+     * @param sources                   JSON sources of the documents to be added
+     * @param resultListener            Listener receiving the status of indexing per document (id, true|false), may be called concurrently, may be null
+     */
+    void addSourcesToIndex(String indexAlias, boolean applyIndexRefresh, Iterator<BytesReference> sources, BiConsumer<String, Boolean> resultListener);
+
     /**
      * Removes a document from the index.
      *
@@ -69,6 +123,63 @@ public interface Elasticsearch {
      */
     void removeFromIndex(String indexAlias, boolean applyIndexRefresh, Object id);
 
+    /**
+     * Removes a document from the index without blocking the calling thread.
+     *
+     * @param indexAlias        The index alias
+     * @param applyIndexRefresh Should the search index be forced to be updated immediately? Be careful and use false as default.
+     * @param id                ID of the document to be removed
+     * @return                  Future which will be completed when the document has been removed
+     */
+    CompletableFuture<Void> removeFromIndexAsync(String indexAlias, boolean applyIndexRefresh, Object id);
+
+    /**
+     * Updates a document partially: only the changed fields or a script modifying the document will be sent to Elasticsearch.
+     *
+     * @param indexAlias        The index alias
+     * @param applyIndexRefresh Should the search index be forced to be updated immediately? Be careful and use false as default.
+     * @param id                ID of the document to be updated
+     * @param update            Definition of the update
+     */
+    void updateDocument(String indexAlias, boolean applyIndexRefresh, Object id, UpdateDefinition update);
+
+    /**
+     * Updates multiple documents partially using bulk requests.
+     *
+     * @param indexAlias            The index alias
+     * @param applyIndexRefresh     Should the search index be forced to be updated immediately? Be careful and use false as default.
+     * @param exceptionOnFailure    Throw an exception if the update of a document failed
+     * @param updates               Definitions of the updates by document ID
+     * @return                      Update status per document ID (true|false)
+     */
+    Map<String, Boolean> updateDocuments(String indexAlias, boolean applyIndexRefresh, boolean exceptionOnFailure, Map<?, UpdateDefinition> updates);
+
+    /**
+     * Adds a document to the index in background. The write will be collected with other background writes and sent as bulk request later.
+     * If a further write for the same document ID is submitted before the document has been sent, only the last write will be executed.
+     * NOTE: key "id" must be present in document.
+     *
+     * @param indexAlias    The index alias
+     * @param document      Document to be added
+     * @return              Future which will be completed when the write has been executed in background
+     */
+    CompletableFuture<Void> addToIndexInBackground(String indexAlias, Map<String, Object> document);
+
+    /**
+     * Removes a document from the index in background. The write will be collected with other background writes and sent as bulk request later.
+     * If a further write for the same document ID is submitted before the removal has been sent, only the last write will be executed.
+     *
+     * @param indexAlias    The index alias
+     * @param id            ID of the document to be removed
+     * @return              Future which will be completed when the removal has been executed in background
+     */
+    CompletableFuture<Void> removeFromIndexInBackground(String indexAlias, Object id);
+
+    /**
+     * Sends all pending background writes and waits until they have been executed.
+     */
+    void flushBackgroundWrites();
+
     /**
      * Removes multiple documents from the index.
      *
@@ -78,6 +189,19 @@ public interface Elasticsearch {
      */
     void removeFromIndex(String indexAlias, boolean applyIndexRefresh, Collection<?> ids);
 
+    /**
+     * Removes documents from the index. The IDs will be consumed lazily and sent as bulk requests with a limited number of concurrent requests,
+     * so the number of IDs may exceed the available memory.
+     *
+     * @param indexAlias            The index alias
+     * @param applyIndexRefresh     Should the search index be forced to be updated immediately? Be careful and use false as default.
+     * @param ids                   IDs of the documents to be removed
+     * @param bulkSize              Maximum number of IDs per bulk request (0 = property 'elasticsearch.service.removing_bulk_size')
+     * @param concurrentRequests    Maximum number of concurrent bulk requests (0 = property 'elasticsearch.service.removing_concurrent_requests')
+     * @return                      Failure messages by ID of the documents which could not be removed (empty if all documents have been removed)
+     */
+    Map<String, String> removeFromIndex(String indexAlias, boolean applyIndexRefresh, Iterator<?> ids, int bulkSize, int concurrentRequests);
+
     /**
      * Removes multiple documents from the index.
      *
@@ -89,6 +213,60 @@ public interface Elasticsearch {
     void removeFromIndex(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration,
                          boolean applyIndexRefresh);
 
+    /**
+     * Removes all documents matching a query and waits for completion.
+     *
+     * @param queryDto                  Query matching the documents to be removed
+     * @param mappingConfiguration      {@link MappingConfiguration}
+     * @param indexPresetConfiguration  {@link IndexPresetConfiguration}
+     * @param parameter                 Parameters of the operation (slices, throttle), may be null
+     * @param applyIndexRefresh         Should the search index be forced to be updated immediately? Be careful and use false as default.
+     * @return                          Status of the completed operation or <code>null</code> if the request has been handled externally
+     */
+    ByQueryStatus deleteByQuery(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration,
+                                ByQueryParameter parameter, boolean applyIndexRefresh);
+
+    /**
+     * Submits the removal of all documents matching a query as Elasticsearch task without waiting for completion.
+     *
+     * @param queryDto                  Query matching the documents to be removed
+     * @param mappingConfiguration      {@link MappingConfiguration}
+     * @param indexPresetConfiguration  {@link IndexPresetConfiguration}
+     * @param parameter                 Parameters of the operation (slices, throttle), may be null
+     * @param applyIndexRefresh         Should the search index be forced to be updated immediately? Be careful and use false as default.
+     * @return                          Handle of the task or <code>null</code> if the request has been handled externally
+     */
+    ByQueryTask submitDeleteByQuery(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration,
+                                    ByQueryParameter parameter, boolean applyIndexRefresh);
+
+    /**
+     * Updates all documents matching a query by a script and waits for completion.
+     *
+     * @param queryDto                  Query matching the documents to be updated
+     * @param mappingConfiguration      {@link MappingConfiguration}
+     * @param indexPresetConfiguration  {@link IndexPresetConfiguration}
+     * @param script                    Script modifying the documents
+     * @param parameter                 Parameters of the operation (slices, throttle), may be null
+     * @param applyIndexRefresh         Should the search index be forced to be updated immediately? Be careful and use false as default.
+     * @return                          Status of the completed operation or <code>null</code> if the request has been handled externally
+     */
+    ByQueryStatus updateByQuery(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration,
+                                ScriptDefinition script, ByQueryParameter parameter, boolean applyIndexRefresh);
+
+    /**
+     * Submits the update of all documents matching a query by a script as Elasticsearch task without waiting for completion.
+     *
+     * @param queryDto                  Query matching the documents to be updated
+     * @param mappingConfiguration      {@link MappingConfiguration}
+     * @param indexPresetConfiguration  {@link IndexPresetConfiguration}
+     * @param script                    Script modifying the documents
+     * @param parameter                 Parameters of the operation (slices, throttle), may be null
+     * @param applyIndexRefresh         Should the search index be forced to be updated immediately? Be careful and use false as default.
+     * @return                          Handle of the task or <code>null</code> if the request has been handled externally
+     */
+    ByQueryTask submitUpdateByQuery(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration,
+                                    ScriptDefinition script, ByQueryParameter parameter, boolean applyIndexRefresh);
+
     /**
      * Checks if elasticsearch service is available.
      *
@@ -221,6 +399,72 @@ public interface Elasticsearch {
      */
     SearchResultDto search(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration);
 
+    /**
+     * Searches for documents without blocking the calling thread.
+     *
+     * @param queryDto                      {@link QueryDto}
+     * @param mappingConfiguration          {@link MappingConfiguration}
+     * @param indexPresetConfiguration      {@link IndexPresetConfiguration}
+     * @return                              Future of the {@link SearchResultDto}
+     */
+    CompletableFuture<SearchResultDto> searchAsync(QueryDto queryDto, MappingConfiguration mappingConfiguration,
+                                                   IndexPresetConfiguration indexPresetConfiguration);
+
+    /**
+     * Executes several searches in one multi search request. A failing search does not affect the other searches.
+     *
+     * @param searchRequestDtos             {@link SearchRequestDto}s of the searches
+     * @param maxConcurrentSearches         Maximum number of searches to be executed concurrently by Elasticsearch (0 = Elasticsearch default)
+     * @return                              Futures of the search results in order of the searches, completed exceptionally if a search failed
+     */
+    List<CompletableFuture<SearchResultDto>> multiSearchAsync(List<SearchRequestDto> searchRequestDtos, int maxConcurrentSearches);
+
+    /**
+     * Iterates lazily over all documents matching a query using the scroll API. The next page will be fetched in the background
+     * while the current page is consumed. The page size is defined by the limit of the query range. Aggregations will be ignored.
+     * The iterator must be closed if it is not consumed completely to release the search context.
+     *
+     * @param queryDto                      {@link QueryDto}
+     * @param mappingConfiguration          {@link MappingConfiguration}
+     * @param indexPresetConfiguration      {@link IndexPresetConfiguration}
+     * @return                              Iterator of the search hits
+     */
+    CloseableIterator<SearchHitDto> scroll(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration);
+
+    /**
+     * Counts the documents matching a query without blocking the calling thread. Sort options, aggregations and the query range will be ignored.
+     *
+     * @param queryDto                      {@link QueryDto}
+     * @param mappingConfiguration          {@link MappingConfiguration}
+     * @param indexPresetConfiguration      {@link IndexPresetConfiguration}
+     * @return                              Future of the number of matching documents, cancelling the future cancels the request
+     */
+    CompletableFuture<Long> countAsync(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration);
+
+    /**
+     * Counts the documents matching each of several queries in one round trip without fetching any hits.
+     *
+     * @param queryDtos                     {@link QueryDto}s by key
+     * @param mappingConfiguration          {@link MappingConfiguration}
+     * @param indexPresetConfiguration      {@link IndexPresetConfiguration}
+     * @return                              Future of the number of matching documents by key, cancelling the future cancels the request
+     */
+    CompletableFuture<Map<String, Long>> countAsync(Map<String, QueryDto> queryDtos, MappingConfiguration mappingConfiguration,
+                                                    IndexPresetConfiguration indexPresetConfiguration);
+
+    /**
+     * Exports the sources of all documents matching a query as NDJSON (one JSON document per line).
+     *
+     * @param queryDto                      {@link QueryDto}
+     * @param mappingConfiguration          {@link MappingConfiguration}
+     * @param indexPresetConfiguration      {@link IndexPresetConfiguration}
+     * @param outputStream                  Stream to write the documents to, will be flushed but not closed
+     * @param parameter                     Parameters of the export (slices, batch size, buffer size, progress), may be null
+     * @return                              Status of the completed export
+     */
+    ExportStatus export(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration,
+                        OutputStream outputStream, ExportParameter parameter);
+
     /**
      * Creates an Elasticsearch query in JSON format.
      *
@@ -241,6 +485,36 @@ public interface Elasticsearch {
      */
     Map<String, Object> getDocument(String indexAlias, Object id);
 
+    /**
+     * Gets a document from the index, resolving only selected fields.
+     *
+     * @param indexAlias            Name of the alias of the index
+     * @param id                    ID of the documents
+     * @param parameter             Additional parameters, e.g. the fields to be resolved
+     * @param mappingConfiguration  Mapping configuration, required if fields should be resolved from doc values
+     * @return                      The document or <code>null</code> if the ID does not exist
+     */
+    Map<String, Object> getDocument(String indexAlias, Object id, GetParameter parameter, MappingConfiguration mappingConfiguration);
+
+    /**
+     * Gets a document from the index without blocking the calling thread.
+     *
+     * @param indexAlias      Name of the alias of the index
+     * @param id              ID of the documents
+     * @return                Future of the document, the document will be <code>null</code> if the ID does not exist
+     */
+    CompletableFuture<Map<String, Object>> getDocumentAsync(String indexAlias, Object id);
+
+    /**
+     * Gets multiple documents from the index using as few requests as possible.
+     *
+     * @param indexAlias      Name of the alias of the index
+     * @param ids             IDs of the documents
+     * @param parameter       Additional parameters
+     * @return                The documents in order of the given IDs, a document will be <code>null</code> if its ID does not exist
+     */
+    List<Map<String, Object>> getDocuments(String indexAlias, List<?> ids, GetParameter parameter);
+
     /**
      * Suggests text options for search-as-you-type functionality.
      *
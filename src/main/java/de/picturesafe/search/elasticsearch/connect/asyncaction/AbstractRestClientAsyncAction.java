@@ -17,62 +17,143 @@
 package de.picturesafe.search.elasticsearch.connect.asyncaction;
 
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.client.Cancellable;
 import org.elasticsearch.client.RestHighLevelClient;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Executes an asynchronous residual client action and waits for the result.
  * An instance can only be used once.
  * The asynchronous execution of requests increases scalability, because threads are not blocked.
+ * Use {@link #actionAsync(RestHighLevelClient, Object)} to get the result without blocking the calling thread at all.
+ * If the action times out or the returned future is cancelled, the underlying HTTP request will be cancelled as well.
  */
 public abstract class AbstractRestClientAsyncAction<Request, Response> implements ActionListener<Response> {
-    private static final Logger LOG = LoggerFactory.getLogger(AbstractRestClientAsyncAction.class);
-    private Exception exception;
-    private Response response;
-    private final CountDownLatch countDownLatch = new CountDownLatch(1);
-    private AtomicBoolean used = new AtomicBoolean(false);
 
-    abstract void asyncAction(RestHighLevelClient client, Request request);
+    public static final long DEFAULT_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final ScheduledThreadPoolExecutor TIMEOUT_SCHEDULER = createTimeoutScheduler();
+
+    private final CompletableFuture<Response> future = new CompletableFuture<>();
+    private final AtomicBoolean used = new AtomicBoolean(false);
+    private volatile Cancellable cancellable;
+
+    abstract Cancellable asyncAction(RestHighLevelClient client, Request request);
 
     public Response action(RestHighLevelClient client, Request request) {
-        if (used.get()) {
-            throw new RuntimeException("Action already triggered once and can not be used again. Please create a new Action");
-        }
-        used.set(true);
+        return action(client, request, DEFAULT_TIMEOUT_MILLIS);
+    }
 
-        boolean searchDone = false;
-        asyncAction(client, request);
+    /**
+     * Executes the action and waits for the result at most the given time. If the timeout elapses, the request will be cancelled.
+     *
+     * @param client        REST client
+     * @param request       Request to execute
+     * @param timeoutMillis Timeout in milliseconds
+     * @return              Response
+     */
+    public Response action(RestHighLevelClient client, Request request, long timeoutMillis) {
+        final CompletableFuture<Response> result = actionAsync(client, request);
         try {
-            searchDone = countDownLatch.await(1, TimeUnit.MINUTES);
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Action failed! " + request, e.getCause());
+        } catch (TimeoutException e) {
+            cancel();
+            throw new RuntimeException("Action failed due to timeout after " + timeoutMillis + " ms! " + request);
         } catch (InterruptedException e) {
-            LOG.error("Failed to wait for the search result", e);
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Action was interrupted! " + request, e);
+        }
+    }
+
+    /**
+     * Triggers the action without waiting for the result.
+     *
+     * @param client    REST client
+     * @param request   Request to execute
+     * @return          Future which will be completed by the response listener, cancelling the future cancels the request
+     */
+    public CompletableFuture<Response> actionAsync(RestHighLevelClient client, Request request) {
+        if (!used.compareAndSet(false, true)) {
+            throw new RuntimeException("Action already triggered once and can not be used again. Please create a new Action");
         }
 
-        if (response == null) {
-            if (searchDone) {
-                throw new RuntimeException("Action failed! " + request, exception);
-            } else {
-                throw new RuntimeException("Action failed due to timeout! " + request);
+        try {
+            cancellable = asyncAction(client, request);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((response, e) -> {
+            if (future.isCancelled()) {
+                cancelRequest();
             }
+        });
+        return future;
+    }
+
+    /**
+     * Triggers the action without waiting for the result. If the timeout elapses, the request will be cancelled and the future completes
+     * exceptionally with a {@link TimeoutException}.
+     *
+     * @param client        REST client
+     * @param request       Request to execute
+     * @param timeoutMillis Timeout in milliseconds
+     * @return              Future which will be completed by the response listener, cancelling the future cancels the request
+     */
+    public CompletableFuture<Response> actionAsync(RestHighLevelClient client, Request request, long timeoutMillis) {
+        final CompletableFuture<Response> result = actionAsync(client, request);
+        if (!result.isDone()) {
+            final ScheduledFuture<?> timeout = TIMEOUT_SCHEDULER.schedule(() -> {
+                if (!result.isDone()) {
+                    cancelRequest();
+                    result.completeExceptionally(new TimeoutException("Action failed due to timeout after " + timeoutMillis + " ms! " + request));
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+            result.whenComplete((response, e) -> timeout.cancel(false));
         }
+        return result;
+    }
 
-        return response;
+    /**
+     * Cancels the action and the underlying HTTP request.
+     */
+    public void cancel() {
+        future.cancel(false);
     }
 
     @Override
     public void onFailure(Exception e) {
-        this.exception = e;
-        countDownLatch.countDown();
+        future.completeExceptionally(e);
     }
 
     @Override
     public void onResponse(Response response) {
-        this.response = response;
-        countDownLatch.countDown();
+        future.complete(response);
+    }
+
+    private void cancelRequest() {
+        final Cancellable c = cancellable;
+        if (c != null) {
+            c.cancel();
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createTimeoutScheduler() {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "elasticsearch-action-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
     }
-}
\ No newline at end of file
+}
@@ -18,13 +18,14 @@ package de.picturesafe.search.elasticsearch.connect.asyncaction;
 
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Cancellable;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 
 public class RestClientBulkAction extends AbstractRestClientAsyncAction<BulkRequest, BulkResponse> {
 
     @Override
-    public void asyncAction(RestHighLevelClient client, BulkRequest bulkRequest) {
-        client.bulkAsync(bulkRequest, RequestOptions.DEFAULT, this);
+    public Cancellable asyncAction(RestHighLevelClient client, BulkRequest bulkRequest) {
+        return client.bulkAsync(bulkRequest, RequestOptions.DEFAULT, this);
     }
 }
@@ -18,13 +18,14 @@ package de.picturesafe.search.elasticsearch.connect.asyncaction;
 
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
+import org.elasticsearch.client.Cancellable;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 
 public class RestClientDeleteAction extends AbstractRestClientAsyncAction<DeleteRequest, DeleteResponse> {
 
     @Override
-    public void asyncAction(RestHighLevelClient client, DeleteRequest deleteRequest) {
-        client.deleteAsync(deleteRequest, RequestOptions.DEFAULT, this);
+    public Cancellable asyncAction(RestHighLevelClient client, DeleteRequest deleteRequest) {
+        return client.deleteAsync(deleteRequest, RequestOptions.DEFAULT, this);
     }
 }
@@ -16,6 +16,7 @@
 
 package de.picturesafe.search.elasticsearch.connect.asyncaction;
 
+import org.elasticsearch.client.Cancellable;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.index.reindex.BulkByScrollResponse;
@@ -24,7 +25,7 @@ import org.elasticsearch.index.reindex.DeleteByQueryRequest;
 public class RestClientDeleteByQueryAction extends AbstractRestClientAsyncAction<DeleteByQueryRequest, BulkByScrollResponse> {
 
     @Override
-    public void asyncAction(RestHighLevelClient client, DeleteByQueryRequest deleteRequest) {
-        client.deleteByQueryAsync(deleteRequest, RequestOptions.DEFAULT, this);
+    public Cancellable asyncAction(RestHighLevelClient client, DeleteByQueryRequest deleteRequest) {
+        return client.deleteByQueryAsync(deleteRequest, RequestOptions.DEFAULT, this);
     }
 }
@@ -18,13 +18,14 @@ package de.picturesafe.search.elasticsearch.connect.asyncaction;
 
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
+import org.elasticsearch.client.Cancellable;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 
 public class RestClientUpdateAction extends AbstractRestClientAsyncAction<UpdateRequest, UpdateResponse> {
 
     @Override
-    public void asyncAction(RestHighLevelClient client, UpdateRequest updateRequest) {
-        client.updateAsync(updateRequest, RequestOptions.DEFAULT, this);
+    public Cancellable asyncAction(RestHighLevelClient client, UpdateRequest updateRequest) {
+        return client.updateAsync(updateRequest, RequestOptions.DEFAULT, this);
     }
 }
@@ -16,6 +16,7 @@
 
 package de.picturesafe.search.elasticsearch.connect.asyncaction;
 
+import org.elasticsearch.client.Cancellable;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.index.reindex.BulkByScrollResponse;
@@ -24,7 +25,7 @@ import org.elasticsearch.index.reindex.UpdateByQueryRequest;
 public class RestClientUpdateByQueryAction extends AbstractRestClientAsyncAction<UpdateByQueryRequest, BulkByScrollResponse> {
 
     @Override
-    public void asyncAction(RestHighLevelClient client, UpdateByQueryRequest updateRequest) {
-        client.updateByQueryAsync(updateRequest, RequestOptions.DEFAULT, this);
+    public Cancellable asyncAction(RestHighLevelClient client, UpdateByQueryRequest updateRequest) {
+        return client.updateByQueryAsync(updateRequest, RequestOptions.DEFAULT, this);
     }
 }
@@ -52,6 +52,8 @@ public class QueryDto {
     private FieldResolverType fieldResolverType = FieldResolverType.DOC_VALUES;
     private AccountContext<?> accountContext;
     private boolean sortFilter;
+    private Long timeout;
+    private String continuationToken;
 
     public QueryDto(Expression expression, Locale locale) {
         this.expression = expression;
@@ -175,6 +177,24 @@ public class QueryDto {
         return this;
     }
 
+    public Long getTimeout() {
+        return timeout;
+    }
+
+    public QueryDto timeout(Long timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public QueryDto continuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+        return this;
+    }
+
     @Override
     public int hashCode() {
         return new HashCodeBuilder().append(expression).append(locale).toHashCode();
@@ -194,6 +214,7 @@ public class QueryDto {
                     .append(collapseOption, other.collapseOption)
                     .append(aggregations, other.aggregations)
                     .append(fieldsToResolve, other.fieldsToResolve)
+                    .append(continuationToken, other.continuationToken)
                     .isEquals();
         }
     }
@@ -209,6 +230,8 @@ public class QueryDto {
                 .append("aggregations", aggregations) //--
                 .append("fieldsToResolve", fieldsToResolve) //--
                 .append("fieldResolverType", fieldResolverType) //--
+                .append("timeout", timeout) //--
+                .append("continuationToken", continuationToken) //--
                 .toString();
     }
 
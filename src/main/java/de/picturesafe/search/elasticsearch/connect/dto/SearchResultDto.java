@@ -29,12 +29,25 @@ public class SearchResultDto {
     private final boolean exactCount;
     private final List<SearchHitDto> hits;
     private final List<FacetDto> facetDtoList;
+    private final String continuationToken;
+    private final boolean timedOut;
 
     public SearchResultDto(long totalHitCount, boolean exactCount, List<SearchHitDto> hits, List<FacetDto> facetDtoList) {
+        this(totalHitCount, exactCount, hits, facetDtoList, null);
+    }
+
+    public SearchResultDto(long totalHitCount, boolean exactCount, List<SearchHitDto> hits, List<FacetDto> facetDtoList, String continuationToken) {
+        this(totalHitCount, exactCount, hits, facetDtoList, continuationToken, false);
+    }
+
+    public SearchResultDto(long totalHitCount, boolean exactCount, List<SearchHitDto> hits, List<FacetDto> facetDtoList, String continuationToken,
+                           boolean timedOut) {
         this.totalHitCount = totalHitCount;
         this.exactCount = exactCount;
         this.hits = hits;
         this.facetDtoList = facetDtoList;
+        this.continuationToken = continuationToken;
+        this.timedOut = timedOut;
     }
 
     public long getTotalHitCount() {
@@ -53,6 +66,14 @@ public class SearchResultDto {
         return facetDtoList;
     }
 
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
     @Override
     public int hashCode() {
         return new HashCodeBuilder()
@@ -72,6 +93,8 @@ public class SearchResultDto {
                     .append(exactCount, that.exactCount)
                     .append(hits, that.hits)
                     .append(facetDtoList, that.facetDtoList)
+                    .append(continuationToken, that.continuationToken)
+                    .append(timedOut, that.timedOut)
                     .isEquals();
         }
     }
@@ -83,6 +106,8 @@ public class SearchResultDto {
                 .append("exactCount", exactCount) //--
                 .append("hits", hits) //--
                 .append("facetDtoList", facetDtoList) //--
+                .append("continuationToken", continuationToken) //--
+                .append("timedOut", timedOut) //--
                 .toString();
     }
 }
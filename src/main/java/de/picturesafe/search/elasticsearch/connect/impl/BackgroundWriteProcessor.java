@@ -0,0 +1,281 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.util.ElasticExceptionUtils;
+import org.apache.commons.lang3.Validate;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Write-behind processor for single document writes which do not have to be applied immediately.
+ * <p>
+ * Submitted requests are collected and sent as bulk requests by a {@link BulkIndexer} when the flush interval elapses or enough requests
+ * are pending. If further requests for the same index and document ID are submitted before the pending one has been sent, only the last
+ * request will be executed. Requests for documents with a write in flight are held back until the write has completed, so writes for the
+ * same document never overtake each other. Synchronous writes have to call {@link #awaitWrite(String, String)} before writing a document,
+ * so they are not overtaken by older background writes either.
+ * <p>
+ * If the number of pending requests reaches the limit, the submitting thread flushes the pending requests itself (backpressure).
+ * Rejected bulk requests are retried by the bulk indexer. Requests which could not be executed finally are passed to the
+ * {@link DeadLetterHandler}, they never stop the processor.
+ */
+public class BackgroundWriteProcessor implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BackgroundWriteProcessor.class);
+
+    private final Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor;
+    private final DeadLetterHandler deadLetterHandler;
+    private final BulkIndexer bulkIndexer;
+    private final int bulkSize;
+    private final int maxPending;
+
+    private final Map<String, DocWriteRequest<?>> pending = new LinkedHashMap<>();
+    private final Map<String, CompletableFuture<Void>> pendingWrites = new HashMap<>();
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor scheduler;
+    private volatile boolean closed;
+
+    /**
+     * Constructor
+     *
+     * @param bulkExecutor          Executes a bulk request, the returned future completes with <code>null</code> if the request has been
+     *                              handled otherwise
+     * @param bulkIndexerFactory    Creates the bulk indexer for the given bulk executor and result listener
+     * @param deadLetterHandler     Handler for requests which could not be executed, may be null
+     * @param bulkSize              Number of pending requests to trigger a flush
+     * @param maxPending            Maximum number of pending requests before the submitting thread has to flush
+     * @param flushIntervalMillis   Interval to flush pending requests in milliseconds
+     */
+    public BackgroundWriteProcessor(Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor, BulkIndexerFactory bulkIndexerFactory,
+                                    DeadLetterHandler deadLetterHandler, int bulkSize, int maxPending, long flushIntervalMillis) {
+        Validate.notNull(bulkExecutor, "Parameter 'bulkExecutor' may not be null!");
+        Validate.notNull(bulkIndexerFactory, "Parameter 'bulkIndexerFactory' may not be null!");
+        Validate.isTrue(bulkSize > 0, "Parameter 'bulkSize' must be > 0!");
+        Validate.isTrue(maxPending >= bulkSize, "Parameter 'maxPending' must be >= 'bulkSize'!");
+        Validate.isTrue(flushIntervalMillis > 0, "Parameter 'flushIntervalMillis' must be > 0!");
+        this.bulkExecutor = bulkExecutor;
+        this.deadLetterHandler = deadLetterHandler;
+        this.bulkIndexer = bulkIndexerFactory.create(this::execute)
+                .requestListener((request, success) -> completed(request))
+                .bulkFailureHandler(this::handleFailure);
+        this.bulkSize = bulkSize;
+        this.maxPending = maxPending;
+
+        scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "elasticsearch-background-writes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushSafely, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Submits a write request. A pending request for the same index and document ID will be replaced.
+     *
+     * @param request Write request
+     * @return Future which will be completed when the last submitted request for the document has been executed or passed to the
+     *         {@link DeadLetterHandler}
+     */
+    public CompletableFuture<Void> submit(DocWriteRequest<?> request) {
+        Validate.validState(!closed, "Background write processor has already been closed!");
+
+        final String key = key(request);
+        final int size;
+        final CompletableFuture<Void> write;
+        synchronized (pending) {
+            pending.put(key, request);
+            write = pendingWrites.computeIfAbsent(key, k -> new CompletableFuture<>());
+            size = pending.size();
+        }
+        if (size >= maxPending) {
+            LOG.debug("{} background writes pending, flushing in submitting thread.", size);
+            flush();
+        } else if (size == bulkSize) {
+            scheduler.execute(this::flushSafely);
+        }
+        return write.thenApply(Function.identity());
+    }
+
+    /**
+     * Sends all pending requests whose documents have no write in flight without waiting for the responses.
+     */
+    public void flush() {
+        final List<DocWriteRequest<?>> requests = new ArrayList<>();
+        synchronized (pending) {
+            final Iterator<DocWriteRequest<?>> it = pending.values().iterator();
+            while (it.hasNext()) {
+                final DocWriteRequest<?> request = it.next();
+                final String key = key(request);
+                if (inFlight.putIfAbsent(key, pendingWrites.get(key)) == null) {
+                    requests.add(request);
+                    pendingWrites.remove(key);
+                    it.remove();
+                }
+            }
+        }
+
+        if (!requests.isEmpty()) {
+            LOG.debug("Flushing {} background writes.", requests.size());
+            synchronized (bulkIndexer) {
+                requests.forEach(bulkIndexer::add);
+                bulkIndexer.flush();
+            }
+        }
+    }
+
+    /**
+     * Waits until a pending or in flight request for a document has been executed. Pending requests for the document are sent immediately.
+     *
+     * @param index Index of the document
+     * @param id    ID of the document
+     */
+    public void awaitWrite(String index, String id) {
+        final String key = key(index, id);
+        while (true) {
+            final boolean isPending;
+            synchronized (pending) {
+                isPending = pending.containsKey(key);
+            }
+            final CompletableFuture<Void> write = inFlight.get(key);
+            if (write != null) {
+                write.join();
+            } else if (isPending) {
+                flush();
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends all pending requests and waits until they have been executed.
+     */
+    public void flushAndWait() {
+        do {
+            flush();
+            bulkIndexer.awaitCompletion();
+        } while (getPendingCount() > 0);
+    }
+
+    /**
+     * Gets the number of pending requests.
+     *
+     * @return Number of pending requests
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Stops the processor after sending all pending requests and waiting for their completion.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        scheduler.shutdown();
+        try {
+            flushAndWait();
+        } finally {
+            bulkIndexer.close();
+        }
+    }
+
+    private CompletableFuture<BulkResponse> execute(BulkRequest bulkRequest) {
+        // Failures are passed on, so the bulk indexer can retry rejected bulk requests before they are handled as final failures
+        return bulkExecutor.apply(bulkRequest).thenApply(response -> {
+            if (response == null) {
+                bulkRequest.requests().forEach(this::completed);
+            }
+            return response;
+        });
+    }
+
+    private void handleFailure(BulkRequest bulkRequest, Throwable t) {
+        LOG.error("Failed to execute background writes!", t);
+        final Exception cause = ElasticExceptionUtils.unwrap(t);
+        for (DocWriteRequest<?> request : bulkRequest.requests()) {
+            completed(request);
+            if (deadLetterHandler != null) {
+                try {
+                    deadLetterHandler.handle(request, new BulkItemResponse.Failure(request.index(), request.type(), request.id(), cause));
+                } catch (Exception e) {
+                    LOG.error("Dead letter handler failed on request: " + request, e);
+                }
+            }
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            LOG.error("Failed to flush background writes!", e);
+        }
+    }
+
+    private void completed(DocWriteRequest<?> request) {
+        final CompletableFuture<Void> write = inFlight.remove(key(request));
+        if (write != null) {
+            write.complete(null);
+        }
+    }
+
+    private static String key(DocWriteRequest<?> request) {
+        return key(request.index(), request.id());
+    }
+
+    private static String key(String index, String id) {
+        return index + '/' + id;
+    }
+
+    /**
+     * Factory of the bulk indexer executing the background writes.
+     */
+    public interface BulkIndexerFactory {
+
+        /**
+         * Creates the bulk indexer.
+         *
+         * @param bulkExecutor      Executes a bulk request
+         * @return                  Bulk indexer
+         */
+        BulkIndexer create(Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor);
+    }
+}
@@ -0,0 +1,490 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
+import org.apache.commons.lang3.Validate;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Collects write requests into bulk requests and executes them with a limited number of concurrent requests in flight.
+ * <p>
+ * A bulk request will be executed as soon as one of the following limits is reached:
+ * <ul>
+ *     <li>number of requests (bulk size)</li>
+ *     <li>estimated size in bytes (see {@link BulkRequest#estimatedSizeInBytes()})</li>
+ *     <li>linger time since the first request has been added to the bulk request</li>
+ * </ul>
+ * If a target latency is set, the bulk size adapts to the observed bulk response times: it is halved if a response took longer than the target
+ * latency and grows again up to the configured bulk size if responses are fast.
+ * <p>
+ * Requests rejected by Elasticsearch with status {@link RestStatus#TOO_MANY_REQUESTS} will be resubmitted with exponential backoff and jitter
+ * until the maximum number of retries has been reached. This applies to rejected items as well as to bulk requests rejected as a whole.
+ * Requests which finally failed will be passed to the {@link DeadLetterHandler}.
+ * <p>
+ * If the maximum number of concurrent requests is reached, adding further requests blocks until a bulk request has completed (backpressure),
+ * so at most <code>concurrentRequests + 1</code> bulk requests are held in memory at the same time.
+ * <p>
+ * The result listener may be called concurrently by the threads completing the bulk requests.
+ * If a bulk request fails as a whole, no further requests will be executed and the failure will be thrown by {@link #add(DocWriteRequest)}
+ * or {@link #close()}, unless a bulk failure handler has been set.
+ */
+public class BulkIndexer implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkIndexer.class);
+
+    private static final int MIN_ADAPTIVE_BULK_SIZE = 10;
+    // Separate schedulers: flushing lingering requests may block while retries are pending
+    private static final ScheduledThreadPoolExecutor LINGER_SCHEDULER = createScheduler("elasticsearch-bulk-linger");
+    private static final ScheduledThreadPoolExecutor RETRY_SCHEDULER = createScheduler("elasticsearch-bulk-retry");
+
+    private final Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor;
+    private final int bulkSize;
+    private final int concurrentRequests;
+    private final WriteRequest.RefreshPolicy refreshPolicy;
+    private final BiConsumer<String, Boolean> resultListener;
+    private BiConsumer<DocWriteRequest<?>, Boolean> requestListener;
+
+    private long maxBytes;
+    private long lingerMillis;
+    private long targetLatencyMillis;
+    private int maxRetries;
+    private long retryDelayMillis = 100;
+    private DeadLetterHandler deadLetterHandler;
+    private BiConsumer<BulkRequest, Throwable> bulkFailureHandler;
+    private boolean failOnItemFailure;
+
+    private final Semaphore semaphore;
+    // Explicit lock instead of synchronized methods, so the shared linger scheduler can try to lock without blocking
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile int currentBulkSize;
+    private BulkRequest bulkRequest;
+    private boolean closed;
+
+    /**
+     * Constructor
+     *
+     * @param bulkExecutor          Executes a bulk request asynchronously without blocking the calling thread (retries are triggered by a shared
+     *                              scheduler thread), the future may complete with <code>null</code> if the request was handled externally
+     * @param bulkSize              Maximum number of requests per bulk request
+     * @param concurrentRequests    Maximum number of bulk requests in flight
+     * @param refreshPolicy         Refresh policy of the bulk requests
+     * @param resultListener        Listener receiving the result per document (id, success), may be null
+     */
+    public BulkIndexer(Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor, int bulkSize, int concurrentRequests,
+                       WriteRequest.RefreshPolicy refreshPolicy, BiConsumer<String, Boolean> resultListener) {
+        Validate.notNull(bulkExecutor, "Parameter 'bulkExecutor' may not be null!");
+        Validate.isTrue(bulkSize > 0, "Parameter 'bulkSize' must be > 0!");
+        Validate.isTrue(concurrentRequests > 0, "Parameter 'concurrentRequests' must be > 0!");
+        this.bulkExecutor = bulkExecutor;
+        this.bulkSize = bulkSize;
+        this.concurrentRequests = concurrentRequests;
+        this.refreshPolicy = refreshPolicy;
+        this.resultListener = resultListener;
+        this.semaphore = new Semaphore(concurrentRequests);
+        this.currentBulkSize = bulkSize;
+    }
+
+    /**
+     * Sets the maximum estimated size of a bulk request in bytes.
+     *
+     * @param maxBytes  Maximum size in bytes (0 = unlimited)
+     * @return          This bulk indexer
+     */
+    public BulkIndexer maxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * Sets the maximum time a request may wait in a bulk request which has not reached its size limits.
+     *
+     * @param lingerMillis  Maximum linger time in milliseconds (0 = wait until the bulk request is full or flushed)
+     * @return              This bulk indexer
+     */
+    public BulkIndexer lingerMillis(long lingerMillis) {
+        this.lingerMillis = lingerMillis;
+        return this;
+    }
+
+    /**
+     * Sets the target latency of bulk requests to adapt the bulk size to.
+     *
+     * @param targetLatencyMillis   Target latency in milliseconds (0 = fixed bulk size)
+     * @return                      This bulk indexer
+     */
+    public BulkIndexer targetLatencyMillis(long targetLatencyMillis) {
+        this.targetLatencyMillis = targetLatencyMillis;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of retries of requests rejected with status {@link RestStatus#TOO_MANY_REQUESTS}.
+     *
+     * @param maxRetries    Maximum number of retries (0 = no retries)
+     * @return              This bulk indexer
+     */
+    public BulkIndexer maxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * Sets the initial delay before retrying rejected requests, the delay doubles with every retry.
+     *
+     * @param retryDelayMillis  Initial retry delay in milliseconds
+     * @return                  This bulk indexer
+     */
+    public BulkIndexer retryDelayMillis(long retryDelayMillis) {
+        this.retryDelayMillis = retryDelayMillis;
+        return this;
+    }
+
+    /**
+     * Sets the handler for requests which finally failed.
+     *
+     * @param deadLetterHandler {@link DeadLetterHandler}, may be null
+     * @return                  This bulk indexer
+     */
+    public BulkIndexer deadLetterHandler(DeadLetterHandler deadLetterHandler) {
+        this.deadLetterHandler = deadLetterHandler;
+        return this;
+    }
+
+    /**
+     * Sets a listener receiving the final result per request. Unlike the result listener it identifies requests for the same document ID in
+     * different indexes.
+     *
+     * @param requestListener   Listener receiving the result per request (request, success), may be null
+     * @return                  This bulk indexer
+     */
+    public BulkIndexer requestListener(BiConsumer<DocWriteRequest<?>, Boolean> requestListener) {
+        this.requestListener = requestListener;
+        return this;
+    }
+
+    /**
+     * Sets a handler for bulk requests which finally failed as a whole, i.e. which were not rejected or whose retries are exhausted.
+     * If a handler is set, such failures do not stop the bulk indexer.
+     *
+     * @param bulkFailureHandler    Handler receiving the failed bulk request and its failure, may be null
+     * @return                      This bulk indexer
+     */
+    public BulkIndexer bulkFailureHandler(BiConsumer<BulkRequest, Throwable> bulkFailureHandler) {
+        this.bulkFailureHandler = bulkFailureHandler;
+        return this;
+    }
+
+    /**
+     * Sets if failed requests should stop the bulk indexer like a failure of a whole bulk request.
+     *
+     * @param failOnItemFailure TRUE if failed requests should stop the bulk indexer
+     * @return                  This bulk indexer
+     */
+    public BulkIndexer failOnItemFailure(boolean failOnItemFailure) {
+        this.failOnItemFailure = failOnItemFailure;
+        return this;
+    }
+
+    /**
+     * Gets the current bulk size, which may differ from the configured bulk size if a target latency is set.
+     *
+     * @return Current bulk size
+     */
+    public int getCurrentBulkSize() {
+        return currentBulkSize;
+    }
+
+    /**
+     * Adds a write request. The current bulk request will be executed if one of its limits has been reached.
+     *
+     * @param request Write request to add
+     */
+    public void add(DocWriteRequest<?> request) {
+        lock.lock();
+        try {
+            Validate.validState(!closed, "Bulk indexer has already been closed!");
+            checkFailure();
+
+            if (bulkRequest != null && maxBytes > 0
+                    && bulkRequest.estimatedSizeInBytes() + new BulkRequest().add(request).estimatedSizeInBytes() > maxBytes) {
+                flush();
+            }
+            if (bulkRequest == null) {
+                bulkRequest = new BulkRequest().setRefreshPolicy(refreshPolicy);
+                if (lingerMillis > 0) {
+                    final BulkRequest lingering = bulkRequest;
+                    LINGER_SCHEDULER.schedule(() -> flushLingering(lingering), lingerMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            bulkRequest.add(request);
+            if (bulkRequest.numberOfActions() >= currentBulkSize || (maxBytes > 0 && bulkRequest.estimatedSizeInBytes() >= maxBytes)) {
+                flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Executes the current bulk request without waiting for the response.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            if (bulkRequest == null || bulkRequest.numberOfActions() == 0) {
+                return;
+            }
+
+            final BulkRequest request = bulkRequest;
+            bulkRequest = null;
+            acquire(1);
+            if (failure.get() != null) {
+                semaphore.release();
+                checkFailure();
+            }
+
+            execute(request, 0);
+            checkFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Executes the current bulk request and waits until all bulk requests in flight have completed without closing the bulk indexer.
+     */
+    public void awaitCompletion() {
+        lock.lock();
+        try {
+            flush();
+            acquire(concurrentRequests);
+            semaphore.release(concurrentRequests);
+            checkFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Executes the current bulk request and waits until all bulk requests in flight have completed.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            try {
+                flush();
+            } finally {
+                closed = true;
+                acquire(concurrentRequests);
+                semaphore.release(concurrentRequests);
+            }
+            checkFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Executes a bulk request holding a permit of the semaphore, the permit will be released when the request and all of its retries have completed.
+     */
+    private void execute(BulkRequest request, int retry) {
+        LOG.debug("Executing bulk request with {} actions ({} bytes, retry {}).", request.numberOfActions(), request.estimatedSizeInBytes(), retry);
+        final long start = System.currentTimeMillis();
+        CompletableFuture<BulkResponse> future;
+        try {
+            future = bulkExecutor.apply(request);
+        } catch (RuntimeException e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((response, e) -> {
+            boolean retrying = false;
+            try {
+                BulkRequest retryRequest = null;
+                if (e != null) {
+                    if (retry < maxRetries && isRejected(e)) {
+                        retryRequest = request;
+                    } else if (bulkFailureHandler != null) {
+                        bulkFailureHandler.accept(request, e);
+                    } else {
+                        failure.compareAndSet(null, e);
+                    }
+                } else if (response != null) {
+                    LOG.debug("Bulk response: {}", response);
+                    adaptBulkSize(request.numberOfActions(), System.currentTimeMillis() - start);
+                    retryRequest = handleResponse(request, response, retry);
+                }
+                if (retryRequest != null) {
+                    final long delay = retryDelay(retry);
+                    final BulkRequest rejected = retryRequest;
+                    LOG.debug("Retrying {} rejected requests in {} ms.", rejected.numberOfActions(), delay);
+                    RETRY_SCHEDULER.schedule(() -> execute(rejected, retry + 1), delay, TimeUnit.MILLISECONDS);
+                    retrying = true;
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            } finally {
+                if (!retrying) {
+                    semaphore.release();
+                }
+            }
+        });
+    }
+
+    private BulkRequest handleResponse(BulkRequest request, BulkResponse response, int retry) {
+        BulkRequest retryRequest = null;
+        StringBuilder failureMessage = null;
+        for (final BulkItemResponse itemResponse : response) {
+            final DocWriteRequest<?> itemRequest = request.requests().get(itemResponse.getItemId());
+            if (itemResponse.isFailed() && itemResponse.status() == RestStatus.TOO_MANY_REQUESTS && retry < maxRetries) {
+                if (retryRequest == null) {
+                    retryRequest = new BulkRequest().setRefreshPolicy(request.getRefreshPolicy());
+                }
+                retryRequest.add(itemRequest);
+                continue;
+            }
+
+            if (itemResponse.isFailed()) {
+                if (deadLetterHandler != null) {
+                    deadLetterHandler.handle(itemRequest, itemResponse.getFailure());
+                }
+                if (failOnItemFailure) {
+                    failureMessage = (failureMessage == null) ? new StringBuilder("Bulk request failed:") : failureMessage;
+                    failureMessage.append("\n[").append(itemResponse.getId()).append("]: ").append(itemResponse.getFailureMessage());
+                }
+            }
+            if (resultListener != null) {
+                resultListener.accept(itemResponse.getId(), !itemResponse.isFailed());
+            }
+            if (requestListener != null) {
+                requestListener.accept(itemRequest, !itemResponse.isFailed());
+            }
+        }
+        if (failureMessage != null) {
+            failure.compareAndSet(null, new ElasticsearchException(failureMessage.toString()));
+        }
+        return retryRequest;
+    }
+
+    private boolean isRejected(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = (cause.getCause() != cause) ? cause.getCause() : null) {
+            if (ExceptionsHelper.status(cause) == RestStatus.TOO_MANY_REQUESTS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long retryDelay(int retry) {
+        final long delay = retryDelayMillis << Math.min(retry, 20);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    protected void adaptBulkSize(int numberOfActions, long latencyMillis) {
+        if (targetLatencyMillis <= 0) {
+            return;
+        }
+
+        final int size = currentBulkSize;
+        if (latencyMillis > targetLatencyMillis) {
+            currentBulkSize = Math.max(Math.min(MIN_ADAPTIVE_BULK_SIZE, bulkSize), size / 2);
+        } else if (latencyMillis < targetLatencyMillis / 2 && numberOfActions >= size) {
+            currentBulkSize = Math.min(bulkSize, size + Math.max(1, size / 4));
+        }
+        if (size != currentBulkSize) {
+            LOG.debug("Adapted bulk size from {} to {} (latency {} ms).", size, currentBulkSize, latencyMillis);
+        }
+    }
+
+    private void flushLingering(BulkRequest lingering) {
+        // Never block the shared scheduler: if the bulk indexer is locked, e.g. by a thread waiting for a permit, try again later
+        if (!lock.tryLock()) {
+            LINGER_SCHEDULER.schedule(() -> flushLingering(lingering), lingerMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        try {
+            if (bulkRequest != lingering || closed) {
+                return;
+            }
+            if (semaphore.availablePermits() == 0) {
+                // Permits are only acquired while the lock is held, so flushing would block the scheduler until a request has completed
+                LINGER_SCHEDULER.schedule(() -> flushLingering(lingering), lingerMillis, TimeUnit.MILLISECONDS);
+            } else {
+                try {
+                    flush();
+                } catch (Exception e) {
+                    LOG.warn("Failed to flush lingering bulk request!", e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire(int permits) {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ElasticsearchException("Interrupted while waiting for bulk requests!", e);
+        }
+    }
+
+    private void checkFailure() {
+        final Throwable t = failure.get();
+        if (t != null) {
+            if (t instanceof ElasticsearchException) {
+                throw (ElasticsearchException) t;
+            }
+            throw new ElasticsearchException("Bulk request failed!", t);
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler(String threadName) {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
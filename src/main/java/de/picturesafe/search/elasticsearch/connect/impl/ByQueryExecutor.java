@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientDeleteByQueryAction;
+import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientUpdateByQueryAction;
+import de.picturesafe.search.elasticsearch.model.ByQueryStatus;
+import de.picturesafe.search.elasticsearch.model.ByQueryTask;
+import de.picturesafe.search.parameter.ByQueryParameter;
+import org.apache.commons.lang3.Validate;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.reindex.AbstractBulkByScrollRequest;
+import org.elasticsearch.index.reindex.BulkByScrollResponse;
+import org.elasticsearch.index.reindex.DeleteByQueryRequest;
+import org.elasticsearch.index.reindex.UpdateByQueryRequest;
+import org.elasticsearch.script.Script;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes update by query and delete by query requests, either blocking until completion or submitted as Elasticsearch task.
+ */
+public class ByQueryExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ByQueryExecutor.class);
+
+    private final RestHighLevelClient client;
+    private final WriteRequestHandler writeRequestHandler;
+    private final long timeout;
+
+    /**
+     * Constructor
+     *
+     * @param client                Elasticsearch client
+     * @param writeRequestHandler   Optional handler for requests to be processed externally, may be null
+     * @param timeout               Timeout in milliseconds for blocking requests
+     */
+    public ByQueryExecutor(RestHighLevelClient client, WriteRequestHandler writeRequestHandler, long timeout) {
+        this.client = client;
+        this.writeRequestHandler = writeRequestHandler;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Updates all documents matching a query and waits for completion.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param query         Query matching the documents to update
+     * @param script        Script modifying the documents
+     * @param parameter     Parameters of the operation, may be null
+     * @param refresh       TRUE if the index should be refreshed after the operation
+     * @return              Status of the completed operation or null if the request has been handled externally
+     */
+    public ByQueryStatus updateByQuery(String indexAlias, QueryBuilder query, Script script, ByQueryParameter parameter, boolean refresh) {
+        return execute(updateByQueryRequest(indexAlias, query, script, parameter, refresh));
+    }
+
+    /**
+     * Submits the update of all documents matching a query as Elasticsearch task.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param query         Query matching the documents to update
+     * @param script        Script modifying the documents
+     * @param parameter     Parameters of the operation, may be null
+     * @param refresh       TRUE if the index should be refreshed after the operation
+     * @return              Handle of the task or null if the request has been handled externally
+     */
+    public ByQueryTask submitUpdateByQuery(String indexAlias, QueryBuilder query, Script script, ByQueryParameter parameter, boolean refresh) {
+        return submit(updateByQueryRequest(indexAlias, query, script, parameter, refresh));
+    }
+
+    /**
+     * Deletes all documents matching a query and waits for completion.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param query         Query matching the documents to delete
+     * @param parameter     Parameters of the operation, may be null
+     * @param refresh       TRUE if the index should be refreshed after the operation
+     * @return              Status of the completed operation or null if the request has been handled externally
+     */
+    public ByQueryStatus deleteByQuery(String indexAlias, QueryBuilder query, ByQueryParameter parameter, boolean refresh) {
+        return execute(prepare(new DeleteByQueryRequest(indexAlias), query, parameter, refresh));
+    }
+
+    /**
+     * Submits the deletion of all documents matching a query as Elasticsearch task.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param query         Query matching the documents to delete
+     * @param parameter     Parameters of the operation, may be null
+     * @param refresh       TRUE if the index should be refreshed after the operation
+     * @return              Handle of the task or null if the request has been handled externally
+     */
+    public ByQueryTask submitDeleteByQuery(String indexAlias, QueryBuilder query, ByQueryParameter parameter, boolean refresh) {
+        return submit(prepare(new DeleteByQueryRequest(indexAlias), query, parameter, refresh));
+    }
+
+    protected UpdateByQueryRequest updateByQueryRequest(String indexAlias, QueryBuilder query, Script script, ByQueryParameter parameter,
+                                                        boolean refresh) {
+        Validate.notNull(script, "Parameter 'script' may not be null.");
+        return prepare(new UpdateByQueryRequest(indexAlias), query, parameter, refresh).setScript(script);
+    }
+
+    protected <R extends AbstractBulkByScrollRequest<R>> R prepare(R request, QueryBuilder query, ByQueryParameter parameter, boolean refresh) {
+        Validate.notNull(query, "Parameter 'query' may not be null.");
+        final ByQueryParameter byQueryParameter = (parameter != null) ? parameter : ByQueryParameter.DEFAULT;
+
+        request.getSearchRequest().source().query(query);
+        request.setRefresh(refresh);
+        request.setSlices(byQueryParameter.getSlices());
+        if (byQueryParameter.getRequestsPerSecond() != null) {
+            request.setRequestsPerSecond(byQueryParameter.getRequestsPerSecond());
+        }
+        request.setAbortOnVersionConflict(!byQueryParameter.isProceedOnConflicts());
+        return request;
+    }
+
+    protected ByQueryStatus execute(AbstractBulkByScrollRequest<?> request) {
+        if (handleRequestExternally(request)) {
+            return null;
+        }
+
+        LOG.debug("By query request: {}", request);
+        final BulkByScrollResponse response = (request instanceof DeleteByQueryRequest)
+                ? new RestClientDeleteByQueryAction().action(client, (DeleteByQueryRequest) request, timeout)
+                : new RestClientUpdateByQueryAction().action(client, (UpdateByQueryRequest) request, timeout);
+        LOG.debug("By query response: {}", response);
+        return ByQueryTaskImpl.toStatus(response);
+    }
+
+    protected ByQueryTask submit(AbstractBulkByScrollRequest<?> request) {
+        if (handleRequestExternally(request)) {
+            return null;
+        }
+
+        LOG.debug("Submitting by query request: {}", request);
+        return ByQueryTaskImpl.submit(client, request);
+    }
+
+    protected boolean handleRequestExternally(AbstractBulkByScrollRequest<?> request) {
+        return writeRequestHandler != null && writeRequestHandler.handle(request);
+    }
+}
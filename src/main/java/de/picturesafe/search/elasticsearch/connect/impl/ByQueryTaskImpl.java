@@ -0,0 +1,317 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
+import de.picturesafe.search.elasticsearch.model.ByQueryStatus;
+import de.picturesafe.search.elasticsearch.model.ByQueryTask;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.RethrottleRequest;
+import org.elasticsearch.client.tasks.CancelTasksRequest;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.xcontent.ToXContentObject;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.reindex.AbstractBulkByScrollRequest;
+import org.elasticsearch.index.reindex.BulkByScrollResponse;
+import org.elasticsearch.index.reindex.DeleteByQueryRequest;
+import org.elasticsearch.index.reindex.UpdateByQueryRequest;
+import org.elasticsearch.tasks.TaskId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Handle of an update by query or delete by query task running in Elasticsearch.
+ */
+public class ByQueryTaskImpl implements ByQueryTask {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ByQueryTaskImpl.class);
+
+    private static final long POLL_INTERVAL_MILLIS = 1000;
+    private static final ScheduledThreadPoolExecutor POLL_SCHEDULER = createScheduler();
+
+    private final RestHighLevelClient client;
+    private final String taskId;
+    private final boolean deleteByQuery;
+    private CompletableFuture<ByQueryStatus> completion;
+
+    /**
+     * Constructor
+     *
+     * @param client        Elasticsearch client
+     * @param taskId        ID of the task (node:id)
+     * @param deleteByQuery TRUE if the task is a delete by query task, FALSE if it is an update by query task
+     */
+    public ByQueryTaskImpl(RestHighLevelClient client, String taskId, boolean deleteByQuery) {
+        Validate.notNull(client, "Parameter 'client' may not be null!");
+        Validate.notEmpty(taskId, "Parameter 'taskId' may not be null or empty!");
+        this.client = client;
+        this.taskId = taskId;
+        this.deleteByQuery = deleteByQuery;
+    }
+
+    /**
+     * Submits an update by query or delete by query request as task without waiting for its completion.
+     *
+     * @param client    Elasticsearch client
+     * @param request   {@link UpdateByQueryRequest} or {@link DeleteByQueryRequest}
+     * @return          Handle of the task
+     */
+    public static ByQueryTaskImpl submit(RestHighLevelClient client, AbstractBulkByScrollRequest<?> request) {
+        final boolean deleteByQuery = request instanceof DeleteByQueryRequest;
+        Validate.isTrue(deleteByQuery || request instanceof UpdateByQueryRequest, "Unsupported request type: " + request.getClass().getName());
+
+        final Request taskRequest = submitRequest(request);
+        try {
+            final Map<String, Object> response = performRequest(client, taskRequest);
+            final String taskId = (String) response.get("task");
+            LOG.debug("Submitted {} task: {}", deleteByQuery ? "delete by query" : "update by query", taskId);
+            return new ByQueryTaskImpl(client, taskId, deleteByQuery);
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to submit task: " + taskRequest, e);
+        }
+    }
+
+    static Request submitRequest(AbstractBulkByScrollRequest<?> request) {
+        final String endpoint = (request instanceof DeleteByQueryRequest) ? "_delete_by_query" : "_update_by_query";
+        final Request taskRequest = new Request("POST", "/" + StringUtils.join(request.getSearchRequest().indices(), ',') + "/" + endpoint);
+        taskRequest.addParameter("wait_for_completion", "false");
+        taskRequest.addParameter("refresh", Boolean.toString(request.isRefresh()));
+        if (!request.isAbortOnVersionConflict()) {
+            taskRequest.addParameter("conflicts", "proceed");
+        }
+        taskRequest.addParameter("slices", (request.getSlices() == AbstractBulkByScrollRequest.AUTO_SLICES)
+                ? AbstractBulkByScrollRequest.AUTO_SLICES_VALUE : Integer.toString(request.getSlices()));
+        taskRequest.addParameter("requests_per_second", Float.isInfinite(request.getRequestsPerSecond())
+                ? "-1" : Float.toString(request.getRequestsPerSecond()));
+        taskRequest.setJsonEntity(Strings.toString((ToXContentObject) request));
+        return taskRequest;
+    }
+
+    @Override
+    public String getTaskId() {
+        return taskId;
+    }
+
+    @Override
+    public ByQueryStatus getStatus() {
+        try {
+            return toStatus(performRequest(client, statusRequest()));
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to get status of task " + taskId, e);
+        }
+    }
+
+    @Override
+    public ByQueryStatus awaitCompletion(long timeoutMillis) {
+        final long end = System.currentTimeMillis() + timeoutMillis;
+        ByQueryStatus status = getStatus();
+        try {
+            while (!status.isCompleted() && System.currentTimeMillis() < end) {
+                Thread.sleep(Math.max(1, Math.min(POLL_INTERVAL_MILLIS, end - System.currentTimeMillis())));
+                status = getStatus();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ElasticsearchException("Waiting for completion of task " + taskId + " was interrupted!", e);
+        }
+        return status;
+    }
+
+    @Override
+    public synchronized CompletableFuture<ByQueryStatus> completion() {
+        if (completion == null) {
+            completion = new CompletableFuture<>();
+            pollCompletion(completion);
+        }
+        return completion.thenApply(Function.identity());
+    }
+
+    @Override
+    public void cancel() {
+        try {
+            client.tasks().cancel(new CancelTasksRequest.Builder().withTaskId(new org.elasticsearch.client.tasks.TaskId(taskId)).build(),
+                    RequestOptions.DEFAULT);
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to cancel task " + taskId, e);
+        }
+    }
+
+    @Override
+    public void rethrottle(Float requestsPerSecond) {
+        Validate.isTrue(requestsPerSecond == null || requestsPerSecond > 0, "Parameter 'requestsPerSecond' must be > 0!");
+        final RethrottleRequest request = (requestsPerSecond != null)
+                ? new RethrottleRequest(new TaskId(taskId), requestsPerSecond) : new RethrottleRequest(new TaskId(taskId));
+        try {
+            if (deleteByQuery) {
+                client.deleteByQueryRethrottle(request, RequestOptions.DEFAULT);
+            } else {
+                client.updateByQueryRethrottle(request, RequestOptions.DEFAULT);
+            }
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to rethrottle task " + taskId, e);
+        }
+    }
+
+    /**
+     * Converts the response of a by query request into a status.
+     *
+     * @param response Response of a by query request
+     * @return Status
+     */
+    public static ByQueryStatus toStatus(BulkByScrollResponse response) {
+        final List<String> failures = new ArrayList<>();
+        response.getBulkFailures().forEach(failure -> failures.add("[" + failure.getId() + "]: " + failure.getMessage()));
+        response.getSearchFailures().forEach(failure -> failures.add(failure.getReason().getMessage()));
+        if (response.isTimedOut()) {
+            failures.add("Timed out");
+        }
+        return ByQueryStatus.builder() //--
+                .completed(true) //--
+                .total(response.getTotal()) //--
+                .updated(response.getUpdated()) //--
+                .deleted(response.getDeleted()) //--
+                .versionConflicts(response.getVersionConflicts()) //--
+                .noops(response.getNoops()) //--
+                .reasonCancelled(response.getReasonCancelled()) //--
+                .failures(failures) //--
+                .build();
+    }
+
+    /**
+     * Converts the response of the get task API into a status.
+     *
+     * @param taskResponse Response of the get task API
+     * @return Status
+     */
+    @SuppressWarnings("unchecked")
+    static ByQueryStatus toStatus(Map<String, Object> taskResponse) {
+        final boolean completed = Boolean.TRUE.equals(taskResponse.get("completed"));
+        final Map<String, Object> response = (Map<String, Object>) taskResponse.get("response");
+        final Map<String, Object> task = (Map<String, Object>) taskResponse.getOrDefault("task", Collections.emptyMap());
+        final Map<String, Object> counts = (response != null)
+                ? response : (Map<String, Object>) task.getOrDefault("status", Collections.emptyMap());
+
+        final List<String> failures = new ArrayList<>();
+        if (response != null && response.get("failures") instanceof List) {
+            for (Object failure : (List<Object>) response.get("failures")) {
+                failures.add(failureMessage((Map<String, Object>) failure));
+            }
+        }
+        if (taskResponse.get("error") instanceof Map) {
+            failures.add(reason((Map<String, Object>) taskResponse.get("error")));
+        }
+
+        final Object canceled = counts.get("canceled");
+        return ByQueryStatus.builder() //--
+                .completed(completed) //--
+                .total(count(counts, "total")) //--
+                .updated(count(counts, "updated")) //--
+                .deleted(count(counts, "deleted")) //--
+                .versionConflicts(count(counts, "version_conflicts")) //--
+                .noops(count(counts, "noops")) //--
+                .reasonCancelled((canceled != null) ? canceled.toString() : null) //--
+                .failures(failures) //--
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String failureMessage(Map<String, Object> failure) {
+        final String reason = (failure.get("cause") instanceof Map) ? reason((Map<String, Object>) failure.get("cause")) : failure.toString();
+        return (failure.get("id") != null) ? "[" + failure.get("id") + "]: " + reason : reason;
+    }
+
+    private static String reason(Map<String, Object> error) {
+        return error.get("type") + ": " + error.get("reason");
+    }
+
+    private static long count(Map<String, Object> counts, String name) {
+        final Object value = counts.get(name);
+        return (value instanceof Number) ? ((Number) value).longValue() : 0;
+    }
+
+    private void pollCompletion(CompletableFuture<ByQueryStatus> future) {
+        client.getLowLevelClient().performRequestAsync(statusRequest(), new ResponseListener() {
+            @Override
+            public void onSuccess(Response response) {
+                final ByQueryStatus status;
+                try {
+                    status = toStatus(toMap(response));
+                } catch (IOException | RuntimeException e) {
+                    onFailure(e);
+                    return;
+                }
+                if (status.isCompleted()) {
+                    future.complete(status);
+                } else {
+                    POLL_SCHEDULER.schedule(() -> pollCompletion(future), POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                future.completeExceptionally(new ElasticsearchException("Failed to get status of task " + taskId, e));
+            }
+        });
+    }
+
+    private Request statusRequest() {
+        return new Request("GET", "/_tasks/" + taskId);
+    }
+
+    private static Map<String, Object> performRequest(RestHighLevelClient client, Request request) throws IOException {
+        return toMap(client.getLowLevelClient().performRequest(request));
+    }
+
+    private static Map<String, Object> toMap(Response response) throws IOException {
+        try (InputStream content = response.getEntity().getContent()) {
+            return XContentHelper.convertToMap(XContentType.JSON.xContent(), content, false);
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "elasticsearch-by-query-poll");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    @Override
+    public String toString() {
+        return "ByQueryTask[" + taskId + "]";
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientCountAction;
+import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientSearchAction;
+import org.apache.commons.lang3.Validate;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.core.CountRequest;
+import org.elasticsearch.client.core.CountResponse;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.filter.Filters;
+import org.elasticsearch.search.aggregations.bucket.filter.FiltersAggregator;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static de.picturesafe.search.elasticsearch.connect.util.ElasticExceptionUtils.unwrap;
+
+/**
+ * Counts documents matching queries without fetching any hits. Multiple counts are resolved in one round trip by a filters aggregation.
+ */
+public class CountExecutor {
+
+    static final String COUNTS_AGGREGATION = "counts";
+
+    private final RestHighLevelClient client;
+    private final Function<Exception, ? extends RuntimeException> exceptionConverter;
+
+    /**
+     * Constructor
+     *
+     * @param client                Elasticsearch client
+     * @param exceptionConverter    Converts exceptions of failed requests into the exceptions to be thrown
+     */
+    public CountExecutor(RestHighLevelClient client, Function<Exception, ? extends RuntimeException> exceptionConverter) {
+        this.client = client;
+        this.exceptionConverter = exceptionConverter;
+    }
+
+    /**
+     * Counts the documents matching a query.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param query         Query matching the documents to count
+     * @param timeout       Timeout in milliseconds
+     * @return              Future of the number of matching documents, cancelling the future cancels the request
+     */
+    public CompletableFuture<Long> countAsync(String indexAlias, QueryBuilder query, long timeout) {
+        Validate.notNull(query, "Parameter 'query' may not be null.");
+        final CountRequest countRequest = new CountRequest(indexAlias).query(query);
+        return convert(executeCount(countRequest, timeout), CountResponse::getCount);
+    }
+
+    /**
+     * Counts the documents matching each of several queries in one request.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param queries       Queries matching the documents to count by key
+     * @param timeout       Timeout in milliseconds
+     * @return              Future of the number of matching documents by key (in order of the given queries), cancelling the future cancels the request
+     */
+    public CompletableFuture<Map<String, Long>> countAsync(String indexAlias, Map<String, QueryBuilder> queries, long timeout) {
+        Validate.notNull(queries, "Parameter 'queries' may not be null.");
+        if (queries.isEmpty()) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>());
+        }
+        return convert(executeSearch(searchRequest(indexAlias, queries), timeout), searchResponse -> counts(searchResponse, queries));
+    }
+
+    protected SearchRequest searchRequest(String indexAlias, Map<String, QueryBuilder> queries) {
+        final FiltersAggregator.KeyedFilter[] filters = queries.entrySet().stream()
+                .map(e -> new FiltersAggregator.KeyedFilter(e.getKey(), e.getValue()))
+                .toArray(FiltersAggregator.KeyedFilter[]::new);
+        final SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+                .size(0)
+                .trackTotalHits(false)
+                .aggregation(AggregationBuilders.filters(COUNTS_AGGREGATION, filters));
+        return new SearchRequest(indexAlias).source(searchSourceBuilder);
+    }
+
+    protected Map<String, Long> counts(SearchResponse searchResponse, Map<String, QueryBuilder> queries) {
+        final Filters filters = searchResponse.getAggregations().get(COUNTS_AGGREGATION);
+        final Map<String, Long> counts = new LinkedHashMap<>();
+        queries.keySet().forEach(key -> {
+            final Filters.Bucket bucket = filters.getBucketByKey(key);
+            counts.put(key, (bucket != null) ? bucket.getDocCount() : 0L);
+        });
+        return counts;
+    }
+
+    protected CompletableFuture<CountResponse> executeCount(CountRequest countRequest, long timeout) {
+        return new RestClientCountAction().actionAsync(client, countRequest, timeout);
+    }
+
+    protected CompletableFuture<SearchResponse> executeSearch(SearchRequest searchRequest, long timeout) {
+        return new RestClientSearchAction().actionAsync(client, searchRequest, timeout);
+    }
+
+    private <R, T> CompletableFuture<T> convert(CompletableFuture<R> future, Function<R, T> converter) {
+        final CompletableFuture<T> result = future.handle((response, e) -> {
+            if (e != null) {
+                throw exceptionConverter.apply(unwrap(e));
+            }
+            return converter.apply(response);
+        });
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                future.cancel(false);
+            }
+        });
+        return result;
+    }
+}
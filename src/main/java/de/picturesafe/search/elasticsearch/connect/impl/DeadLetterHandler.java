@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+
+/**
+ * Interface of a handler for write requests which finally failed within a bulk request, e.g. because of mapping errors or because
+ * they were still rejected after all retries.
+ */
+public interface DeadLetterHandler {
+
+    /**
+     * Handles a failed write request.
+     *
+     * @param request   Failed {@link DocWriteRequest}
+     * @param failure   Failure of the request
+     */
+    void handle(DocWriteRequest<?> request, BulkItemResponse.Failure failure);
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.util.ElasticDateUtils;
+import de.picturesafe.search.elasticsearch.connect.util.StringTrimUtility;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the JSON content of documents to be indexed or updated.
+ */
+public class DocumentContentBuilder {
+
+    private final String timeZone;
+
+    /**
+     * Constructor
+     *
+     * @param timeZone  Time zone for formatting date values
+     */
+    public DocumentContentBuilder(String timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    /**
+     * Builds the content of a document to be indexed, fields with null values will be omitted.
+     *
+     * @param doc   Document
+     * @return      JSON content of the document
+     * @throws IOException if the content could not be built
+     */
+    public XContentBuilder document(Map<String, Object> doc) throws IOException {
+        final XContentBuilder contentBuilder = XContentFactory.jsonBuilder();
+        contentBuilder.startObject();
+        addFields(contentBuilder, doc);
+        contentBuilder.endObject();
+        return contentBuilder;
+    }
+
+    /**
+     * Builds the content of a partial update, fields with null values will be set to null.
+     *
+     * @param fields    Fields to update
+     * @return          JSON content of the update
+     * @throws IOException if the content could not be built
+     */
+    public XContentBuilder update(Map<String, Object> fields) throws IOException {
+        final XContentBuilder contentBuilder = XContentFactory.jsonBuilder();
+        contentBuilder.startObject();
+        addFields(contentBuilder, fields);
+        for (Map.Entry<String, Object> entry : fields.entrySet()) {
+            if (entry.getValue() == null) {
+                contentBuilder.nullField(entry.getKey());
+            }
+        }
+        contentBuilder.endObject();
+        return contentBuilder;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void addFields(XContentBuilder contentBuilder, Map<String, Object> doc) throws IOException {
+        for (Map.Entry<String, Object> entry : doc.entrySet()) {
+            if (entry.getValue() != null) {
+                final String fieldName = entry.getKey();
+                if (entry.getValue() instanceof List) {
+                    final List<?> list = (List<?>) entry.getValue();
+                    if (list.size() > 0 && list.get(0) instanceof Map) {
+                        final List<Map<String, Object>> nestedObjectList = (List<Map<String, Object>>) list;
+                        addNestedObjects(contentBuilder, fieldName, nestedObjectList);
+                    } else {
+                        final List<?> trimmedList = StringTrimUtility.trimListValues((List<?>) entry.getValue());
+                        contentBuilder.array(fieldName, trimmedList.toArray());
+                    }
+                } else if (entry.getValue() instanceof Date) {
+                    contentBuilder.field(fieldName, ElasticDateUtils.formatIso((Date) entry.getValue(), timeZone));
+                } else if (entry.getValue() instanceof Boolean) {
+                    contentBuilder.field(fieldName, entry.getValue());
+                } else if (entry.getValue() instanceof String && (entry.getValue().equals(Boolean.TRUE.toString())
+                        || entry.getValue().equals(Boolean.FALSE.toString()))) {
+                    contentBuilder.field(fieldName, Boolean.valueOf((String) entry.getValue()));
+                } else if (entry.getValue() instanceof String) {
+                    final String stringValue = (String) entry.getValue();
+                    contentBuilder.field(fieldName, stringValue.trim());
+                } else {
+                    contentBuilder.field(fieldName, entry.getValue());
+                }
+            }
+        }
+    }
+
+    protected void addNestedObjects(XContentBuilder contentBuilder, String fieldName, List<Map<String, Object>> nestedObjectList) throws IOException {
+        contentBuilder.startArray(fieldName);
+        for (final Map<String, Object> doc : nestedObjectList) {
+            contentBuilder.startObject();
+            addFields(contentBuilder, doc);
+            contentBuilder.endObject();
+        }
+        contentBuilder.endArray();
+    }
+}
@@ -24,23 +24,23 @@ import de.picturesafe.search.elasticsearch.config.MappingConfiguration;
 import de.picturesafe.search.elasticsearch.config.RestClientConfiguration;
 import de.picturesafe.search.elasticsearch.connect.Elasticsearch;
 import de.picturesafe.search.elasticsearch.connect.ElasticsearchAdmin;
-import de.picturesafe.search.elasticsearch.connect.aggregation.resolve.FacetConverter;
 import de.picturesafe.search.elasticsearch.connect.aggregation.resolve.FacetConverterChain;
 import de.picturesafe.search.elasticsearch.connect.aggregation.resolve.FacetResolver;
 import de.picturesafe.search.elasticsearch.connect.aggregation.search.AggregationBuilderFactory;
 import de.picturesafe.search.elasticsearch.connect.aggregation.search.AggregationBuilderFactoryRegistry;
 import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientBulkAction;
 import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientDeleteAction;
-import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientDeleteByQueryAction;
+import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientGetAction;
 import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientIndexAction;
 import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientIndexRefreshAction;
+import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientMultiSearchAction;
 import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientSearchAction;
-import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientUpdateByQueryAction;
+import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientUpdateAction;
 import de.picturesafe.search.elasticsearch.connect.context.SearchContext;
-import de.picturesafe.search.elasticsearch.connect.dto.FacetDto;
 import de.picturesafe.search.elasticsearch.connect.dto.QueryDto;
 import de.picturesafe.search.elasticsearch.connect.dto.QueryRangeDto;
 import de.picturesafe.search.elasticsearch.connect.dto.SearchHitDto;
+import de.picturesafe.search.elasticsearch.connect.dto.SearchRequestDto;
 import de.picturesafe.search.elasticsearch.connect.dto.SearchResultDto;
 import de.picturesafe.search.elasticsearch.connect.error.AliasAlreadyExistsException;
 import de.picturesafe.search.elasticsearch.connect.error.AliasCreateException;
@@ -53,30 +53,33 @@ import de.picturesafe.search.elasticsearch.connect.error.QuerySyntaxException;
 import de.picturesafe.search.elasticsearch.connect.filter.FilterFactory;
 import de.picturesafe.search.elasticsearch.connect.query.QueryFactory;
 import de.picturesafe.search.elasticsearch.connect.query.QueryFactoryCaller;
-import de.picturesafe.search.elasticsearch.connect.util.ElasticDateUtils;
 import de.picturesafe.search.elasticsearch.connect.util.ElasticExceptionUtils;
-import de.picturesafe.search.elasticsearch.connect.util.FieldConfigurationUtils;
-import de.picturesafe.search.elasticsearch.connect.util.StringTrimUtility;
 import de.picturesafe.search.elasticsearch.connect.util.logging.SearchRequestSourceToString;
 import de.picturesafe.search.elasticsearch.connect.util.logging.SearchResponseToString;
+import de.picturesafe.search.elasticsearch.model.ByQueryStatus;
+import de.picturesafe.search.elasticsearch.model.ByQueryTask;
 import de.picturesafe.search.elasticsearch.model.DocumentBuilder;
 import de.picturesafe.search.elasticsearch.model.ElasticsearchInfo;
+import de.picturesafe.search.elasticsearch.model.ExportStatus;
 import de.picturesafe.search.elasticsearch.model.IdFormat;
 import de.picturesafe.search.elasticsearch.timezone.TimeZoneAware;
 import de.picturesafe.search.expression.SuggestExpression;
+import de.picturesafe.search.parameter.ByQueryParameter;
 import de.picturesafe.search.parameter.CollapseOption;
+import de.picturesafe.search.parameter.ExportParameter;
+import de.picturesafe.search.parameter.GetParameter;
 import de.picturesafe.search.parameter.InnerHitsOption;
 import de.picturesafe.search.parameter.ScriptDefinition;
-import de.picturesafe.search.parameter.ScriptSortOption;
 import de.picturesafe.search.parameter.SearchAggregation;
 import de.picturesafe.search.parameter.SortOption;
+import de.picturesafe.search.parameter.UpdateDefinition;
+import de.picturesafe.search.util.CloseableIterator;
 import de.picturesafe.search.util.logging.StopWatchPrettyPrint;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
-import org.apache.lucene.search.TotalHits;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
@@ -86,45 +89,40 @@ import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.action.update.UpdateResponse;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.client.core.MainResponse;
 import org.elasticsearch.cluster.health.ClusterHealthStatus;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
-import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.query.InnerHitBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
-import org.elasticsearch.index.reindex.AbstractBulkByScrollRequest;
-import org.elasticsearch.index.reindex.BulkByScrollResponse;
-import org.elasticsearch.index.reindex.DeleteByQueryRequest;
-import org.elasticsearch.index.reindex.UpdateByQueryRequest;
 import org.elasticsearch.rest.RestStatus;
-import org.elasticsearch.script.Script;
-import org.elasticsearch.script.ScriptType;
 import org.elasticsearch.search.SearchHit;
-import org.elasticsearch.search.SearchHits;
-import org.elasticsearch.search.aggregations.Aggregation;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
 import org.elasticsearch.search.aggregations.support.ValuesSourceAggregationBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.collapse.CollapseBuilder;
 import org.elasticsearch.search.sort.FieldSortBuilder;
-import org.elasticsearch.search.sort.NestedSortBuilder;
-import org.elasticsearch.search.sort.ScriptSortBuilder;
 import org.elasticsearch.search.sort.SortBuilder;
 import org.elasticsearch.search.sort.SortBuilders;
-import org.elasticsearch.search.sort.SortMode;
-import org.elasticsearch.search.sort.SortOrder;
 import org.elasticsearch.search.suggest.Suggest;
 import org.elasticsearch.search.suggest.SuggestBuilder;
 import org.elasticsearch.search.suggest.completion.CompletionSuggestionBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -133,31 +131,40 @@ import org.springframework.util.StopWatch;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import static de.picturesafe.search.elasticsearch.config.ElasticsearchType.OBJECT;
 import static de.picturesafe.search.elasticsearch.connect.error.ElasticExceptionCause.Type.QUERY_SYNTAX;
 import static de.picturesafe.search.elasticsearch.connect.filter.util.FilterFactoryUtils.createFilter;
+import static de.picturesafe.search.elasticsearch.connect.util.ContinuationTokenUtils.decode;
 import static de.picturesafe.search.elasticsearch.connect.util.ElasticDocumentUtils.getId;
+import static de.picturesafe.search.elasticsearch.connect.util.ElasticExceptionUtils.unwrap;
 import static de.picturesafe.search.elasticsearch.connect.util.ElasticRequestUtils.getRefreshPolicy;
+import static de.picturesafe.search.elasticsearch.connect.util.ElasticRequestUtils.script;
 import static de.picturesafe.search.elasticsearch.connect.util.FieldConfigurationUtils.fieldConfiguration;
-import static de.picturesafe.search.elasticsearch.connect.util.FieldConfigurationUtils.isTextField;
 import static de.picturesafe.search.elasticsearch.connect.util.FieldConfigurationUtils.keywordFieldName;
-import static de.picturesafe.search.elasticsearch.connect.util.FieldConfigurationUtils.sortFieldName;
 
 @Component
 @SuppressWarnings({"unused"})
-public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, TimeZoneAware {
+public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, TimeZoneAware, DisposableBean {
 
     private static final Logger LOG = LoggerFactory.getLogger(ElasticsearchImpl.class);
     private static final Logger QUERY_LOGGER = LoggerFactory.getLogger("elasticsearch-query");
@@ -168,20 +175,58 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
     protected List<QueryFactory> queryFactories;
     protected List<FilterFactory> filterFactories;
     protected String timeZone;
+    protected DocumentContentBuilder documentContentBuilder;
 
     protected AggregationBuilderFactoryRegistry aggregationBuilderFactoryRegistry;
     protected FacetConverterChain facetConverterChain;
     protected List<FacetResolver> facetResolvers;
     protected WriteRequestHandler writeRequestHandler;
+    protected DeadLetterHandler deadLetterHandler;
 
     @Value("${elasticsearch.service.check_cluster_status_timeout:10000}")
     protected long checkClusterStatusTimeout;
     @Value("${elasticsearch.service.indexing_bulk_size:1000}")
     protected int indexingBulkSize;
+    @Value("${elasticsearch.service.indexing_bulk_max_bytes:10485760}")
+    protected long indexingBulkMaxBytes;
+    @Value("${elasticsearch.service.indexing_bulk_linger:0}")
+    protected long indexingBulkLinger;
+    @Value("${elasticsearch.service.indexing_bulk_target_latency:0}")
+    protected long indexingBulkTargetLatency;
+    @Value("${elasticsearch.service.indexing_concurrent_requests:2}")
+    protected int indexingConcurrentRequests;
+    @Value("${elasticsearch.service.indexing_retry_max:3}")
+    protected int indexingRetryMax;
+    @Value("${elasticsearch.service.indexing_retry_delay:100}")
+    protected long indexingRetryDelay;
+    @Value("${elasticsearch.service.removing_bulk_size:10000}")
+    protected int removingBulkSize;
+    @Value("${elasticsearch.service.removing_concurrent_requests:2}")
+    protected int removingConcurrentRequests;
+    @Value("${elasticsearch.service.background_writes.enabled:false}")
+    protected boolean backgroundWritesEnabled;
+    @Value("${elasticsearch.service.background_writes.flush_interval:1000}")
+    protected long backgroundWritesFlushInterval;
+    @Value("${elasticsearch.service.background_writes.concurrent_requests:1}")
+    protected int backgroundWritesConcurrentRequests;
     @Value("${elasticsearch.service.missing_value_sort_position:LAST}")
     protected MissingValueSortPosition missingValueSortPosition;
+    @Value("${elasticsearch.service.search_timeout:60000}")
+    protected long searchTimeout;
+    @Value("${elasticsearch.service.bulk_timeout:60000}")
+    protected long bulkTimeout;
+    @Value("${elasticsearch.service.by_query_timeout:60000}")
+    protected long byQueryTimeout;
+    @Value("${elasticsearch.service.refresh_timeout:60000}")
+    protected long refreshTimeout;
+    @Value("${elasticsearch.service.scroll_keep_alive:60000}")
+    protected long scrollKeepAlive;
+    @Value("${elasticsearch.service.multi_get_chunk_size:1000}")
+    protected int multiGetChunkSize;
 
     protected IdFormat idFormat = IdFormat.DEFAULT;
+    protected Executor asyncExecutor = ForkJoinPool.commonPool();
+    private volatile BackgroundWriteProcessor backgroundWriteProcessor;
 
     @Autowired
     public ElasticsearchImpl(ElasticsearchAdmin elasticsearchAdmin,
@@ -194,6 +239,7 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         this.queryFactories = queryFactories;
         this.filterFactories = filterFactories;
         this.timeZone = timeZone;
+        this.documentContentBuilder = new DocumentContentBuilder(timeZone);
     }
 
     @Autowired(required = false)
@@ -221,6 +267,21 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         this.writeRequestHandler = writeRequestHandler;
     }
 
+    @Autowired(required = false)
+    public void setDeadLetterHandler(DeadLetterHandler deadLetterHandler) {
+        this.deadLetterHandler = deadLetterHandler;
+    }
+
+    /**
+     * Sets the executor for processing the responses of asynchronous requests (default is the common fork join pool).
+     *
+     * @param asyncExecutor Executor for processing the responses of asynchronous requests
+     */
+    @Autowired(required = false)
+    public void setAsyncExecutor(@Qualifier("elasticsearchAsyncExecutor") Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
     public void setCheckClusterStatusTimeout(long checkClusterStatusTimeout) {
         this.checkClusterStatusTimeout = checkClusterStatusTimeout;
     }
@@ -229,15 +290,92 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         this.indexingBulkSize = indexingBulkSize;
     }
 
+    public void setIndexingBulkMaxBytes(long indexingBulkMaxBytes) {
+        this.indexingBulkMaxBytes = indexingBulkMaxBytes;
+    }
+
+    public void setIndexingBulkLinger(long indexingBulkLinger) {
+        this.indexingBulkLinger = indexingBulkLinger;
+    }
+
+    public void setIndexingBulkTargetLatency(long indexingBulkTargetLatency) {
+        this.indexingBulkTargetLatency = indexingBulkTargetLatency;
+    }
+
+    public void setIndexingConcurrentRequests(int indexingConcurrentRequests) {
+        this.indexingConcurrentRequests = indexingConcurrentRequests;
+    }
+
+    public void setIndexingRetryMax(int indexingRetryMax) {
+        this.indexingRetryMax = indexingRetryMax;
+    }
+
+    public void setIndexingRetryDelay(long indexingRetryDelay) {
+        this.indexingRetryDelay = indexingRetryDelay;
+    }
+
+    public void setRemovingBulkSize(int removingBulkSize) {
+        this.removingBulkSize = removingBulkSize;
+    }
+
+    public void setRemovingConcurrentRequests(int removingConcurrentRequests) {
+        this.removingConcurrentRequests = removingConcurrentRequests;
+    }
+
+    public void setBackgroundWritesEnabled(boolean backgroundWritesEnabled) {
+        this.backgroundWritesEnabled = backgroundWritesEnabled;
+    }
+
+    public void setBackgroundWritesFlushInterval(long backgroundWritesFlushInterval) {
+        this.backgroundWritesFlushInterval = backgroundWritesFlushInterval;
+    }
+
+    public void setBackgroundWritesConcurrentRequests(int backgroundWritesConcurrentRequests) {
+        this.backgroundWritesConcurrentRequests = backgroundWritesConcurrentRequests;
+    }
+
     public void setMissingValueSortPosition(MissingValueSortPosition missingValueSortPosition) {
         this.missingValueSortPosition = missingValueSortPosition;
     }
 
+    public void setSearchTimeout(long searchTimeout) {
+        this.searchTimeout = searchTimeout;
+    }
+
+    public void setBulkTimeout(long bulkTimeout) {
+        this.bulkTimeout = bulkTimeout;
+    }
+
+    public void setByQueryTimeout(long byQueryTimeout) {
+        this.byQueryTimeout = byQueryTimeout;
+    }
+
+    public void setRefreshTimeout(long refreshTimeout) {
+        this.refreshTimeout = refreshTimeout;
+    }
+
+    public void setScrollKeepAlive(long scrollKeepAlive) {
+        this.scrollKeepAlive = scrollKeepAlive;
+    }
+
+    public void setMultiGetChunkSize(int multiGetChunkSize) {
+        this.multiGetChunkSize = multiGetChunkSize;
+    }
+
     @PostConstruct
     public void init() {
         this.restClient = restClientConfiguration.getClient();
     }
 
+    @Override
+    public void destroy() {
+        final BackgroundWriteProcessor processor = backgroundWriteProcessor;
+        if (processor != null) {
+            LOG.info("Flushing {} pending background writes.", processor.getPendingCount());
+            processor.close();
+        }
+    }
+
     @Override
     public RestHighLevelClient getRestClient() {
         return restClient;
@@ -249,7 +387,7 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         Validate.notNull(document, "Parameter 'document' may not be null!");
 
         try {
-            final IndexRequest indexRequest = createIndexRequest(document, indexAlias, applyIndexRefresh);
+            final IndexRequest indexRequest = awaitBackgroundWrite(createIndexRequest(document, indexAlias, applyIndexRefresh));
             if (!handleRequestExternally(indexRequest)) {
                 final IndexResponse indexResponse = handleRequest(indexRequest);
                 if (indexResponse.status() != RestStatus.CREATED && indexResponse.status() != RestStatus.OK) {
@@ -262,6 +400,28 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         }
     }
 
+    @Override
+    public CompletableFuture<Void> addToIndexAsync(String indexAlias, boolean applyIndexRefresh, Map<String, Object> document) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(document, "Parameter 'document' may not be null!");
+
+        final IndexRequest indexRequest = awaitBackgroundWrite(createIndexRequest(document, indexAlias, applyIndexRefresh));
+        if (handleRequestExternally(indexRequest)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return new RestClientIndexAction().actionAsync(restClient, indexRequest, bulkTimeout).handle((indexResponse, e) -> {
+            if (e != null) {
+                throw new ElasticsearchException("Failed to add document to index '" + indexAlias + "'!", unwrap(e));
+            }
+            if (indexResponse.status() != RestStatus.CREATED && indexResponse.status() != RestStatus.OK) {
+                throw new ElasticsearchException(
+                        "Adding document to index '" + indexAlias + "' failed with response: " + indexResponse.status().getStatus());
+            }
+            return null;
+        });
+    }
+
     @Override
     public Map<String, Boolean> addToIndex(String indexAlias, boolean applyIndexRefresh, boolean exceptionOnFailure, List<Map<String, Object>> docs) {
         Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be empty!");
@@ -272,37 +432,50 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         }
 
         final StopWatch sw = new StopWatch("index");
-        try {
-            BulkRequest bulkRequest = null;
-            final int size = docs.size();
-            for (int i = 0; i < size; i++) {
-                if (bulkRequest == null) {
-                    bulkRequest = new BulkRequest();
-                    bulkRequest.setRefreshPolicy(getRefreshPolicy(applyIndexRefresh));
-                }
+        sw.start("add");
+        try (BulkIndexer bulkIndexer = createBulkIndexer(bulkRequest -> {
+                    LOG.debug("Adding {} documents to index '{}'.", bulkRequest.numberOfActions(), indexAlias);
+                    return handleRequestAsync(bulkRequest);
+                }, 1, applyIndexRefresh, results::put).failOnItemFailure(exceptionOnFailure)) {
+            for (final Map<String, Object> doc : docs) {
+                bulkIndexer.add(awaitBackgroundWrite(createIndexRequest(doc, indexAlias, false)));
+            }
+        } catch (Exception e) {
+            throw new ElasticsearchException("Failed to add documents to index: indexAlias=" + indexAlias, e);
+        }
+        sw.stop();
+        LOG.debug("{}", new StopWatchPrettyPrint(sw));
 
-                final Map<String, Object> doc = docs.get(i);
-                final IndexRequest indexRequest = createIndexRequest(doc, indexAlias, false);
-                bulkRequest.add(indexRequest);
-                if (bulkRequest.numberOfActions() > indexingBulkSize || i == size - 1) {
-                    if (!handleRequestExternally(bulkRequest)) {
-                        LOG.debug("Adding {} documents to index '{}'.", bulkRequest.numberOfActions(), indexAlias);
-
-                        sw.start("add");
-                        final BulkResponse bulkResponse = handleRequest(bulkRequest);
-                        LOG.debug("Bulk add response: {}", bulkResponse);
-                        if (exceptionOnFailure && bulkResponse.hasFailures()) {
-                            throw new ElasticsearchException("Add to index failed: " + bulkResponse.buildFailureMessage());
-                        }
-                        bulkResponse.forEach(itemResponse -> results.put(itemResponse.getId(), itemResponse.getFailure() == null));
-                        sw.stop();
-                    }
-                    bulkRequest = null;
-                }
+        return results;
+    }
+
+    @Override
+    public void addToIndex(String indexAlias, boolean applyIndexRefresh, Iterator<Map<String, Object>> documents,
+                           BiConsumer<String, Boolean> resultListener) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be empty!");
+        Validate.notNull(documents, "Parameter 'documents' may not be null!");
+
+        try (BulkIndexer bulkIndexer = createBulkIndexer(this::handleRequestAsync, indexingConcurrentRequests, applyIndexRefresh, resultListener)
+                .lingerMillis(indexingBulkLinger)) {
+            while (documents.hasNext()) {
+                bulkIndexer.add(awaitBackgroundWrite(createIndexRequest(documents.next(), indexAlias, false)));
             }
-            LOG.debug("{}", new StopWatchPrettyPrint(sw));
+        } catch (Exception e) {
+            throw new ElasticsearchException("Failed to add documents to index: indexAlias=" + indexAlias, e);
+        }
+    }
 
-            return results;
+    @Override
+    public void addSourcesToIndex(String indexAlias, boolean applyIndexRefresh, Iterator<BytesReference> sources,
+                                  BiConsumer<String, Boolean> resultListener) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be empty!");
+        Validate.notNull(sources, "Parameter 'sources' may not be null!");
+
+        try (BulkIndexer bulkIndexer = createBulkIndexer(this::handleRequestAsync, indexingConcurrentRequests, applyIndexRefresh, resultListener)
+                .lingerMillis(indexingBulkLinger)) {
+            while (sources.hasNext()) {
+                bulkIndexer.add(awaitBackgroundWrite(createIndexRequest(sources.next(), indexAlias)));
+            }
         } catch (Exception e) {
             throw new ElasticsearchException("Failed to add documents to index: indexAlias=" + indexAlias, e);
         }
@@ -313,13 +486,186 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         Validate.notNull(indexAlias, "Parameter 'indexAlias' may not be null.");
         Validate.notNull(id, "Parameter 'id' may not be null.");
 
-        final DeleteRequest deleteRequest = createDeleteRequest(id, indexAlias, applyIndexRefresh);
+        final DeleteRequest deleteRequest = awaitBackgroundWrite(createDeleteRequest(id, indexAlias, applyIndexRefresh));
         if (!handleRequestExternally(deleteRequest)) {
             final DeleteResponse deleteResponse = handleRequest(deleteRequest);
             LOG.debug("Delete response: {}", deleteResponse);
         }
     }
 
+    @Override
+    public CompletableFuture<Void> removeFromIndexAsync(String indexAlias, boolean applyIndexRefresh, Object id) {
+        Validate.notNull(indexAlias, "Parameter 'indexAlias' may not be null.");
+        Validate.notNull(id, "Parameter 'id' may not be null.");
+
+        final DeleteRequest deleteRequest = awaitBackgroundWrite(createDeleteRequest(id, indexAlias, applyIndexRefresh));
+        if (handleRequestExternally(deleteRequest)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return new RestClientDeleteAction().actionAsync(restClient, deleteRequest, bulkTimeout).handle((deleteResponse, e) -> {
+            if (e != null) {
+                throw new ElasticsearchException("Failed to remove document from index '" + indexAlias + "': id=" + id, unwrap(e));
+            }
+            LOG.debug("Delete response: {}", deleteResponse);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateDocument(String indexAlias, boolean applyIndexRefresh, Object id, UpdateDefinition update) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(id, "Parameter 'id' may not be null!");
+        Validate.notNull(update, "Parameter 'update' may not be null!");
+
+        try {
+            final UpdateRequest updateRequest = awaitBackgroundWrite(createUpdateRequest(id, update, indexAlias, applyIndexRefresh));
+            if (!handleRequestExternally(updateRequest)) {
+                final UpdateResponse updateResponse = handleRequest(updateRequest);
+                LOG.debug("Update response: {}", updateResponse);
+                if (updateResponse.status() != RestStatus.CREATED && updateResponse.status() != RestStatus.OK) {
+                    throw new ElasticsearchException(
+                            "Updating document in index '" + indexAlias + "' failed with response: " + updateResponse.status().getStatus());
+                }
+            }
+        } catch (Exception e) {
+            throw new ElasticsearchException("Failed to update document in index '" + indexAlias + "': id=" + id, e);
+        }
+    }
+
+    @Override
+    public Map<String, Boolean> updateDocuments(String indexAlias, boolean applyIndexRefresh, boolean exceptionOnFailure,
+                                                Map<?, UpdateDefinition> updates) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+
+        final Map<String, Boolean> results = new HashMap<>();
+        if (MapUtils.isEmpty(updates)) {
+            return results;
+        }
+
+        try (BulkIndexer bulkIndexer = createBulkIndexer(bulkRequest -> {
+                    LOG.debug("Updating {} documents in index '{}'.", bulkRequest.numberOfActions(), indexAlias);
+                    return handleRequestAsync(bulkRequest);
+                }, 1, applyIndexRefresh, results::put).failOnItemFailure(exceptionOnFailure)) {
+            for (final Map.Entry<?, UpdateDefinition> entry : updates.entrySet()) {
+                bulkIndexer.add(awaitBackgroundWrite(createUpdateRequest(entry.getKey(), entry.getValue(), indexAlias, false)));
+            }
+        } catch (Exception e) {
+            throw new ElasticsearchException("Failed to update documents in index: indexAlias=" + indexAlias, e);
+        }
+        return results;
+    }
+
+    protected UpdateRequest createUpdateRequest(Object id, UpdateDefinition update, String indexAlias, boolean applyIndexRefresh) {
+        Validate.notNull(id, "Parameter 'id' may not be null!");
+        Validate.notNull(update, "Parameter 'update' may not be null!");
+
+        final String formattedId = idFormat.format(id);
+        final UpdateRequest updateRequest = new UpdateRequest(indexAlias, formattedId).setRefreshPolicy(getRefreshPolicy(applyIndexRefresh));
+        if (update.getScript() != null) {
+            updateRequest.script(script(update.getScript()));
+        } else {
+            Map<String, Object> fields = update.getFields();
+            if (update.isDocAsUpsert()) {
+                // The document may be created, so it needs the ID field like documents added by addToIndex
+                fields = new HashMap<>(fields);
+                fields.putIfAbsent(FieldConfiguration.FIELD_NAME_ID, formattedId);
+            }
+            updateRequest.doc(createUpdateContent(fields, indexAlias)).docAsUpsert(update.isDocAsUpsert());
+        }
+        if (update.getUpsert() != null) {
+            final Map<String, Object> upsert = new HashMap<>(update.getUpsert());
+            upsert.putIfAbsent(FieldConfiguration.FIELD_NAME_ID, formattedId);
+            updateRequest.upsert(createUpdateContent(upsert, indexAlias));
+        }
+        if (update.getRetryOnConflict() > 0) {
+            updateRequest.retryOnConflict(update.getRetryOnConflict());
+        }
+        LOG.debug("Created update request: {}", updateRequest);
+        return updateRequest;
+    }
+
+    protected XContentBuilder createUpdateContent(Map<String, Object> fields, String indexAlias) {
+        try {
+            return documentContentBuilder.update(fields);
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to create update request: indexAlias=" + indexAlias, e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> addToIndexInBackground(String indexAlias, Map<String, Object> document) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(document, "Parameter 'document' may not be null!");
+
+        if (backgroundWritesEnabled) {
+            return getBackgroundWriteProcessor().submit(createIndexRequest(document, indexAlias, false));
+        } else {
+            addToIndex(indexAlias, false, document);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> removeFromIndexInBackground(String indexAlias, Object id) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(id, "Parameter 'id' may not be null.");
+
+        if (backgroundWritesEnabled) {
+            return getBackgroundWriteProcessor().submit(createDeleteRequest(id, indexAlias, false));
+        } else {
+            removeFromIndex(indexAlias, false, id);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    @Override
+    public void flushBackgroundWrites() {
+        final BackgroundWriteProcessor processor = backgroundWriteProcessor;
+        if (processor != null) {
+            processor.flushAndWait();
+        }
+    }
+
+    protected BackgroundWriteProcessor getBackgroundWriteProcessor() {
+        BackgroundWriteProcessor processor = backgroundWriteProcessor;
+        if (processor == null) {
+            synchronized (this) {
+                processor = backgroundWriteProcessor;
+                if (processor == null) {
+                    final int concurrentRequests = Math.max(1, backgroundWritesConcurrentRequests);
+                    processor = new BackgroundWriteProcessor(this::handleRequestAsync,
+                            bulkExecutor -> createBulkIndexer(bulkExecutor, concurrentRequests, false, null),
+                            deadLetterHandler, indexingBulkSize, indexingBulkSize * (concurrentRequests + 1), backgroundWritesFlushInterval);
+                    backgroundWriteProcessor = processor;
+                }
+            }
+        }
+        return processor;
+    }
+
+    /**
+     * Waits for pending and in flight background writes of the document of a request, so synchronous writes are never overtaken by older
+     * background writes of the same document.
+     */
+    protected <R extends DocWriteRequest<?>> R awaitBackgroundWrite(R request) {
+        final BackgroundWriteProcessor processor = backgroundWriteProcessor;
+        if (processor != null) {
+            processor.awaitWrite(request.index(), request.id());
+        }
+        return request;
+    }
+
+    protected BulkIndexer createBulkIndexer(Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor, int concurrentRequests,
+                                            boolean applyIndexRefresh, BiConsumer<String, Boolean> resultListener) {
+        return new BulkIndexer(bulkExecutor, indexingBulkSize, concurrentRequests, getRefreshPolicy(applyIndexRefresh), resultListener)
+                .maxBytes(indexingBulkMaxBytes)
+                .targetLatencyMillis(indexingBulkTargetLatency)
+                .maxRetries(indexingRetryMax)
+                .retryDelayMillis(indexingRetryDelay)
+                .deadLetterHandler(deadLetterHandler);
+    }
+
     protected DeleteRequest createDeleteRequest(Object id, String indexAlias, boolean applyIndexRefresh) {
         final DeleteRequest deleteRequest = new DeleteRequest(indexAlias, idFormat.format(id)).setRefreshPolicy(getRefreshPolicy(applyIndexRefresh));
         LOG.debug("Created delete request: {}", deleteRequest);
@@ -334,47 +680,100 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
             return;
         }
 
-        final String[] idsAsArray = ids.stream().map(idFormat::format).toArray(String[]::new);
-
-        final int maxSize = 10000;
-        if (idsAsArray.length == 1) {
-            removeFromIndex(indexAlias, applyIndexRefresh, idsAsArray[0]);
+        if (ids.size() == 1) {
+            removeFromIndex(indexAlias, applyIndexRefresh, ids.iterator().next());
         } else {
-            // Execution of the deletion in a loop to avoid OutOfMemory problems
-            int count = 0;
-            do {
-                // Size of next bulk
-                final int size = Math.min(maxSize, idsAsArray.length - count);
-                final BulkRequest bulkRequest = new BulkRequest().setRefreshPolicy(getRefreshPolicy(applyIndexRefresh));
-                for (int i = count; i < count + size; i++) {
-                    bulkRequest.add(new DeleteRequest(indexAlias, idsAsArray[i]));
-                }
+            final Map<String, String> failures = removeFromIndex(indexAlias, applyIndexRefresh, ids.iterator(), 0, 0);
+            if (!failures.isEmpty()) {
+                LOG.warn("Failed to remove {} of {} documents from index '{}'.", failures.size(), ids.size(), indexAlias);
+                LOG.debug("Failed to remove documents: {}", failures);
+            }
+        }
+    }
 
-                if (!handleRequestExternally(bulkRequest)) {
-                    final BulkResponse bulkResponse = handleRequest(bulkRequest);
-                    LOG.debug("Bulk remove response: {}", bulkResponse);
-                }
-                count += size;
-            } while (count < idsAsArray.length);
+    @Override
+    public Map<String, String> removeFromIndex(String indexAlias, boolean applyIndexRefresh, Iterator<?> ids, int bulkSize, int concurrentRequests) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be empty!");
+        Validate.notNull(ids, "Parameter 'ids' may not be null!");
+
+        final Map<String, String> failures = new ConcurrentHashMap<>();
+        final DeadLetterHandler failureCollector = (request, failure) -> {
+            failures.put(request.id(), failure.getMessage());
+            if (deadLetterHandler != null) {
+                deadLetterHandler.handle(request, failure);
+            }
+        };
+        try (BulkIndexer bulkIndexer = new BulkIndexer(this::handleRequestAsync, (bulkSize > 0) ? bulkSize : removingBulkSize,
+                (concurrentRequests > 0) ? concurrentRequests : removingConcurrentRequests, getRefreshPolicy(applyIndexRefresh), null)
+                .maxBytes(indexingBulkMaxBytes)
+                .maxRetries(indexingRetryMax)
+                .retryDelayMillis(indexingRetryDelay)
+                .deadLetterHandler(failureCollector)) {
+            while (ids.hasNext()) {
+                bulkIndexer.add(awaitBackgroundWrite(new DeleteRequest(indexAlias, idFormat.format(ids.next()))));
+            }
+        } catch (Exception e) {
+            throw new ElasticsearchException("Failed to remove documents from index: indexAlias=" + indexAlias, e);
         }
+        return failures;
     }
 
     @Override
     public void removeFromIndex(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration,
                          boolean applyIndexRefresh) {
-        Validate.notNull(indexPresetConfiguration, "Parameter 'indexPresetConfiguration' may not be null.");
-        Validate.notNull(mappingConfiguration, "Parameter 'mappingConfiguration' may not be null.");
-        Validate.notNull(queryDto, "Parameter 'queryDto' may not be null.");
+        deleteByQuery(queryDto, mappingConfiguration, indexPresetConfiguration, null, applyIndexRefresh);
+    }
 
-        final InternalSearchRequest internalSearchRequest = searchRequest(indexPresetConfiguration, queryDto, mappingConfiguration);
-        final DeleteByQueryRequest deleteByQueryRequest = new DeleteByQueryRequest(indexPresetConfiguration.getIndexAlias()).setRefresh(applyIndexRefresh);
-        deleteByQueryRequest.getSearchRequest().source(internalSearchRequest.searchRequest.source());
+    @Override
+    public ByQueryStatus deleteByQuery(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration,
+                                       ByQueryParameter parameter, boolean applyIndexRefresh) {
+        return byQueryExecutor().deleteByQuery(indexPresetConfiguration.getIndexAlias(), byQuery(queryDto, mappingConfiguration, indexPresetConfiguration),
+                parameter, applyIndexRefresh);
+    }
 
-        if (!handleRequestExternally(deleteByQueryRequest)) {
-            LOG.debug("Delete by query request: {}", new SearchRequestSourceToString(internalSearchRequest.searchRequest));
-            final BulkByScrollResponse response = handleRequest(deleteByQueryRequest);
-            LOG.debug("Delete by query response: {}", response);
-        }
+    @Override
+    public ByQueryTask submitDeleteByQuery(QueryDto queryDto, MappingConfiguration mappingConfiguration,
+                                           IndexPresetConfiguration indexPresetConfiguration, ByQueryParameter parameter, boolean applyIndexRefresh) {
+        return byQueryExecutor().submitDeleteByQuery(indexPresetConfiguration.getIndexAlias(),
+                byQuery(queryDto, mappingConfiguration, indexPresetConfiguration), parameter, applyIndexRefresh);
+    }
+
+    @Override
+    public ByQueryStatus updateByQuery(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration,
+                                       ScriptDefinition script, ByQueryParameter parameter, boolean applyIndexRefresh) {
+        Validate.notNull(script, "Parameter 'script' may not be null.");
+        return byQueryExecutor().updateByQuery(indexPresetConfiguration.getIndexAlias(), byQuery(queryDto, mappingConfiguration, indexPresetConfiguration),
+                script(script), parameter, applyIndexRefresh);
+    }
+
+    @Override
+    public ByQueryTask submitUpdateByQuery(QueryDto queryDto, MappingConfiguration mappingConfiguration,
+                                           IndexPresetConfiguration indexPresetConfiguration, ScriptDefinition script, ByQueryParameter parameter,
+                                           boolean applyIndexRefresh) {
+        Validate.notNull(script, "Parameter 'script' may not be null.");
+        return byQueryExecutor().submitUpdateByQuery(indexPresetConfiguration.getIndexAlias(),
+                byQuery(queryDto, mappingConfiguration, indexPresetConfiguration), script(script), parameter, applyIndexRefresh);
+    }
+
+    @Override
+    public ExportStatus export(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration,
+                               OutputStream outputStream, ExportParameter parameter) {
+        Validate.notNull(outputStream, "Parameter 'outputStream' may not be null.");
+        return new NdjsonExporter(restClient, scrollKeepAlive, searchTimeout(queryDto)).export(indexPresetConfiguration.getIndexAlias(),
+                byQuery(queryDto, mappingConfiguration, indexPresetConfiguration), outputStream, parameter);
+    }
+
+    protected ByQueryExecutor byQueryExecutor() {
+        return new ByQueryExecutor(restClient, writeRequestHandler, byQueryTimeout);
+    }
+
+    protected QueryBuilder byQuery(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration) {
+        Validate.notNull(queryDto, "Parameter 'queryDto' may not be null.");
+        Validate.notNull(mappingConfiguration, "Parameter 'mappingConfiguration' may not be null.");
+        Validate.notNull(indexPresetConfiguration, "Parameter 'indexPresetConfiguration' may not be null.");
+
+        final QueryBuilder queryBuilder = queryWithFilter(queryDto, mappingConfiguration);
+        return (queryBuilder != null) ? queryBuilder : QueryBuilders.matchAllQuery();
     }
 
     @Override
@@ -394,10 +793,9 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
     public void refresh(String indexAlias) {
         final RefreshRequest request = new RefreshRequest(indexAlias);
         try {
-            new RestClientIndexRefreshAction().action(restClient, request);
-            restClient.indices().refresh(request, RequestOptions.DEFAULT);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to refresh the index '" + indexAlias + "'");
+            new RestClientIndexRefreshAction().action(restClient, request, refreshTimeout);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to refresh the index '" + indexAlias + "'", e);
         }
     }
 
@@ -502,16 +900,7 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
             public SearchResultDto process() {
                 try {
                     final InternalSearchResponse internalSearchResponse = internalSearch(queryDto, mappingConfiguration, indexPresetConfiguration);
-                    final SearchHits searchHits = internalSearchResponse.searchResponse.getHits();
-                    final TotalHits totalHits = searchHits.getTotalHits();
-
-                    final List<SearchHitDto> searchHitDtos = new ArrayList<>();
-                    for (SearchHit hit : searchHits.getHits()) {
-                        searchHitDtos.add(convertSearchHit(hit, mappingConfiguration));
-                    }
-                    final List<FacetDto> facetDtos = convertFacets(internalSearchResponse, queryDto, mappingConfiguration);
-
-                    return new SearchResultDto(totalHits.value, totalHits.relation == TotalHits.Relation.EQUAL_TO, searchHitDtos, facetDtos);
+                    return convertSearchResponse(internalSearchResponse, queryDto, mappingConfiguration);
                 } catch (IndexMissingException e) {
                     throw new IndexMissingException(indexPresetConfiguration.getIndexAlias());
                 }
@@ -519,6 +908,129 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         }.getResult();
     }
 
+    @Override
+    public CompletableFuture<SearchResultDto> searchAsync(QueryDto queryDto, MappingConfiguration mappingConfiguration,
+                                                          IndexPresetConfiguration indexPresetConfiguration) {
+        final InternalSearchRequest internalSearchRequest = searchRequest(indexPresetConfiguration, queryDto, mappingConfiguration);
+        final UUID queryId = UUID.randomUUID();
+        QUERY_LOGGER.debug("Search request {}:\n{}\n{}", queryId, queryDto, new SearchRequestSourceToString(internalSearchRequest.searchRequest));
+
+        final CompletableFuture<SearchResponse> future
+                = new RestClientSearchAction().actionAsync(restClient, internalSearchRequest.searchRequest, searchTimeout(queryDto));
+        return future.handleAsync((searchResponse, e) -> {
+            if (e != null) {
+                throw searchException(unwrap(e), indexPresetConfiguration);
+            }
+            QUERY_LOGGER.debug("Search response {}:\n{},", queryId, new SearchResponseToString(searchResponse));
+            return convertSearchResponse(new InternalSearchResponse(searchResponse, internalSearchRequest.aggregationFields), queryDto, mappingConfiguration);
+        }, asyncExecutor);
+    }
+
+    @Override
+    public List<CompletableFuture<SearchResultDto>> multiSearchAsync(List<SearchRequestDto> searchRequestDtos, int maxConcurrentSearches) {
+        Validate.notNull(searchRequestDtos, "Parameter 'searchRequestDtos' may not be null!");
+        final List<CompletableFuture<SearchResultDto>> results = new ArrayList<>();
+        final Map<Integer, InternalSearchRequest> internalSearchRequests = new LinkedHashMap<>();
+        final MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
+        long timeout = 0;
+        for (SearchRequestDto searchRequestDto : searchRequestDtos) {
+            final CompletableFuture<SearchResultDto> result = new CompletableFuture<>();
+            try {
+                final QueryDto queryDto = searchRequestDto.getQueryDto();
+                final InternalSearchRequest internalSearchRequest
+                        = searchRequest(searchRequestDto.getIndexPresetConfiguration(), queryDto, searchRequestDto.getMappingConfiguration());
+                internalSearchRequests.put(results.size(), internalSearchRequest);
+                multiSearchRequest.add(internalSearchRequest.searchRequest);
+                timeout = Math.max(timeout, searchTimeout(queryDto));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+            results.add(result);
+        }
+        if (internalSearchRequests.isEmpty()) {
+            return results;
+        }
+        if (maxConcurrentSearches > 0) {
+            multiSearchRequest.maxConcurrentSearchRequests(maxConcurrentSearches);
+        }
+
+        final UUID queryId = UUID.randomUUID();
+        QUERY_LOGGER.debug("Multi search request {}:\n{}", queryId, searchRequestDtos);
+        new RestClientMultiSearchAction().actionAsync(restClient, multiSearchRequest, timeout).whenCompleteAsync((multiSearchResponse, e) -> {
+            int responseIndex = 0;
+            for (Map.Entry<Integer, InternalSearchRequest> entry : internalSearchRequests.entrySet()) {
+                final CompletableFuture<SearchResultDto> result = results.get(entry.getKey());
+                final SearchRequestDto searchRequestDto = searchRequestDtos.get(entry.getKey());
+                final MultiSearchResponse.Item item = (e == null) ? multiSearchResponse.getResponses()[responseIndex++] : null;
+                try {
+                    if (e != null || item.isFailure()) {
+                        throw searchException((e != null) ? unwrap(e) : item.getFailure(), searchRequestDto.getIndexPresetConfiguration());
+                    }
+                    QUERY_LOGGER.debug("Multi search response {}:\n{},", queryId, new SearchResponseToString(item.getResponse()));
+                    result.complete(convertSearchResponse(new InternalSearchResponse(item.getResponse(), entry.getValue().aggregationFields),
+                            searchRequestDto.getQueryDto(), searchRequestDto.getMappingConfiguration()));
+                } catch (RuntimeException ex) {
+                    result.completeExceptionally(ex);
+                }
+            }
+        }, asyncExecutor);
+        return results;
+    }
+
+    @Override
+    public CloseableIterator<SearchHitDto> scroll(QueryDto queryDto, MappingConfiguration mappingConfiguration,
+                                                  IndexPresetConfiguration indexPresetConfiguration) {
+        Validate.notNull(queryDto, "Parameter 'queryDto' may not be null!");
+        Validate.isTrue(queryDto.getCollapseOption() == null, "Scroll searches can not be combined with a collapse option!");
+        Validate.isTrue(queryDto.getContinuationToken() == null, "Scroll searches can not be combined with a continuation token!");
+
+        final SearchRequest searchRequest = searchRequest(indexPresetConfiguration, queryDto, mappingConfiguration).searchRequest;
+        final SearchSourceBuilder searchSourceBuilder = searchRequest.source().from(0);
+        if (CollectionUtils.isEmpty(queryDto.getSortOptions())) {
+            // Index order is the most efficient sort order for scrolling
+            searchSourceBuilder.sort(SortBuilders.fieldSort(FieldSortBuilder.DOC_FIELD_NAME));
+        }
+        QUERY_LOGGER.debug("Scroll search request:\n{}\n{}", queryDto, new SearchRequestSourceToString(searchRequest));
+        return new ScrollIterator<>(restClient, searchRequest, hit -> convertSearchHit(hit, mappingConfiguration), scrollKeepAlive,
+                searchTimeout(queryDto));
+    }
+
+    @Override
+    public CompletableFuture<Long> countAsync(QueryDto queryDto, MappingConfiguration mappingConfiguration,
+                                              IndexPresetConfiguration indexPresetConfiguration) {
+        final QueryBuilder query = byQuery(queryDto, mappingConfiguration, indexPresetConfiguration);
+        QUERY_LOGGER.debug("Count request:\n{}\n{}", queryDto, query);
+        return countExecutor().countAsync(indexPresetConfiguration.getIndexAlias(), query, searchTimeout(queryDto));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Long>> countAsync(Map<String, QueryDto> queryDtos, MappingConfiguration mappingConfiguration,
+                                                           IndexPresetConfiguration indexPresetConfiguration) {
+        Validate.notNull(queryDtos, "Parameter 'queryDtos' may not be null.");
+        final Map<String, QueryBuilder> queries = new LinkedHashMap<>();
+        queryDtos.forEach((key, queryDto) -> queries.put(key, byQuery(queryDto, mappingConfiguration, indexPresetConfiguration)));
+        QUERY_LOGGER.debug("Count requests:\n{}", queries);
+        return countExecutor().countAsync(indexPresetConfiguration.getIndexAlias(), queries, searchTimeout);
+    }
+
+    protected CountExecutor countExecutor() {
+        return new CountExecutor(restClient, this::searchException);
+    }
+
+    protected SearchResultDto convertSearchResponse(InternalSearchResponse internalSearchResponse, QueryDto queryDto,
+                                                    MappingConfiguration mappingConfiguration) {
+        return searchResponseConverter().convert(internalSearchResponse.searchResponse, internalSearchResponse.aggregationFields, queryDto,
+                mappingConfiguration);
+    }
+
+    protected SearchHitDto convertSearchHit(SearchHit hit, MappingConfiguration mappingConfiguration) {
+        return searchResponseConverter().convertSearchHit(hit, mappingConfiguration);
+    }
+
+    protected SearchResponseConverter searchResponseConverter() {
+        return new SearchResponseConverter(facetConverterChain, facetResolvers);
+    }
+
     @Override
     public Map<String, Object> getDocument(String indexAlias, Object id) {
         Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
@@ -532,6 +1044,86 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         }
     }
 
+    @Override
+    public Map<String, Object> getDocument(String indexAlias, Object id, GetParameter parameter, MappingConfiguration mappingConfiguration) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(id, "Parameter 'id' may not be null!");
+        Validate.notNull(parameter, "Parameter 'parameter' may not be null!");
+        if (parameter.isDocValues() && CollectionUtils.isNotEmpty(parameter.getFieldsToResolve())) {
+            return getDocumentFromDocValues(indexAlias, id, parameter.getFieldsToResolve(), mappingConfiguration);
+        }
+
+        try {
+            final GetRequest request = new GetRequest().index(indexAlias).id(idFormat.format(id))
+                    .fetchSourceContext(MultiGetExecutor.fetchSourceContext(parameter))
+                    .realtime(parameter.isRealtime());
+            final GetResponse response = restClient.get(request, RequestOptions.DEFAULT);
+            return response.getSource();
+        } catch (Exception e) {
+            throw new ElasticsearchException("Failed to get document: id=" + id, e);
+        }
+    }
+
+    protected Map<String, Object> getDocumentFromDocValues(String indexAlias, Object id, List<String> fields, MappingConfiguration mappingConfiguration) {
+        Validate.notNull(mappingConfiguration, "Parameter 'mappingConfiguration' may not be null if fields should be resolved from doc values!");
+        validateFields(fields, mappingConfiguration);
+
+        final SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder().query(QueryBuilders.idsQuery().addIds(idFormat.format(id))).size(1);
+        addDocValuesToSearchRequest(fields, searchSourceBuilder, mappingConfiguration);
+        final SearchRequest searchRequest = new SearchRequest(indexAlias).source(searchSourceBuilder);
+        try {
+            final SearchResponse searchResponse = new RestClientSearchAction().action(restClient, searchRequest, searchTimeout);
+            final SearchHit[] hits = searchResponse.getHits().getHits();
+            if (hits.length == 0) {
+                return null;
+            }
+            final Map<String, Object> docValues = convertSearchHit(hits[0], mappingConfiguration).getAttributes();
+            final Map<String, Object> document = new HashMap<>();
+            for (final String field : fields) {
+                final Object value = docValues.get(keywordFieldName(fieldConfiguration(mappingConfiguration, field), field));
+                if (value != null) {
+                    document.put(field, value);
+                }
+            }
+            return document;
+        } catch (Exception e) {
+            throw new ElasticsearchException("Failed to get document: id=" + id, e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getDocumentAsync(String indexAlias, Object id) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(id, "Parameter 'id' may not be null!");
+
+        final GetRequest request = new GetRequest().index(indexAlias).id(idFormat.format(id));
+        return new RestClientGetAction().actionAsync(restClient, request, searchTimeout).handle((response, e) -> {
+            if (e != null) {
+                throw new ElasticsearchException("Failed to get document: id=" + id, unwrap(e));
+            }
+            return response.getSource();
+        });
+    }
+
+    @Override
+    public List<Map<String, Object>> getDocuments(String indexAlias, List<?> ids, GetParameter parameter) {
+        Validate.notNull(ids, "Parameter 'ids' may not be null!");
+        Validate.isTrue(!parameter.isDocValues() || CollectionUtils.isEmpty(parameter.getFieldsToResolve()),
+                "Resolving fields from doc values is only supported for single documents!");
+        final List<String> formattedIds = ids.stream().map(idFormat::format).collect(Collectors.toList());
+        try {
+            return multiGetExecutor().getDocumentsAsync(indexAlias, formattedIds, parameter, searchTimeout).join();
+        } catch (CompletionException e) {
+            throw (e.getCause() instanceof RuntimeException)
+                    ? (RuntimeException) e.getCause()
+                    : new ElasticsearchException("Failed to get documents: indexAlias=" + indexAlias, e.getCause());
+        }
+    }
+
+    protected MultiGetExecutor multiGetExecutor() {
+        return new MultiGetExecutor(restClient, multiGetChunkSize);
+    }
+
     @Override
     public Map<String, List<String>> suggest(String indexAlias, SuggestExpression... expressions) {
         try {
@@ -543,7 +1135,7 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
 
             final SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder().suggest(suggestBuilder);
             final SearchRequest searchRequest = new SearchRequest(indexAlias).source(searchSourceBuilder);
-            final SearchResponse searchResponse = new RestClientSearchAction().action(restClient, searchRequest);
+            final SearchResponse searchResponse = new RestClientSearchAction().action(restClient, searchRequest, searchTimeout);
 
             final Map<String, List<String>> result = new HashMap<>();
             for (final Suggest.Suggestion<? extends Suggest.Suggestion.Entry<? extends Suggest.Suggestion.Entry.Option>> suggestion
@@ -574,78 +1166,6 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         return null;
     }
 
-    protected SearchHitDto convertSearchHit(SearchHit hit, MappingConfiguration mappingConfiguration) {
-        final Map<String, Object> source = hit.getSourceAsMap();
-        final Map<String, DocumentField> fields = hit.getFields();
-        final Map<String, Object> attributes = new HashMap<>();
-        if (source != null) {
-            for (Map.Entry<String, Object> entry : source.entrySet()) {
-                final String key = entry.getKey();
-                final Object value = entry.getValue();
-                attributes.put(key, value);
-            }
-        } else if (fields != null) {
-            for (Map.Entry<String, DocumentField> field : fields.entrySet()) {
-                final String key = field.getKey();
-                final DocumentField documentField = field.getValue();
-                final Object value = documentField.getValue();
-                attributes.put(key, value);
-            }
-        } else {
-            throw new RuntimeException("Missing data in search result!");
-        }
-
-        return new SearchHitDto(hit.getId(), attributes).innerHits(convertInnerHits(hit.getInnerHits(), mappingConfiguration));
-    }
-
-    protected Map<String, List<SearchHitDto>> convertInnerHits(Map<String, SearchHits> innerHits, MappingConfiguration mappingConfiguration) {
-        if (MapUtils.isNotEmpty(innerHits)) {
-            final Map<String, List<SearchHitDto>> convertedHits = new TreeMap<>();
-            innerHits.forEach((name, hits) -> {
-                for (final SearchHit hit : hits.getHits()) {
-                    convertedHits.computeIfAbsent(name, k -> new ArrayList<>()).add(convertSearchHit(hit, mappingConfiguration));
-                }
-            });
-            return convertedHits;
-        } else {
-            return null;
-        }
-    }
-
-    protected List<FacetDto> convertFacets(InternalSearchResponse internalSearchResponse, QueryDto queryDto, MappingConfiguration mappingConfiguration) {
-        final List<FacetDto> result = new ArrayList<>();
-
-        if (internalSearchResponse.searchResponse.getAggregations() != null) {
-            if (facetConverterChain != null) {
-                final Locale locale = queryDto.getLocale();
-
-                for (Aggregation aggregation : internalSearchResponse.searchResponse.getAggregations()) {
-                    final FacetConverter facetConverter = facetConverterChain.getFirstResponsible(aggregation);
-                    if (facetConverter != null) {
-                        final String fieldName = internalSearchResponse.aggregationFields.get(aggregation.getName());
-                        result.add(facetConverter.convert(aggregation, facetResolver(aggregation), fieldName, locale));
-                    } else {
-                        LOG.warn("Missing facet converter for aggregation: {}", aggregation);
-                    }
-                }
-            } else {
-                LOG.warn("Search response contains aggregations but facet converter chain is not defined!");
-            }
-        }
-        return result;
-    }
-
-    protected FacetResolver facetResolver(Aggregation aggregation) {
-        if (facetResolvers != null) {
-            for (FacetResolver facetResolver : facetResolvers) {
-                if (facetResolver.isResponsible(aggregation.getName())) {
-                    return facetResolver;
-                }
-            }
-        }
-        return null;
-    }
-
     protected InternalSearchResponse internalSearch(QueryDto queryDto, MappingConfiguration mappingConfiguration,
                                                     IndexPresetConfiguration indexPresetConfiguration) {
         final InternalSearchRequest internalSearchRequest = searchRequest(indexPresetConfiguration, queryDto, mappingConfiguration);
@@ -654,20 +1174,32 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
 
         final SearchResponse searchResponse;
         try {
-            searchResponse = new RestClientSearchAction().action(restClient, internalSearchRequest.searchRequest);
+            searchResponse = new RestClientSearchAction().action(restClient, internalSearchRequest.searchRequest, searchTimeout(queryDto));
         } catch (Exception e) {
-            final ElasticExceptionCause cause = ElasticExceptionUtils.getCause(e);
-            if (QUERY_SYNTAX == cause.getType()) {
-                throw new QuerySyntaxException("Elasticsearch rest client search action failed: Failed to parse query!", cause.getMessage(), e);
-            } else {
-                throw new ElasticsearchException("Elasticsearch rest client search action failed!", e);
-            }
+            throw searchException(e, indexPresetConfiguration);
         }
 
         QUERY_LOGGER.debug("Search response {}:\n{},", queryId, new SearchResponseToString(searchResponse));
         return new InternalSearchResponse(searchResponse, internalSearchRequest.aggregationFields);
     }
 
+    protected long searchTimeout(QueryDto queryDto) {
+        return (queryDto.getTimeout() != null) ? queryDto.getTimeout() : searchTimeout;
+    }
+
+    protected ElasticsearchException searchException(Exception e, IndexPresetConfiguration indexPresetConfiguration) {
+        return ElasticExceptionUtils.isIndexNotFound(e) ? new IndexMissingException(indexPresetConfiguration.getIndexAlias()) : searchException(e);
+    }
+
+    protected ElasticsearchException searchException(Exception e) {
+        final ElasticExceptionCause cause = ElasticExceptionUtils.getCause(e);
+        if (QUERY_SYNTAX == cause.getType()) {
+            return new QuerySyntaxException("Elasticsearch rest client search action failed: Failed to parse query!", cause.getMessage(), e);
+        } else {
+            return new ElasticsearchException("Elasticsearch rest client search action failed!", e);
+        }
+    }
+
     @Override
     public String createQueryJson(QueryDto queryDto, MappingConfiguration mappingConfiguration, IndexPresetConfiguration indexPresetConfiguration,
                                   boolean pretty) {
@@ -688,22 +1220,13 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
     protected InternalSearchRequest searchRequest(IndexPresetConfiguration indexPresetConfiguration, QueryDto queryDto,
                                                   MappingConfiguration mappingConfiguration) {
         final SearchSourceBuilder searchSourceBuilder = searchSourceBuilder(queryDto, indexPresetConfiguration);
-
-        final SearchContext context = new SearchContext(queryDto, mappingConfiguration);
-        final QueryBuilder queryBuilder = createQuery(context);
-        final QueryBuilder filterBuilder = createFilter(filterFactories, context);
-
-        if (filterBuilder != null) {
-            if (queryBuilder == null) {
-                searchSourceBuilder.query(QueryBuilders.boolQuery().filter(filterBuilder));
-            } else {
-                searchSourceBuilder.query(QueryBuilders.boolQuery().must(queryBuilder).filter(filterBuilder));
-            }
-        } else if (queryBuilder != null) {
+        final QueryBuilder queryBuilder = queryWithFilter(queryDto, mappingConfiguration);
+        if (queryBuilder != null) {
             searchSourceBuilder.query(queryBuilder);
         }
 
         addSortOptionsToSearchRequest(queryDto, mappingConfiguration, searchSourceBuilder);
+        addSearchAfterToSearchRequest(queryDto, mappingConfiguration, searchSourceBuilder);
         addCollapseOptionToSearchRequest(queryDto, mappingConfiguration, searchSourceBuilder);
         final Map<String, String> aggregationFields = addFacetsToSearchRequest(queryDto, mappingConfiguration, searchSourceBuilder);
         addFieldsToSearchRequest(queryDto, mappingConfiguration, searchSourceBuilder);
@@ -712,6 +1235,19 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         return new InternalSearchRequest(searchRequest, aggregationFields);
     }
 
+    protected QueryBuilder queryWithFilter(QueryDto queryDto, MappingConfiguration mappingConfiguration) {
+        final SearchContext context = new SearchContext(queryDto, mappingConfiguration);
+        final QueryBuilder queryBuilder = createQuery(context);
+        final QueryBuilder filterBuilder = createFilter(filterFactories, context);
+
+        if (filterBuilder != null) {
+            return (queryBuilder == null)
+                    ? QueryBuilders.boolQuery().filter(filterBuilder)
+                    : QueryBuilders.boolQuery().must(queryBuilder).filter(filterBuilder);
+        }
+        return queryBuilder;
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     protected Map<String, String> addFacetsToSearchRequest(QueryDto queryDto, MappingConfiguration mappingConfiguration,
                                                            SearchSourceBuilder searchRequestBuilder) {
@@ -743,110 +1279,29 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         }
     }
 
-    protected SortBuilder<?> sortBuilder(SortOption sortOption, MappingConfiguration mappingConfig, Locale locale) {
-        final String fieldName = sortOption.getFieldName();
-
-        if (sortOption instanceof ScriptSortOption) {
-            return scriptSortBuilder((ScriptSortOption) sortOption);
-        } else if (SortOption.RELEVANCE_NAME.equals(fieldName)) {
-            return SortBuilders.scoreSort();
-        } else {
-            return fieldSortBuilder(sortOption, mappingConfig, locale);
-        }
-    }
-
-    protected ScriptSortBuilder scriptSortBuilder(ScriptSortOption scriptSortOption) {
-        final ScriptDefinition scriptDefinition = scriptSortOption.getScriptDefinition();
-        final ScriptType scriptType = ScriptType.valueOf(scriptDefinition.getScriptType().name());
-        final Script script = new Script(scriptType, scriptDefinition.getLanguage(), scriptDefinition.getIdOrCode(), scriptDefinition.getOptions(),
-                scriptDefinition.getParams());
-        final ScriptSortBuilder.ScriptSortType sortType = ScriptSortBuilder.ScriptSortType.valueOf(scriptDefinition.getSortType().name());
-        return new ScriptSortBuilder(script, sortType);
-    }
-
-    protected SortBuilder<?> fieldSortBuilder(SortOption sortOption, MappingConfiguration mappingConfig, Locale locale) {
-        final String fieldName = sortOption.getFieldName();
-        SortBuilder<?> sortBuilder;
-
-        FieldConfiguration fieldConfiguration = fieldConfiguration(mappingConfig, fieldName, false);
-        final String rootFieldName = StringUtils.substringBefore(fieldName, ".");
-
-        if (fieldConfiguration == null) {
-            fieldConfiguration = fieldConfiguration(mappingConfig, rootFieldName, false);
-        }
-
-        sortBuilder = null;
-        String sortFieldName = rootFieldName;
-        if (fieldConfiguration != null) {
-            final FieldConfiguration rootConfiguration = (fieldConfiguration.getParent() != null) ? fieldConfiguration.getParent() : fieldConfiguration;
-
-            if (rootConfiguration.isNestedObject()) {
-                sortBuilder = buildNestedSort(rootConfiguration, fieldName, sortOption, mappingConfig, locale);
-            } else if (isTextField(fieldConfiguration)) {
-                sortBuilder = buildStringSort(fieldConfiguration, mappingConfig, fieldName, sortOrder(sortOption), locale);
-            } else if (rootConfiguration.getElasticsearchType().equals(OBJECT.getElasticType())) {
-                sortFieldName = fieldName;
-            }
-        } else {
-            LOG.warn("Missing field configuration for field '{}', sorting by this field may not be possible.", fieldName);
+    protected void addSearchAfterToSearchRequest(QueryDto queryDto, MappingConfiguration mappingConfig, SearchSourceBuilder searchSourceBuilder) {
+        final String continuationToken = queryDto.getContinuationToken();
+        if (continuationToken == null) {
+            return;
         }
+        Validate.isTrue(queryDto.getCollapseOption() == null, "Cursor paging can not be combined with a collapse option!");
 
-        if (sortBuilder == null) {
-            sortBuilder = SortBuilders.fieldSort(sortFieldName).order(sortOrder(sortOption)).sortMode(sortMode(sortOption)).missing(sortMissing());
+        final List<SortOption> sortOptions = queryDto.getSortOptions();
+        if (CollectionUtils.isEmpty(sortOptions)) {
+            searchSourceBuilder.sort(sortBuilder(SortOption.relevance(), mappingConfig, queryDto.getLocale()));
         }
-
-        return sortBuilder;
-    }
-
-    private FieldSortBuilder buildNestedSort(FieldConfiguration fieldConfiguration, String nestedFieldName, SortOption sortOption,
-                                             MappingConfiguration mappingConfiguration, Locale locale) {
-        final FieldConfiguration nestedField = fieldConfiguration.getInnerField(StringUtils.substringAfter(nestedFieldName, "."));
-        final String sortFieldName = sortFieldName(nestedField, nestedFieldName);
-        return SortBuilders
-                .fieldSort(sortFieldName)
-                .order(sortOrder(sortOption))
-                .missing(sortMissing())
-                .sortMode(sortMode(sortOption))
-                .setNestedSort(nestedSortBuilder(fieldConfiguration.getName(), sortOption, mappingConfiguration, locale));
-    }
-
-    private NestedSortBuilder nestedSortBuilder(String topFieldName, SortOption sortOption, MappingConfiguration mappingConfiguration, Locale locale) {
-        final NestedSortBuilder nestedSortBuilder = new NestedSortBuilder(topFieldName);
-        if (sortOption.getFilter() != null) {
-            nestedSortBuilder.setFilter(
-                    createFilter(filterFactories, new SearchContext(QueryDto.sortFilter(sortOption.getFilter(), locale), mappingConfiguration)));
+        if (sortOptions == null || sortOptions.stream().noneMatch(sortOption -> FieldConfiguration.FIELD_NAME_ID.equals(sortOption.getFieldName()))) {
+            // The document ID is a unique tiebreaker, so the sort values of the last hit identify the position of the next page.
+            searchSourceBuilder.sort(sortBuilder(SortOption.asc(FieldConfiguration.FIELD_NAME_ID), mappingConfig, queryDto.getLocale()));
         }
-        return nestedSortBuilder;
-    }
-
-    private SortOrder sortOrder(SortOption sortOption) {
-        return (sortOption.getSortDirection() == SortOption.Direction.ASC) ? SortOrder.ASC : SortOrder.DESC;
-    }
-
-    private SortMode sortMode(SortOption sortOption) {
-        if (sortOption.getArrayMode() == SortOption.ArrayMode.DEFAULT) {
-            return (sortOption.getSortDirection() == SortOption.Direction.ASC) ? SortMode.MIN : SortMode.MAX;
-        } else {
-            return SortMode.valueOf(sortOption.getArrayMode().name());
+        searchSourceBuilder.from(0);
+        if (!continuationToken.isEmpty()) {
+            searchSourceBuilder.searchAfter(decode(continuationToken));
         }
     }
 
-    private String sortMissing() {
-        return "_" + missingValueSortPosition.getValue();
-    }
-
-    protected FieldSortBuilder buildStringSort(FieldConfiguration fieldConfiguration, MappingConfiguration mappingConfiguration, String fieldName,
-                                             SortOrder sortOrder, Locale locale) {
-        if (fieldConfiguration.isSortable()) {
-            final String esFieldName = FieldConfigurationUtils.getElasticFieldName(mappingConfiguration, fieldName, locale);
-            final String sortFieldName = sortFieldName(fieldConfiguration, esFieldName);
-            return SortBuilders
-                    .fieldSort(sortFieldName)
-                    .missing("_" + missingValueSortPosition.getValue())
-                    .order(sortOrder);
-        } else {
-            throw new RuntimeException("The field '" + fieldConfiguration.getName() + "' is not configured as sortable!");
-        }
+    protected SortBuilder<?> sortBuilder(SortOption sortOption, MappingConfiguration mappingConfig, Locale locale) {
+        return new SortBuilderFactory(filterFactories, missingValueSortPosition).create(sortOption, mappingConfig, locale);
     }
 
     protected void addCollapseOptionToSearchRequest(QueryDto queryDto, MappingConfiguration mappingConfig, SearchSourceBuilder searchSourceBuilder) {
@@ -898,12 +1353,16 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
     }
 
     protected void validateFields(QueryDto queryDto, MappingConfiguration mappingConfiguration) {
+        validateFields(queryDto.getFieldsToResolve(), mappingConfiguration);
+    }
+
+    protected void validateFields(List<String> fieldsToResolve, MappingConfiguration mappingConfiguration) {
         final Map<String, FieldConfiguration> fieldConfigurations = new HashMap<>(mappingConfiguration.getFieldConfigurations().size());
         for (final FieldConfiguration fieldConfiguration : mappingConfiguration.getFieldConfigurations()) {
             fieldConfigurations.put(fieldConfiguration.getName(), fieldConfiguration);
         }
 
-        for (final String field : queryDto.getFieldsToResolve()) {
+        for (final String field : fieldsToResolve) {
             final FieldConfiguration fieldConfiguration = fieldConfigurations.get(field);
             if (fieldConfiguration == null) {
                 throw new RuntimeException("Undefined field to resolve: " + field);
@@ -936,16 +1395,23 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         } else {
             searchSourceBuilder.size(indexPresetConfiguration.getMaxResultWindow());
         }
+        // Only explicitly requested timeouts are sent to the server, timed out searches return partial results flagged as timed out
+        if (queryDto.getTimeout() != null && queryDto.getTimeout() > 0) {
+            searchSourceBuilder.timeout(TimeValue.timeValueMillis(queryDto.getTimeout()));
+        }
         return searchSourceBuilder;
     }
 
+    protected IndexRequest createIndexRequest(BytesReference source, String indexAlias) {
+        final String id = getId(source);
+        Validate.notNull(id, "Document source has no ID: " + source.utf8ToString());
+        return new IndexRequest(indexAlias).id(id).source(source, XContentType.JSON);
+    }
+
     protected IndexRequest createIndexRequest(Map<String, Object> doc, String indexAlias, boolean applyIndexRefresh) {
         final XContentBuilder contentBuilder;
         try {
-            contentBuilder = XContentFactory.jsonBuilder();
-            contentBuilder.startObject();
-            addToIndexRequestContent(contentBuilder, doc);
-            contentBuilder.endObject();
+            contentBuilder = documentContentBuilder.document(doc);
         } catch (IOException e) {
             throw new ElasticsearchException("Failed to create index request: indexAlias=" + indexAlias, e);
         }
@@ -955,77 +1421,30 @@ public class ElasticsearchImpl implements Elasticsearch, QueryFactoryCaller, Tim
         return indexRequest;
     }
 
-    @SuppressWarnings("unchecked")
-    protected void addToIndexRequestContent(XContentBuilder contentBuilder, Map<String, Object> doc) throws IOException {
-        for (Map.Entry<String, Object> entry : doc.entrySet()) {
-            if (entry.getValue() != null) {
-                final String fieldName = entry.getKey();
-                if (entry.getValue() instanceof List) {
-                    final List<?> list = (List<?>) entry.getValue();
-                    if (list.size() > 0 && list.get(0) instanceof Map) {
-                        final List<Map<String, Object>> nestedObjectList = (List<Map<String, Object>>) list;
-                        addNestedObjectsToIndexRequestContent(contentBuilder, fieldName, nestedObjectList);
-                    } else {
-                        final List<?> trimmedList = StringTrimUtility.trimListValues((List<?>) entry.getValue());
-                        contentBuilder.array(fieldName, trimmedList.toArray());
-                    }
-                } else if (entry.getValue() instanceof Date) {
-                    contentBuilder.field(fieldName, ElasticDateUtils.formatIso((Date) entry.getValue(), timeZone));
-                } else if (entry.getValue() instanceof Boolean) {
-                    contentBuilder.field(fieldName, entry.getValue());
-                } else if (entry.getValue() instanceof String && (entry.getValue().equals(Boolean.TRUE.toString())
-                        || entry.getValue().equals(Boolean.FALSE.toString()))) {
-                    contentBuilder.field(fieldName, Boolean.valueOf((String) entry.getValue()));
-                } else if (entry.getValue() instanceof String) {
-                    final String stringValue = (String) entry.getValue();
-                    contentBuilder.field(fieldName, stringValue.trim());
-                } else {
-                    contentBuilder.field(fieldName, entry.getValue());
-                }
-            }
-        }
-    }
-
-    protected void addNestedObjectsToIndexRequestContent(XContentBuilder contentBuilder, String fieldName, List<Map<String, Object>> nestedObjectList)
-            throws IOException {
-        contentBuilder.startArray(fieldName);
-        for (final Map<String, Object> doc : nestedObjectList) {
-            contentBuilder.startObject();
-            addToIndexRequestContent(contentBuilder, doc);
-            contentBuilder.endObject();
-        }
-        contentBuilder.endArray();
-    }
-
     protected boolean handleRequestExternally(WriteRequest<?> request) {
         return writeRequestHandler != null && writeRequestHandler.handle(request);
     }
 
-    protected boolean handleRequestExternally(AbstractBulkByScrollRequest<?> request) {
-        return writeRequestHandler != null && writeRequestHandler.handle(request);
-    }
-
     @SuppressWarnings("unchecked")
     protected <Req extends WriteRequest<Req>, Resp> Resp handleRequest(WriteRequest<Req> request) {
         if (request instanceof IndexRequest) {
-            return (Resp) new RestClientIndexAction().action(restClient, (IndexRequest) request);
+            return (Resp) new RestClientIndexAction().action(restClient, (IndexRequest) request, bulkTimeout);
         } else if (request instanceof DeleteRequest) {
-            return (Resp) new RestClientDeleteAction().action(restClient, (DeleteRequest) request);
+            return (Resp) new RestClientDeleteAction().action(restClient, (DeleteRequest) request, bulkTimeout);
+        } else if (request instanceof UpdateRequest) {
+            return (Resp) new RestClientUpdateAction().action(restClient, (UpdateRequest) request, bulkTimeout);
         } else if (request instanceof BulkRequest) {
-            return (Resp) new RestClientBulkAction().action(restClient, (BulkRequest) request);
+            return (Resp) new RestClientBulkAction().action(restClient, (BulkRequest) request, bulkTimeout);
         } else {
             throw new RuntimeException("Unsupported request type: " + request.getClass().getName());
         }
     }
 
-    protected BulkByScrollResponse handleRequest(AbstractBulkByScrollRequest<?> request) {
-        if (request instanceof UpdateByQueryRequest) {
-            return new RestClientUpdateByQueryAction().action(restClient, (UpdateByQueryRequest) request);
-        } else if (request instanceof DeleteByQueryRequest) {
-            return new RestClientDeleteByQueryAction().action(restClient, (DeleteByQueryRequest) request);
-        } else {
-            throw new RuntimeException("Unsupported request type: " + request.getClass().getName());
+    protected CompletableFuture<BulkResponse> handleRequestAsync(BulkRequest request) {
+        if (handleRequestExternally(request)) {
+            return CompletableFuture.completedFuture(null);
         }
+        return new RestClientBulkAction().actionAsync(restClient, request, bulkTimeout);
     }
 
     protected static class InternalSearchRequest {
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientMultiGetAction;
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
+import de.picturesafe.search.parameter.GetParameter;
+import org.apache.commons.lang3.Validate;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static de.picturesafe.search.elasticsearch.connect.util.ElasticExceptionUtils.unwrap;
+
+/**
+ * Gets multiple documents by ID via multi get requests. Large numbers of IDs are split into chunks which are requested concurrently.
+ */
+public class MultiGetExecutor {
+
+    private final RestHighLevelClient client;
+    private final int chunkSize;
+
+    /**
+     * Constructor
+     *
+     * @param client        Elasticsearch client
+     * @param chunkSize     Maximum number of documents per multi get request
+     */
+    public MultiGetExecutor(RestHighLevelClient client, int chunkSize) {
+        Validate.isTrue(chunkSize > 0, "Parameter 'chunkSize' must be greater than 0!");
+        this.client = client;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Gets multiple documents.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param ids           Formatted IDs of the documents
+     * @param parameter     Additional parameters
+     * @param timeout       Timeout per multi get request in milliseconds
+     * @return              Future of the documents in order of the given IDs, a document will be <code>null</code> if its ID does not exist
+     */
+    public CompletableFuture<List<Map<String, Object>>> getDocumentsAsync(String indexAlias, List<String> ids, GetParameter parameter, long timeout) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(ids, "Parameter 'ids' may not be null!");
+        Validate.notNull(parameter, "Parameter 'parameter' may not be null!");
+
+        final List<CompletableFuture<List<Map<String, Object>>>> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            final List<String> chunkIds = ids.subList(start, Math.min(start + chunkSize, ids.size()));
+            final CompletableFuture<MultiGetResponse> response = execute(multiGetRequest(indexAlias, chunkIds, parameter), timeout);
+            chunks.add(response.handle((multiGetResponse, e) -> {
+                if (e != null) {
+                    throw new ElasticsearchException("Failed to get documents: indexAlias=" + indexAlias, unwrap(e));
+                }
+                return documents(multiGetResponse, indexAlias);
+            }));
+        }
+
+        final CompletableFuture<List<Map<String, Object>>> result = CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(v -> {
+            final List<Map<String, Object>> documents = new ArrayList<>(ids.size());
+            chunks.forEach(chunk -> documents.addAll(chunk.join()));
+            return documents;
+        });
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                chunks.forEach(chunk -> chunk.cancel(false));
+            }
+        });
+        return result;
+    }
+
+    protected MultiGetRequest multiGetRequest(String indexAlias, List<String> ids, GetParameter parameter) {
+        final FetchSourceContext fetchSourceContext = fetchSourceContext(parameter);
+        final MultiGetRequest request = new MultiGetRequest().realtime(parameter.isRealtime());
+        ids.forEach(id -> request.add(new MultiGetRequest.Item(indexAlias, id).fetchSourceContext(fetchSourceContext)));
+        return request;
+    }
+
+    /**
+     * Creates the source filtering of get requests, the fields to resolve are included in addition to the explicitly included fields.
+     *
+     * @param parameter Get parameter
+     * @return          Fetch source context
+     */
+    static FetchSourceContext fetchSourceContext(GetParameter parameter) {
+        final Set<String> includes = new LinkedHashSet<>();
+        if (parameter.getIncludes() != null) {
+            includes.addAll(parameter.getIncludes());
+        }
+        if (parameter.getFieldsToResolve() != null) {
+            includes.addAll(parameter.getFieldsToResolve());
+        }
+        if (includes.isEmpty() && parameter.getExcludes() == null) {
+            return FetchSourceContext.FETCH_SOURCE;
+        }
+        final String[] excludes = (parameter.getExcludes() != null) ? parameter.getExcludes().toArray(new String[0]) : Strings.EMPTY_ARRAY;
+        return new FetchSourceContext(true, includes.toArray(new String[0]), excludes);
+    }
+
+    protected List<Map<String, Object>> documents(MultiGetResponse response, String indexAlias) {
+        final List<Map<String, Object>> documents = new ArrayList<>(response.getResponses().length);
+        for (final MultiGetItemResponse item : response.getResponses()) {
+            if (item.isFailed()) {
+                throw new ElasticsearchException("Failed to get document: indexAlias=" + indexAlias + ", id=" + item.getId(),
+                        item.getFailure().getFailure());
+            }
+            documents.add(item.getResponse().isExists() ? item.getResponse().getSource() : null);
+        }
+        return documents;
+    }
+
+    protected CompletableFuture<MultiGetResponse> execute(MultiGetRequest request, long timeout) {
+        return new RestClientMultiGetAction().actionAsync(client, request, timeout);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
+import de.picturesafe.search.elasticsearch.model.ExportStatus;
+import de.picturesafe.search.parameter.ExportParameter;
+import de.picturesafe.search.util.CloseableIterator;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.slice.SliceBuilder;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Exports the sources of all documents matching a query as NDJSON (one JSON document per line). The documents are fetched by parallel
+ * sliced scroll searches and written to the output without converting them to maps. Every slice fills an own buffer of limited size,
+ * which is written to the output as soon as it is full, so the memory consumption does not depend on the number of documents.
+ */
+public class NdjsonExporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NdjsonExporter.class);
+    private static final byte LINE_FEED = '\n';
+
+    private final RestHighLevelClient client;
+    private final long keepAlive;
+    private final long timeout;
+
+    /**
+     * Constructor
+     *
+     * @param client    Elasticsearch client
+     * @param keepAlive Time in milliseconds to keep the search contexts alive between two pages
+     * @param timeout   Timeout in milliseconds of a single request
+     */
+    public NdjsonExporter(RestHighLevelClient client, long keepAlive, long timeout) {
+        this.client = client;
+        this.keepAlive = keepAlive;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Exports the sources of all documents matching a query. The output stream will be flushed but not closed.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param query         Query matching the documents to export
+     * @param outputStream  Stream to write the documents to
+     * @param parameter     Parameters of the export, may be null
+     * @return              Status of the completed export
+     */
+    public ExportStatus export(String indexAlias, QueryBuilder query, OutputStream outputStream, ExportParameter parameter) {
+        final ExportParameter exportParameter = (parameter != null) ? parameter : ExportParameter.DEFAULT;
+        final Export export = new Export(outputStream, exportParameter);
+        final int slices = exportParameter.getSlices();
+
+        final ExecutorService executor = createExecutor(slices);
+        try {
+            final List<CompletableFuture<Void>> futures = new ArrayList<>(slices);
+            for (int slice = 0; slice < slices; slice++) {
+                final SearchRequest searchRequest = searchRequest(indexAlias, query, slice, exportParameter);
+                futures.add(CompletableFuture.runAsync(() -> exportSlice(searchRequest, export), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            outputStream.flush();
+        } catch (CompletionException e) {
+            throw (e.getCause() instanceof ElasticsearchException)
+                    ? (ElasticsearchException) e.getCause()
+                    : new ElasticsearchException("Failed to export documents of index '" + indexAlias + "'!", e.getCause());
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to export documents of index '" + indexAlias + "'!", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final ExportStatus status = export.status(true);
+        LOG.debug("Exported documents of index '{}': {}", indexAlias, status);
+        if (exportParameter.getProgressListener() != null) {
+            exportParameter.getProgressListener().accept(status);
+        }
+        return status;
+    }
+
+    protected SearchRequest searchRequest(String indexAlias, QueryBuilder query, int slice, ExportParameter parameter) {
+        final SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+                .query(query)
+                .size(parameter.getBatchSize())
+                .sort(SortBuilders.fieldSort(FieldSortBuilder.DOC_FIELD_NAME));
+        if (parameter.getSlices() > 1) {
+            searchSourceBuilder.slice(new SliceBuilder(slice, parameter.getSlices()));
+        }
+        return new SearchRequest(indexAlias).source(searchSourceBuilder);
+    }
+
+    protected CloseableIterator<SearchHit> scrollIterator(SearchRequest searchRequest) {
+        return new ScrollIterator<>(client, searchRequest, Function.identity(), keepAlive, timeout);
+    }
+
+    protected void exportSlice(SearchRequest searchRequest, Export export) {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(export.bufferSize);
+        int documents = 0;
+        try (CloseableIterator<SearchHit> hits = scrollIterator(searchRequest)) {
+            while (!export.failed && hits.hasNext()) {
+                if (writeSource(hits.next(), buffer)) {
+                    documents++;
+                }
+                if (buffer.size() >= export.bufferSize) {
+                    export.write(buffer, documents);
+                    documents = 0;
+                }
+            }
+            export.write(buffer, documents);
+        } catch (IOException e) {
+            export.failed = true;
+            throw new ElasticsearchException("Failed to write exported documents!", e);
+        } catch (RuntimeException e) {
+            export.failed = true;
+            throw e;
+        }
+    }
+
+    protected boolean writeSource(SearchHit hit, OutputStream outputStream) throws IOException {
+        final BytesReference source = hit.getSourceRef();
+        if (source == null) {
+            return false;
+        }
+
+        if (source.indexOf(LINE_FEED, 0) >= 0) {
+            // Sources with line breaks (pretty printed JSON) have to be reformatted to a single line
+            outputStream.write(XContentHelper.convertToJson(source, true, false, XContentType.JSON).getBytes(StandardCharsets.UTF_8));
+        } else {
+            source.writeTo(outputStream);
+        }
+        outputStream.write(LINE_FEED);
+        return true;
+    }
+
+    private static ExecutorService createExecutor(int threads) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "elasticsearch-export-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    protected static class Export {
+
+        final OutputStream outputStream;
+        final int bufferSize;
+        final long progressInterval;
+        final Consumer<ExportStatus> progressListener;
+        final long startTime = System.currentTimeMillis();
+        final AtomicLong documents = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicLong lastProgress = new AtomicLong(startTime);
+        volatile boolean failed;
+
+        Export(OutputStream outputStream, ExportParameter parameter) {
+            this.outputStream = outputStream;
+            this.bufferSize = parameter.getBufferSize();
+            this.progressInterval = parameter.getProgressInterval();
+            this.progressListener = parameter.getProgressListener();
+        }
+
+        void write(ByteArrayOutputStream buffer, int documentCount) throws IOException {
+            if (buffer.size() == 0) {
+                return;
+            }
+
+            synchronized (outputStream) {
+                buffer.writeTo(outputStream);
+            }
+            documents.addAndGet(documentCount);
+            bytes.addAndGet(buffer.size());
+            buffer.reset();
+            reportProgress();
+        }
+
+        void reportProgress() {
+            if (progressListener != null) {
+                final long now = System.currentTimeMillis();
+                final long last = lastProgress.get();
+                if (now - last >= progressInterval && lastProgress.compareAndSet(last, now)) {
+                    progressListener.accept(status(false));
+                }
+            }
+        }
+
+        ExportStatus status(boolean completed) {
+            return new ExportStatus(completed, documents.get(), bytes.get(), System.currentTimeMillis() - startTime);
+        }
+    }
+}
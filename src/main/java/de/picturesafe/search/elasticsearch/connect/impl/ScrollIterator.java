@@ -0,0 +1,200 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientClearScrollAction;
+import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientSearchAction;
+import de.picturesafe.search.elasticsearch.connect.asyncaction.RestClientSearchScrollAction;
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
+import de.picturesafe.search.util.CloseableIterator;
+import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Iterates lazily over all hits of a search using the scroll API. The next page is requested in the background while the hits of the
+ * current page are consumed. The search context will be released when the last page has been consumed or the iterator is closed.
+ * <p>
+ * Instances are not thread safe.
+ *
+ * @param <T> Type of the converted hits
+ */
+public class ScrollIterator<T> implements CloseableIterator<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScrollIterator.class);
+
+    private final RestHighLevelClient client;
+    private final Function<SearchHit, T> converter;
+    private final TimeValue keepAlive;
+    private final long timeout;
+    private final int pageSize;
+    private final Set<String> scrollIds = new LinkedHashSet<>();
+
+    private SearchRequest searchRequest;
+    private CompletableFuture<SearchResponse> nextPage;
+    private Iterator<SearchHit> hits = Collections.emptyIterator();
+    private boolean closed;
+
+    /**
+     * Constructor, the initial search request will be sent on the first call of {@link #hasNext()}.
+     *
+     * @param client        Elasticsearch client
+     * @param searchRequest Search request, the page size is defined by the size of the search source
+     * @param converter     Converter of the search hits
+     * @param keepAlive     Time in milliseconds to keep the search context alive between two pages
+     * @param timeout       Timeout in milliseconds of a single request
+     */
+    public ScrollIterator(RestHighLevelClient client, SearchRequest searchRequest, Function<SearchHit, T> converter, long keepAlive, long timeout) {
+        this.client = client;
+        this.converter = converter;
+        this.keepAlive = TimeValue.timeValueMillis(keepAlive);
+        this.timeout = timeout;
+        this.pageSize = searchRequest.source().size();
+        this.searchRequest = searchRequest.scroll(this.keepAlive);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (searchRequest != null) {
+            nextPage = executeSearch(searchRequest);
+            searchRequest = null;
+        }
+
+        while (!hits.hasNext()) {
+            if (nextPage == null) {
+                close();
+                return false;
+            }
+            fetchNextPage();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return converter.apply(hits.next());
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        hits = Collections.emptyIterator();
+        final Set<String> clearedScrollIds = new HashSet<>(scrollIds);
+        clearScroll();
+
+        if (nextPage != null) {
+            // The pending request may already have opened a search context on the server, so its scroll ID has to be cleared as well
+            nextPage.whenComplete((response, e) -> {
+                if (response != null && StringUtils.isNotEmpty(response.getScrollId()) && !clearedScrollIds.contains(response.getScrollId())) {
+                    clearScroll(Collections.singletonList(response.getScrollId()));
+                }
+            });
+            nextPage = null;
+        }
+    }
+
+    protected void fetchNextPage() {
+        final SearchResponse response = awaitNextPage();
+        if (StringUtils.isNotEmpty(response.getScrollId())) {
+            scrollIds.add(response.getScrollId());
+        }
+
+        final SearchHit[] page = response.getHits().getHits();
+        if (page.length > 0 && page.length >= pageSize && !closed) {
+            final SearchScrollRequest scrollRequest = new SearchScrollRequest(response.getScrollId()).scroll(keepAlive);
+            nextPage = executeScroll(scrollRequest);
+        }
+        hits = Arrays.asList(page).iterator();
+    }
+
+    protected SearchResponse awaitNextPage() {
+        final CompletableFuture<SearchResponse> future = nextPage;
+        nextPage = null;
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            close();
+            throw new ElasticsearchException("Failed to fetch next page of scroll search!", e.getCause());
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw new ElasticsearchException("Fetching next page of scroll search was interrupted!", e);
+        }
+    }
+
+    protected void clearScroll() {
+        if (scrollIds.isEmpty()) {
+            return;
+        }
+
+        final List<String> ids = new ArrayList<>(scrollIds);
+        scrollIds.clear();
+        clearScroll(ids);
+    }
+
+    protected void clearScroll(List<String> ids) {
+        final ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
+        clearScrollRequest.setScrollIds(ids);
+        executeClearScroll(clearScrollRequest).whenComplete((response, e) -> {
+            if (e != null) {
+                LOG.warn("Failed to clear scroll, the search context will be released after the keep alive time.", e);
+            }
+        });
+    }
+
+    protected CompletableFuture<SearchResponse> executeSearch(SearchRequest request) {
+        return new RestClientSearchAction().actionAsync(client, request, timeout);
+    }
+
+    protected CompletableFuture<SearchResponse> executeScroll(SearchScrollRequest request) {
+        return new RestClientSearchScrollAction().actionAsync(client, request, timeout);
+    }
+
+    protected CompletableFuture<ClearScrollResponse> executeClearScroll(ClearScrollRequest request) {
+        return new RestClientClearScrollAction().actionAsync(client, request, timeout);
+    }
+}
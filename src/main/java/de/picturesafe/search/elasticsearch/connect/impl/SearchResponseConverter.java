@@ -0,0 +1,184 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.config.MappingConfiguration;
+import de.picturesafe.search.elasticsearch.connect.aggregation.resolve.FacetConverter;
+import de.picturesafe.search.elasticsearch.connect.aggregation.resolve.FacetConverterChain;
+import de.picturesafe.search.elasticsearch.connect.aggregation.resolve.FacetResolver;
+import de.picturesafe.search.elasticsearch.connect.dto.FacetDto;
+import de.picturesafe.search.elasticsearch.connect.dto.QueryDto;
+import de.picturesafe.search.elasticsearch.connect.dto.QueryRangeDto;
+import de.picturesafe.search.elasticsearch.connect.dto.SearchHitDto;
+import de.picturesafe.search.elasticsearch.connect.dto.SearchResultDto;
+import org.apache.commons.collections.MapUtils;
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static de.picturesafe.search.elasticsearch.connect.util.ContinuationTokenUtils.encode;
+
+/**
+ * Converts search responses of Elasticsearch into search result DTOs.
+ */
+public class SearchResponseConverter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchResponseConverter.class);
+
+    private final FacetConverterChain facetConverterChain;
+    private final List<FacetResolver> facetResolvers;
+
+    /**
+     * Constructor
+     *
+     * @param facetConverterChain   Chain of facet converters, may be null if no aggregations are requested
+     * @param facetResolvers        Facet resolvers, may be null
+     */
+    public SearchResponseConverter(FacetConverterChain facetConverterChain, List<FacetResolver> facetResolvers) {
+        this.facetConverterChain = facetConverterChain;
+        this.facetResolvers = facetResolvers;
+    }
+
+    /**
+     * Converts a search response.
+     *
+     * @param searchResponse        Search response
+     * @param aggregationFields     Field names by name of the requested aggregations
+     * @param queryDto              Query of the search
+     * @param mappingConfiguration  Mapping configuration of the index
+     * @return                      Search result
+     */
+    public SearchResultDto convert(SearchResponse searchResponse, Map<String, String> aggregationFields, QueryDto queryDto,
+                                   MappingConfiguration mappingConfiguration) {
+        final SearchHits searchHits = searchResponse.getHits();
+        final TotalHits totalHits = searchHits.getTotalHits();
+
+        final List<SearchHitDto> searchHitDtos = new ArrayList<>();
+        for (SearchHit hit : searchHits.getHits()) {
+            searchHitDtos.add(convertSearchHit(hit, mappingConfiguration));
+        }
+        final List<FacetDto> facetDtos = convertFacets(searchResponse.getAggregations(), aggregationFields, queryDto);
+        final String continuationToken = nextContinuationToken(searchHits, queryDto);
+
+        // Timed out searches return the hits collected until the timeout, so the result is flagged as incomplete
+        return new SearchResultDto(totalHits.value, totalHits.relation == TotalHits.Relation.EQUAL_TO, searchHitDtos, facetDtos, continuationToken,
+                searchResponse.isTimedOut());
+    }
+
+    protected String nextContinuationToken(SearchHits searchHits, QueryDto queryDto) {
+        final SearchHit[] hits = searchHits.getHits();
+        final QueryRangeDto queryRange = queryDto.getQueryRange();
+        if (queryDto.getContinuationToken() == null || hits.length == 0 || (queryRange != null && hits.length < queryRange.getLimit())) {
+            return null;
+        }
+        return encode(hits[hits.length - 1].getSortValues());
+    }
+
+
+    /**
+     * Converts a search hit.
+     *
+     * @param hit                   Search hit
+     * @param mappingConfiguration  Mapping configuration of the index
+     * @return                      Converted search hit
+     */
+    public SearchHitDto convertSearchHit(SearchHit hit, MappingConfiguration mappingConfiguration) {
+        final Map<String, Object> source = hit.getSourceAsMap();
+        final Map<String, DocumentField> fields = hit.getFields();
+        final Map<String, Object> attributes = new HashMap<>();
+        if (source != null) {
+            for (Map.Entry<String, Object> entry : source.entrySet()) {
+                final String key = entry.getKey();
+                final Object value = entry.getValue();
+                attributes.put(key, value);
+            }
+        } else if (fields != null) {
+            for (Map.Entry<String, DocumentField> field : fields.entrySet()) {
+                final String key = field.getKey();
+                final DocumentField documentField = field.getValue();
+                final Object value = documentField.getValue();
+                attributes.put(key, value);
+            }
+        } else {
+            throw new RuntimeException("Missing data in search result!");
+        }
+
+        return new SearchHitDto(hit.getId(), attributes).innerHits(convertInnerHits(hit.getInnerHits(), mappingConfiguration));
+    }
+
+    protected Map<String, List<SearchHitDto>> convertInnerHits(Map<String, SearchHits> innerHits, MappingConfiguration mappingConfiguration) {
+        if (MapUtils.isNotEmpty(innerHits)) {
+            final Map<String, List<SearchHitDto>> convertedHits = new TreeMap<>();
+            innerHits.forEach((name, hits) -> {
+                for (final SearchHit hit : hits.getHits()) {
+                    convertedHits.computeIfAbsent(name, k -> new ArrayList<>()).add(convertSearchHit(hit, mappingConfiguration));
+                }
+            });
+            return convertedHits;
+        } else {
+            return null;
+        }
+    }
+
+    protected List<FacetDto> convertFacets(Aggregations aggregations, Map<String, String> aggregationFields, QueryDto queryDto) {
+        final List<FacetDto> result = new ArrayList<>();
+
+        if (aggregations != null) {
+            if (facetConverterChain != null) {
+                final Locale locale = queryDto.getLocale();
+
+                for (Aggregation aggregation : aggregations) {
+                    final FacetConverter facetConverter = facetConverterChain.getFirstResponsible(aggregation);
+                    if (facetConverter != null) {
+                        final String fieldName = aggregationFields.get(aggregation.getName());
+                        result.add(facetConverter.convert(aggregation, facetResolver(aggregation), fieldName, locale));
+                    } else {
+                        LOG.warn("Missing facet converter for aggregation: {}", aggregation);
+                    }
+                }
+            } else {
+                LOG.warn("Search response contains aggregations but facet converter chain is not defined!");
+            }
+        }
+        return result;
+    }
+
+    protected FacetResolver facetResolver(Aggregation aggregation) {
+        if (facetResolvers != null) {
+            for (FacetResolver facetResolver : facetResolvers) {
+                if (facetResolver.isResponsible(aggregation.getName())) {
+                    return facetResolver;
+                }
+            }
+        }
+        return null;
+    }
+}
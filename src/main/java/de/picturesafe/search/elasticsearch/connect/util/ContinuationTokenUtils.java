@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
+
+import java.io.IOException;
+import java.util.Base64;
+
+public class ContinuationTokenUtils {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ContinuationTokenUtils() {
+    }
+
+    /**
+     * Encodes the sort values of a search hit to an opaque continuation token.
+     *
+     * @param sortValues    Sort values of the last hit of a page
+     * @return              URL safe continuation token
+     */
+    public static String encode(Object[] sortValues) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(sortValues));
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to encode continuation token!", e);
+        }
+    }
+
+    /**
+     * Decodes a continuation token to the sort values to search after.
+     *
+     * @param token Continuation token created by {@link #encode(Object[])}
+     * @return      Sort values
+     * @throws IllegalArgumentException if the token is invalid
+     */
+    public static Object[] decode(String token) {
+        try {
+            return MAPPER.readValue(Base64.getUrlDecoder().decode(token), Object[].class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+    }
+}
@@ -16,9 +16,16 @@
 
 package de.picturesafe.search.elasticsearch.connect.util;
 
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
 import de.picturesafe.search.elasticsearch.model.IdFormat;
 import org.apache.commons.collections.MapUtils;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
@@ -46,6 +53,32 @@ public class ElasticDocumentUtils {
         return (String) doc.get("id");
     }
 
+    /**
+     * Gets the ID of a document given as JSON source. Only the top level fields up to the ID field will be parsed.
+     *
+     * @param source    JSON source of the document
+     * @return          ID or null if the source does not contain an ID
+     */
+    public static String getId(BytesReference source) {
+        try (XContentParser parser = XContentType.JSON.xContent()
+                .createParser(NamedXContentRegistry.EMPTY, DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source.streamInput())) {
+            if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == XContentParser.Token.FIELD_NAME) {
+                final String name = parser.currentName();
+                final XContentParser.Token token = parser.nextToken();
+                if ("id".equals(name) && token.isValue()) {
+                    return parser.text();
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to parse document source!", e);
+        }
+    }
+
     public static Date getDate(Map<String, Object> doc, String name) {
         final String value = getString(doc, name);
         return (value != null) ? parseIso(value) : null;
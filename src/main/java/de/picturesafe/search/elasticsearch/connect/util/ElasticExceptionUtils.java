@@ -19,6 +19,11 @@ package de.picturesafe.search.elasticsearch.connect.util;
 import de.picturesafe.search.elasticsearch.connect.error.ElasticExceptionCause;
 import org.apache.commons.lang3.StringUtils;
 import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.rest.RestStatus;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 
 public class ElasticExceptionUtils {
 
@@ -27,8 +32,9 @@ public class ElasticExceptionUtils {
     }
 
     public static ElasticExceptionCause getCause(Exception e) {
-        if (e.getCause() instanceof ElasticsearchStatusException) {
-            final ElasticsearchStatusException ese = (ElasticsearchStatusException) e.getCause();
+        final Throwable cause = (e instanceof ElasticsearchStatusException) ? e : e.getCause();
+        if (cause instanceof ElasticsearchStatusException) {
+            final ElasticsearchStatusException ese = (ElasticsearchStatusException) cause;
             final Throwable[] suppressedThrowables = ese.getSuppressed();
             for (Throwable suppressedThrowable : suppressedThrowables) {
                 final String suppressedMessage = suppressedThrowable.getMessage();
@@ -41,4 +47,36 @@ public class ElasticExceptionUtils {
         }
         return new ElasticExceptionCause(ElasticExceptionCause.Type.COMMON, "");
     }
+
+    /**
+     * Checks if an exception was caused by a missing index.
+     *
+     * @param t Exception thrown by a request
+     * @return  true if the requested index does not exist
+     */
+    public static boolean isIndexNotFound(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = (cause.getCause() != cause) ? cause.getCause() : null) {
+            if (cause instanceof IndexNotFoundException) {
+                return true;
+            } else if (cause instanceof ElasticsearchStatusException && ((ElasticsearchStatusException) cause).status() == RestStatus.NOT_FOUND
+                    && StringUtils.contains(cause.getMessage(), "index_not_found_exception")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unwraps the exception thrown by a completion stage of an asynchronous request.
+     *
+     * @param t Exception thrown by a {@link java.util.concurrent.CompletableFuture}
+     * @return  Original cause of the exception
+     */
+    public static Exception unwrap(Throwable t) {
+        Throwable cause = t;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return (cause instanceof Exception) ? (Exception) cause : new RuntimeException(cause);
+    }
 }
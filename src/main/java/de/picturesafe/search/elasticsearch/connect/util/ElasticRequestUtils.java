@@ -16,7 +16,10 @@
 
 package de.picturesafe.search.elasticsearch.connect.util;
 
+import de.picturesafe.search.parameter.ScriptDefinition;
 import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
 
 public class ElasticRequestUtils {
 
@@ -30,4 +33,14 @@ public class ElasticRequestUtils {
         }
         return refreshPolicy;
     }
+
+    public static Script script(ScriptDefinition scriptDefinition) {
+        final ScriptType scriptType = ScriptType.valueOf(scriptDefinition.getScriptType().name());
+        if (scriptType == ScriptType.STORED) {
+            // Stored scripts must not define a language
+            return new Script(scriptType, null, scriptDefinition.getIdOrCode(), null, scriptDefinition.getParams());
+        }
+        return new Script(scriptType, scriptDefinition.getLanguage(), scriptDefinition.getIdOrCode(), scriptDefinition.getOptions(),
+                scriptDefinition.getParams());
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.util;
+
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the lines of NDJSON (newline delimited JSON) as raw bytes without parsing them. Blank lines will be skipped.
+ * The input stream will not be closed.
+ */
+public class NdjsonIterator implements Iterator<BytesReference> {
+
+    private static final int CHUNK_SIZE = 65536;
+    private static final byte LINE_FEED = '\n';
+
+    private final InputStream inputStream;
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    private int position;
+    private int limit;
+    private boolean endOfStream;
+    private BytesReference next;
+
+    public NdjsonIterator(InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !endOfStream) {
+            next = readLine();
+        }
+        return next != null;
+    }
+
+    @Override
+    public BytesReference next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final BytesReference result = next;
+        next = null;
+        return result;
+    }
+
+    protected BytesReference readLine() {
+        while (true) {
+            if (position >= limit && !readChunk()) {
+                endOfStream = true;
+                return takeLine();
+            }
+
+            final int start = position;
+            while (position < limit && chunk[position] != LINE_FEED) {
+                position++;
+            }
+            line.write(chunk, start, position - start);
+            if (position < limit) {
+                position++;
+                final BytesReference result = takeLine();
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+    }
+
+    private boolean readChunk() {
+        try {
+            limit = inputStream.read(chunk);
+        } catch (IOException e) {
+            throw new ElasticsearchException("Failed to read NDJSON input!", e);
+        }
+        position = 0;
+        if (limit < 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private BytesReference takeLine() {
+        final byte[] bytes = line.toByteArray();
+        line.reset();
+
+        int length = bytes.length;
+        while (length > 0 && Character.isWhitespace(bytes[length - 1])) {
+            length--;
+        }
+        return (length > 0) ? new BytesArray(bytes, 0, length) : null;
+    }
+}
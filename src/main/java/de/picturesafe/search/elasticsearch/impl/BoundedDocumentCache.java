@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch.impl;
+
+import de.picturesafe.search.elasticsearch.DocumentCache;
+import de.picturesafe.search.util.BoundedCache;
+import de.picturesafe.search.util.SizeEstimator;
+
+import java.util.Map;
+
+/**
+ * Document cache with least recently used eviction, bounded by the number of documents and their estimated retained size. Documents
+ * expire after a time to live, which limits the visibility of changes made by other clients.
+ */
+public class BoundedDocumentCache implements DocumentCache {
+
+    private final BoundedCache<Object, Map<String, Object>> cache;
+
+    /**
+     * Constructor
+     *
+     * @param maxEntries    Maximum number of cached documents
+     * @param maxBytes      Maximum estimated retained size of all cached documents in bytes (0 = unlimited)
+     * @param ttlMillis     Time to live of cached documents in milliseconds (0 = unlimited)
+     */
+    public BoundedDocumentCache(int maxEntries, long maxBytes, long ttlMillis) {
+        cache = new BoundedCache<>(maxEntries, maxBytes, ttlMillis, SizeEstimator::estimate);
+    }
+
+    @Override
+    public Map<String, Object> get(Object key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public void put(Object key, Map<String, Object> document) {
+        cache.put(key, document);
+    }
+
+    @Override
+    public void remove(Object key) {
+        cache.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Gets the number of cached documents.
+     *
+     * @return Number of cached documents
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Gets the estimated retained size of all cached documents.
+     *
+     * @return Estimated size in bytes
+     */
+    public long getEstimatedBytes() {
+        return cache.getWeight();
+    }
+
+    /**
+     * Gets the number of documents served from the cache.
+     *
+     * @return Number of hits
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Gets the number of documents not found in the cache.
+     *
+     * @return Number of misses
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * Gets the number of documents evicted because the cache exceeded its bounds or the documents expired. Documents removed because they
+     * were written are not counted.
+     *
+     * @return Number of evictions
+     */
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch.impl;
+
+import de.picturesafe.search.elasticsearch.FacetResultCache;
+import de.picturesafe.search.elasticsearch.model.ResultFacet;
+import de.picturesafe.search.elasticsearch.model.ResultFacetItem;
+import de.picturesafe.search.util.BoundedCache;
+import de.picturesafe.search.util.SizeEstimator;
+
+import java.util.List;
+
+/**
+ * Facet result cache with least recently used eviction, bounded by the number of cached facet lists and their estimated retained size.
+ * Facets expire after a time to live, which is usually chosen longer than the one of search results since facet values change slowly.
+ */
+public class BoundedFacetResultCache implements FacetResultCache {
+
+    private final BoundedCache<Object, List<ResultFacet>> cache;
+
+    /**
+     * Constructor
+     *
+     * @param maxEntries    Maximum number of cached facet lists
+     * @param maxBytes      Maximum estimated retained size of all cached facets in bytes (0 = unlimited)
+     * @param ttlMillis     Time to live of cached facets in milliseconds (0 = unlimited)
+     */
+    public BoundedFacetResultCache(int maxEntries, long maxBytes, long ttlMillis) {
+        cache = new BoundedCache<>(maxEntries, maxBytes, ttlMillis, BoundedFacetResultCache::estimateSize);
+    }
+
+    @Override
+    public List<ResultFacet> get(Object key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public void put(Object key, List<ResultFacet> facets) {
+        cache.put(key, facets);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Gets the number of cached facet lists.
+     *
+     * @return Number of cached facet lists
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Gets the estimated retained size of all cached facets.
+     *
+     * @return Estimated size in bytes
+     */
+    public long getEstimatedBytes() {
+        return cache.getWeight();
+    }
+
+    /**
+     * Gets the number of searches which reused cached facets.
+     *
+     * @return Number of hits
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Gets the number of searches which had to compute their aggregations.
+     *
+     * @return Number of misses
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * Gets the number of facet lists evicted because the cache exceeded its bounds or the facets expired.
+     *
+     * @return Number of evictions
+     */
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    static long estimateSize(List<ResultFacet> facets) {
+        long size = 24;
+        if (facets != null) {
+            for (final ResultFacet facet : facets) {
+                size += 48 + SizeEstimator.estimate(facet.getName()) + SizeEstimator.estimate(facet.getFieldName());
+                for (final ResultFacetItem facetItem : facet.getFacetItems()) {
+                    size += 32 + SizeEstimator.estimate(facetItem.getValue());
+                }
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch.impl;
+
+import de.picturesafe.search.elasticsearch.SearchResultCache;
+import de.picturesafe.search.elasticsearch.model.SearchResult;
+import de.picturesafe.search.elasticsearch.model.SearchResultItem;
+import de.picturesafe.search.util.BoundedCache;
+import de.picturesafe.search.util.SizeEstimator;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Search result cache with least recently used eviction, bounded by the number of results and their estimated retained size. Results
+ * expire after a time to live, which also limits the visibility of changes made by other clients.
+ */
+public class BoundedSearchResultCache implements SearchResultCache {
+
+    private final BoundedCache<Object, SearchResult> cache;
+
+    /**
+     * Constructor
+     *
+     * @param maxEntries    Maximum number of cached results
+     * @param maxBytes      Maximum estimated retained size of all cached results in bytes (0 = unlimited)
+     * @param ttlMillis     Time to live of cached results in milliseconds (0 = unlimited)
+     */
+    public BoundedSearchResultCache(int maxEntries, long maxBytes, long ttlMillis) {
+        cache = new BoundedCache<>(maxEntries, maxBytes, ttlMillis, this::estimateSize);
+    }
+
+    @Override
+    public SearchResult get(Object key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public void put(Object key, SearchResult searchResult) {
+        cache.put(key, searchResult);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Gets the number of cached results.
+     *
+     * @return Number of cached results
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Gets the estimated retained size of all cached results.
+     *
+     * @return Estimated size in bytes
+     */
+    public long getEstimatedBytes() {
+        return cache.getWeight();
+    }
+
+    /**
+     * Gets the number of searches served from the cache.
+     *
+     * @return Number of hits
+     */
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * Gets the number of searches not found in the cache.
+     *
+     * @return Number of misses
+     */
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    /**
+     * Gets the number of results evicted because the cache exceeded its bounds or the results expired.
+     *
+     * @return Number of evictions
+     */
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    protected long estimateSize(SearchResult searchResult) {
+        return 64 + estimateSize(searchResult.getSearchResultItems()) + SizeEstimator.estimate(searchResult.getContinuationToken())
+                + BoundedFacetResultCache.estimateSize(searchResult.getFacets());
+    }
+
+    private long estimateSize(List<SearchResultItem> items) {
+        long size = 24;
+        if (items != null) {
+            for (final SearchResultItem item : items) {
+                size += 32 + SizeEstimator.estimate(item.getId()) + SizeEstimator.estimate(item.getAttributes());
+                final Map<String, List<SearchResultItem>> innerHits = item.getInnerHits();
+                if (innerHits != null) {
+                    for (final List<SearchResultItem> hits : innerHits.values()) {
+                        size += estimateSize(hits);
+                    }
+                }
+            }
+        }
+        return size;
+    }
+}
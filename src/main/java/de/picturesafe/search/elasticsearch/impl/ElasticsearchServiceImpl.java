@@ -17,9 +17,12 @@
 package de.picturesafe.search.elasticsearch.impl;
 
 import de.picturesafe.search.elasticsearch.DataChangeProcessingMode;
+import de.picturesafe.search.elasticsearch.DocumentCache;
 import de.picturesafe.search.elasticsearch.ElasticsearchService;
+import de.picturesafe.search.elasticsearch.FacetResultCache;
 import de.picturesafe.search.elasticsearch.FieldConfigurationProvider;
 import de.picturesafe.search.elasticsearch.IndexPresetConfigurationProvider;
+import de.picturesafe.search.elasticsearch.SearchResultCache;
 import de.picturesafe.search.elasticsearch.api.RangeFacetItem;
 import de.picturesafe.search.elasticsearch.config.FieldConfiguration;
 import de.picturesafe.search.elasticsearch.config.IndexPresetConfiguration;
@@ -31,11 +34,18 @@ import de.picturesafe.search.elasticsearch.connect.dto.FacetEntryDto;
 import de.picturesafe.search.elasticsearch.connect.dto.QueryDto;
 import de.picturesafe.search.elasticsearch.connect.dto.QueryRangeDto;
 import de.picturesafe.search.elasticsearch.connect.dto.SearchHitDto;
+import de.picturesafe.search.elasticsearch.connect.dto.SearchRequestDto;
 import de.picturesafe.search.elasticsearch.connect.dto.SearchResultDto;
+import de.picturesafe.search.elasticsearch.connect.util.NdjsonIterator;
 import de.picturesafe.search.elasticsearch.error.ElasticsearchServiceException;
+import de.picturesafe.search.elasticsearch.model.ByQueryStatus;
+import de.picturesafe.search.elasticsearch.model.ByQueryTask;
 import de.picturesafe.search.elasticsearch.model.ElasticsearchInfo;
+import de.picturesafe.search.elasticsearch.model.ExportStatus;
 import de.picturesafe.search.elasticsearch.model.IdFormat;
 import de.picturesafe.search.elasticsearch.model.IndexObject;
+import de.picturesafe.search.elasticsearch.model.MultiGetResult;
+import de.picturesafe.search.elasticsearch.model.MultiSearchItem;
 import de.picturesafe.search.elasticsearch.model.ResultFacet;
 import de.picturesafe.search.elasticsearch.model.ResultFacetItem;
 import de.picturesafe.search.elasticsearch.model.ResultRangeFacetItem;
@@ -45,13 +55,24 @@ import de.picturesafe.search.elasticsearch.model.SuggestResult;
 import de.picturesafe.search.expression.Expression;
 import de.picturesafe.search.expression.SuggestExpression;
 import de.picturesafe.search.parameter.AccountContext;
+import de.picturesafe.search.parameter.ByQueryParameter;
+import de.picturesafe.search.parameter.ExportParameter;
+import de.picturesafe.search.parameter.GetParameter;
+import de.picturesafe.search.parameter.ScriptDefinition;
 import de.picturesafe.search.parameter.SearchParameter;
+import de.picturesafe.search.parameter.SearchRequestSpec;
+import de.picturesafe.search.parameter.UpdateDefinition;
+import de.picturesafe.search.util.CopyUtils;
+import de.picturesafe.search.util.SingleFlight;
 import de.picturesafe.search.util.logging.StopWatchPrettyPrint;
+import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.LocaleUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,15 +80,28 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StopWatch;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 @SuppressWarnings("unused")
@@ -90,7 +124,24 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
     @Value("${elasticsearch.service.optimize_expressions.enabled:true}")
     protected boolean optimizeExpressionsEnabled = true;
 
+    @Value("${elasticsearch.service.track_total_hits_pages:0}")
+    protected int trackTotalHitsPages;
+
+    @Value("${elasticsearch.service.multi_search.max_concurrent_searches:0}")
+    protected int multiSearchMaxConcurrentSearches;
+
+    @Value("${elasticsearch.service.search_coalescing.enabled:false}")
+    protected boolean searchCoalescingEnabled;
+
     protected IdFormat idFormat = IdFormat.DEFAULT;
+    protected final SingleFlight<List<Object>, SearchResult> searchSingleFlight = new SingleFlight<>();
+
+    protected SearchResultCache searchResultCache;
+    protected FacetResultCache facetResultCache;
+    protected DocumentCache documentCache;
+    private final Map<String, AtomicLong> writeGenerations = new ConcurrentHashMap<>();
+    private final Map<String, CachedMappingConfiguration> cachedMappingConfigurations = new ConcurrentHashMap<>();
+    private final AtomicLong mappingConfigurationsGeneration = new AtomicLong();
 
     @Autowired
     public ElasticsearchServiceImpl(Elasticsearch elasticsearch, IndexPresetConfigurationProvider indexPresetConfigurationProvider,
@@ -130,11 +181,114 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         this.optimizeExpressionsEnabled = optimizeExpressionsEnabled;
     }
 
+    /**
+     * Sets the number of pages following the requested page for which total hits will be tracked, if the maximum number of total hits
+     * to track is not set by the search parameters. Counting stops at <code>start + trackTotalHitsPages * pageSize</code>, further hits
+     * are reported as not exact (see {@link SearchResult#isExactHitCount()}).
+     *
+     * @see SearchParameter#getMaxTrackTotalHits()
+     * @see SearchParameter#isExactCount()
+     *
+     * @param trackTotalHitsPages Number of pages to track total hits for (0 = use the Elasticsearch default)
+     */
+    public void setTrackTotalHitsPages(int trackTotalHitsPages) {
+        this.trackTotalHitsPages = trackTotalHitsPages;
+    }
+
+    /**
+     * Sets the maximum number of searches of a multi search to be executed concurrently by Elasticsearch.
+     *
+     * @param multiSearchMaxConcurrentSearches Maximum number of concurrent searches (0 = use the Elasticsearch default)
+     */
+    public void setMultiSearchMaxConcurrentSearches(int multiSearchMaxConcurrentSearches) {
+        this.multiSearchMaxConcurrentSearches = multiSearchMaxConcurrentSearches;
+    }
+
+    /**
+     * Sets if identical searches should be coalesced. If enabled, a search identical to a search in flight (same index, same Elasticsearch
+     * request and same paging) will not be sent to Elasticsearch but get a copy of the {@link SearchResult} of the search in flight. Searches are not
+     * coalesced with searches started before a write of this client, so the writes of a client are always visible to its searches.
+     *
+     * @see #getCoalescedSearches()
+     *
+     * @param searchCoalescingEnabled true if identical searches should be coalesced
+     */
+    public void setSearchCoalescingEnabled(boolean searchCoalescingEnabled) {
+        this.searchCoalescingEnabled = searchCoalescingEnabled;
+    }
+
+    /**
+     * Gets the number of searches which have been sent to Elasticsearch while search coalescing was enabled.
+     *
+     * @return Number of executed searches
+     */
+    public long getExecutedSearches() {
+        return searchSingleFlight.getExecutions();
+    }
+
+    /**
+     * Gets the number of searches which shared the result of an identical search in flight.
+     *
+     * @return Number of coalesced searches
+     */
+    public long getCoalescedSearches() {
+        return searchSingleFlight.getCoalesced();
+    }
+
     @Autowired(required = false)
     public void setIdFormat(IdFormat idFormat) {
         this.idFormat = idFormat;
     }
 
+    /**
+     * Sets the cache for search results (disabled by default). Results are cached per index alias and are invalidated automatically
+     * whenever this service writes to the alias. Changes made by other clients or by background writes become visible when the cached
+     * results expire.
+     *
+     * @see SearchParameter#isBypassCache()
+     *
+     * @param searchResultCache Search result cache (null = disabled)
+     */
+    @Autowired(required = false)
+    public void setSearchResultCache(SearchResultCache searchResultCache) {
+        this.searchResultCache = searchResultCache;
+    }
+
+    /**
+     * Sets the cache for facets (disabled by default). Facets are cached independently of paging and sorting, so searches only paging
+     * through results skip the aggregations and reuse the facets of the first page. Like search results, facets are invalidated whenever
+     * this service writes to the index alias.
+     *
+     * @see SearchParameter#isBypassCache()
+     *
+     * @param facetResultCache Facet result cache (null = disabled)
+     */
+    @Autowired(required = false)
+    public void setFacetResultCache(FacetResultCache facetResultCache) {
+        this.facetResultCache = facetResultCache;
+    }
+
+    /**
+     * Sets the near-cache for documents and objects loaded by ID (disabled by default). Documents are evicted whenever this service writes
+     * them. Changes made by other clients or by background writes become visible when the cached documents expire.
+     *
+     * @param documentCache Document cache (null = disabled)
+     */
+    @Autowired(required = false)
+    public void setDocumentCache(DocumentCache documentCache) {
+        this.documentCache = documentCache;
+    }
+
+    /**
+     * Invalidates the cached mapping configurations of all indexes. Mapping configurations are invalidated automatically on index, alias and
+     * mapping changes made by this service and if the {@link FieldConfigurationProvider#getVersion(String) version} of the field configurations
+     * changes. Changes of the field configurations not signaled by the provider require a call of this method.
+     */
+    public void invalidateMappingConfigurations() {
+        mappingConfigurationsGeneration.incrementAndGet();
+        cachedMappingConfigurations.clear();
+    }
+
     @Override
     public ElasticsearchInfo getElasticsearchInfo() {
         return elasticsearch.getElasticsearchInfo();
@@ -151,6 +305,7 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
         final MappingConfiguration mappingConfiguration = getMappingConfiguration(indexAlias, true);
         final String indexName = elasticsearch.createIndex(indexPresetConfiguration, mappingConfiguration);
+        invalidateMappingConfigurations();
         LOGGER.info("New elasticsearch index '{}' was created for alias '{}'", indexName, indexAlias);
         return indexName;
     }
@@ -161,6 +316,9 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
         final MappingConfiguration mappingConfiguration = getMappingConfiguration(indexAlias, true);
         final String indexName = elasticsearch.createIndexWithAlias(indexPresetConfiguration, mappingConfiguration);
+        invalidateMappingConfigurations();
+        dataChanged(indexAlias);
+        evictDocuments(indexAlias, null);
         LOGGER.info("New elasticsearch index '{}' was created with alias '{}'", indexName, indexAlias);
         return indexName;
     }
@@ -170,12 +328,15 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
         final MappingConfiguration mappingConfiguration = getMappingConfiguration(indexAlias, false);
         elasticsearch.updateMapping(indexPresetConfiguration, mappingConfiguration, Arrays.asList(fieldConfigs));
+        invalidateMappingConfigurations();
     }
 
     @Override
     public void deleteIndex(String indexName) {
         LOGGER.info("Deleting elasticsearch index: {}", indexName);
         elasticsearch.deleteIndex(indexName);
+        writeGenerations.values().forEach(AtomicLong::incrementAndGet);
+        evictDocuments(null, null);
     }
 
     @Override
@@ -185,6 +346,7 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
             deleteIndex(indexName);
         }
         removeAlias(indexAlias);
+        invalidateMappingConfigurations();
     }
 
     @Override
@@ -209,6 +371,9 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
     public void createAlias(String indexAlias, String indexName) {
         LOGGER.info("Creating elasticsearch alias '{}' for index '{}'", indexAlias, indexName);
         elasticsearch.createAlias(indexAlias, indexName);
+        invalidateMappingConfigurations();
+        dataChanged(indexAlias);
+        evictDocuments(indexAlias, null);
     }
 
     @Override
@@ -216,7 +381,11 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         if (elasticsearch.aliasExists(indexAlias)) {
             LOGGER.info("Removing elasticsearch alias '{}'", indexAlias);
             final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
-            return elasticsearch.removeAlias(indexPresetConfiguration);
+            final String indexName = elasticsearch.removeAlias(indexPresetConfiguration);
+            invalidateMappingConfigurations();
+            dataChanged(indexAlias);
+            evictDocuments(indexAlias, null);
+            return indexName;
         } else {
             return null;
         }
@@ -238,7 +407,21 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
         Validate.notNull(document, "Parameter 'document' may not be null!");
 
-        elasticsearch.addToIndex(indexAlias, dataChangeProcessingMode.isRefresh(), document);
+        if (dataChangeProcessingMode == DataChangeProcessingMode.BACKGROUND) {
+            // The data change is signaled again when the background write has been executed
+            writeAsync(indexAlias, documentIds(document), () -> elasticsearch.addToIndexInBackground(indexAlias, document));
+        } else {
+            write(indexAlias, documentIds(document), () -> elasticsearch.addToIndex(indexAlias, dataChangeProcessingMode.isRefresh(), document));
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> addToIndexAsync(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Map<String, Object> document) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
+        Validate.notNull(document, "Parameter 'document' may not be null!");
+
+        return writeAsync(indexAlias, documentIds(document), () -> elasticsearch.addToIndexAsync(indexAlias, dataChangeProcessingMode.isRefresh(), document));
     }
 
     @Override
@@ -261,7 +444,7 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
         Validate.notNull(documents, "Parameter 'documents' may not be null!");
 
-        elasticsearch.addToIndex(indexAlias, dataChangeProcessingMode.isRefresh(), true, documents);
+        write(indexAlias, documentIds(documents), () -> elasticsearch.addToIndex(indexAlias, dataChangeProcessingMode.isRefresh(), true, documents));
     }
 
     @Override
@@ -270,12 +453,98 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         addToIndex(indexAlias, dataChangeProcessingMode, objects.stream().map(IndexObject::toDocument).collect(Collectors.toList()));
     }
 
+    @Override
+    public void addToIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Stream<Map<String, Object>> documents,
+                           BiConsumer<String, Boolean> resultListener) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
+        Validate.notNull(documents, "Parameter 'documents' may not be null!");
+
+        write(indexAlias, () -> elasticsearch.addToIndex(indexAlias, dataChangeProcessingMode.isRefresh(), documents.iterator(), resultListener));
+    }
+
+    @Override
+    public void addObjectsToIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Stream<? extends IndexObject<?>> objects,
+                                  BiConsumer<String, Boolean> resultListener) {
+        Validate.notNull(objects, "Parameter 'objects' may not be null!");
+        addToIndex(indexAlias, dataChangeProcessingMode, objects.map(IndexObject::toDocument), resultListener);
+    }
+
+    @Override
+    public void addSourcesToIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Stream<byte[]> sources,
+                                  BiConsumer<String, Boolean> resultListener) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
+        Validate.notNull(sources, "Parameter 'sources' may not be null!");
+
+        final Iterator<BytesReference> sourceIterator = sources.map(source -> (BytesReference) new BytesArray(source)).iterator();
+        write(indexAlias, () -> elasticsearch.addSourcesToIndex(indexAlias, dataChangeProcessingMode.isRefresh(), sourceIterator, resultListener));
+    }
+
+    @Override
+    public void importDocuments(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, InputStream inputStream,
+                                BiConsumer<String, Boolean> resultListener) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
+        Validate.notNull(inputStream, "Parameter 'inputStream' may not be null!");
+
+        write(indexAlias, () -> elasticsearch.addSourcesToIndex(indexAlias, dataChangeProcessingMode.isRefresh(), new NdjsonIterator(inputStream),
+                resultListener));
+    }
+
+    @Override
+    public void updateFields(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Object id, Map<String, Object> fields) {
+        Validate.notNull(fields, "Parameter 'fields' may not be null!");
+        updateDocument(indexAlias, dataChangeProcessingMode, id, UpdateDefinition.fields(fields));
+    }
+
+    @Override
+    public void updateFields(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Map<?, Map<String, Object>> fieldsById) {
+        Validate.notNull(fieldsById, "Parameter 'fieldsById' may not be null!");
+
+        final Map<Object, UpdateDefinition> updates = new LinkedHashMap<>();
+        fieldsById.forEach((id, fields) -> updates.put(id, UpdateDefinition.fields(fields)));
+        updateDocuments(indexAlias, dataChangeProcessingMode, updates);
+    }
+
+    @Override
+    public void updateDocument(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Object id, UpdateDefinition update) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
+        Validate.notNull(id, "Parameter 'id' may not be null!");
+        Validate.notNull(update, "Parameter 'update' may not be null!");
+
+        write(indexAlias, Collections.singletonList(id), () -> elasticsearch.updateDocument(indexAlias, dataChangeProcessingMode.isRefresh(), id, update));
+    }
+
+    @Override
+    public void updateDocuments(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Map<?, UpdateDefinition> updates) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
+        Validate.notNull(updates, "Parameter 'updates' may not be null!");
+
+        write(indexAlias, updates.keySet(), () -> elasticsearch.updateDocuments(indexAlias, dataChangeProcessingMode.isRefresh(), true, updates));
+    }
+
     @Override
     public void removeFromIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Object id) {
         Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
         Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
 
-        elasticsearch.removeFromIndex(indexAlias, dataChangeProcessingMode.isRefresh(), id);
+        if (dataChangeProcessingMode == DataChangeProcessingMode.BACKGROUND) {
+            writeAsync(indexAlias, Collections.singletonList(id), () -> elasticsearch.removeFromIndexInBackground(indexAlias, id));
+        } else {
+            write(indexAlias, Collections.singletonList(id), () -> elasticsearch.removeFromIndex(indexAlias, dataChangeProcessingMode.isRefresh(), id));
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> removeFromIndexAsync(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Object id) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
+
+        return writeAsync(indexAlias, Collections.singletonList(id),
+                () -> elasticsearch.removeFromIndexAsync(indexAlias, dataChangeProcessingMode.isRefresh(), id));
     }
 
     @Override
@@ -284,7 +553,25 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
         Validate.notNull(ids, "Parameter 'ids' may not be null!");
 
-        elasticsearch.removeFromIndex(indexAlias, dataChangeProcessingMode.isRefresh(), ids);
+        write(indexAlias, ids, () -> elasticsearch.removeFromIndex(indexAlias, dataChangeProcessingMode.isRefresh(), ids));
+    }
+
+    @Override
+    public Map<String, String> removeFromIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Stream<?> ids) {
+        return removeFromIndex(indexAlias, dataChangeProcessingMode, ids, 0, 0);
+    }
+
+    @Override
+    public Map<String, String> removeFromIndex(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Stream<?> ids, int bulkSize,
+                                               int concurrentRequests) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
+        Validate.notNull(ids, "Parameter 'ids' may not be null!");
+        Validate.isTrue(bulkSize >= 0, "Parameter 'bulkSize' must be >= 0!");
+        Validate.isTrue(concurrentRequests >= 0, "Parameter 'concurrentRequests' must be >= 0!");
+
+        return writeAndGet(indexAlias,
+                () -> elasticsearch.removeFromIndex(indexAlias, dataChangeProcessingMode.isRefresh(), ids.iterator(), bulkSize, concurrentRequests));
     }
 
     @Override
@@ -295,8 +582,166 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         Validate.notNull(locale, "Parameter 'locale' may not be null!");
 
         final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
-        elasticsearch.removeFromIndex(new QueryDto(expression, locale), getMappingConfiguration(indexAlias, true), indexPresetConfiguration,
-                dataChangeProcessingMode.isRefresh());
+        write(indexAlias, () -> elasticsearch.removeFromIndex(new QueryDto(expression, locale), getMappingConfiguration(indexAlias, true),
+                indexPresetConfiguration, dataChangeProcessingMode.isRefresh()));
+    }
+
+    @Override
+    public ByQueryStatus deleteByQuery(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale,
+                                       ByQueryParameter parameter) {
+        validateByQuery(indexAlias, dataChangeProcessingMode, expression, locale);
+
+        final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
+        return writeAndGet(indexAlias, () -> elasticsearch.deleteByQuery(new QueryDto(expression, locale), getMappingConfiguration(indexAlias, true),
+                indexPresetConfiguration, parameter, dataChangeProcessingMode.isRefresh()));
+    }
+
+    @Override
+    public ByQueryTask submitDeleteByQuery(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale,
+                                           ByQueryParameter parameter) {
+        validateByQuery(indexAlias, dataChangeProcessingMode, expression, locale);
+
+        final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
+        return submitByQuery(indexAlias, () -> elasticsearch.submitDeleteByQuery(new QueryDto(expression, locale),
+                getMappingConfiguration(indexAlias, true), indexPresetConfiguration, parameter, dataChangeProcessingMode.isRefresh()));
+    }
+
+    @Override
+    public ByQueryStatus updateByQuery(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Expression expression,
+                                       ScriptDefinition script) {
+        return updateByQuery(indexAlias, dataChangeProcessingMode, expression, Locale.ROOT, script, null);
+    }
+
+    @Override
+    public ByQueryStatus updateByQuery(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale,
+                                       ScriptDefinition script, ByQueryParameter parameter) {
+        validateByQuery(indexAlias, dataChangeProcessingMode, expression, locale);
+        Validate.notNull(script, "Parameter 'script' may not be null!");
+
+        final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
+        return writeAndGet(indexAlias, () -> elasticsearch.updateByQuery(new QueryDto(expression, locale), getMappingConfiguration(indexAlias, true),
+                indexPresetConfiguration, script, parameter, dataChangeProcessingMode.isRefresh()));
+    }
+
+    @Override
+    public ByQueryTask submitUpdateByQuery(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale,
+                                           ScriptDefinition script, ByQueryParameter parameter) {
+        validateByQuery(indexAlias, dataChangeProcessingMode, expression, locale);
+        Validate.notNull(script, "Parameter 'script' may not be null!");
+
+        final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
+        return submitByQuery(indexAlias, () -> elasticsearch.submitUpdateByQuery(new QueryDto(expression, locale),
+                getMappingConfiguration(indexAlias, true), indexPresetConfiguration, script, parameter, dataChangeProcessingMode.isRefresh()));
+    }
+
+    /**
+     * Signals that data of an index alias has been changed by this client. Writes signal changes before and after writing, so searches
+     * running concurrently to writes are not cached as current results.
+     *
+     * @param indexAlias Name of the alias of the index
+     */
+    protected void dataChanged(String indexAlias) {
+        writeGenerations.computeIfAbsent(indexAlias, alias -> new AtomicLong()).incrementAndGet();
+    }
+
+    protected long writeGeneration(String indexAlias) {
+        return writeGenerations.computeIfAbsent(indexAlias, alias -> new AtomicLong()).get();
+    }
+
+    protected void write(String indexAlias, Runnable write) {
+        write(indexAlias, null, write);
+    }
+
+    /**
+     * Executes a write of documents. Cached documents are evicted after the data change was signaled, so documents loaded concurrently to the
+     * write are evicted as well.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param ids           IDs of the written documents (null = unknown)
+     * @param write         Write to execute
+     */
+    protected void write(String indexAlias, Collection<?> ids, Runnable write) {
+        dataChanged(indexAlias);
+        try {
+            write.run();
+        } finally {
+            dataChanged(indexAlias);
+            evictDocuments(indexAlias, ids);
+        }
+    }
+
+    protected <T> T writeAndGet(String indexAlias, Supplier<T> write) {
+        dataChanged(indexAlias);
+        try {
+            return write.get();
+        } finally {
+            dataChanged(indexAlias);
+            evictDocuments(indexAlias, null);
+        }
+    }
+
+    /**
+     * Submits a by query task. The task keeps changing documents after it has been submitted, so the data change is signaled again and the
+     * cached documents are evicted again when the task has been completed.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param submit        Submits the task
+     * @return              Handle of the task
+     */
+    protected ByQueryTask submitByQuery(String indexAlias, Supplier<ByQueryTask> submit) {
+        final ByQueryTask task = writeAndGet(indexAlias, submit);
+        task.completion().whenComplete((status, e) -> {
+            dataChanged(indexAlias);
+            evictDocuments(indexAlias, null);
+        });
+        return task;
+    }
+
+    protected <T> CompletableFuture<T> writeAsync(String indexAlias, Collection<?> ids, Supplier<CompletableFuture<T>> write) {
+        dataChanged(indexAlias);
+        return write.get().whenComplete((result, e) -> {
+            dataChanged(indexAlias);
+            evictDocuments(indexAlias, ids);
+        });
+    }
+
+    /**
+     * Evicts documents from the document cache.
+     *
+     * @param indexAlias    Name of the alias of the index
+     * @param ids           IDs of the documents (null = evict all documents)
+     */
+    protected void evictDocuments(String indexAlias, Collection<?> ids) {
+        if (documentCache != null) {
+            if (ids != null) {
+                ids.forEach(id -> documentCache.remove(documentKey(indexAlias, id)));
+            } else {
+                documentCache.clear();
+            }
+        }
+    }
+
+    protected List<Object> documentIds(Map<String, Object> document) {
+        return documentIds(Collections.singletonList(document));
+    }
+
+    protected List<Object> documentIds(List<Map<String, Object>> documents) {
+        final List<Object> ids = new ArrayList<>(documents.size());
+        for (final Map<String, Object> document : documents) {
+            final Object id = document.get(FieldConfiguration.FIELD_NAME_ID);
+            if (id == null) {
+                return null;
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private void validateByQuery(String indexAlias, DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(dataChangeProcessingMode, "Parameter 'dataChangeProcessingMode' may not be null!");
+        Validate.notNull(expression, "Parameter 'expression' may not be null!");
+        Validate.notNull(locale, "Parameter 'locale' may not be null!");
     }
 
     @Override
@@ -310,21 +755,249 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
 
         final StopWatch sw = new StopWatch();
 
+        if (searchCoalescingEnabled || isCacheable(searchParameter) || facetResultCache != null) {
+            return join(searchAsync(indexAlias, accountContext, expression, searchParameter));
+        }
+
         final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
         final int pageSize = getPageSize(searchParameter);
         final SearchResultDto searchResultDto
                 = getElasticsearchResult(new InternalSearchContext(indexPresetConfiguration, accountContext, expression, searchParameter, pageSize), sw);
-        final List<SearchResultItem> resultItems = searchResultDto.getHits().stream().map(this::searchResultItem).collect(Collectors.toList());
 
-        sw.start("get max results");
-        final long totalHitCount = searchResultDto.getTotalHitCount();
-        final int resultCount = getMaxResults(indexAlias, searchParameter.getMaxResults(), totalHitCount);
+        sw.start("convert result");
+        final SearchResult searchResult = searchResult(indexPresetConfiguration, searchParameter, pageSize, searchResultDto);
         sw.stop();
 
         LOGGER.debug("Performed search on index '{}':\n{}", indexAlias, new StopWatchPrettyPrint(sw));
+        return searchResult;
+    }
+
+    @Override
+    public CompletableFuture<SearchResult> searchAsync(String indexAlias, Expression expression, SearchParameter searchParameter) {
+        return searchAsync(indexAlias, null, expression, searchParameter);
+    }
+
+    @Override
+    public CompletableFuture<SearchResult> searchAsync(String indexAlias, AccountContext<?> accountContext, Expression expression,
+                                                       SearchParameter searchParameter) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+
+        final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
+        final int pageSize = getPageSize(searchParameter);
+        final InternalSearchContext context = new InternalSearchContext(indexPresetConfiguration, accountContext, expression, searchParameter, pageSize);
+        final QueryDto queryDto = createQueryDto(context);
+        final boolean cacheable = isCacheable(searchParameter);
+        if (!searchCoalescingEnabled && !cacheable) {
+            return searchAsync(context, queryDto);
+        }
+
+        // The write generation makes results of searches running concurrently to writes unreachable, so searches started after a write
+        // are neither served from the cache nor coalesced with searches started before the write
+        final List<Object> searchKey = Arrays.asList(searchKey(context, queryDto), writeGeneration(indexAlias));
+        if (!cacheable) {
+            return coalescedSearchAsync(searchKey, context, queryDto);
+        }
+
+        // Cached results are copied on put and on each hit, so callers cannot modify the cached result
+        final SearchResult cachedResult = searchResultCache.get(searchKey);
+        if (cachedResult != null) {
+            return CompletableFuture.completedFuture(cachedResult.copy());
+        }
+        final CompletableFuture<SearchResult> result = searchCoalescingEnabled
+                ? coalescedSearchAsync(searchKey, context, queryDto)
+                : searchAsync(context, queryDto);
+        return result.thenApply(searchResult -> {
+            if (!searchResult.isTimedOut()) {
+                searchResultCache.put(searchKey, searchResult.copy());
+            }
+            return searchResult;
+        });
+    }
+
+    /**
+     * Executes a search coalesced with identical searches in flight. Each caller gets its own copy of the shared result, so callers cannot
+     * modify the results of each other.
+     */
+    protected CompletableFuture<SearchResult> coalescedSearchAsync(List<Object> searchKey, InternalSearchContext context, QueryDto queryDto) {
+        return searchSingleFlight.execute(searchKey, () -> searchAsync(context, queryDto)).thenApply(SearchResult::copy);
+    }
+
+    protected boolean isCacheable(SearchParameter searchParameter) {
+        return searchResultCache != null && (searchParameter == null || !searchParameter.isBypassCache());
+    }
+
+    protected CompletableFuture<SearchResult> searchAsync(InternalSearchContext context, QueryDto queryDto) {
+        if (facetResultCache == null || CollectionUtils.isEmpty(queryDto.getAggregations())
+                || (context.searchParameter != null && context.searchParameter.isBypassCache())) {
+            return executeSearchAsync(context, queryDto);
+        }
+
+        final List<Object> facetKey = facetKey(context, queryDto);
+        final List<ResultFacet> cachedFacets = facetResultCache.get(facetKey);
+        if (cachedFacets != null) {
+            return executeSearchAsync(context, createQueryDto(context).aggregations(Collections.emptyList())).thenApply(searchResult -> {
+                searchResult.setFacets(SearchResult.copyFacets(cachedFacets));
+                return searchResult;
+            });
+        }
+        return executeSearchAsync(context, queryDto).thenApply(searchResult -> {
+            if (!searchResult.isTimedOut()) {
+                facetResultCache.put(facetKey, SearchResult.copyFacets(searchResult.getFacets()));
+            }
+            return searchResult;
+        });
+    }
+
+    /**
+     * Creates the key identifying identical aggregations. It is based on the Elasticsearch request of the query, the filters of the account
+     * context and the aggregations without paging, sorting and resolved fields, so all pages of a search share their facets.
+     */
+    protected List<Object> facetKey(InternalSearchContext context, QueryDto queryDto) {
+        final QueryDto facetQueryDto = new QueryDto(queryDto.getExpression(), queryDto.getLocale())
+                .queryRange(new QueryRangeDto(0, 0))
+                .aggregations(queryDto.getAggregations())
+                .accountContext(queryDto.getAccountContext());
+        final String indexAlias = context.indexPresetConfiguration.getIndexAlias();
+        final String queryJson = elasticsearch.createQueryJson(facetQueryDto, context.mappingConfiguration(), context.indexPresetConfiguration, false);
+        return Arrays.asList(indexAlias, queryJson, queryDto.getLocale(), writeGeneration(indexAlias));
+    }
+
+    protected CompletableFuture<SearchResult> executeSearchAsync(InternalSearchContext context, QueryDto queryDto) {
+        return elasticsearch.searchAsync(queryDto, context.mappingConfiguration(), context.indexPresetConfiguration)
+                .thenCompose(searchResultDto -> withExactCount(context, queryDto, searchResultDto))
+                .thenApply(searchResultDto -> searchResult(context.indexPresetConfiguration, context.searchParameter, context.pageSize, searchResultDto));
+    }
+
+    /**
+     * Creates the key identifying identical searches. The Elasticsearch request is used as canonical form of the query, so it covers
+     * the query, the filters of the account context, sorting, aggregations and paging.
+     */
+    protected List<Object> searchKey(InternalSearchContext context, QueryDto queryDto) {
+        final SearchParameter searchParameter = (context.searchParameter != null) ? context.searchParameter : SearchParameter.DEFAULT;
+        final String queryJson = elasticsearch.createQueryJson(queryDto, context.mappingConfiguration(), context.indexPresetConfiguration, false);
+        return Arrays.asList(context.indexPresetConfiguration.getIndexAlias(), queryJson, queryDto.getLocale(), searchParameter.getPageIndex(),
+                context.pageSize, searchParameter.getMaxResults(), searchParameter.isExactCount());
+    }
+
+    @Override
+    public List<MultiSearchItem> multiSearch(List<SearchRequestSpec> searches) {
+        Validate.notNull(searches, "Parameter 'searches' may not be null!");
+
+        // Configurations are resolved once per index alias for all searches
+        final Map<String, IndexPresetConfiguration> indexPresetConfigurations = new HashMap<>();
+        final Map<String, MappingConfiguration> mappingConfigurations = new HashMap<>();
+        final List<InternalSearchContext> contexts = new ArrayList<>();
+        final List<QueryDto> queryDtos = new ArrayList<>();
+        final List<SearchRequestDto> searchRequestDtos = new ArrayList<>();
+        for (SearchRequestSpec search : searches) {
+            Validate.notNull(search, "Parameter 'searches' may not contain null!");
+            Validate.notEmpty(search.getIndexAlias(), "Index alias of search may not be null or empty!");
+            final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurations.computeIfAbsent(search.getIndexAlias(),
+                    indexPresetConfigurationProvider::getIndexPresetConfiguration);
+            final SearchParameter searchParameter = (search.getSearchParameter() != null) ? search.getSearchParameter() : SearchParameter.DEFAULT;
+            final InternalSearchContext context = new InternalSearchContext(indexPresetConfiguration, search.getAccountContext(), search.getExpression(),
+                    searchParameter, getPageSize(searchParameter))
+                    .mappingConfiguration(mappingConfigurations.computeIfAbsent(search.getIndexAlias(), alias -> getMappingConfiguration(alias, true)));
+            final QueryDto queryDto = createQueryDto(context);
+            contexts.add(context);
+            queryDtos.add(queryDto);
+            searchRequestDtos.add(new SearchRequestDto(queryDto, context.mappingConfiguration(), indexPresetConfiguration));
+        }
+
+        final List<CompletableFuture<SearchResultDto>> results = elasticsearch.multiSearchAsync(searchRequestDtos, multiSearchMaxConcurrentSearches);
+        final List<MultiSearchItem> items = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            final InternalSearchContext context = contexts.get(i);
+            final QueryDto queryDto = queryDtos.get(i);
+            try {
+                final SearchResultDto searchResultDto = join(results.get(i).thenCompose(dto -> withExactCount(context, queryDto, dto)));
+                items.add(new MultiSearchItem(searchResult(context.indexPresetConfiguration, context.searchParameter, context.pageSize, searchResultDto),
+                        null));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Search {} of multi search failed: {}", i, searches.get(i), e);
+                items.add(new MultiSearchItem(null, e));
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public Stream<SearchResultItem> stream(String indexAlias, Expression expression, SearchParameter searchParameter) {
+        return stream(indexAlias, null, expression, searchParameter);
+    }
+
+    @Override
+    public Stream<SearchResultItem> stream(String indexAlias, AccountContext<?> accountContext, Expression expression, SearchParameter searchParameter) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+
+        final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
+        final SearchParameter parameter = (searchParameter != null) ? searchParameter : SearchParameter.DEFAULT;
+        final InternalSearchContext context
+                = new InternalSearchContext(indexPresetConfiguration, accountContext, expression, parameter, getPageSize(parameter));
+        final QueryDto queryDto = createQueryDto((accountContext != null) ? accountContext : new AccountContext<>(), expression, 0, context.pageSize,
+                parameter).aggregations(null);
+
+        final Stream<SearchResultItem> stream
+                = elasticsearch.scroll(queryDto, context.mappingConfiguration(), indexPresetConfiguration).stream().map(this::searchResultItem);
+        return (parameter.getMaxResults() != null) ? stream.limit(parameter.getMaxResults()) : stream;
+    }
+
+    @Override
+    public long count(String indexAlias, Expression expression) {
+        return count(indexAlias, null, expression);
+    }
+
+    @Override
+    public long count(String indexAlias, AccountContext<?> accountContext, Expression expression) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+
+        final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
+        final QueryDto queryDto = createCountQueryDto(accountContext, expression);
+        return join(elasticsearch.countAsync(queryDto, getMappingConfiguration(indexAlias, true), indexPresetConfiguration));
+    }
+
+    @Override
+    public Map<String, Long> count(String indexAlias, Map<String, Expression> expressions) {
+        return count(indexAlias, null, expressions);
+    }
+
+    @Override
+    public Map<String, Long> count(String indexAlias, AccountContext<?> accountContext, Map<String, Expression> expressions) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(expressions, "Parameter 'expressions' may not be null!");
+
+        final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
+        final Map<String, QueryDto> queryDtos = new LinkedHashMap<>();
+        expressions.forEach((key, expression) -> queryDtos.put(key, createCountQueryDto(accountContext, expression)));
+        return join(elasticsearch.countAsync(queryDtos, getMappingConfiguration(indexAlias, true), indexPresetConfiguration));
+    }
+
+    protected QueryDto createCountQueryDto(AccountContext<?> accountContext, Expression expression) {
+        return createQueryDto((accountContext != null) ? accountContext : new AccountContext<>(), expression, 0, 0, SearchParameter.DEFAULT);
+    }
+
+    @Override
+    public ExportStatus export(String indexAlias, Expression expression, Locale locale, OutputStream outputStream, ExportParameter parameter) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(expression, "Parameter 'expression' may not be null!");
+        Validate.notNull(outputStream, "Parameter 'outputStream' may not be null!");
+
+        final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
+        return elasticsearch.export(new QueryDto(expression, locale), getMappingConfiguration(indexAlias, true), indexPresetConfiguration, outputStream,
+                parameter);
+    }
+
+    protected SearchResult searchResult(IndexPresetConfiguration indexPresetConfiguration, SearchParameter searchParameter, int pageSize,
+                                        SearchResultDto searchResultDto) {
+        final List<SearchResultItem> resultItems = searchResultDto.getHits().stream().map(this::searchResultItem).collect(Collectors.toList());
+        final long totalHitCount = searchResultDto.getTotalHitCount();
+        final int resultCount = getMaxResults(indexPresetConfiguration, searchParameter.getMaxResults(), totalHitCount);
         final int pageIndex = (searchParameter.getPageIndex() != null) ? searchParameter.getPageIndex() : 1;
-        return new SearchResult(resultItems, pageIndex, pageSize, resultCount, totalHitCount, searchResultDto.isExactCount(),
+        final SearchResult searchResult = new SearchResult(resultItems, pageIndex, pageSize, resultCount, totalHitCount, searchResultDto.isExactCount(),
                 convertFacets(searchResultDto.getFacetDtoList()));
+        searchResult.setContinuationToken(searchResultDto.getContinuationToken());
+        searchResult.setTimedOut(searchResultDto.isTimedOut());
+        return searchResult;
     }
 
     protected SearchResultItem searchResultItem(SearchHitDto hit) {
@@ -354,7 +1027,58 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
 
     @Override
     public Map<String, Object> getDocument(String indexAlias, Object id) {
-        return elasticsearch.getDocument(indexAlias, id);
+        if (documentCache == null) {
+            return elasticsearch.getDocument(indexAlias, id);
+        }
+
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(id, "Parameter 'id' may not be null!");
+        final List<Object> documentKey = documentKey(indexAlias, id);
+        final Map<String, Object> cachedDocument = documentCache.get(documentKey);
+        if (cachedDocument != null) {
+            return CopyUtils.deepCopy(cachedDocument);
+        }
+        final long writeGeneration = writeGeneration(indexAlias);
+        final Map<String, Object> document = elasticsearch.getDocument(indexAlias, id);
+        cacheDocument(indexAlias, documentKey, document, writeGeneration);
+        return document;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> getDocumentAsync(String indexAlias, Object id) {
+        if (documentCache == null) {
+            return elasticsearch.getDocumentAsync(indexAlias, id);
+        }
+
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(id, "Parameter 'id' may not be null!");
+        final List<Object> documentKey = documentKey(indexAlias, id);
+        final Map<String, Object> cachedDocument = documentCache.get(documentKey);
+        if (cachedDocument != null) {
+            return CompletableFuture.completedFuture(CopyUtils.deepCopy(cachedDocument));
+        }
+        final long writeGeneration = writeGeneration(indexAlias);
+        return elasticsearch.getDocumentAsync(indexAlias, id).thenApply(document -> {
+            cacheDocument(indexAlias, documentKey, document, writeGeneration);
+            return document;
+        });
+    }
+
+    protected List<Object> documentKey(String indexAlias, Object id) {
+        return Arrays.asList(indexAlias, idFormat.format(id));
+    }
+
+    /**
+     * Caches a deep copy of a loaded document, cached documents are copied again on each hit. If data of the index alias was changed while
+     * the document was loaded, the document is removed again after caching it, since the eviction of the write may already have happened.
+     */
+    protected void cacheDocument(String indexAlias, List<Object> documentKey, Map<String, Object> document, long writeGeneration) {
+        if (document != null) {
+            documentCache.put(documentKey, CopyUtils.deepCopy(document));
+            if (writeGeneration(indexAlias) != writeGeneration) {
+                documentCache.remove(documentKey);
+            }
+        }
     }
 
     @Override
@@ -363,6 +1087,56 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         return (doc != null) ? IndexObject.fromDocument(doc, type) : null;
     }
 
+    @Override
+    public Map<String, Object> getDocument(String indexAlias, Object id, GetParameter parameter) {
+        Validate.notNull(parameter, "Parameter 'parameter' may not be null!");
+        final MappingConfiguration mappingConfiguration = parameter.isDocValues() ? getMappingConfiguration(indexAlias, true) : null;
+        return elasticsearch.getDocument(indexAlias, id, parameter, mappingConfiguration);
+    }
+
+    @Override
+    public <T extends IndexObject<T>> T getObject(String indexAlias, Object id, Class<T> type, GetParameter parameter) {
+        final Map<String, Object> doc = getDocument(indexAlias, id, parameter);
+        return (doc != null) ? IndexObject.fromDocument(doc, type) : null;
+    }
+
+    @Override
+    public MultiGetResult<Map<String, Object>> getDocuments(String indexAlias, Collection<?> ids) {
+        return getDocuments(indexAlias, ids, GetParameter.DEFAULT);
+    }
+
+    @Override
+    public MultiGetResult<Map<String, Object>> getDocuments(String indexAlias, Collection<?> ids, GetParameter parameter) {
+        Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
+        Validate.notNull(ids, "Parameter 'ids' may not be null!");
+        Validate.noNullElements(ids, "Parameter 'ids' may not contain null elements!");
+
+        final List<Object> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        final List<Map<String, Object>> documents = distinctIds.isEmpty()
+                ? Collections.emptyList()
+                : elasticsearch.getDocuments(indexAlias, distinctIds, (parameter != null) ? parameter : GetParameter.DEFAULT);
+
+        final Map<Object, Map<String, Object>> documentsById = new LinkedHashMap<>();
+        final List<Object> missingIds = new ArrayList<>();
+        for (int i = 0; i < distinctIds.size(); i++) {
+            final Map<String, Object> document = documents.get(i);
+            if (document != null) {
+                documentsById.put(distinctIds.get(i), document);
+            } else {
+                missingIds.add(distinctIds.get(i));
+            }
+        }
+        return new MultiGetResult<>(documentsById, missingIds);
+    }
+
+    @Override
+    public <T extends IndexObject<T>> MultiGetResult<T> getObjects(String indexAlias, Collection<?> ids, Class<T> type) {
+        final MultiGetResult<Map<String, Object>> documents = getDocuments(indexAlias, ids);
+        final Map<Object, T> objectsById = new LinkedHashMap<>();
+        documents.getItemsById().forEach((id, doc) -> objectsById.put(id, IndexObject.fromDocument(doc, type)));
+        return new MultiGetResult<>(objectsById, documents.getMissingIds());
+    }
+
     @Override
     public SuggestResult suggest(String indexAlias, SuggestExpression... expressions) {
         Validate.notEmpty(indexAlias, "Parameter 'indexAlias' may not be null or empty!");
@@ -399,7 +1173,40 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         final SearchResultDto result = elasticsearch.search(queryDto, context.mappingConfiguration(), context.indexPresetConfiguration);
         sw.stop();
 
-        return result;
+        if (!isExactCountMissing(context, result)) {
+            return result;
+        }
+        sw.start("exact count");
+        try {
+            return join(withExactCount(context, queryDto, result));
+        } finally {
+            sw.stop();
+        }
+    }
+
+    protected <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    protected boolean isExactCountMissing(InternalSearchContext context, SearchResultDto searchResultDto) {
+        return context.searchParameter != null && context.searchParameter.isExactCount() && !searchResultDto.isExactCount();
+    }
+
+    /**
+     * Completes the search result with the exact total hit count if it has been requested. The count request is only sent if the search
+     * did not already return an exact count.
+     */
+    protected CompletableFuture<SearchResultDto> withExactCount(InternalSearchContext context, QueryDto queryDto, SearchResultDto searchResultDto) {
+        if (!isExactCountMissing(context, searchResultDto)) {
+            return CompletableFuture.completedFuture(searchResultDto);
+        }
+        return elasticsearch.countAsync(queryDto, context.mappingConfiguration(), context.indexPresetConfiguration)
+                .thenApply(count -> new SearchResultDto(count, true, searchResultDto.getHits(), searchResultDto.getFacetDtoList(),
+                        searchResultDto.getContinuationToken(), searchResultDto.isTimedOut()));
     }
 
     protected QueryDto createQueryDto(InternalSearchContext context) {
@@ -412,6 +1219,10 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
             accountContext = new AccountContext<>();
         }
 
+        if (searchParameter.getContinuationToken() != null) {
+            return createQueryDto(accountContext, context.expression, 0, context.pageSize, searchParameter);
+        }
+
         final int pageIndex = (searchParameter.getPageIndex() != null) ? searchParameter.getPageIndex() : 1;
         final int start = (pageIndex - 1) * context.pageSize;
         final int maxResults = (searchParameter.getMaxResults() != null)
@@ -429,7 +1240,7 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
         if (optimizeExpressionsEnabled && searchParameter.isOptimizeExpressions()) {
             expression = expression.optimize();
         }
-        final QueryRangeDto queryRangeDto = new QueryRangeDto(start, limit, searchParameter.getMaxTrackTotalHits());
+        final QueryRangeDto queryRangeDto = new QueryRangeDto(start, limit, maxTrackTotalHits(start, limit, searchParameter));
         final List<String> fieldsToResolve = searchParameter.getFieldsToResolve();
         final QueryDto.FieldResolverType fieldResolverType = QueryDto.FieldResolverType.SOURCE_VALUES;
         final Locale locale = StringUtils.isNotBlank(searchParameter.getLanguage())
@@ -442,12 +1253,20 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
                 .aggregations(searchParameter.getAggregations())
                 .fieldsToResolve(fieldsToResolve)
                 .fieldResolverType(fieldResolverType)
-                .accountContext(accountContext);
+                .accountContext(accountContext)
+                .timeout(searchParameter.getTimeout())
+                .continuationToken(searchParameter.getContinuationToken());
     }
 
-    protected int getMaxResults(String indexAlias, Integer maxResults, long totalHitCount) {
+    protected Long maxTrackTotalHits(int start, int limit, SearchParameter searchParameter) {
+        if (searchParameter.getMaxTrackTotalHits() != null || trackTotalHitsPages <= 0) {
+            return searchParameter.getMaxTrackTotalHits();
+        }
+        return start + (long) trackTotalHitsPages * Math.max(limit, 1);
+    }
+
+    protected int getMaxResults(IndexPresetConfiguration indexPresetConfiguration, Integer maxResults, long totalHitCount) {
         if (maxResults == null) {
-            final IndexPresetConfiguration indexPresetConfiguration = indexPresetConfigurationProvider.getIndexPresetConfiguration(indexAlias);
             return (int) Math.min(totalHitCount, indexPresetConfiguration.getMaxResultWindow());
         }
         return (int) Math.min(totalHitCount, (long) maxResults);
@@ -467,6 +1286,24 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
     }
 
     protected MappingConfiguration getMappingConfiguration(String indexAlias, boolean addFieldConfigurations) {
+        if (!addFieldConfigurations) {
+            return createMappingConfiguration(indexAlias, false);
+        }
+
+        final long version = fieldConfigurationProvider.getVersion(indexAlias);
+        final long generation = mappingConfigurationsGeneration.get();
+        final CachedMappingConfiguration cached = cachedMappingConfigurations.get(indexAlias);
+        if (cached != null && cached.version == version && cached.generation == generation) {
+            return cached.mappingConfiguration;
+        }
+
+        // Entries created before an invalidation keep their old generation and will be ignored, even if they are stored afterwards
+        final MappingConfiguration mappingConfiguration = createMappingConfiguration(indexAlias, true);
+        cachedMappingConfigurations.put(indexAlias, new CachedMappingConfiguration(mappingConfiguration, version, generation));
+        return mappingConfiguration;
+    }
+
+    protected MappingConfiguration createMappingConfiguration(String indexAlias, boolean addFieldConfigurations) {
         final List<LanguageSortConfiguration> languageSortConfigurations = new ArrayList<>();
         for (final Locale locale : fieldConfigurationProvider.getSupportedLocales(indexAlias)) {
             languageSortConfigurations.add(new LanguageSortConfiguration(locale));
@@ -510,4 +1347,16 @@ public class ElasticsearchServiceImpl implements ElasticsearchService {
             return mappingConfiguration != null ? mappingConfiguration : getMappingConfiguration(indexPresetConfiguration.getIndexAlias(), true);
         }
     }
+
+    private static class CachedMappingConfiguration {
+        final MappingConfiguration mappingConfiguration;
+        final long version;
+        final long generation;
+
+        CachedMappingConfiguration(MappingConfiguration mappingConfiguration, long version, long generation) {
+            this.mappingConfiguration = mappingConfiguration;
+            this.version = version;
+            this.generation = generation;
+        }
+    }
 }
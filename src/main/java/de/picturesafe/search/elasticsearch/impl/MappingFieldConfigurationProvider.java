@@ -21,36 +21,65 @@ import de.picturesafe.search.elasticsearch.config.FieldConfiguration;
 import de.picturesafe.search.elasticsearch.connect.ElasticsearchAdmin;
 import de.picturesafe.search.elasticsearch.impl.mapping.MappingFields;
 import de.picturesafe.search.elasticsearch.impl.mapping.MappingResolver;
+import de.picturesafe.search.util.SingleFlight;
 import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Provides the field configurations of an index by resolving its mapping. Mappings are cached per alias and refreshed in the background
+ * ahead of the cache timeout, so only the first access of an alias has to wait for Elasticsearch. If a refresh fails, the cached mapping
+ * will be kept.
+ */
 public class MappingFieldConfigurationProvider implements FieldConfigurationProvider {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MappingFieldConfigurationProvider.class);
     private static final long DEFAULT_CACHE_TIMEOUT_MILLIS = 30_000;
+    private static final double REFRESH_AHEAD_FACTOR = 0.8;
 
     private final ElasticsearchAdmin elasticsearchAdmin;
     private final long cacheTimeoutMillis;
+    private final long refreshAheadMillis;
 
-    private final Map<String, CachedFields> cache = new HashMap<>();
-    private final Lock cacheLock = new ReentrantLock();
+    private final ConcurrentMap<String, CachedFields> cache = new ConcurrentHashMap<>();
+    private final SingleFlight<String, CachedFields> initialLoads = new SingleFlight<>();
+    private Executor refreshExecutor = ForkJoinPool.commonPool();
 
     public MappingFieldConfigurationProvider(ElasticsearchAdmin elasticsearchAdmin) {
         this(elasticsearchAdmin, DEFAULT_CACHE_TIMEOUT_MILLIS);
     }
 
+    /**
+     * Constructor
+     *
+     * @param elasticsearchAdmin    Elasticsearch admin
+     * @param cacheTimeoutMillis    Maximum age of cached mappings in milliseconds, refreshes start at 80% of the timeout (0 = never refresh)
+     */
     public MappingFieldConfigurationProvider(ElasticsearchAdmin elasticsearchAdmin, long cacheTimeoutMillis) {
         this.elasticsearchAdmin = elasticsearchAdmin;
         this.cacheTimeoutMillis = cacheTimeoutMillis;
+        this.refreshAheadMillis = (long) (cacheTimeoutMillis * REFRESH_AHEAD_FACTOR);
+    }
+
+    /**
+     * Sets the executor for refreshing cached mappings in the background.
+     *
+     * @param refreshExecutor Executor for refreshes
+     */
+    public void setRefreshExecutor(Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
     }
 
     @Override
@@ -65,21 +94,58 @@ public class MappingFieldConfigurationProvider implements FieldConfigurationProv
         return (mappingFields != null) ? mappingFields.getSupportedLocales() : Collections.emptyList();
     }
 
+    @Override
+    public long getVersion(String indexAlias) {
+        return getCachedFields(indexAlias).version;
+    }
+
     private MappingFields getMappingFields(String indexAlias) {
-        cacheLock.lock();
+        return getCachedFields(indexAlias).fields;
+    }
+
+    private CachedFields getCachedFields(String indexAlias) {
+        final CachedFields cachedFields = cache.get(indexAlias);
+        if (cachedFields == null) {
+            return loadInitially(indexAlias);
+        }
+
+        if (cacheTimeoutMillis > 0 && System.currentTimeMillis() - cachedFields.cacheTime >= refreshAheadMillis
+                && cachedFields.refreshing.compareAndSet(false, true)) {
+            LOGGER.debug("Refreshing index mapping: alias={}, cacheTime={}", indexAlias, cachedFields.cacheTime);
+            CompletableFuture.runAsync(() -> refresh(indexAlias, cachedFields), refreshExecutor);
+        }
+        return cachedFields;
+    }
+
+    private CachedFields loadInitially(String indexAlias) {
+        // Concurrent initial loads of the same alias share one request
+        final CompletableFuture<CachedFields> load = initialLoads.execute(indexAlias, () -> {
+            final CachedFields cachedFields = cache.get(indexAlias);
+            return CompletableFuture.completedFuture((cachedFields != null) ? cachedFields : reload(indexAlias));
+        });
         try {
-            final long now = System.currentTimeMillis();
-            CachedFields cachedFields = cache.computeIfAbsent(indexAlias, alias -> new CachedFields(loadMappingFields(alias), now));
-            if (cacheTimeoutMillis > 0 && now - cachedFields.cacheTime >= cacheTimeoutMillis) {
-                LOGGER.debug("Cache timed out for index mapping: alias={}, now={}, cacheTime={}", indexAlias, now, cachedFields.cacheTime);
-                cachedFields = cache.compute(indexAlias, (alias, s) -> new CachedFields(loadMappingFields(alias), now));
-            }
-            return cachedFields.fields;
-        } finally {
-            cacheLock.unlock();
+            return load.join();
+        } catch (CompletionException e) {
+            throw (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause() : e;
         }
     }
 
+    private void refresh(String indexAlias, CachedFields cachedFields) {
+        try {
+            reload(indexAlias);
+        } catch (Exception e) {
+            LOGGER.warn("Failed to refresh index mapping, keeping cached mapping: alias=" + indexAlias, e);
+            cache.replace(indexAlias, cachedFields, new CachedFields(cachedFields.fields, System.currentTimeMillis(), cachedFields.version));
+        }
+    }
+
+    private CachedFields reload(String indexAlias) {
+        final CachedFields loaded = new CachedFields(loadMappingFields(indexAlias), System.currentTimeMillis(), 0);
+        return cache.merge(indexAlias, loaded, (cached, l) -> Objects.equals(cached.fields, l.fields)
+                ? new CachedFields(cached.fields, l.cacheTime, cached.version)
+                : new CachedFields(l.fields, l.cacheTime, cached.version + 1));
+    }
+
     private MappingFields loadMappingFields(String indexAlias) {
         final List<String> indexNames = elasticsearchAdmin.resolveIndexNames(indexAlias);
         if (indexNames.size() > 1) {
@@ -92,10 +158,13 @@ public class MappingFieldConfigurationProvider implements FieldConfigurationProv
     private static class CachedFields {
         final MappingFields fields;
         final long cacheTime;
+        final long version;
+        final AtomicBoolean refreshing = new AtomicBoolean();
 
-        CachedFields(MappingFields fields, long cacheTime) {
+        CachedFields(MappingFields fields, long cacheTime, long version) {
             this.fields = fields;
             this.cacheTime = cacheTime;
+            this.version = version;
         }
     }
 }
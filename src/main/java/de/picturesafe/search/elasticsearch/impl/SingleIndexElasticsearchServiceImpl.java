@@ -22,22 +22,37 @@ import de.picturesafe.search.elasticsearch.IndexPresetConfigurationProvider;
 import de.picturesafe.search.elasticsearch.SingleIndexElasticsearchService;
 import de.picturesafe.search.elasticsearch.config.FieldConfiguration;
 import de.picturesafe.search.elasticsearch.config.IndexPresetConfiguration;
+import de.picturesafe.search.elasticsearch.model.ByQueryStatus;
+import de.picturesafe.search.elasticsearch.model.ByQueryTask;
 import de.picturesafe.search.elasticsearch.model.ElasticsearchInfo;
+import de.picturesafe.search.elasticsearch.model.ExportStatus;
 import de.picturesafe.search.elasticsearch.model.IndexObject;
+import de.picturesafe.search.elasticsearch.model.MultiGetResult;
 import de.picturesafe.search.elasticsearch.model.SearchResult;
+import de.picturesafe.search.elasticsearch.model.SearchResultItem;
 import de.picturesafe.search.elasticsearch.model.SuggestResult;
 import de.picturesafe.search.expression.Expression;
 import de.picturesafe.search.expression.SuggestExpression;
 import de.picturesafe.search.parameter.AccountContext;
+import de.picturesafe.search.parameter.ByQueryParameter;
+import de.picturesafe.search.parameter.ExportParameter;
+import de.picturesafe.search.parameter.GetParameter;
+import de.picturesafe.search.parameter.ScriptDefinition;
 import de.picturesafe.search.parameter.SearchParameter;
+import de.picturesafe.search.parameter.UpdateDefinition;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 @Component
 @SuppressWarnings("unused")
@@ -114,6 +129,11 @@ public class SingleIndexElasticsearchServiceImpl implements SingleIndexElasticse
         elasticsearchService.addToIndex(getIndexAlias(), dataChangeProcessingMode, document);
     }
 
+    @Override
+    public CompletableFuture<Void> addToIndexAsync(DataChangeProcessingMode dataChangeProcessingMode, Map<String, Object> document) {
+        return elasticsearchService.addToIndexAsync(getIndexAlias(), dataChangeProcessingMode, document);
+    }
+
     @Override
     public void addObjectToIndex(DataChangeProcessingMode dataChangeProcessingMode, IndexObject<?> object) {
         elasticsearchService.addObjectToIndex(getIndexAlias(), dataChangeProcessingMode, object);
@@ -134,21 +154,107 @@ public class SingleIndexElasticsearchServiceImpl implements SingleIndexElasticse
         elasticsearchService.addObjectsToIndex(getIndexAlias(), dataChangeProcessingMode, objects);
     }
 
+    @Override
+    public void addToIndex(DataChangeProcessingMode dataChangeProcessingMode, Stream<Map<String, Object>> documents,
+                           BiConsumer<String, Boolean> resultListener) {
+        elasticsearchService.addToIndex(getIndexAlias(), dataChangeProcessingMode, documents, resultListener);
+    }
+
+    @Override
+    public void addObjectsToIndex(DataChangeProcessingMode dataChangeProcessingMode, Stream<? extends IndexObject<?>> objects,
+                                  BiConsumer<String, Boolean> resultListener) {
+        elasticsearchService.addObjectsToIndex(getIndexAlias(), dataChangeProcessingMode, objects, resultListener);
+    }
+
+    @Override
+    public void addSourcesToIndex(DataChangeProcessingMode dataChangeProcessingMode, Stream<byte[]> sources, BiConsumer<String, Boolean> resultListener) {
+        elasticsearchService.addSourcesToIndex(getIndexAlias(), dataChangeProcessingMode, sources, resultListener);
+    }
+
+    @Override
+    public void importDocuments(DataChangeProcessingMode dataChangeProcessingMode, InputStream inputStream, BiConsumer<String, Boolean> resultListener) {
+        elasticsearchService.importDocuments(getIndexAlias(), dataChangeProcessingMode, inputStream, resultListener);
+    }
+
+    @Override
+    public void updateFields(DataChangeProcessingMode dataChangeProcessingMode, Object id, Map<String, Object> fields) {
+        elasticsearchService.updateFields(getIndexAlias(), dataChangeProcessingMode, id, fields);
+    }
+
+    @Override
+    public void updateFields(DataChangeProcessingMode dataChangeProcessingMode, Map<?, Map<String, Object>> fieldsById) {
+        elasticsearchService.updateFields(getIndexAlias(), dataChangeProcessingMode, fieldsById);
+    }
+
+    @Override
+    public void updateDocument(DataChangeProcessingMode dataChangeProcessingMode, Object id, UpdateDefinition update) {
+        elasticsearchService.updateDocument(getIndexAlias(), dataChangeProcessingMode, id, update);
+    }
+
+    @Override
+    public void updateDocuments(DataChangeProcessingMode dataChangeProcessingMode, Map<?, UpdateDefinition> updates) {
+        elasticsearchService.updateDocuments(getIndexAlias(), dataChangeProcessingMode, updates);
+    }
+
     @Override
     public void removeFromIndex(DataChangeProcessingMode dataChangeProcessingMode, Object id) {
         elasticsearchService.removeFromIndex(getIndexAlias(), dataChangeProcessingMode, id);
     }
 
+    @Override
+    public CompletableFuture<Void> removeFromIndexAsync(DataChangeProcessingMode dataChangeProcessingMode, Object id) {
+        return elasticsearchService.removeFromIndexAsync(getIndexAlias(), dataChangeProcessingMode, id);
+    }
+
     @Override
     public void removeFromIndex(DataChangeProcessingMode dataChangeProcessingMode, Collection<?> ids) {
         elasticsearchService.removeFromIndex(getIndexAlias(), dataChangeProcessingMode, ids);
     }
 
+    @Override
+    public Map<String, String> removeFromIndex(DataChangeProcessingMode dataChangeProcessingMode, Stream<?> ids) {
+        return elasticsearchService.removeFromIndex(getIndexAlias(), dataChangeProcessingMode, ids);
+    }
+
+    @Override
+    public Map<String, String> removeFromIndex(DataChangeProcessingMode dataChangeProcessingMode, Stream<?> ids, int bulkSize, int concurrentRequests) {
+        return elasticsearchService.removeFromIndex(getIndexAlias(), dataChangeProcessingMode, ids, bulkSize, concurrentRequests);
+    }
+
     @Override
     public void removeFromIndex(DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale) {
         elasticsearchService.removeFromIndex(getIndexAlias(), dataChangeProcessingMode, expression, locale);
     }
 
+    @Override
+    public ByQueryStatus deleteByQuery(DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale,
+                                       ByQueryParameter parameter) {
+        return elasticsearchService.deleteByQuery(getIndexAlias(), dataChangeProcessingMode, expression, locale, parameter);
+    }
+
+    @Override
+    public ByQueryTask submitDeleteByQuery(DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale,
+                                           ByQueryParameter parameter) {
+        return elasticsearchService.submitDeleteByQuery(getIndexAlias(), dataChangeProcessingMode, expression, locale, parameter);
+    }
+
+    @Override
+    public ByQueryStatus updateByQuery(DataChangeProcessingMode dataChangeProcessingMode, Expression expression, ScriptDefinition script) {
+        return elasticsearchService.updateByQuery(getIndexAlias(), dataChangeProcessingMode, expression, script);
+    }
+
+    @Override
+    public ByQueryStatus updateByQuery(DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale, ScriptDefinition script,
+                                       ByQueryParameter parameter) {
+        return elasticsearchService.updateByQuery(getIndexAlias(), dataChangeProcessingMode, expression, locale, script, parameter);
+    }
+
+    @Override
+    public ByQueryTask submitUpdateByQuery(DataChangeProcessingMode dataChangeProcessingMode, Expression expression, Locale locale,
+                                           ScriptDefinition script, ByQueryParameter parameter) {
+        return elasticsearchService.submitUpdateByQuery(getIndexAlias(), dataChangeProcessingMode, expression, locale, script, parameter);
+    }
+
     @Override
     public SearchResult search(Expression expression, SearchParameter searchParameter) {
         return elasticsearchService.search(getIndexAlias(), expression, searchParameter);
@@ -159,16 +265,91 @@ public class SingleIndexElasticsearchServiceImpl implements SingleIndexElasticse
         return elasticsearchService.search(getIndexAlias(), accountContext, expression, searchParameter);
     }
 
+    @Override
+    public CompletableFuture<SearchResult> searchAsync(Expression expression, SearchParameter searchParameter) {
+        return elasticsearchService.searchAsync(getIndexAlias(), expression, searchParameter);
+    }
+
+    @Override
+    public CompletableFuture<SearchResult> searchAsync(AccountContext<?> accountContext, Expression expression, SearchParameter searchParameter) {
+        return elasticsearchService.searchAsync(getIndexAlias(), accountContext, expression, searchParameter);
+    }
+
+    @Override
+    public Stream<SearchResultItem> stream(Expression expression, SearchParameter searchParameter) {
+        return elasticsearchService.stream(getIndexAlias(), expression, searchParameter);
+    }
+
+    @Override
+    public Stream<SearchResultItem> stream(AccountContext<?> accountContext, Expression expression, SearchParameter searchParameter) {
+        return elasticsearchService.stream(getIndexAlias(), accountContext, expression, searchParameter);
+    }
+
+    @Override
+    public long count(Expression expression) {
+        return elasticsearchService.count(getIndexAlias(), expression);
+    }
+
+    @Override
+    public long count(AccountContext<?> accountContext, Expression expression) {
+        return elasticsearchService.count(getIndexAlias(), accountContext, expression);
+    }
+
+    @Override
+    public Map<String, Long> count(Map<String, Expression> expressions) {
+        return elasticsearchService.count(getIndexAlias(), expressions);
+    }
+
+    @Override
+    public Map<String, Long> count(AccountContext<?> accountContext, Map<String, Expression> expressions) {
+        return elasticsearchService.count(getIndexAlias(), accountContext, expressions);
+    }
+
+    @Override
+    public ExportStatus export(Expression expression, Locale locale, OutputStream outputStream, ExportParameter parameter) {
+        return elasticsearchService.export(getIndexAlias(), expression, locale, outputStream, parameter);
+    }
+
     @Override
     public Map<String, Object> getDocument(Object id) {
         return elasticsearchService.getDocument(getIndexAlias(), id);
     }
 
+    @Override
+    public CompletableFuture<Map<String, Object>> getDocumentAsync(Object id) {
+        return elasticsearchService.getDocumentAsync(getIndexAlias(), id);
+    }
+
     @Override
     public <T extends IndexObject<T>> T getObject(Object id, Class<T> type) {
         return elasticsearchService.getObject(getIndexAlias(), id, type);
     }
 
+    @Override
+    public Map<String, Object> getDocument(Object id, GetParameter parameter) {
+        return elasticsearchService.getDocument(getIndexAlias(), id, parameter);
+    }
+
+    @Override
+    public <T extends IndexObject<T>> T getObject(Object id, Class<T> type, GetParameter parameter) {
+        return elasticsearchService.getObject(getIndexAlias(), id, type, parameter);
+    }
+
+    @Override
+    public MultiGetResult<Map<String, Object>> getDocuments(Collection<?> ids) {
+        return elasticsearchService.getDocuments(getIndexAlias(), ids);
+    }
+
+    @Override
+    public MultiGetResult<Map<String, Object>> getDocuments(Collection<?> ids, GetParameter parameter) {
+        return elasticsearchService.getDocuments(getIndexAlias(), ids, parameter);
+    }
+
+    @Override
+    public <T extends IndexObject<T>> MultiGetResult<T> getObjects(Collection<?> ids, Class<T> type) {
+        return elasticsearchService.getObjects(getIndexAlias(), ids, type);
+    }
+
     @Override
     public SuggestResult suggest(SuggestExpression... expressions) {
         return elasticsearchService.suggest(getIndexAlias(), expressions);
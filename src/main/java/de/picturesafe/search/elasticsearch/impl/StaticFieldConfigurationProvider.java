@@ -23,13 +23,15 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class StaticFieldConfigurationProvider implements FieldConfigurationProvider {
 
     public static final List<Locale> DEFAULT_LOCALES = Arrays.asList(Locale.GERMAN, Locale.ENGLISH);
 
     private final Map<String, List<FieldConfiguration>> fieldConfigurations;
-    private List<Locale> supportedLocales = DEFAULT_LOCALES;
+    private volatile List<Locale> supportedLocales = DEFAULT_LOCALES;
+    private final AtomicLong version = new AtomicLong();
 
     public StaticFieldConfigurationProvider(Map<String, List<FieldConfiguration>> fieldConfigurations) {
         this.fieldConfigurations = fieldConfigurations;
@@ -47,10 +49,17 @@ public class StaticFieldConfigurationProvider implements FieldConfigurationProvi
 
     public void setSupportedLocales(List<Locale> supportedLocales) {
         this.supportedLocales = supportedLocales;
+        // Changed locales change the language sort configurations, so cached mapping configurations have to be rebuilt
+        version.incrementAndGet();
     }
 
     @Override
     public List<Locale> getSupportedLocales(String indexAlias) {
         return supportedLocales;
     }
+
+    @Override
+    public long getVersion(String indexAlias) {
+        return version.get();
+    }
 }
@@ -17,6 +17,8 @@
 package de.picturesafe.search.elasticsearch.impl.mapping;
 
 import de.picturesafe.search.elasticsearch.config.FieldConfiguration;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 import java.util.List;
 import java.util.Locale;
@@ -38,4 +40,26 @@ public class MappingFields {
     public List<Locale> getSupportedLocales() {
         return supportedLocales;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        final MappingFields that = (MappingFields) o;
+        return new EqualsBuilder()
+                .append(fieldConfigurations, that.fieldConfigurations)
+                .append(supportedLocales, that.supportedLocales)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder().append(fieldConfigurations).toHashCode();
+    }
 }
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.model;
+
+import de.picturesafe.search.util.logging.CustomJsonToStringStyle;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Status of an operation processing all documents matching a query (update by query, delete by query).
+ */
+public class ByQueryStatus {
+
+    private final boolean completed;
+    private final long total;
+    private final long updated;
+    private final long deleted;
+    private final long versionConflicts;
+    private final long noops;
+    private final String reasonCancelled;
+    private final List<String> failures;
+
+    private ByQueryStatus(Builder builder) {
+        completed = builder.completed;
+        total = builder.total;
+        updated = builder.updated;
+        deleted = builder.deleted;
+        versionConflicts = builder.versionConflicts;
+        noops = builder.noops;
+        reasonCancelled = builder.reasonCancelled;
+        failures = (builder.failures != null) ? builder.failures : Collections.emptyList();
+    }
+
+    /**
+     * Checks if the operation has been completed.
+     *
+     * @return TRUE if the operation has been completed
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets the total number of documents to process.
+     *
+     * @return Total number of documents
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the number of updated documents.
+     *
+     * @return Number of updated documents
+     */
+    public long getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Gets the number of deleted documents.
+     *
+     * @return Number of deleted documents
+     */
+    public long getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Gets the number of documents which could not be processed because they have been changed concurrently.
+     *
+     * @return Number of version conflicts
+     */
+    public long getVersionConflicts() {
+        return versionConflicts;
+    }
+
+    /**
+     * Gets the number of documents which did not need to be changed (e.g. the script set <code>ctx.op = "noop"</code>).
+     *
+     * @return Number of noops
+     */
+    public long getNoops() {
+        return noops;
+    }
+
+    /**
+     * Gets the number of processed documents.
+     *
+     * @return Number of processed documents
+     */
+    public long getProcessed() {
+        return updated + deleted + versionConflicts + noops;
+    }
+
+    /**
+     * Gets the progress of the operation.
+     *
+     * @return Progress between 0 and 1
+     */
+    public double getProgress() {
+        if (completed) {
+            return 1;
+        }
+        return (total > 0) ? Math.min(1, (double) getProcessed() / total) : 0;
+    }
+
+    /**
+     * Gets the reason why the operation has been cancelled.
+     *
+     * @return Reason or <code>null</code> if the operation has not been cancelled
+     */
+    public String getReasonCancelled() {
+        return reasonCancelled;
+    }
+
+    /**
+     * Checks if the operation has been cancelled.
+     *
+     * @return TRUE if the operation has been cancelled
+     */
+    public boolean isCancelled() {
+        return reasonCancelled != null;
+    }
+
+    /**
+     * Gets the failure messages.
+     *
+     * @return Failure messages, empty if the operation did not fail so far
+     */
+    public List<String> getFailures() {
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, new CustomJsonToStringStyle()) //--
+                .append("completed", completed) //--
+                .append("total", total) //--
+                .append("updated", updated) //--
+                .append("deleted", deleted) //--
+                .append("versionConflicts", versionConflicts) //--
+                .append("noops", noops) //--
+                .append("reasonCancelled", reasonCancelled) //--
+                .append("failures", failures) //--
+                .toString();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        boolean completed;
+        long total;
+        long updated;
+        long deleted;
+        long versionConflicts;
+        long noops;
+        String reasonCancelled;
+        List<String> failures;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets if the operation has been completed.
+         *
+         * @param completed TRUE if the operation has been completed
+         * @return Builder
+         */
+        public Builder completed(boolean completed) {
+            this.completed = completed;
+            return this;
+        }
+
+        /**
+         * Sets the total number of documents to process.
+         *
+         * @param total Total number of documents
+         * @return Builder
+         */
+        public Builder total(long total) {
+            this.total = total;
+            return this;
+        }
+
+        /**
+         * Sets the number of updated documents.
+         *
+         * @param updated Number of updated documents
+         * @return Builder
+         */
+        public Builder updated(long updated) {
+            this.updated = updated;
+            return this;
+        }
+
+        /**
+         * Sets the number of deleted documents.
+         *
+         * @param deleted Number of deleted documents
+         * @return Builder
+         */
+        public Builder deleted(long deleted) {
+            this.deleted = deleted;
+            return this;
+        }
+
+        /**
+         * Sets the number of version conflicts.
+         *
+         * @param versionConflicts Number of version conflicts
+         * @return Builder
+         */
+        public Builder versionConflicts(long versionConflicts) {
+            this.versionConflicts = versionConflicts;
+            return this;
+        }
+
+        /**
+         * Sets the number of documents which did not need to be changed.
+         *
+         * @param noops Number of noops
+         * @return Builder
+         */
+        public Builder noops(long noops) {
+            this.noops = noops;
+            return this;
+        }
+
+        /**
+         * Sets the reason why the operation has been cancelled.
+         *
+         * @param reasonCancelled Reason or <code>null</code> if the operation has not been cancelled
+         * @return Builder
+         */
+        public Builder reasonCancelled(String reasonCancelled) {
+            this.reasonCancelled = reasonCancelled;
+            return this;
+        }
+
+        /**
+         * Sets the failure messages.
+         *
+         * @param failures Failure messages
+         * @return Builder
+         */
+        public Builder failures(List<String> failures) {
+            this.failures = failures;
+            return this;
+        }
+
+        public ByQueryStatus build() {
+            return new ByQueryStatus(this);
+        }
+    }
+}
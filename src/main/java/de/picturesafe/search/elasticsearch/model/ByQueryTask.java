@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.model;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handle of an operation processing all documents matching a query (update by query, delete by query) running as task in Elasticsearch.
+ * The operation continues in Elasticsearch independently of the handle.
+ */
+public interface ByQueryTask {
+
+    /**
+     * Gets the ID of the Elasticsearch task.
+     *
+     * @return Task ID (node:id)
+     */
+    String getTaskId();
+
+    /**
+     * Gets the current status of the operation.
+     *
+     * @return Status of the operation
+     */
+    ByQueryStatus getStatus();
+
+    /**
+     * Waits until the operation has been completed or the timeout has elapsed. If the waiting thread is interrupted, its interrupt flag will be
+     * restored and an exception will be thrown.
+     *
+     * @param timeoutMillis Timeout in milliseconds
+     * @return              Status of the operation, check {@link ByQueryStatus#isCompleted()} if the timeout has elapsed
+     */
+    ByQueryStatus awaitCompletion(long timeoutMillis);
+
+    /**
+     * Gets a future which will be completed with the final status when the operation has been completed. The status of the operation is
+     * polled in background as long as the operation is running.
+     *
+     * @return Future of the final status of the operation
+     */
+    CompletableFuture<ByQueryStatus> completion();
+
+    /**
+     * Cancels the operation. Documents already processed remain changed.
+     */
+    void cancel();
+
+    /**
+     * Changes the throttle of the running operation.
+     *
+     * @param requestsPerSecond Requests (documents) per second or <code>null</code> to disable throttling
+     */
+    void rethrottle(Float requestsPerSecond);
+}
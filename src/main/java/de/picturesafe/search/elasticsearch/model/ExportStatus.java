@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.model;
+
+import de.picturesafe.search.util.logging.CustomJsonToStringStyle;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Status of an export of documents.
+ */
+public class ExportStatus {
+
+    private final boolean completed;
+    private final long documents;
+    private final long bytes;
+    private final long elapsedMillis;
+
+    /**
+     * Constructor
+     *
+     * @param completed     TRUE if the export has been completed
+     * @param documents     Number of exported documents
+     * @param bytes         Number of written bytes
+     * @param elapsedMillis Elapsed time in milliseconds
+     */
+    public ExportStatus(boolean completed, long documents, long bytes, long elapsedMillis) {
+        this.completed = completed;
+        this.documents = documents;
+        this.bytes = bytes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Checks if the export has been completed.
+     *
+     * @return TRUE if the export has been completed
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets the number of exported documents.
+     *
+     * @return Number of documents
+     */
+    public long getDocuments() {
+        return documents;
+    }
+
+    /**
+     * Gets the number of written bytes.
+     *
+     * @return Number of bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the elapsed time of the export.
+     *
+     * @return Elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Gets the throughput in documents per second.
+     *
+     * @return Documents per second
+     */
+    public double getDocumentsPerSecond() {
+        return documents * 1000.0 / Math.max(elapsedMillis, 1);
+    }
+
+    /**
+     * Gets the throughput in bytes per second.
+     *
+     * @return Bytes per second
+     */
+    public double getBytesPerSecond() {
+        return bytes * 1000.0 / Math.max(elapsedMillis, 1);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, new CustomJsonToStringStyle()) //--
+                .append("completed", completed) //--
+                .append("documents", documents) //--
+                .append("bytes", bytes) //--
+                .append("elapsedMillis", elapsedMillis) //--
+                .toString();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch.model;
+
+import de.picturesafe.search.util.logging.CustomJsonToStringStyle;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of getting multiple documents or objects by ID.
+ *
+ * @param <T> Type of the documents or objects
+ */
+public class MultiGetResult<T> {
+
+    private final Map<Object, T> itemsById;
+    private final List<Object> missingIds;
+
+    /**
+     * Constructor
+     *
+     * @param itemsById     Found documents or objects by ID (in order of the requested IDs)
+     * @param missingIds    IDs which do not exist (in order of the requested IDs)
+     */
+    public MultiGetResult(Map<Object, T> itemsById, List<Object> missingIds) {
+        this.itemsById = Collections.unmodifiableMap(itemsById);
+        this.missingIds = Collections.unmodifiableList(missingIds);
+    }
+
+    /**
+     * Gets the found documents or objects by ID.
+     *
+     * @return Documents or objects by ID (in order of the requested IDs)
+     */
+    public Map<Object, T> getItemsById() {
+        return itemsById;
+    }
+
+    /**
+     * Gets the found documents or objects.
+     *
+     * @return Documents or objects (in order of the requested IDs)
+     */
+    public List<T> getItems() {
+        return new ArrayList<>(itemsById.values());
+    }
+
+    /**
+     * Gets a found document or object.
+     *
+     * @param id    ID as requested
+     * @return      Document or object or <code>null</code> if the ID does not exist
+     */
+    public T getItem(Object id) {
+        return itemsById.get(id);
+    }
+
+    /**
+     * Gets the IDs which do not exist.
+     *
+     * @return Missing IDs (in order of the requested IDs)
+     */
+    public List<Object> getMissingIds() {
+        return missingIds;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, new CustomJsonToStringStyle()) //--
+                .append("itemsById", itemsById) //--
+                .append("missingIds", missingIds) //--
+                .toString();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch.model;
+
+import de.picturesafe.search.util.logging.CustomJsonToStringStyle;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Outcome of a single search of a multi search, either the search result or the failure of the search.
+ */
+public class MultiSearchItem {
+
+    private final SearchResult searchResult;
+    private final RuntimeException failure;
+
+    /**
+     * Constructor
+     *
+     * @param searchResult  Result of the search, null if the search failed
+     * @param failure       Failure of the search, null if the search succeeded
+     */
+    public MultiSearchItem(SearchResult searchResult, RuntimeException failure) {
+        this.searchResult = searchResult;
+        this.failure = failure;
+    }
+
+    /**
+     * Gets the result of the search.
+     *
+     * @return {@link SearchResult} or null if the search failed
+     */
+    public SearchResult getSearchResult() {
+        return searchResult;
+    }
+
+    /**
+     * Gets the failure of the search.
+     *
+     * @return Failure or null if the search succeeded
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Checks if the search failed.
+     *
+     * @return TRUE if the search failed
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, new CustomJsonToStringStyle()) //--
+                .append("searchResult", searchResult) //--
+                .append("failure", failure) //--
+                .toString();
+    }
+}
@@ -40,6 +40,8 @@ public class SearchResult implements Iterable<SearchResultItem> {
     private final boolean exactHitCount;
 
     private List<ResultFacet> facets = Collections.emptyList();
+    private String continuationToken;
+    private boolean timedOut;
 
     /**
      * Constructor
@@ -175,6 +177,44 @@ public class SearchResult implements Iterable<SearchResultItem> {
         this.facets = facets;
     }
 
+    /**
+     * Gets the continuation token to fetch the next page if the search has been executed with cursor paging
+     * (see {@link de.picturesafe.search.parameter.SearchParameter.Builder#continuationToken(String)}).
+     *
+     * @return Continuation token or null if there are no further results or cursor paging has not been requested
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Sets the continuation token to fetch the next page.
+     *
+     * @param continuationToken Continuation token
+     */
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
+    /**
+     * Checks if the search timed out. Timed out searches contain only the hits and facets collected until the timeout elapsed, so the result
+     * may be incomplete.
+     *
+     * @return true if the search timed out
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Sets if the search timed out.
+     *
+     * @param timedOut true if the search timed out
+     */
+    public void setTimedOut(boolean timedOut) {
+        this.timedOut = timedOut;
+    }
+
     /**
      * Gets the IDs of the result items.
      *
@@ -195,6 +235,31 @@ public class SearchResult implements Iterable<SearchResultItem> {
         return searchResultItems.stream().map(item -> item.getId(type)).collect(Collectors.toList());
     }
 
+    /**
+     * Creates a deep copy of the search result, so modifications of the copy do not affect the original result.
+     *
+     * @return Copy of the search result
+     */
+    public SearchResult copy() {
+        final List<SearchResultItem> itemsCopy = (searchResultItems != null)
+                ? searchResultItems.stream().map(SearchResultItem::copy).collect(Collectors.toList())
+                : null;
+        final SearchResult copy = new SearchResult(itemsCopy, pageIndex, pageSize, resultCount, totalHitCount, exactHitCount, copyFacets(facets));
+        copy.setContinuationToken(continuationToken);
+        copy.setTimedOut(timedOut);
+        return copy;
+    }
+
+    /**
+     * Creates copies of result facets.
+     *
+     * @param facets Result facets, may be null
+     * @return Copies of the result facets
+     */
+    public static List<ResultFacet> copyFacets(List<ResultFacet> facets) {
+        return (facets != null) ? facets.stream().map(ResultFacet::copy).collect(Collectors.toList()) : null;
+    }
+
     @Override
     public Iterator<SearchResultItem> iterator() {
         return searchResultItems.iterator();
@@ -219,6 +284,8 @@ public class SearchResult implements Iterable<SearchResultItem> {
                 .append("resultCount", resultCount) //--
                 .append("totalHitCount", totalHitCount) //--
                 .append("facets", facets) //--
+                .append("continuationToken", continuationToken) //--
+                .append("timedOut", timedOut) //--
                 .toString();
     }
 }
@@ -17,13 +17,16 @@
 package de.picturesafe.search.elasticsearch.model;
 
 import de.picturesafe.search.elasticsearch.connect.util.ElasticDateUtils;
+import de.picturesafe.search.util.CopyUtils;
 import de.picturesafe.search.util.logging.CustomJsonToStringStyle;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Item of an elasticsearch result
@@ -164,6 +167,21 @@ public class SearchResultItem {
         return this;
     }
 
+    /**
+     * Creates a deep copy of the result item including its attributes and inner hits.
+     *
+     * @return Copy of the result item
+     */
+    public SearchResultItem copy() {
+        final SearchResultItem copy = new SearchResultItem(id, CopyUtils.deepCopy(attributes), idFormat);
+        if (innerHits != null) {
+            final Map<String, List<SearchResultItem>> innerHitsCopy = new LinkedHashMap<>();
+            innerHits.forEach((name, items) -> innerHitsCopy.put(name, items.stream().map(SearchResultItem::copy).collect(Collectors.toList())));
+            copy.innerHits(innerHitsCopy);
+        }
+        return copy;
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this, new CustomJsonToStringStyle()) //--
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.parameter;
+
+import de.picturesafe.search.util.logging.CustomJsonToStringStyle;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Additional parameters for operations processing all documents matching a query (update by query, delete by query)
+ */
+public class ByQueryParameter {
+
+    /**
+     * Number of slices to let Elasticsearch choose a reasonable number of slices (one per shard)
+     */
+    public static final int AUTO_SLICES = 0;
+
+    public static final ByQueryParameter DEFAULT = builder().build();
+
+    private final int slices;
+    private final Float requestsPerSecond;
+    private final boolean proceedOnConflicts;
+
+    private ByQueryParameter(Builder builder) {
+        slices = builder.slices;
+        requestsPerSecond = builder.requestsPerSecond;
+        proceedOnConflicts = builder.proceedOnConflicts;
+    }
+
+    /**
+     * Gets the number of slices to process the documents in parallel.
+     *
+     * @return Number of slices ({@link #AUTO_SLICES} = one slice per shard)
+     */
+    public int getSlices() {
+        return slices;
+    }
+
+    /**
+     * Gets the throttle in requests (documents) per second.
+     *
+     * @return Requests per second or <code>null</code> if not throttled
+     */
+    public Float getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    /**
+     * Checks if processing should proceed if documents have been changed concurrently.
+     *
+     * @return TRUE if version conflicts should be counted instead of aborting the operation
+     */
+    public boolean isProceedOnConflicts() {
+        return proceedOnConflicts;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, new CustomJsonToStringStyle()) //--
+                .append("slices", slices) //--
+                .append("requestsPerSecond", requestsPerSecond) //--
+                .append("proceedOnConflicts", proceedOnConflicts) //--
+                .toString();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        int slices = AUTO_SLICES;
+        Float requestsPerSecond;
+        boolean proceedOnConflicts;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of slices to process the documents in parallel.
+         *
+         * @param slices Number of slices ({@link #AUTO_SLICES} = one slice per shard, 1 = no slicing)
+         * @return Builder
+         */
+        public Builder slices(int slices) {
+            Validate.isTrue(slices >= 0, "Parameter 'slices' must be >= 0!");
+            this.slices = slices;
+            return this;
+        }
+
+        /**
+         * Sets the throttle in requests (documents) per second.
+         *
+         * @param requestsPerSecond Requests per second or <code>null</code> if not throttled
+         * @return Builder
+         */
+        public Builder requestsPerSecond(Float requestsPerSecond) {
+            Validate.isTrue(requestsPerSecond == null || requestsPerSecond > 0, "Parameter 'requestsPerSecond' must be > 0!");
+            this.requestsPerSecond = requestsPerSecond;
+            return this;
+        }
+
+        /**
+         * Sets if processing should proceed if documents have been changed concurrently.
+         *
+         * @param proceedOnConflicts TRUE if version conflicts should be counted instead of aborting the operation
+         * @return Builder
+         */
+        public Builder proceedOnConflicts(boolean proceedOnConflicts) {
+            this.proceedOnConflicts = proceedOnConflicts;
+            return this;
+        }
+
+        public ByQueryParameter build() {
+            return new ByQueryParameter(this);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.parameter;
+
+import de.picturesafe.search.elasticsearch.model.ExportStatus;
+import de.picturesafe.search.util.logging.CustomJsonToStringStyle;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.function.Consumer;
+
+/**
+ * Additional parameters for exporting documents
+ */
+public class ExportParameter {
+
+    public static final ExportParameter DEFAULT = builder().build();
+
+    private final int slices;
+    private final int batchSize;
+    private final int bufferSize;
+    private final long progressInterval;
+    private final Consumer<ExportStatus> progressListener;
+
+    private ExportParameter(Builder builder) {
+        slices = builder.slices;
+        batchSize = builder.batchSize;
+        bufferSize = builder.bufferSize;
+        progressInterval = builder.progressInterval;
+        progressListener = builder.progressListener;
+    }
+
+    /**
+     * Gets the number of slices to export the documents in parallel.
+     *
+     * @return Number of slices (1 = no slicing)
+     */
+    public int getSlices() {
+        return slices;
+    }
+
+    /**
+     * Gets the number of documents fetched per request and slice.
+     *
+     * @return Number of documents per request
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Gets the size of the output buffer per slice.
+     *
+     * @return Buffer size in bytes
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Gets the interval to report the progress of the export.
+     *
+     * @return Interval in milliseconds
+     */
+    public long getProgressInterval() {
+        return progressInterval;
+    }
+
+    /**
+     * Gets the listener receiving the progress of the export.
+     *
+     * @return Progress listener or <code>null</code>
+     */
+    public Consumer<ExportStatus> getProgressListener() {
+        return progressListener;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, new CustomJsonToStringStyle()) //--
+                .append("slices", slices) //--
+                .append("batchSize", batchSize) //--
+                .append("bufferSize", bufferSize) //--
+                .append("progressInterval", progressInterval) //--
+                .append("progressListener", progressListener) //--
+                .toString();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        int slices = 1;
+        int batchSize = 1000;
+        int bufferSize = 65536;
+        long progressInterval = 10000;
+        Consumer<ExportStatus> progressListener;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of slices to export the documents in parallel. Each slice is fetched by an own scroll search and thread,
+         * the documents of the slices will be interleaved in the output.
+         *
+         * @param slices Number of slices (1 = no slicing)
+         * @return Builder
+         */
+        public Builder slices(int slices) {
+            Validate.isTrue(slices > 0, "Parameter 'slices' must be > 0!");
+            this.slices = slices;
+            return this;
+        }
+
+        /**
+         * Sets the number of documents fetched per request and slice.
+         *
+         * @param batchSize Number of documents per request
+         * @return Builder
+         */
+        public Builder batchSize(int batchSize) {
+            Validate.isTrue(batchSize > 0, "Parameter 'batchSize' must be > 0!");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets the size of the output buffer per slice. Buffers will be written to the output stream as soon as they are full.
+         *
+         * @param bufferSize Buffer size in bytes
+         * @return Builder
+         */
+        public Builder bufferSize(int bufferSize) {
+            Validate.isTrue(bufferSize > 0, "Parameter 'bufferSize' must be > 0!");
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Sets the interval to report the progress of the export.
+         *
+         * @param progressInterval Interval in milliseconds
+         * @return Builder
+         */
+        public Builder progressInterval(long progressInterval) {
+            Validate.isTrue(progressInterval > 0, "Parameter 'progressInterval' must be > 0!");
+            this.progressInterval = progressInterval;
+            return this;
+        }
+
+        /**
+         * Sets the listener receiving the progress of the export. The listener will be called by the export threads with the interval
+         * set by {@link #progressInterval(long)} and once when the export has been completed.
+         *
+         * @param progressListener Progress listener or <code>null</code>
+         * @return Builder
+         */
+        public Builder progressListener(Consumer<ExportStatus> progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        public ExportParameter build() {
+            return new ExportParameter(this);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.parameter;
+
+import de.picturesafe.search.util.logging.CustomJsonToStringStyle;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Additional parameters for getting documents by ID
+ */
+public class GetParameter {
+
+    public static final GetParameter DEFAULT = builder().build();
+
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final List<String> fieldsToResolve;
+    private final boolean docValues;
+    private final boolean realtime;
+
+    private GetParameter(Builder builder) {
+        includes = builder.includes;
+        excludes = builder.excludes;
+        fieldsToResolve = builder.fieldsToResolve;
+        docValues = builder.docValues;
+        realtime = builder.realtime;
+    }
+
+    /**
+     * Gets the fields of the source to be included.
+     *
+     * @return Names of the fields to be included (wildcards supported) or <code>null</code> to include all fields
+     */
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    /**
+     * Gets the fields of the source to be excluded.
+     *
+     * @return Names of the fields to be excluded (wildcards supported) or <code>null</code> to exclude no fields
+     */
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * Gets the fields to be resolved.
+     *
+     * @return Names of the fields to be resolved or <code>null</code> to resolve all fields
+     */
+    public List<String> getFieldsToResolve() {
+        return fieldsToResolve;
+    }
+
+    /**
+     * Checks if the fields to be resolved should be read from doc values instead of the source.
+     *
+     * @return TRUE if the fields to be resolved should be read from doc values
+     */
+    public boolean isDocValues() {
+        return docValues;
+    }
+
+    /**
+     * Checks if documents should be read in realtime.
+     *
+     * @return TRUE if documents should be read in realtime (including changes not yet refreshed), FALSE for reading from the last refreshed state
+     */
+    public boolean isRealtime() {
+        return realtime;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, new CustomJsonToStringStyle()) //--
+                .append("includes", includes) //--
+                .append("excludes", excludes) //--
+                .append("fieldsToResolve", fieldsToResolve) //--
+                .append("docValues", docValues) //--
+                .append("realtime", realtime) //--
+                .toString();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        List<String> includes;
+        List<String> excludes;
+        List<String> fieldsToResolve;
+        boolean docValues;
+        boolean realtime = true;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the fields of the source to be included.
+         *
+         * @param includes Names of the fields to be included (wildcards supported) or <code>null</code> to include all fields
+         * @return Builder
+         */
+        public Builder includes(List<String> includes) {
+            this.includes = includes;
+            return this;
+        }
+
+        /**
+         * Sets the fields of the source to be included.
+         *
+         * @param includes Names of the fields to be included (wildcards supported)
+         * @return Builder
+         */
+        public Builder includes(String... includes) {
+            return includes(Arrays.asList(includes));
+        }
+
+        /**
+         * Sets the fields of the source to be excluded.
+         *
+         * @param excludes Names of the fields to be excluded (wildcards supported) or <code>null</code> to exclude no fields
+         * @return Builder
+         */
+        public Builder excludes(List<String> excludes) {
+            this.excludes = excludes;
+            return this;
+        }
+
+        /**
+         * Sets the fields of the source to be excluded.
+         *
+         * @param excludes Names of the fields to be excluded (wildcards supported)
+         * @return Builder
+         */
+        public Builder excludes(String... excludes) {
+            return excludes(Arrays.asList(excludes));
+        }
+
+        /**
+         * Sets the fields to be resolved, like {@link SearchParameter.Builder#fieldsToResolve(List)}. By default the fields will be
+         * read from the source of the document.
+         *
+         * @param fieldsToResolve Names of the fields to be resolved or <code>null</code> to resolve all fields
+         * @return Builder
+         */
+        public Builder fieldsToResolve(List<String> fieldsToResolve) {
+            this.fieldsToResolve = fieldsToResolve;
+            return this;
+        }
+
+        /**
+         * Sets the fields to be resolved, like {@link SearchParameter.Builder#fieldsToResolve(String...)}. By default the fields will be
+         * read from the source of the document.
+         *
+         * @param fieldsToResolve Names of the fields to be resolved
+         * @return Builder
+         */
+        public Builder fieldsToResolve(String... fieldsToResolve) {
+            return fieldsToResolve(Arrays.asList(fieldsToResolve));
+        }
+
+        /**
+         * Sets if the fields to be resolved should be read from doc values instead of the source. Doc values avoid loading and parsing
+         * the source of large documents, but they are only available for single document lookups and reflect the last refreshed state.
+         *
+         * @param docValues TRUE if the fields to be resolved should be read from doc values
+         * @return Builder
+         */
+        public Builder docValues(boolean docValues) {
+            this.docValues = docValues;
+            return this;
+        }
+
+        /**
+         * Sets if documents should be read in realtime (default). Reading from the last refreshed state is cheaper, but changes not yet
+         * refreshed will not be visible.
+         *
+         * @param realtime TRUE if documents should be read in realtime, FALSE for reading from the last refreshed state
+         * @return Builder
+         */
+        public Builder realtime(boolean realtime) {
+            this.realtime = realtime;
+            return this;
+        }
+
+        public GetParameter build() {
+            return new GetParameter(this);
+        }
+    }
+}
@@ -30,10 +30,16 @@ public class SearchParameter {
 
     public static final SearchParameter DEFAULT = builder().build();
 
+    /**
+     * Continuation token requesting the first page of a search with cursor paging
+     */
+    public static final String FIRST_PAGE = "";
+
     private final List<SortOption> sortOptions;
     private final CollapseOption collapseOption;
     private final Integer maxResults;
     private final Long maxTrackTotalHits;
+    private final boolean exactCount;
     private final Integer pageSize;
     private final Integer pageIndex;
     private final boolean permissionCheckEnabled;
@@ -43,12 +49,16 @@ public class SearchParameter {
     private final List<SearchAggregation> aggregations;
     private final List<String> fieldsToResolve;
     private final boolean optimizeExpressions;
+    private final Long timeout;
+    private final String continuationToken;
+    private final boolean bypassCache;
 
     private SearchParameter(Builder builder) {
         sortOptions = builder.sortOptions;
         collapseOption = builder.collapseOption;
         maxResults = builder.maxResults;
         maxTrackTotalHits = builder.maxTrackTotalHits;
+        exactCount = builder.exactCount;
         pageSize = builder.pageSize;
         pageIndex = builder.pageIndex;
         permissionCheckEnabled = builder.permissionCheckEnabled;
@@ -58,6 +68,9 @@ public class SearchParameter {
         aggregations = builder.aggregations;
         fieldsToResolve = builder.fieldsToResolve;
         optimizeExpressions = builder.optimizeExpressions;
+        timeout = builder.timeout;
+        continuationToken = builder.continuationToken;
+        bypassCache = builder.bypassCache;
     }
 
     /**
@@ -97,6 +110,15 @@ public class SearchParameter {
         return maxTrackTotalHits;
     }
 
+    /**
+     * Checks if the exact total hit count should be determined even if it exceeds the number of tracked total hits.
+     *
+     * @return true if the exact total hit count should be determined
+     */
+    public boolean isExactCount() {
+        return exactCount;
+    }
+
     /**
      * Gets the pagination page size
      *
@@ -185,6 +207,33 @@ public class SearchParameter {
         return optimizeExpressions;
     }
 
+    /**
+     * Gets the timeout of the search request in milliseconds.
+     *
+     * @return Timeout in milliseconds (null = use default value)
+     */
+    public Long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Gets the continuation token of a search with cursor paging.
+     *
+     * @return Continuation token (null = paging by page index)
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Checks if the search result cache and the facet result cache should be bypassed.
+     *
+     * @return true if the search and its aggregations should be executed even if their results are cached
+     */
+    public boolean isBypassCache() {
+        return bypassCache;
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this, new CustomJsonToStringStyle()) //--
@@ -192,6 +241,7 @@ public class SearchParameter {
                 .append("collapseOption", collapseOption) //--
                 .append("maxResults", maxResults) //--
                 .append("maxTrackTotalHits", maxTrackTotalHits) //--
+                .append("exactCount", exactCount) //--
                 .append("pageSize", pageSize) //--
                 .append("pageIndex", pageIndex) //--
                 .append("permissionCheckEnabled", permissionCheckEnabled) //--
@@ -201,6 +251,9 @@ public class SearchParameter {
                 .append("aggregations", aggregations) //--
                 .append("fieldsToResolve", fieldsToResolve) //--
                 .append("optimizeExpressions", optimizeExpressions) //--
+                .append("timeout", timeout) //--
+                .append("continuationToken", continuationToken) //--
+                .append("bypassCache", bypassCache) //--
                 .toString();
     }
 
@@ -213,6 +266,7 @@ public class SearchParameter {
         CollapseOption collapseOption;
         Integer maxResults;
         Long maxTrackTotalHits;
+        boolean exactCount;
         Integer pageSize;
         boolean permissionCheckEnabled = true;
         boolean ignoreState;
@@ -222,6 +276,9 @@ public class SearchParameter {
         List<SearchAggregation> aggregations = new ArrayList<>();
         List<String> fieldsToResolve = new ArrayList<>();
         boolean optimizeExpressions;
+        Long timeout;
+        String continuationToken;
+        boolean bypassCache;
 
         private Builder() {
         }
@@ -293,6 +350,19 @@ public class SearchParameter {
             return this;
         }
 
+        /**
+         * Sets if the exact total hit count should be determined even if it exceeds the number of tracked total hits. The hits will be
+         * counted by a separate count request after the search, which will only be sent if the search did not already return an exact
+         * count. Only request this if the exact number is really needed, counting all hits of broad queries is expensive.
+         *
+         * @param exactCount true if the exact total hit count should be determined
+         * @return Builder
+         */
+        public Builder exactCount(boolean exactCount) {
+            this.exactCount = exactCount;
+            return this;
+        }
+
         /**
          * Sets the pagination page size
          *
@@ -421,6 +491,49 @@ public class SearchParameter {
             return this;
         }
 
+        /**
+         * Sets the timeout of the search request in milliseconds. The request will be cancelled if the timeout elapses. The timeout is also
+         * sent to Elasticsearch, which returns the hits collected so far if it elapses on the server
+         * (see {@link de.picturesafe.search.elasticsearch.model.SearchResult#isTimedOut()}).
+         *
+         * @param timeout Timeout in milliseconds (null = use default value)
+         * @return Builder
+         */
+        public Builder timeout(Long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Sets the continuation token for cursor paging. Cursor paging fetches the page following the last hit of the previous page
+         * (using <code>search_after</code>) instead of skipping <code>(pageIndex - 1) * pageSize</code> hits, so deep pages are as cheap
+         * as the first one. The page index will be ignored and the number of results is not limited by the max result window.
+         * <p>
+         * Start with {@link SearchParameter#FIRST_PAGE} and pass {@link de.picturesafe.search.elasticsearch.model.SearchResult#getContinuationToken()}
+         * of the previous result to fetch the next page. All other parameters must be unchanged between the pages. The hits are sorted by the
+         * sort options and the document ID as tiebreaker, so the ID field has to be sortable. Cursor paging can not be combined with a collapse
+         * option.
+         *
+         * @param continuationToken Continuation token (null = paging by page index)
+         * @return Builder
+         */
+        public Builder continuationToken(String continuationToken) {
+            this.continuationToken = continuationToken;
+            return this;
+        }
+
+        /**
+         * Sets if the search result cache and the facet result cache should be bypassed. The search and its aggregations will be executed and
+         * their results will not be cached, e.g. if the search has to reflect changes made by other clients immediately.
+         *
+         * @param bypassCache true if the result caches should be bypassed
+         * @return Builder
+         */
+        public Builder bypassCache(boolean bypassCache) {
+            this.bypassCache = bypassCache;
+            return this;
+        }
+
         public SearchParameter build() {
             return new SearchParameter(this);
         }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.parameter;
+
+import de.picturesafe.search.expression.Expression;
+import de.picturesafe.search.util.logging.CustomJsonToStringStyle;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Specification of a search to be executed as part of a multi search.
+ */
+public class SearchRequestSpec {
+
+    private final String indexAlias;
+    private final AccountContext<?> accountContext;
+    private final Expression expression;
+    private final SearchParameter searchParameter;
+
+    private SearchRequestSpec(String indexAlias, AccountContext<?> accountContext, Expression expression, SearchParameter searchParameter) {
+        this.indexAlias = indexAlias;
+        this.accountContext = accountContext;
+        this.expression = expression;
+        this.searchParameter = searchParameter;
+    }
+
+    /**
+     * Creates the specification of a search.
+     *
+     * @param indexAlias        Name of the alias of the index
+     * @param expression        Expression defining the search criteria
+     * @param searchParameter   Parameters for the search execution
+     * @return                  Search specification
+     */
+    public static SearchRequestSpec of(String indexAlias, Expression expression, SearchParameter searchParameter) {
+        return new SearchRequestSpec(indexAlias, null, expression, searchParameter);
+    }
+
+    /**
+     * Creates the specification of a search in the context of an user account.
+     *
+     * @param indexAlias        Name of the alias of the index
+     * @param accountContext    {@link AccountContext} of the current user
+     * @param expression        Expression defining the search criteria
+     * @param searchParameter   Parameters for the search execution
+     * @return                  Search specification
+     */
+    public static SearchRequestSpec of(String indexAlias, AccountContext<?> accountContext, Expression expression, SearchParameter searchParameter) {
+        return new SearchRequestSpec(indexAlias, accountContext, expression, searchParameter);
+    }
+
+    /**
+     * Gets the name of the alias of the index.
+     *
+     * @return Name of the alias of the index
+     */
+    public String getIndexAlias() {
+        return indexAlias;
+    }
+
+    /**
+     * Gets the account context.
+     *
+     * @return {@link AccountContext} of the current user, may be null
+     */
+    public AccountContext<?> getAccountContext() {
+        return accountContext;
+    }
+
+    /**
+     * Gets the expression defining the search criteria.
+     *
+     * @return Expression
+     */
+    public Expression getExpression() {
+        return expression;
+    }
+
+    /**
+     * Gets the parameters for the search execution.
+     *
+     * @return Search parameters, may be null
+     */
+    public SearchParameter getSearchParameter() {
+        return searchParameter;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, new CustomJsonToStringStyle()) //--
+                .append("indexAlias", indexAlias) //--
+                .append("accountContext", accountContext) //--
+                .append("expression", expression) //--
+                .append("searchParameter", searchParameter) //--
+                .toString();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.parameter;
+
+import de.picturesafe.search.util.logging.CustomJsonToStringStyle;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.Map;
+
+/**
+ * Definition of a partial update of a document. Either the fields to change or a script modifying the document will be sent to Elasticsearch,
+ * so the unchanged part of the document does not have to be transferred.
+ */
+public class UpdateDefinition {
+
+    private final Map<String, Object> fields;
+    private final ScriptDefinition script;
+
+    private Map<String, Object> upsert;
+    private boolean docAsUpsert;
+    private int retryOnConflict;
+
+    /**
+     * Creates a new update definition changing the given fields. Fields with value <code>null</code> will be set to <code>null</code>.
+     *
+     * @param fields Fields to change
+     * @return UpdateDefinition
+     */
+    public static UpdateDefinition fields(Map<String, Object> fields) {
+        Validate.notNull(fields, "Parameter 'fields' may not be null!");
+        return new UpdateDefinition(fields, null);
+    }
+
+    /**
+     * Creates a new update definition modifying the document by a script. The source of the document is accessible by <code>ctx._source</code>.
+     *
+     * @param script Script modifying the document
+     * @return UpdateDefinition
+     */
+    public static UpdateDefinition script(ScriptDefinition script) {
+        Validate.notNull(script, "Parameter 'script' may not be null!");
+        return new UpdateDefinition(null, script);
+    }
+
+    private UpdateDefinition(Map<String, Object> fields, ScriptDefinition script) {
+        this.fields = fields;
+        this.script = script;
+    }
+
+    /**
+     * Gets the fields to change.
+     *
+     * @return Fields to change or <code>null</code> if the document will be modified by a script
+     */
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+
+    /**
+     * Gets the script modifying the document.
+     *
+     * @return Script or <code>null</code> if fields will be changed
+     */
+    public ScriptDefinition getScript() {
+        return script;
+    }
+
+    /**
+     * Gets the document to be added if the document to update does not exist.
+     *
+     * @return Upsert document
+     */
+    public Map<String, Object> getUpsert() {
+        return upsert;
+    }
+
+    /**
+     * Sets the document to be added if the document to update does not exist.
+     *
+     * @param upsert Upsert document
+     * @return UpdateDefinition
+     */
+    public UpdateDefinition upsert(Map<String, Object> upsert) {
+        this.upsert = upsert;
+        return this;
+    }
+
+    /**
+     * Checks if the fields should be added as new document if the document to update does not exist.
+     *
+     * @return TRUE if the fields should be added as new document
+     */
+    public boolean isDocAsUpsert() {
+        return docAsUpsert;
+    }
+
+    /**
+     * Sets if the fields should be added as new document if the document to update does not exist.
+     *
+     * @param docAsUpsert TRUE if the fields should be added as new document
+     * @return UpdateDefinition
+     */
+    public UpdateDefinition docAsUpsert(boolean docAsUpsert) {
+        Validate.isTrue(!docAsUpsert || fields != null, "Script updates do not support 'docAsUpsert', use 'upsert' instead!");
+        this.docAsUpsert = docAsUpsert;
+        return this;
+    }
+
+    /**
+     * Gets the number of retries if the document has been changed concurrently.
+     *
+     * @return Number of retries on version conflicts
+     */
+    public int getRetryOnConflict() {
+        return retryOnConflict;
+    }
+
+    /**
+     * Sets the number of retries if the document has been changed concurrently.
+     *
+     * @param retryOnConflict Number of retries on version conflicts
+     * @return UpdateDefinition
+     */
+    public UpdateDefinition retryOnConflict(int retryOnConflict) {
+        this.retryOnConflict = retryOnConflict;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, new CustomJsonToStringStyle()) //--
+                .append("fields", fields) //--
+                .append("script", script) //--
+                .append("upsert", upsert) //--
+                .append("docAsUpsert", docAsUpsert) //--
+                .append("retryOnConflict", retryOnConflict) //--
+                .toString();
+    }
+}
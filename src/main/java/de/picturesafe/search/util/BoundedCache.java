@@ -0,0 +1,209 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.util;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe cache with least recently used eviction, bounded by the number of entries and the total weight of the values. Entries expire
+ * after a time to live.
+ *
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final ToLongFunction<V> weigher;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor
+     *
+     * @param maxEntries    Maximum number of entries
+     * @param maxWeight     Maximum total weight of the values (0 = unlimited)
+     * @param ttlMillis     Time to live of entries in milliseconds (0 = unlimited)
+     * @param weigher       Estimates the weight of a value, e.g. its retained size in bytes
+     */
+    public BoundedCache(int maxEntries, long maxWeight, long ttlMillis, ToLongFunction<V> weigher) {
+        Validate.isTrue(maxEntries > 0, "Parameter 'maxEntries' must be greater than 0!");
+        Validate.isTrue(maxWeight >= 0, "Parameter 'maxWeight' must be >= 0!");
+        Validate.isTrue(ttlMillis >= 0, "Parameter 'ttlMillis' must be >= 0!");
+        Validate.notNull(weigher, "Parameter 'weigher' may not be null!");
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttlMillis;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Gets a value.
+     *
+     * @param key   Key
+     * @return      Value or <code>null</code> if the key is not cached or its entry has expired
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            final Entry<V> entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+                removeEntry(key);
+                evictions.increment();
+            } else if (entry != null) {
+                hits.increment();
+                return entry.value;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Puts a value, evicting the least recently used entries if the cache exceeds its bounds. Values heavier than the maximum weight
+     * will not be cached.
+     *
+     * @param key   Key
+     * @param value Value
+     */
+    public void put(K key, V value) {
+        Validate.notNull(value, "Parameter 'value' may not be null!");
+        final long valueWeight = weigher.applyAsLong(value);
+        final long expiry = (ttlMillis > 0) ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+        synchronized (entries) {
+            removeEntry(key);
+            if (maxWeight > 0 && valueWeight > maxWeight) {
+                return;
+            }
+            entries.put(key, new Entry<>(value, valueWeight, expiry));
+            weight += valueWeight;
+
+            final Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext() && (entries.size() > maxEntries || (maxWeight > 0 && weight > maxWeight))) {
+                weight -= iterator.next().getValue().weight;
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param key Key
+     */
+    public void remove(K key) {
+        synchronized (entries) {
+            removeEntry(key);
+        }
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    /**
+     * Gets the number of cached entries (including expired entries not yet evicted).
+     *
+     * @return Number of entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Gets the total weight of the cached values.
+     *
+     * @return Total weight
+     */
+    public long getWeight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    /**
+     * Gets the number of lookups which found a value.
+     *
+     * @return Number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups which found no value.
+     *
+     * @return Number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of entries which have been evicted because the cache exceeded its bounds or the entries expired.
+     *
+     * @return Number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void removeEntry(K key) {
+        final Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight;
+        }
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long weight;
+        final long expiry;
+
+        Entry(V value, long weight, long expiry) {
+            this.value = value;
+            this.weight = weight;
+            this.expiry = expiry;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiry;
+        }
+    }
+}
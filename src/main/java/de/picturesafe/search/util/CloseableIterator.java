@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.util;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator holding resources which have to be released by {@link #close()} if the iterator is not consumed completely.
+ *
+ * @param <T> Type of the elements
+ */
+public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+
+    /**
+     * Releases the resources of the iterator. Further calls of {@link #hasNext()} will return false.
+     */
+    @Override
+    void close();
+
+    /**
+     * Wraps the iterator in a sequential stream which closes the iterator when the stream is closed.
+     * <p>
+     * The iterator releases its resources by itself only if all elements have been consumed. Streams which may stop early, e.g. short-circuiting
+     * operations like <code>limit</code>, <code>findFirst</code> or <code>anyMatch</code>, have to be closed, preferably using try-with-resources.
+     *
+     * @return Stream of the remaining elements
+     */
+    default Stream<T> stream() {
+        final Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+}
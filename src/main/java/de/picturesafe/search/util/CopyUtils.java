@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utilities to copy document values, e.g. to protect cached values against modifications by callers.
+ */
+public class CopyUtils {
+
+    private CopyUtils() {
+    }
+
+    /**
+     * Creates a deep copy of a document.
+     *
+     * @param document Document, may be null
+     * @return Mutable copy of the document
+     */
+    public static Map<String, Object> deepCopy(Map<String, Object> document) {
+        if (document == null) {
+            return null;
+        }
+
+        final Map<String, Object> copy = new LinkedHashMap<>(document.size());
+        document.forEach((key, value) -> copy.put(key, deepCopyValue(value)));
+        return copy;
+    }
+
+    /**
+     * Creates a deep copy of a document value. Maps, lists, sets, arrays and dates are copied, all other values are expected to be
+     * immutable.
+     *
+     * @param value Value, may be null
+     * @return Copy of the value
+     */
+    @SuppressWarnings("unchecked")
+    public static Object deepCopyValue(Object value) {
+        if (value instanceof Map) {
+            final Map<Object, Object> copy = new LinkedHashMap<>(((Map<?, ?>) value).size());
+            ((Map<?, ?>) value).forEach((key, entryValue) -> copy.put(key, deepCopyValue(entryValue)));
+            return copy;
+        } else if (value instanceof Set) {
+            return copyElements((Set<?>) value, new LinkedHashSet<>(((Set<?>) value).size()));
+        } else if (value instanceof Collection) {
+            return copyElements((Collection<?>) value, new ArrayList<>(((Collection<?>) value).size()));
+        } else if (value instanceof Object[]) {
+            final Object[] copy = ((Object[]) value).clone();
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = deepCopyValue(copy[i]);
+            }
+            return copy;
+        } else if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        return value;
+    }
+
+    private static <C extends Collection<Object>> C copyElements(Collection<?> source, C target) {
+        source.forEach(element -> target.add(deepCopyValue(element)));
+        return target;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.util;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Roughly estimates the retained heap size of document-like object graphs (maps, collections, strings, numbers) without reflection.
+ * The estimation is meant for bounding caches, not for exact measurements.
+ */
+public class SizeEstimator {
+
+    private static final long OBJECT_SIZE = 16;
+    private static final long REFERENCE_SIZE = 8;
+    private static final long MAP_ENTRY_SIZE = 32;
+
+    private SizeEstimator() {
+    }
+
+    /**
+     * Estimates the retained size of an object.
+     *
+     * @param object    Object (may be <code>null</code>)
+     * @return          Estimated size in bytes
+     */
+    public static long estimate(Object object) {
+        if (object == null) {
+            return 0;
+        } else if (object instanceof CharSequence) {
+            return 40 + 2L * ((CharSequence) object).length();
+        } else if (object instanceof Map) {
+            long size = 48;
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+                size += MAP_ENTRY_SIZE + estimate(entry.getKey()) + estimate(entry.getValue());
+            }
+            return size;
+        } else if (object instanceof Collection) {
+            long size = 24;
+            for (final Object element : (Collection<?>) object) {
+                size += REFERENCE_SIZE + estimate(element);
+            }
+            return size;
+        } else if (object instanceof byte[]) {
+            return OBJECT_SIZE + ((byte[]) object).length;
+        } else if (object instanceof Object[]) {
+            long size = OBJECT_SIZE;
+            for (final Object element : (Object[]) object) {
+                size += REFERENCE_SIZE + estimate(element);
+            }
+            return size;
+        } else if (object instanceof Number || object instanceof Boolean || object instanceof Character) {
+            return OBJECT_SIZE + REFERENCE_SIZE;
+        } else {
+            return 2 * OBJECT_SIZE;
+        }
+    }
+}
@@ -16,14 +16,20 @@
 
 package de.picturesafe.search.elasticsearch;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.picturesafe.search.elasticsearch.config.ElasticsearchType;
 import de.picturesafe.search.elasticsearch.config.FieldConfiguration;
 import de.picturesafe.search.elasticsearch.config.IndexPresetConfiguration;
 import de.picturesafe.search.elasticsearch.config.impl.StandardFieldConfiguration;
 import de.picturesafe.search.elasticsearch.config.impl.StandardIndexPresetConfiguration;
 import de.picturesafe.search.elasticsearch.impl.ElasticsearchServiceImpl;
+import de.picturesafe.search.elasticsearch.model.ByQueryStatus;
+import de.picturesafe.search.elasticsearch.model.ByQueryTask;
 import de.picturesafe.search.elasticsearch.model.DocumentBuilder;
+import de.picturesafe.search.elasticsearch.model.ExportStatus;
 import de.picturesafe.search.elasticsearch.model.IndexObject;
+import de.picturesafe.search.elasticsearch.model.MultiGetResult;
+import de.picturesafe.search.elasticsearch.model.MultiSearchItem;
 import de.picturesafe.search.elasticsearch.model.ResultFacet;
 import de.picturesafe.search.elasticsearch.model.ResultFacetItem;
 import de.picturesafe.search.elasticsearch.model.SearchResult;
@@ -38,10 +44,16 @@ import de.picturesafe.search.expression.KeywordExpression;
 import de.picturesafe.search.expression.OperationExpression;
 import de.picturesafe.search.expression.RangeValueExpression;
 import de.picturesafe.search.expression.ValueExpression;
+import de.picturesafe.search.parameter.ByQueryParameter;
 import de.picturesafe.search.parameter.CollapseOption;
+import de.picturesafe.search.parameter.ExportParameter;
+import de.picturesafe.search.parameter.GetParameter;
 import de.picturesafe.search.parameter.InnerHitsOption;
+import de.picturesafe.search.parameter.ScriptDefinition;
 import de.picturesafe.search.parameter.SearchParameter;
+import de.picturesafe.search.parameter.SearchRequestSpec;
 import de.picturesafe.search.parameter.SortOption;
+import de.picturesafe.search.parameter.UpdateDefinition;
 import de.picturesafe.search.parameter.aggregation.DateHistogramAggregation;
 import de.picturesafe.search.parameter.aggregation.DefaultAggregation;
 import de.picturesafe.search.spring.configuration.TestConfiguration;
@@ -58,19 +70,38 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.context.support.AnnotationConfigContextLoader;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static de.picturesafe.search.elasticsearch.connect.util.ElasticDocumentUtils.getDate;
 import static de.picturesafe.search.elasticsearch.connect.util.ElasticDocumentUtils.getId;
 import static de.picturesafe.search.elasticsearch.connect.util.ElasticDocumentUtils.getString;
+import static de.picturesafe.search.expression.ConditionExpression.Comparison.LE;
 import static de.picturesafe.search.parameter.aggregation.DateHistogramAggregation.IntervalType.CALENDAR;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(classes = {TestConfiguration.class, ElasticsearchServiceIT.Config.class, ElasticsearchServiceImpl.class},
@@ -137,6 +168,259 @@ public class ElasticsearchServiceIT extends AbstractElasticsearchServiceIT {
         assertDocsAreEqual(doc1, item.getAttributes());
     }
 
+    @Test
+    public void testAsync() throws Exception {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        final Map<String, Object> doc1 = createDocument(4711, "Der Hund beißt sich in den Schwanz in Hamburg");
+        final Map<String, Object> doc2 = createDocument(4712, "Die Katze jagt Vögel in Hamburg");
+        CompletableFuture.allOf(
+                elasticsearchService.addToIndexAsync(indexAlias, DataChangeProcessingMode.BLOCKING, doc1),
+                elasticsearchService.addToIndexAsync(indexAlias, DataChangeProcessingMode.BLOCKING, doc2)).get(10, TimeUnit.SECONDS);
+
+        SearchResult result = elasticsearchService.searchAsync(indexAlias, new FulltextExpression("Hamburg"),
+                SearchParameter.builder().sortOptions(SortOption.asc("id")).build()).get(10, TimeUnit.SECONDS);
+        assertEquals(2, result.getTotalHitCount());
+        assertEquals(4711, result.getSearchResultItems().get(0).getId(Long.class).longValue());
+        assertDocsAreEqual(doc2, elasticsearchService.getDocumentAsync(indexAlias, 4712).get(10, TimeUnit.SECONDS));
+
+        elasticsearchService.removeFromIndexAsync(indexAlias, DataChangeProcessingMode.BLOCKING, 4711).get(10, TimeUnit.SECONDS);
+        result = elasticsearchService.searchAsync(indexAlias, new FulltextExpression("Hamburg"), SearchParameter.DEFAULT).get(10, TimeUnit.SECONDS);
+        assertEquals(1, result.getTotalHitCount());
+        assertNull(elasticsearchService.getDocumentAsync(indexAlias, 4711).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAddStream() {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        final Map<String, Boolean> results = new ConcurrentHashMap<>();
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING,
+                IntStream.rangeClosed(1, 2500).mapToObj(id -> createDocument(id, "Dokument " + id)), results::put);
+
+        assertEquals(2500, results.size());
+        assertTrue(results.values().stream().allMatch(Boolean::booleanValue));
+        final SearchResult result = elasticsearchService.search(indexAlias, new FulltextExpression("Dokument"), SearchParameter.DEFAULT);
+        assertEquals(2500, result.getTotalHitCount());
+    }
+
+    @Test
+    public void testUpdateFields() {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, Arrays.asList(
+                DocumentBuilder.id(9001).put("title", "Titel 1").put("count", 13).build(),
+                DocumentBuilder.id(9002).put("title", "Titel 2").put("count", 27).build()));
+
+        elasticsearchService.updateFields(indexAlias, DataChangeProcessingMode.BLOCKING, 9001, DocumentBuilder.withoutId().put("count", 14).build());
+        Map<String, Object> doc = elasticsearchService.getDocument(indexAlias, 9001);
+        assertEquals("Titel 1", doc.get("title"));
+        assertEquals(14, doc.get("count"));
+
+        final Map<Object, Map<String, Object>> fieldsById = new HashMap<>();
+        fieldsById.put(9001, DocumentBuilder.withoutId().put("title", "Neuer Titel 1").build());
+        fieldsById.put(9002, DocumentBuilder.withoutId().put("title", "Neuer Titel 2").build());
+        elasticsearchService.updateFields(indexAlias, DataChangeProcessingMode.BLOCKING, fieldsById);
+        final SearchResult result = elasticsearchService.search(indexAlias, new FulltextExpression("neuer"), SearchParameter.DEFAULT);
+        assertEquals(2, result.getTotalHitCount());
+        assertEquals(27, elasticsearchService.getDocument(indexAlias, 9002).get("count"));
+
+        elasticsearchService.updateDocument(indexAlias, DataChangeProcessingMode.BLOCKING, 9002,
+                UpdateDefinition.script(ScriptDefinition.inline("ctx._source.count += params.increment").param("increment", 3)));
+        assertEquals(30, elasticsearchService.getDocument(indexAlias, 9002).get("count"));
+
+        elasticsearchService.updateDocument(indexAlias, DataChangeProcessingMode.BLOCKING, 9003,
+                UpdateDefinition.fields(DocumentBuilder.withoutId().put("title", "Titel 3").build()).docAsUpsert(true));
+        doc = elasticsearchService.getDocument(indexAlias, 9003);
+        assertEquals("Titel 3", doc.get("title"));
+        assertEquals(9003L, getId(doc, 0L));
+    }
+
+    @Test
+    public void testUpdateByQuery() {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, Arrays.asList(
+                DocumentBuilder.id(9001).put("title", "Titel 1").put("count", 13).build(),
+                DocumentBuilder.id(9002).put("title", "Titel 2").put("count", 27).build(),
+                DocumentBuilder.id(9003).put("title", "Anderer Titel").put("count", 42).build()));
+
+        final ScriptDefinition script = ScriptDefinition.inline("ctx._source.count += params.increment").param("increment", 1);
+        ByQueryStatus status = elasticsearchService.updateByQuery(indexAlias, DataChangeProcessingMode.BLOCKING, new ValueExpression("count", LE, 30),
+                script);
+        assertEquals(2, status.getUpdated());
+        assertEquals(14, elasticsearchService.getDocument(indexAlias, 9001).get("count"));
+        assertEquals(28, elasticsearchService.getDocument(indexAlias, 9002).get("count"));
+        assertEquals(42, elasticsearchService.getDocument(indexAlias, 9003).get("count"));
+
+        final ByQueryTask task = elasticsearchService.submitUpdateByQuery(indexAlias, DataChangeProcessingMode.BLOCKING,
+                new FulltextExpression("titel"), Locale.ROOT, script, ByQueryParameter.builder().slices(2).requestsPerSecond(1000f).build());
+        status = task.awaitCompletion(30000);
+        assertTrue(status.isCompleted());
+        assertEquals(3, status.getUpdated());
+        assertEquals(43, elasticsearchService.getDocument(indexAlias, 9003).get("count"));
+    }
+
+    @Test
+    public void testDeleteByQuery() throws Exception {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, IntStream.range(0, 100)
+                .mapToObj(i -> DocumentBuilder.id(i).put("title", "Titel " + i).put("count", i).build()).collect(Collectors.toList()));
+
+        ByQueryStatus status = elasticsearchService.deleteByQuery(indexAlias, DataChangeProcessingMode.BLOCKING, new ValueExpression("count", LE, 9),
+                Locale.ROOT, null);
+        assertEquals(10, status.getDeleted());
+        assertEquals(90, elasticsearchService.search(indexAlias, new FindAllExpression(), SearchParameter.DEFAULT).getTotalHitCount());
+
+        final ByQueryTask task = elasticsearchService.submitDeleteByQuery(indexAlias, DataChangeProcessingMode.BLOCKING, new FulltextExpression("titel"),
+                Locale.ROOT, ByQueryParameter.builder().requestsPerSecond(1000f).build());
+        status = task.awaitCompletion(30000);
+        assertTrue(status.isCompleted());
+        assertEquals(90, status.getDeleted());
+        assertEquals(1.0, status.getProgress(), 0);
+        assertEquals(90, task.completion().get(30, TimeUnit.SECONDS).getDeleted());
+        assertEquals(0, elasticsearchService.search(indexAlias, new FindAllExpression(), SearchParameter.DEFAULT).getTotalHitCount());
+    }
+
+    @Test
+    public void testSearchWithContinuationToken() {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, IntStream.range(0, 25)
+                .mapToObj(i -> DocumentBuilder.id(i).put("title", "Titel " + i).put("count", i % 5).build()).collect(Collectors.toList()));
+
+        final List<Long> ids = new ArrayList<>();
+        String continuationToken = SearchParameter.FIRST_PAGE;
+        do {
+            final SearchParameter searchParameter = SearchParameter.builder().pageSize(10).sortOptions(SortOption.desc("count"))
+                    .continuationToken(continuationToken).build();
+            final SearchResult result = elasticsearchService.search(indexAlias, new FulltextExpression("titel"), searchParameter);
+            assertEquals(25, result.getTotalHitCount());
+            result.getSearchResultItems().forEach(item -> ids.add(item.getId(Long.class)));
+            continuationToken = result.getContinuationToken();
+        } while (continuationToken != null);
+
+        assertEquals(25, ids.size());
+        assertEquals(25, new HashSet<>(ids).size());
+    }
+
+    @Test
+    public void testExactCount() throws Exception {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, IntStream.range(0, 250)
+                .mapToObj(i -> DocumentBuilder.id(i).put("title", "Titel " + i).build()).collect(Collectors.toList()));
+
+        SearchResult result = elasticsearchService.search(indexAlias, new FulltextExpression("titel"),
+                SearchParameter.builder().pageSize(5).maxTrackTotalHits(10L).build());
+        assertFalse(result.isExactHitCount());
+        assertEquals(5, result.getSearchResultItems().size());
+
+        result = elasticsearchService.search(indexAlias, new FulltextExpression("titel"),
+                SearchParameter.builder().pageSize(5).maxTrackTotalHits(10L).exactCount(true).build());
+        assertTrue(result.isExactHitCount());
+        assertEquals(250, result.getTotalHitCount());
+
+        result = elasticsearchService.searchAsync(indexAlias, new FulltextExpression("titel"),
+                SearchParameter.builder().pageSize(5).maxTrackTotalHits(10L).exactCount(true).build()).get();
+        assertTrue(result.isExactHitCount());
+        assertEquals(250, result.getTotalHitCount());
+    }
+
+    @Test
+    public void testCount() {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, IntStream.range(0, 100)
+                .mapToObj(i -> DocumentBuilder.id(i).put("title", "Titel " + i).put("count", i % 4).build()).collect(Collectors.toList()));
+
+        assertEquals(100, elasticsearchService.count(indexAlias, new FulltextExpression("titel")));
+        assertEquals(25, elasticsearchService.count(indexAlias, new ValueExpression("count", 2)));
+
+        final Map<String, Expression> expressions = new LinkedHashMap<>();
+        IntStream.range(0, 5).forEach(i -> expressions.put("count-" + i, new ValueExpression("count", i)));
+        expressions.put("all", new FindAllExpression());
+        final Map<String, Long> counts = elasticsearchService.count(indexAlias, expressions);
+        assertEquals(new ArrayList<>(expressions.keySet()), new ArrayList<>(counts.keySet()));
+        assertEquals(25, counts.get("count-0").longValue());
+        assertEquals(25, counts.get("count-3").longValue());
+        assertEquals(0, counts.get("count-4").longValue());
+        assertEquals(100, counts.get("all").longValue());
+    }
+
+    @Test
+    public void testMultiSearch() {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, IntStream.range(0, 20)
+                .mapToObj(i -> DocumentBuilder.id(i).put("title", "Titel " + i).put("count", i % 2).build()).collect(Collectors.toList()));
+
+        final List<MultiSearchItem> items = elasticsearchService.multiSearch(Arrays.asList(
+                SearchRequestSpec.of(indexAlias, new ValueExpression("count", 0), SearchParameter.builder().pageSize(3).build()),
+                SearchRequestSpec.of(indexAlias, new FulltextExpression("titel"), SearchParameter.builder().sortOptions(SortOption.desc("count")).build())));
+        assertEquals(2, items.size());
+        assertFalse(items.get(0).isFailed());
+        assertEquals(10, items.get(0).getSearchResult().getTotalHitCount());
+        assertEquals(3, items.get(0).getSearchResult().getSearchResultItems().size());
+        assertFalse(items.get(1).isFailed());
+        assertEquals(20, items.get(1).getSearchResult().getTotalHitCount());
+        assertEquals(Integer.valueOf(1), items.get(1).getSearchResult().getSearchResultItem(0).getAttribute("count"));
+    }
+
+    @Test
+    public void testStream() {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, IntStream.range(0, 250)
+                .mapToObj(i -> DocumentBuilder.id(i).put("title", "Titel " + i).put("count", i).build()).collect(Collectors.toList()));
+
+        try (Stream<SearchResultItem> stream = elasticsearchService.stream(indexAlias, new FulltextExpression("titel"),
+                SearchParameter.builder().pageSize(40).build())) {
+            assertEquals(250, stream.map(SearchResultItem::getId).distinct().count());
+        }
+        try (Stream<SearchResultItem> stream = elasticsearchService.stream(indexAlias, new ValueExpression("count", LE, 99),
+                SearchParameter.builder().pageSize(30).sortOptions(SortOption.desc("count")).maxResults(50).build())) {
+            final List<Integer> counts = stream.map(item -> (Integer) item.getAttribute("count")).collect(Collectors.toList());
+            assertEquals(50, counts.size());
+            assertEquals(Integer.valueOf(99), counts.get(0));
+            assertEquals(Integer.valueOf(50), counts.get(49));
+        }
+    }
+
+    @Test
+    public void testExport() throws Exception {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, IntStream.range(0, 250)
+                .mapToObj(i -> DocumentBuilder.id(i).put("title", "Titel " + i).put("count", i).build()).collect(Collectors.toList()));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final ExportStatus status = elasticsearchService.export(indexAlias, new ValueExpression("count", LE, 199), Locale.ROOT, outputStream,
+                ExportParameter.builder().slices(2).batchSize(30).bufferSize(1024).build());
+        assertTrue(status.isCompleted());
+        assertEquals(200, status.getDocuments());
+
+        final String[] lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(200, lines.length);
+        final ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals(200, Arrays.stream(lines).map(line -> {
+            try {
+                return objectMapper.readValue(line, Map.class).get("id");
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }).distinct().count());
+    }
+
+    @Test
+    public void testImportDocuments() {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        final String ndjson = IntStream.range(0, 120).mapToObj(i -> "{\"id\":\"" + i + "\",\"title\":\"Titel " + i + "\",\"count\":" + i + "}")
+                .collect(Collectors.joining("\n"));
+        final Map<String, Boolean> results = new ConcurrentHashMap<>();
+        elasticsearchService.importDocuments(indexAlias, DataChangeProcessingMode.BLOCKING,
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), results::put);
+
+        assertEquals(120, results.size());
+        assertTrue(results.values().stream().allMatch(Boolean::booleanValue));
+        assertEquals(120, elasticsearchService.search(indexAlias, new FulltextExpression("titel"), SearchParameter.DEFAULT).getTotalHitCount());
+        assertEquals(42, elasticsearchService.getDocument(indexAlias, 42).get("count"));
+
+        elasticsearchService.addSourcesToIndex(indexAlias, DataChangeProcessingMode.BLOCKING,
+                Stream.of("{\"id\":\"42\",\"title\":\"Neuer Titel\",\"count\":4711}".getBytes(StandardCharsets.UTF_8)), null);
+        assertEquals(4711, elasticsearchService.getDocument(indexAlias, 42).get("count"));
+    }
+
     @Test
     public void testSearchComplex() {
         indexName = elasticsearchService.createIndexWithAlias(indexAlias);
@@ -398,6 +682,50 @@ public class ElasticsearchServiceIT extends AbstractElasticsearchServiceIT {
         assertEquals(obj3, indexObject);
     }
 
+    @Test
+    public void testGetDocumentWithParameter() {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, DocumentBuilder.id(1)
+                .put("caption", "Caption 1").put("keywordField", "keyword 1").put("location", "Hamburg").build());
+
+        Map<String, Object> doc = elasticsearchService.getDocument(indexAlias, 1, GetParameter.builder().fieldsToResolve("caption").build());
+        assertEquals(Collections.singletonMap("caption", "Caption 1"), doc);
+
+        doc = elasticsearchService.getDocument(indexAlias, 1, GetParameter.builder().excludes("caption", "keywordField").build());
+        assertEquals("Hamburg", doc.get("location"));
+        assertFalse(doc.containsKey("caption"));
+
+        doc = elasticsearchService.getDocument(indexAlias, 1, GetParameter.builder().fieldsToResolve("caption", "keywordField").docValues(true).build());
+        assertEquals(2, doc.size());
+        assertEquals("Caption 1", doc.get("caption"));
+        assertEquals("keyword 1", doc.get("keywordField"));
+        assertNull(elasticsearchService.getDocument(indexAlias, 2, GetParameter.builder().fieldsToResolve("caption").docValues(true).build()));
+    }
+
+    @Test
+    public void testGetDocuments() {
+        indexName = elasticsearchService.createIndexWithAlias(indexAlias);
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, IntStream.range(0, 5)
+                .mapToObj(i -> DocumentBuilder.id(i).put("title", "Titel " + i).put("count", i).build()).collect(Collectors.toList()));
+
+        MultiGetResult<Map<String, Object>> result = elasticsearchService.getDocuments(indexAlias, Arrays.asList(3, 99, 1, 3));
+        assertEquals(Arrays.asList(3, 1), new ArrayList<>(result.getItemsById().keySet()));
+        assertEquals(Collections.singletonList(99), result.getMissingIds());
+        assertEquals("Titel 1", result.getItem(1).get("title"));
+
+        result = elasticsearchService.getDocuments(indexAlias, Arrays.asList(0, 4),
+                GetParameter.builder().includes("count").realtime(false).build());
+        assertEquals(2, result.getItems().size());
+        assertEquals(4, result.getItem(4).get("count"));
+        assertFalse(result.getItem(4).containsKey("title"));
+
+        final TestObject obj = new TestObject(666, "TestObject", parseDate("18.03.2020"));
+        elasticsearchService.addObjectToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, obj);
+        final MultiGetResult<TestObject> objects = elasticsearchService.getObjects(indexAlias, Arrays.asList(667, 666), TestObject.class);
+        assertEquals(Collections.singletonList(obj), objects.getItems());
+        assertEquals(Collections.singletonList(667), objects.getMissingIds());
+    }
+
     @Test
     public void testPersistingIndexConfig() {
         indexName = elasticsearchService.createIndexWithAlias(indexAlias);
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.asyncaction;
+
+import org.elasticsearch.client.Cancellable;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RestClientAsyncActionTest {
+
+    @Mock
+    private RestHighLevelClient client;
+
+    @Mock
+    private Cancellable cancellable;
+
+    @Test
+    public void testResponse() {
+        assertEquals("response", new TestAction(true).action(client, "request", 1000));
+        verify(cancellable, never()).cancel();
+    }
+
+    @Test
+    public void testTimeoutCancelsRequest() {
+        try {
+            new TestAction(false).action(client, "request", 10);
+            fail("Timeout expected");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("timeout"));
+        }
+        verify(cancellable).cancel();
+    }
+
+    @Test
+    public void testAsyncTimeoutCancelsRequest() throws Exception {
+        final CompletableFuture<String> future = new TestAction(false).actionAsync(client, "request", 10);
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            fail("Timeout expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        verify(cancellable).cancel();
+    }
+
+    @Test
+    public void testCancelFuture() {
+        final CompletableFuture<String> future = new TestAction(false).actionAsync(client, "request");
+        future.cancel(true);
+        verify(cancellable).cancel();
+    }
+
+    private class TestAction extends AbstractRestClientAsyncAction<String, String> {
+
+        private final boolean respond;
+
+        TestAction(boolean respond) {
+            this.respond = respond;
+        }
+
+        @Override
+        Cancellable asyncAction(RestHighLevelClient client, String request) {
+            if (respond) {
+                onResponse("response");
+            }
+            return cancellable;
+        }
+    }
+}
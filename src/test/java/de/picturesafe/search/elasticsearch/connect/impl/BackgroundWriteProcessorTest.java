@@ -0,0 +1,279 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BackgroundWriteProcessorTest {
+
+    private static final long FLUSH_INTERVAL = 60000;
+
+    private final List<BulkRequest> requests = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testLastWriteWins() {
+        try (BackgroundWriteProcessor processor = processor(this::completed, null, 100, 100, 1)) {
+            processor.submit(indexRequest(1, "a"));
+            processor.submit(indexRequest(2, "b"));
+            processor.submit(indexRequest(1, "c"));
+            assertEquals(2, processor.getPendingCount());
+
+            processor.flushAndWait();
+            assertEquals(0, processor.getPendingCount());
+            assertEquals(1, requests.size());
+            assertEquals(2, requests.get(0).numberOfActions());
+            assertEquals("c", ((IndexRequest) requests.get(0).requests().get(0)).sourceAsMap().get("value"));
+
+            processor.submit(indexRequest(2, "d"));
+            processor.submit(new DeleteRequest("test", "2"));
+            processor.flushAndWait();
+            assertEquals(2, requests.size());
+            assertEquals(1, requests.get(1).numberOfActions());
+            assertTrue(requests.get(1).requests().get(0) instanceof DeleteRequest);
+        }
+    }
+
+    @Test
+    public void testWriteInFlightIsNotOvertaken() {
+        final List<CompletableFuture<BulkResponse>> futures = new CopyOnWriteArrayList<>();
+        final Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor = request -> {
+            requests.add(request);
+            final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+            futures.add(future);
+            return future;
+        };
+
+        try (BackgroundWriteProcessor processor = processor(bulkExecutor, null, 100, 100, 2)) {
+            processor.submit(indexRequest(1, "a"));
+            processor.flush();
+            assertEquals(1, requests.size());
+
+            processor.submit(indexRequest(1, "b"));
+            processor.submit(indexRequest(2, "c"));
+            processor.flush();
+            assertEquals(2, requests.size());
+            assertEquals("2", requests.get(1).requests().get(0).id());
+            assertEquals(1, processor.getPendingCount());
+
+            futures.get(0).complete(bulkResponse(requests.get(0)));
+            futures.get(1).complete(bulkResponse(requests.get(1)));
+            processor.flush();
+            assertEquals(3, requests.size());
+            assertEquals("b", ((IndexRequest) requests.get(2).requests().get(0)).sourceAsMap().get("value"));
+            futures.get(2).complete(bulkResponse(requests.get(2)));
+        }
+    }
+
+    @Test
+    public void testSubmitFutureCompletesWhenExecuted() {
+        final List<CompletableFuture<BulkResponse>> futures = new CopyOnWriteArrayList<>();
+        final Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor = request -> {
+            requests.add(request);
+            final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+            futures.add(future);
+            return future;
+        };
+
+        try (BackgroundWriteProcessor processor = processor(bulkExecutor, null, 100, 100, 1)) {
+            final CompletableFuture<Void> replaced = processor.submit(indexRequest(1, "a"));
+            final CompletableFuture<Void> write = processor.submit(indexRequest(1, "b"));
+            processor.flush();
+            assertFalse(replaced.isDone());
+            assertFalse(write.isDone());
+
+            futures.get(0).complete(bulkResponse(requests.get(0)));
+            assertTrue(replaced.isDone());
+            assertTrue(write.isDone());
+        }
+    }
+
+    @Test
+    public void testSameIdInDifferentIndexes() {
+        final List<CompletableFuture<BulkResponse>> futures = new CopyOnWriteArrayList<>();
+        final Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor = request -> {
+            requests.add(request);
+            final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+            futures.add(future);
+            return future;
+        };
+
+        try (BackgroundWriteProcessor processor = processor(bulkExecutor, null, 100, 100, 2)) {
+            processor.submit(indexRequest(1, "a"));
+            processor.flush();
+            processor.submit(new IndexRequest("other").id("1").source("id", 1, "value", "b"));
+            processor.flush();
+            assertEquals(2, requests.size());
+            assertEquals(0, processor.getPendingCount());
+            futures.get(0).complete(bulkResponse(requests.get(0)));
+            futures.get(1).complete(bulkResponse(requests.get(1)));
+        }
+    }
+
+    @Test
+    public void testAwaitWrite() throws Exception {
+        final List<CompletableFuture<BulkResponse>> futures = new CopyOnWriteArrayList<>();
+        final Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor = request -> {
+            requests.add(request);
+            final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+            futures.add(future);
+            return future;
+        };
+
+        try (BackgroundWriteProcessor processor = processor(bulkExecutor, null, 100, 100, 2)) {
+            processor.submit(indexRequest(1, "a"));
+            processor.flush();
+            processor.submit(indexRequest(1, "b"));
+            processor.awaitWrite("test", "2");
+            processor.awaitWrite("other", "1");
+
+            final CompletableFuture<Void> awaiting = CompletableFuture.runAsync(() -> processor.awaitWrite("test", "1"));
+            Thread.sleep(50);
+            assertFalse(awaiting.isDone());
+
+            futures.get(0).complete(bulkResponse(requests.get(0)));
+            while (futures.size() < 2) {
+                Thread.sleep(10);
+            }
+            assertFalse(awaiting.isDone());
+            assertEquals("b", ((IndexRequest) requests.get(1).requests().get(0)).sourceAsMap().get("value"));
+            futures.get(1).complete(bulkResponse(requests.get(1)));
+            awaiting.get(5, TimeUnit.SECONDS);
+            assertEquals(0, processor.getPendingCount());
+        }
+    }
+
+    @Test
+    public void testRequestFailure() {
+        final Map<String, BulkItemResponse.Failure> deadLetters = new ConcurrentHashMap<>();
+        final Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor = request -> {
+            requests.add(request);
+            if (requests.size() == 1) {
+                throw new IllegalStateException("Connection refused");
+            }
+            return CompletableFuture.completedFuture(bulkResponse(request));
+        };
+
+        try (BackgroundWriteProcessor processor = processor(bulkExecutor, (request, failure) -> deadLetters.put(request.id(), failure), 100, 100, 1)) {
+            processor.submit(indexRequest(1, "a"));
+            processor.submit(indexRequest(2, "b"));
+            processor.flushAndWait();
+            assertEquals(2, deadLetters.size());
+            assertEquals("Connection refused", deadLetters.get("1").getCause().getMessage());
+
+            // Processor is still usable and the failed documents are no longer in flight
+            processor.submit(indexRequest(1, "c"));
+            processor.flushAndWait();
+            assertEquals(2, requests.size());
+        }
+    }
+
+    @Test
+    public void testRejectedRequestIsRetried() {
+        final Map<String, BulkItemResponse.Failure> deadLetters = new ConcurrentHashMap<>();
+        final Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor = request -> {
+            requests.add(request);
+            final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+            if (requests.size() == 1) {
+                future.completeExceptionally(new ElasticsearchStatusException("rejected execution", RestStatus.TOO_MANY_REQUESTS));
+            } else {
+                future.complete(bulkResponse(request));
+            }
+            return future;
+        };
+
+        try (BackgroundWriteProcessor processor = new BackgroundWriteProcessor(bulkExecutor,
+                executor -> new BulkIndexer(executor, 100, 1, WriteRequest.RefreshPolicy.NONE, null).maxRetries(1).retryDelayMillis(1),
+                (request, failure) -> deadLetters.put(request.id(), failure), 100, 100, FLUSH_INTERVAL)) {
+            processor.submit(indexRequest(1, "a"));
+            processor.flushAndWait();
+            assertEquals(2, requests.size());
+            assertTrue(deadLetters.isEmpty());
+        }
+    }
+
+    @Test
+    public void testBackpressure() {
+        try (BackgroundWriteProcessor processor = processor(this::completed, null, 4, 4, 1)) {
+            for (int i = 1; i <= 4; i++) {
+                processor.submit(indexRequest(i, "a"));
+            }
+            // The writes have been flushed by the submitting thread when the limit was reached
+            assertEquals(0, processor.getPendingCount());
+            assertEquals(4, requests.stream().mapToInt(BulkRequest::numberOfActions).sum());
+        }
+    }
+
+    @Test
+    public void testCloseFlushesPendingWrites() {
+        final BackgroundWriteProcessor processor = processor(this::completed, null, 100, 100, 1);
+        processor.submit(indexRequest(1, "a"));
+        processor.submit(indexRequest(2, "b"));
+        processor.close();
+        assertEquals(2, requests.stream().mapToInt(BulkRequest::numberOfActions).sum());
+    }
+
+    private BackgroundWriteProcessor processor(Function<BulkRequest, CompletableFuture<BulkResponse>> bulkExecutor, DeadLetterHandler deadLetterHandler,
+                                               int bulkSize, int maxPending, int concurrentRequests) {
+        return new BackgroundWriteProcessor(bulkExecutor,
+                executor -> new BulkIndexer(executor, bulkSize, concurrentRequests, WriteRequest.RefreshPolicy.NONE, null),
+                deadLetterHandler, bulkSize, maxPending, FLUSH_INTERVAL);
+    }
+
+    private CompletableFuture<BulkResponse> completed(BulkRequest request) {
+        requests.add(request);
+        return CompletableFuture.completedFuture(bulkResponse(request));
+    }
+
+    private IndexRequest indexRequest(int id, String value) {
+        return new IndexRequest("test").id(Integer.toString(id)).source("id", id, "value", value);
+    }
+
+    private BulkResponse bulkResponse(BulkRequest request) {
+        final BulkItemResponse[] responses = new BulkItemResponse[request.numberOfActions()];
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = bulkItemResponse(i, request.requests().get(i));
+        }
+        return new BulkResponse(responses, 0);
+    }
+
+    private BulkItemResponse bulkItemResponse(int itemId, DocWriteRequest<?> request) {
+        return new BulkItemResponse(itemId, request.opType(), new IndexResponse(new ShardId("test", "uuid", 1), "test", request.id(), 0, 0, 0, true));
+    }
+}
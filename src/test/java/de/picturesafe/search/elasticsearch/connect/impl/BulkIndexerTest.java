@@ -0,0 +1,322 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BulkIndexerTest {
+
+    @Test
+    public void testConcurrentRequests() {
+        final List<BulkRequest> requests = new ArrayList<>();
+        final List<CompletableFuture<BulkResponse>> pending = new ArrayList<>();
+        final Map<String, Boolean> results = new ConcurrentHashMap<>();
+        final BulkIndexer bulkIndexer = new BulkIndexer(request -> {
+            final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+            requests.add(request);
+            pending.add(future);
+            if (pending.size() == 2) {
+                // Complete the first request to release a permit for the third one
+                pending.get(0).complete(bulkResponse(requests.get(0)));
+            } else if (pending.size() == 3) {
+                future.complete(bulkResponse(request));
+            }
+            return future;
+        }, 100, 2, WriteRequest.RefreshPolicy.NONE, results::put);
+
+        bulkIndexer.add(indexRequest(1));
+        bulkIndexer.flush();
+        assertEquals(1, pending.size());
+        assertEquals(0, results.size());
+
+        bulkIndexer.add(indexRequest(2));
+        bulkIndexer.flush();
+        bulkIndexer.add(indexRequest(3));
+        bulkIndexer.flush();
+        assertEquals(3, pending.size());
+        assertEquals(2, results.size());
+
+        pending.get(1).complete(bulkResponse(requests.get(1)));
+        bulkIndexer.close();
+        assertEquals(3, results.size());
+        assertTrue(results.values().stream().allMatch(Boolean::booleanValue));
+    }
+
+    @Test
+    public void testRequestFailure() {
+        final BulkIndexer bulkIndexer = new BulkIndexer(request -> {
+            final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(new RuntimeException("failed"));
+            return future;
+        }, 1, 2, WriteRequest.RefreshPolicy.NONE, null);
+
+        try {
+            bulkIndexer.add(indexRequest(1));
+            fail("Exception expected");
+        } catch (ElasticsearchException e) {
+            assertTrue(e.getCause().getMessage().contains("failed"));
+        }
+    }
+
+    @Test
+    public void testBulkSize() {
+        final List<BulkRequest> requests = new ArrayList<>();
+        try (BulkIndexer bulkIndexer = new BulkIndexer(request -> {
+            requests.add(request);
+            return CompletableFuture.completedFuture(bulkResponse(request));
+        }, 2, 1, WriteRequest.RefreshPolicy.NONE, null)) {
+            for (int i = 1; i <= 5; i++) {
+                bulkIndexer.add(indexRequest(i));
+            }
+        }
+        assertEquals(3, requests.size());
+        assertEquals(2, requests.get(0).numberOfActions());
+        assertEquals(2, requests.get(1).numberOfActions());
+        assertEquals(1, requests.get(2).numberOfActions());
+    }
+
+    @Test
+    public void testMaxBytes() {
+        final long requestSize = new BulkRequest().add(indexRequest(1)).estimatedSizeInBytes();
+        final List<BulkRequest> requests = new ArrayList<>();
+        try (BulkIndexer bulkIndexer = new BulkIndexer(request -> {
+            requests.add(request);
+            return CompletableFuture.completedFuture(bulkResponse(request));
+        }, 100, 1, WriteRequest.RefreshPolicy.NONE, null).maxBytes(requestSize * 3 - 1)) {
+            for (int i = 1; i <= 5; i++) {
+                bulkIndexer.add(indexRequest(i));
+            }
+        }
+        assertEquals(3, requests.size());
+        assertTrue(requests.stream().allMatch(request -> request.estimatedSizeInBytes() < requestSize * 3));
+    }
+
+    @Test
+    public void testLinger() throws Exception {
+        final CompletableFuture<BulkRequest> executed = new CompletableFuture<>();
+        try (BulkIndexer bulkIndexer = new BulkIndexer(request -> {
+            executed.complete(request);
+            return CompletableFuture.completedFuture(bulkResponse(request));
+        }, 100, 1, WriteRequest.RefreshPolicy.NONE, null).lingerMillis(10)) {
+            bulkIndexer.add(indexRequest(1));
+            assertEquals(1, executed.get(5, TimeUnit.SECONDS).numberOfActions());
+        }
+    }
+
+    @Test
+    public void testLingerNotBlockedByWaitingIndexer() throws Exception {
+        final List<CompletableFuture<BulkResponse>> pending = new CopyOnWriteArrayList<>();
+        final BulkIndexer blockedIndexer = new BulkIndexer(request -> {
+            final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }, 1, 1, WriteRequest.RefreshPolicy.NONE, null).lingerMillis(10);
+        blockedIndexer.add(indexRequest(1));
+        // Waits for the permit of the first request while holding the lock of the bulk indexer
+        final CompletableFuture<Void> blockedAdd = CompletableFuture.runAsync(() -> blockedIndexer.add(indexRequest(2)));
+        Thread.sleep(50);
+        assertFalse(blockedAdd.isDone());
+
+        final CompletableFuture<BulkRequest> executed = new CompletableFuture<>();
+        try (BulkIndexer bulkIndexer = new BulkIndexer(request -> {
+            executed.complete(request);
+            return CompletableFuture.completedFuture(bulkResponse(request));
+        }, 100, 1, WriteRequest.RefreshPolicy.NONE, null).lingerMillis(10)) {
+            bulkIndexer.add(indexRequest(3));
+            assertEquals(1, executed.get(5, TimeUnit.SECONDS).numberOfActions());
+        } finally {
+            pending.get(0).complete(bulkResponse(new BulkRequest().add(indexRequest(1))));
+            blockedAdd.get(5, TimeUnit.SECONDS);
+            pending.get(1).complete(bulkResponse(new BulkRequest().add(indexRequest(2))));
+            blockedIndexer.close();
+        }
+    }
+
+    @Test
+    public void testAdaptiveBulkSize() {
+        final BulkIndexer bulkIndexer = new BulkIndexer(request -> CompletableFuture.completedFuture(bulkResponse(request)), 100, 1,
+                WriteRequest.RefreshPolicy.NONE, null).targetLatencyMillis(1000);
+        bulkIndexer.adaptBulkSize(100, 2000);
+        assertEquals(50, bulkIndexer.getCurrentBulkSize());
+        bulkIndexer.adaptBulkSize(50, 2000);
+        bulkIndexer.adaptBulkSize(25, 2000);
+        bulkIndexer.adaptBulkSize(12, 2000);
+        assertEquals(10, bulkIndexer.getCurrentBulkSize());
+        bulkIndexer.adaptBulkSize(5, 100);
+        assertEquals(10, bulkIndexer.getCurrentBulkSize());
+        bulkIndexer.adaptBulkSize(10, 100);
+        assertEquals(12, bulkIndexer.getCurrentBulkSize());
+        for (int i = 0; i < 20; i++) {
+            bulkIndexer.adaptBulkSize(bulkIndexer.getCurrentBulkSize(), 100);
+        }
+        assertEquals(100, bulkIndexer.getCurrentBulkSize());
+    }
+
+    @Test
+    public void testRetryRejected() {
+        final List<BulkRequest> requests = new ArrayList<>();
+        final Map<String, Boolean> results = new ConcurrentHashMap<>();
+        final Map<String, BulkItemResponse.Failure> deadLetters = new ConcurrentHashMap<>();
+        try (BulkIndexer bulkIndexer = new BulkIndexer(request -> {
+            requests.add(request);
+            final BulkItemResponse[] responses = new BulkItemResponse[request.numberOfActions()];
+            for (int i = 0; i < responses.length; i++) {
+                final DocWriteRequest<?> itemRequest = request.requests().get(i);
+                if (itemRequest.id().equals("2") && requests.size() < 3) {
+                    responses[i] = failedItemResponse(i, itemRequest, RestStatus.TOO_MANY_REQUESTS);
+                } else if (itemRequest.id().equals("3")) {
+                    responses[i] = failedItemResponse(i, itemRequest, RestStatus.BAD_REQUEST);
+                } else {
+                    responses[i] = bulkItemResponse(itemRequest);
+                }
+            }
+            return CompletableFuture.completedFuture(new BulkResponse(responses, 0));
+        }, 100, 1, WriteRequest.RefreshPolicy.NONE, results::put)
+                .maxRetries(3)
+                .retryDelayMillis(1)
+                .deadLetterHandler((request, failure) -> deadLetters.put(request.id(), failure))) {
+            bulkIndexer.add(indexRequest(1));
+            bulkIndexer.add(indexRequest(2));
+            bulkIndexer.add(indexRequest(3));
+        }
+
+        assertEquals(3, requests.size());
+        assertEquals(3, requests.get(0).numberOfActions());
+        assertEquals(1, requests.get(1).numberOfActions());
+        assertEquals(1, requests.get(2).numberOfActions());
+        assertEquals(3, results.size());
+        assertTrue(results.get("1"));
+        assertTrue(results.get("2"));
+        assertFalse(results.get("3"));
+        assertEquals(1, deadLetters.size());
+        assertEquals(RestStatus.BAD_REQUEST, deadLetters.get("3").getStatus());
+    }
+
+    @Test
+    public void testRetryBudgetExhausted() {
+        final Map<String, Boolean> results = new ConcurrentHashMap<>();
+        final Map<String, BulkItemResponse.Failure> deadLetters = new ConcurrentHashMap<>();
+        try (BulkIndexer bulkIndexer = new BulkIndexer(request -> CompletableFuture.completedFuture(
+                new BulkResponse(new BulkItemResponse[] {failedItemResponse(0, request.requests().get(0), RestStatus.TOO_MANY_REQUESTS)}, 0)),
+                100, 1, WriteRequest.RefreshPolicy.NONE, results::put)
+                .maxRetries(2)
+                .retryDelayMillis(1)
+                .deadLetterHandler((request, failure) -> deadLetters.put(request.id(), failure))) {
+            bulkIndexer.add(indexRequest(1));
+        }
+
+        assertFalse(results.get("1"));
+        assertEquals(RestStatus.TOO_MANY_REQUESTS, deadLetters.get("1").getStatus());
+    }
+
+    @Test
+    public void testRetryRejectedBulkRequest() {
+        final List<BulkRequest> requests = new ArrayList<>();
+        final Map<String, Boolean> results = new ConcurrentHashMap<>();
+        try (BulkIndexer bulkIndexer = new BulkIndexer(request -> {
+            requests.add(request);
+            final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+            if (requests.size() < 3) {
+                future.completeExceptionally(new ElasticsearchStatusException("rejected", RestStatus.TOO_MANY_REQUESTS));
+            } else {
+                future.complete(bulkResponse(request));
+            }
+            return future;
+        }, 100, 1, WriteRequest.RefreshPolicy.NONE, results::put)
+                .maxRetries(3)
+                .retryDelayMillis(1)) {
+            bulkIndexer.add(indexRequest(1));
+            bulkIndexer.add(indexRequest(2));
+        }
+
+        assertEquals(3, requests.size());
+        assertEquals(2, requests.get(2).numberOfActions());
+        assertTrue(results.get("1"));
+        assertTrue(results.get("2"));
+    }
+
+    @Test
+    public void testRejectedBulkRequestRetryBudgetExhausted() {
+        final BulkIndexer bulkIndexer = new BulkIndexer(request -> {
+            final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(new ElasticsearchStatusException("rejected", RestStatus.TOO_MANY_REQUESTS));
+            return future;
+        }, 100, 1, WriteRequest.RefreshPolicy.NONE, null).maxRetries(2).retryDelayMillis(1);
+        bulkIndexer.add(indexRequest(1));
+        try {
+            bulkIndexer.close();
+            fail("Exception expected");
+        } catch (ElasticsearchException e) {
+            assertTrue(e.getCause() instanceof ElasticsearchStatusException);
+        }
+    }
+
+    @Test
+    public void testFailOnItemFailure() {
+        final BulkIndexer bulkIndexer = new BulkIndexer(request -> CompletableFuture.completedFuture(
+                new BulkResponse(new BulkItemResponse[] {failedItemResponse(0, request.requests().get(0), RestStatus.BAD_REQUEST)}, 0)),
+                1, 1, WriteRequest.RefreshPolicy.NONE, null).failOnItemFailure(true);
+        try {
+            bulkIndexer.add(indexRequest(1));
+            fail("Exception expected");
+        } catch (ElasticsearchException e) {
+            assertTrue(e.getMessage().contains("[1]"));
+        }
+    }
+
+    private IndexRequest indexRequest(int id) {
+        return new IndexRequest("test").id(Integer.toString(id)).source("id", id);
+    }
+
+    private BulkResponse bulkResponse(BulkRequest request) {
+        final BulkItemResponse[] responses = request.requests().stream().map(this::bulkItemResponse).toArray(BulkItemResponse[]::new);
+        return new BulkResponse(responses, 0);
+    }
+
+    private BulkItemResponse failedItemResponse(int itemId, DocWriteRequest<?> request, RestStatus status) {
+        return new BulkItemResponse(itemId, DocWriteRequest.OpType.INDEX,
+                new BulkItemResponse.Failure("test", "_doc", request.id(), new RuntimeException(status.name()), status));
+    }
+
+    private BulkItemResponse bulkItemResponse(DocWriteRequest<?> request) {
+        return new BulkItemResponse(0, DocWriteRequest.OpType.INDEX, new IndexResponse(new ShardId("test", "uuid", 1), "test", request.id(), 0, 0, 0, true));
+    }
+}
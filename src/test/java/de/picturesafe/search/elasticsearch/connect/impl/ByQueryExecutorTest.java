@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.parameter.ByQueryParameter;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.reindex.AbstractBulkByScrollRequest;
+import org.elasticsearch.index.reindex.DeleteByQueryRequest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ByQueryExecutorTest {
+
+    @Test
+    public void testPrepare() {
+        final QueryBuilder query = QueryBuilders.termQuery("title", "test");
+        final ByQueryExecutor executor = new ByQueryExecutor(null, null, 1000);
+
+        DeleteByQueryRequest request = executor.prepare(new DeleteByQueryRequest("test-index"), query, null, true);
+        assertEquals(query, request.getSearchRequest().source().query());
+        assertTrue(request.isRefresh());
+        assertEquals(AbstractBulkByScrollRequest.AUTO_SLICES, request.getSlices());
+        assertTrue(Float.isInfinite(request.getRequestsPerSecond()));
+        assertTrue(request.isAbortOnVersionConflict());
+
+        final ByQueryParameter parameter = ByQueryParameter.builder().slices(3).requestsPerSecond(500f).proceedOnConflicts(true).build();
+        request = executor.prepare(new DeleteByQueryRequest("test-index"), query, parameter, false);
+        assertFalse(request.isRefresh());
+        assertEquals(3, request.getSlices());
+        assertEquals(500f, request.getRequestsPerSecond(), 0);
+        assertFalse(request.isAbortOnVersionConflict());
+    }
+
+    @Test
+    public void testHandleRequestExternally() {
+        final List<Object> handledRequests = new ArrayList<>();
+        final ByQueryExecutor executor = new ByQueryExecutor(null, new WriteRequestHandler() {
+            @Override
+            public boolean handle(WriteRequest<?> request) {
+                return false;
+            }
+
+            @Override
+            public boolean handle(AbstractBulkByScrollRequest<?> request) {
+                return handledRequests.add(request);
+            }
+        }, 1000);
+
+        assertNull(executor.deleteByQuery("test-index", QueryBuilders.matchAllQuery(), null, false));
+        assertNull(executor.submitDeleteByQuery("test-index", QueryBuilders.matchAllQuery(), null, false));
+        assertEquals(2, handledRequests.size());
+        assertTrue(handledRequests.get(0) instanceof DeleteByQueryRequest);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.model.ByQueryStatus;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.reindex.BulkByScrollResponse;
+import org.elasticsearch.index.reindex.BulkByScrollTask;
+import org.elasticsearch.index.reindex.DeleteByQueryRequest;
+import org.elasticsearch.index.reindex.UpdateByQueryRequest;
+import org.elasticsearch.script.Script;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ByQueryTaskImplTest {
+
+    @Test
+    public void testSubmitUpdateByQueryRequest() throws Exception {
+        final UpdateByQueryRequest request = new UpdateByQueryRequest("test-index");
+        request.setQuery(QueryBuilders.termQuery("title", "test"));
+        request.setScript(new Script("ctx._source.counter++"));
+        request.setSlices(4);
+        request.setRequestsPerSecond(100);
+        request.setAbortOnVersionConflict(false);
+        request.setRefresh(true);
+
+        final Request taskRequest = ByQueryTaskImpl.submitRequest(request);
+        assertEquals("POST", taskRequest.getMethod());
+        assertEquals("/test-index/_update_by_query", taskRequest.getEndpoint());
+        assertEquals("false", taskRequest.getParameters().get("wait_for_completion"));
+        assertEquals("true", taskRequest.getParameters().get("refresh"));
+        assertEquals("proceed", taskRequest.getParameters().get("conflicts"));
+        assertEquals("4", taskRequest.getParameters().get("slices"));
+        assertEquals("100.0", taskRequest.getParameters().get("requests_per_second"));
+
+        final String body = EntityUtils.toString(taskRequest.getEntity());
+        assertTrue(body, body.contains("\"query\""));
+        assertTrue(body, body.contains("ctx._source.counter++"));
+    }
+
+    @Test
+    public void testSubmitDeleteByQueryRequest() {
+        final DeleteByQueryRequest request = new DeleteByQueryRequest("test-index");
+        request.setQuery(QueryBuilders.matchAllQuery());
+        request.setSlices(DeleteByQueryRequest.AUTO_SLICES);
+
+        final Request taskRequest = ByQueryTaskImpl.submitRequest(request);
+        assertEquals("/test-index/_delete_by_query", taskRequest.getEndpoint());
+        assertEquals("auto", taskRequest.getParameters().get("slices"));
+        assertEquals("-1", taskRequest.getParameters().get("requests_per_second"));
+        assertNull(taskRequest.getParameters().get("conflicts"));
+    }
+
+    @Test
+    public void testStatusOfRunningTask() {
+        final Map<String, Object> status = new HashMap<>();
+        status.put("total", 200);
+        status.put("updated", 40);
+        status.put("version_conflicts", 10);
+        final Map<String, Object> taskResponse = new HashMap<>();
+        taskResponse.put("completed", false);
+        taskResponse.put("task", Collections.singletonMap("status", status));
+
+        final ByQueryStatus byQueryStatus = ByQueryTaskImpl.toStatus(taskResponse);
+        assertFalse(byQueryStatus.isCompleted());
+        assertEquals(200, byQueryStatus.getTotal());
+        assertEquals(40, byQueryStatus.getUpdated());
+        assertEquals(50, byQueryStatus.getProcessed());
+        assertEquals(0.25, byQueryStatus.getProgress(), 0.0001);
+        assertFalse(byQueryStatus.isCancelled());
+        assertTrue(byQueryStatus.getFailures().isEmpty());
+    }
+
+    @Test
+    public void testStatusOfCompletedTaskWithFailures() {
+        final Map<String, Object> cause = new HashMap<>();
+        cause.put("type", "mapper_parsing_exception");
+        cause.put("reason", "failed to parse");
+        final Map<String, Object> failure = new HashMap<>();
+        failure.put("id", "4711");
+        failure.put("cause", cause);
+        final Map<String, Object> response = new HashMap<>();
+        response.put("total", 10);
+        response.put("deleted", 9);
+        response.put("failures", Collections.singletonList(failure));
+        final Map<String, Object> taskResponse = new HashMap<>();
+        taskResponse.put("completed", true);
+        taskResponse.put("response", response);
+
+        final ByQueryStatus byQueryStatus = ByQueryTaskImpl.toStatus(taskResponse);
+        assertTrue(byQueryStatus.isCompleted());
+        assertEquals(10, byQueryStatus.getTotal());
+        assertEquals(9, byQueryStatus.getDeleted());
+        assertEquals(1.0, byQueryStatus.getProgress(), 0.0001);
+        assertEquals(Collections.singletonList("[4711]: mapper_parsing_exception: failed to parse"), byQueryStatus.getFailures());
+    }
+
+    @Test
+    public void testStatusOfBulkByScrollResponse() {
+        final BulkByScrollTask.Status status = new BulkByScrollTask.Status(null, 5, 3, 0, 1, 1, 0, 1, 0, 0, TimeValue.ZERO, Float.POSITIVE_INFINITY, null,
+                TimeValue.ZERO);
+        final BulkByScrollResponse response = new BulkByScrollResponse(TimeValue.ZERO, status, Collections.emptyList(), Collections.emptyList(),
+                false);
+
+        final ByQueryStatus byQueryStatus = ByQueryTaskImpl.toStatus(response);
+        assertTrue(byQueryStatus.isCompleted());
+        assertEquals(5, byQueryStatus.getTotal());
+        assertEquals(3, byQueryStatus.getUpdated());
+        assertEquals(1, byQueryStatus.getDeleted());
+        assertEquals(1, byQueryStatus.getNoops());
+        assertTrue(byQueryStatus.getFailures().isEmpty());
+    }
+}
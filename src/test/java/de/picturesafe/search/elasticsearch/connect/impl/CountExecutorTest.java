@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.client.core.CountRequest;
+import org.elasticsearch.client.core.CountResponse;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.filter.Filters;
+import org.elasticsearch.search.aggregations.bucket.filter.FiltersAggregationBuilder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CountExecutorTest {
+
+    @Test
+    public void testCount() {
+        final CompletableFuture<CountResponse> countResponse = new CompletableFuture<>();
+        final TestCountExecutor countExecutor = new TestCountExecutor(countResponse, null);
+        final CompletableFuture<Long> count = countExecutor.countAsync("test-index", QueryBuilders.termQuery("title", "test"), 1000);
+
+        countResponse.complete(new CountResponse(42L, false, new CountResponse.ShardStats(1, 1, 0, new ShardSearchFailure[0])));
+        assertEquals(42L, count.join().longValue());
+        assertEquals("test-index", countExecutor.countRequest.indices()[0]);
+    }
+
+    @Test
+    public void testCountMultipleQueries() {
+        final Map<String, QueryBuilder> queries = new LinkedHashMap<>();
+        queries.put("b", QueryBuilders.termQuery("folder", "b"));
+        queries.put("a", QueryBuilders.termQuery("folder", "a"));
+        queries.put("c", QueryBuilders.termQuery("folder", "c"));
+
+        final Filters filters = mock(Filters.class);
+        when(filters.getName()).thenReturn(CountExecutor.COUNTS_AGGREGATION);
+        final List<Filters.Bucket> buckets = new ArrayList<>();
+        for (String key : Arrays.asList("a", "b")) {
+            final Filters.Bucket bucket = mock(Filters.Bucket.class);
+            when(bucket.getDocCount()).thenReturn(key.equals("a") ? 7L : 3L);
+            buckets.add(bucket);
+        }
+        when(filters.getBucketByKey("a")).thenReturn(buckets.get(0));
+        when(filters.getBucketByKey("b")).thenReturn(buckets.get(1));
+        final SearchResponse response = mock(SearchResponse.class);
+        when(response.getAggregations()).thenReturn(new Aggregations(Collections.singletonList(filters)));
+
+        final TestCountExecutor countExecutor = new TestCountExecutor(null, CompletableFuture.completedFuture(response));
+        final Map<String, Long> counts = countExecutor.countAsync("test-index", queries, 1000).join();
+        assertEquals(Arrays.asList("b", "a", "c"), new ArrayList<>(counts.keySet()));
+        assertEquals(3L, counts.get("b").longValue());
+        assertEquals(7L, counts.get("a").longValue());
+        assertEquals(0L, counts.get("c").longValue());
+
+        final SearchRequest request = countExecutor.searchRequest;
+        assertEquals(0, request.source().size());
+        assertFalse(request.source().trackTotalHitsUpTo() > 0);
+        final FiltersAggregationBuilder aggregation = (FiltersAggregationBuilder) request.source().aggregations().getAggregatorFactories().iterator().next();
+        assertEquals(3, aggregation.filters().size());
+    }
+
+    @Test
+    public void testCountWithoutQueries() {
+        final TestCountExecutor countExecutor = new TestCountExecutor(null, null);
+        assertTrue(countExecutor.countAsync("test-index", Collections.emptyMap(), 1000).join().isEmpty());
+    }
+
+    @Test
+    public void testCountFailure() {
+        final CompletableFuture<CountResponse> countResponse = new CompletableFuture<>();
+        final TestCountExecutor countExecutor = new TestCountExecutor(countResponse, null);
+        final CompletableFuture<Long> count = countExecutor.countAsync("test-index", QueryBuilders.matchAllQuery(), 1000);
+        countResponse.completeExceptionally(new IllegalStateException("failed"));
+        try {
+            count.join();
+            fail("Count should fail!");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof ElasticsearchException);
+        }
+    }
+
+    @Test
+    public void testCancel() {
+        final CompletableFuture<CountResponse> countResponse = new CompletableFuture<>();
+        final TestCountExecutor countExecutor = new TestCountExecutor(countResponse, null);
+        countExecutor.countAsync("test-index", QueryBuilders.matchAllQuery(), 1000).cancel(true);
+        assertTrue(countResponse.isCancelled());
+    }
+
+    private static class TestCountExecutor extends CountExecutor {
+
+        private final CompletableFuture<CountResponse> countResponse;
+        private final CompletableFuture<SearchResponse> searchResponse;
+        private CountRequest countRequest;
+        private SearchRequest searchRequest;
+
+        TestCountExecutor(CompletableFuture<CountResponse> countResponse, CompletableFuture<SearchResponse> searchResponse) {
+            super(null, e -> new ElasticsearchException("Count failed!", e));
+            this.countResponse = countResponse;
+            this.searchResponse = searchResponse;
+        }
+
+        @Override
+        protected CompletableFuture<CountResponse> executeCount(CountRequest countRequest, long timeout) {
+            this.countRequest = countRequest;
+            return countResponse;
+        }
+
+        @Override
+        protected CompletableFuture<SearchResponse> executeSearch(SearchRequest searchRequest, long timeout) {
+            this.searchRequest = searchRequest;
+            return searchResponse;
+        }
+    }
+}
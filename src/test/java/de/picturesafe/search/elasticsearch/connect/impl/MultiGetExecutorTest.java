@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
+import de.picturesafe.search.parameter.GetParameter;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.index.get.GetResult;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MultiGetExecutorTest {
+
+    @Test
+    public void testGetDocumentsInChunks() {
+        final TestMultiGetExecutor executor = new TestMultiGetExecutor(2, null);
+        final List<Map<String, Object>> documents
+                = executor.getDocumentsAsync("test-index", Arrays.asList("1", "missing", "3", "4", "5"), GetParameter.DEFAULT, 1000).join();
+
+        assertEquals(3, executor.requests.size());
+        assertEquals(Arrays.asList(2, 2, 1), executor.requests.stream().map(r -> r.getItems().size()).collect(Collectors.toList()));
+        assertEquals(5, documents.size());
+        assertEquals("title-1", documents.get(0).get("title"));
+        assertNull(documents.get(1));
+        assertEquals("title-3", documents.get(2).get("title"));
+        assertEquals("title-5", documents.get(4).get("title"));
+        assertTrue(executor.requests.get(0).realtime());
+    }
+
+    @Test
+    public void testGetDocumentsWithParameter() {
+        final TestMultiGetExecutor executor = new TestMultiGetExecutor(10, null);
+        final GetParameter parameter = GetParameter.builder().includes("title", "caption").excludes("caption.*").realtime(false).build();
+        executor.getDocumentsAsync("test-index", Collections.singletonList("1"), parameter, 1000).join();
+
+        final MultiGetRequest request = executor.requests.get(0);
+        assertFalse(request.realtime());
+        final MultiGetRequest.Item item = request.getItems().get(0);
+        assertEquals("test-index", item.index());
+        assertEquals("1", item.id());
+        final FetchSourceContext fetchSourceContext = item.fetchSourceContext();
+        assertTrue(fetchSourceContext.fetchSource());
+        assertArrayEquals(new String[] {"title", "caption"}, fetchSourceContext.includes());
+        assertArrayEquals(new String[] {"caption.*"}, fetchSourceContext.excludes());
+    }
+
+    @Test
+    public void testFetchSourceContext() {
+        assertEquals(FetchSourceContext.FETCH_SOURCE, MultiGetExecutor.fetchSourceContext(GetParameter.DEFAULT));
+
+        final FetchSourceContext fetchSourceContext
+                = MultiGetExecutor.fetchSourceContext(GetParameter.builder().includes("title").fieldsToResolve("title", "count").build());
+        assertTrue(fetchSourceContext.fetchSource());
+        assertArrayEquals(new String[] {"title", "count"}, fetchSourceContext.includes());
+        assertEquals(0, fetchSourceContext.excludes().length);
+    }
+
+    @Test
+    public void testGetDocumentsWithoutIds() {
+        final TestMultiGetExecutor executor = new TestMultiGetExecutor(10, null);
+        assertTrue(executor.getDocumentsAsync("test-index", Collections.emptyList(), GetParameter.DEFAULT, 1000).join().isEmpty());
+        assertTrue(executor.requests.isEmpty());
+    }
+
+    @Test
+    public void testItemFailure() {
+        final TestMultiGetExecutor executor = new TestMultiGetExecutor(10, "2");
+        try {
+            executor.getDocumentsAsync("test-index", Arrays.asList("1", "2"), GetParameter.DEFAULT, 1000).join();
+            fail("Get should fail!");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof ElasticsearchException);
+        }
+    }
+
+    private static class TestMultiGetExecutor extends MultiGetExecutor {
+
+        private final String failingId;
+        private final List<MultiGetRequest> requests = Collections.synchronizedList(new ArrayList<>());
+
+        TestMultiGetExecutor(int chunkSize, String failingId) {
+            super(null, chunkSize);
+            this.failingId = failingId;
+        }
+
+        @Override
+        protected CompletableFuture<MultiGetResponse> execute(MultiGetRequest request, long timeout) {
+            requests.add(request);
+            final MultiGetItemResponse[] items = request.getItems().stream().map(this::itemResponse).toArray(MultiGetItemResponse[]::new);
+            return CompletableFuture.supplyAsync(() -> new MultiGetResponse(items));
+        }
+
+        private MultiGetItemResponse itemResponse(MultiGetRequest.Item item) {
+            if (item.id().equals(failingId)) {
+                return new MultiGetItemResponse(null,
+                        new MultiGetResponse.Failure(item.index(), "_doc", item.id(), new IllegalStateException("failed")));
+            }
+            final GetResult getResult = item.id().equals("missing")
+                    ? new GetResult(item.index(), "_doc", item.id(), SequenceNumbers.UNASSIGNED_SEQ_NO, 0, -1, false, null, null, null)
+                    : new GetResult(item.index(), "_doc", item.id(), 0, 1, 1, true,
+                            new BytesArray("{\"title\":\"title-" + item.id() + "\"}"), null, null);
+            return new MultiGetItemResponse(new GetResponse(getResult), null);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
+import de.picturesafe.search.elasticsearch.model.ExportStatus;
+import de.picturesafe.search.parameter.ExportParameter;
+import de.picturesafe.search.util.CloseableIterator;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NdjsonExporterTest {
+
+    @Test
+    public void testExportSlices() {
+        final TestExporter exporter = new TestExporter(4, 50);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final List<ExportStatus> progress = Collections.synchronizedList(new ArrayList<>());
+        final ExportParameter parameter = ExportParameter.builder().slices(4).batchSize(20).bufferSize(100).progressListener(progress::add).build();
+
+        final ExportStatus status = exporter.export("test-index", QueryBuilders.matchAllQuery(), outputStream, parameter);
+        assertTrue(status.isCompleted());
+        assertEquals(200, status.getDocuments());
+        assertEquals(outputStream.size(), status.getBytes());
+        assertEquals(4, exporter.closedSlices.size());
+        assertTrue(progress.get(progress.size() - 1).isCompleted());
+
+        final List<String> lines = Arrays.asList(new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n"));
+        assertEquals(200, lines.size());
+        assertEquals(200, lines.stream().distinct().count());
+        assertTrue(lines.contains("{\"id\":\"3-49\",\"title\":\"Title 49\"}"));
+    }
+
+    @Test
+    public void testSearchRequest() {
+        final TestExporter exporter = new TestExporter(1, 0);
+        final ExportParameter parameter = ExportParameter.builder().slices(3).batchSize(500).build();
+        final SearchRequest request = exporter.searchRequest("test-index", QueryBuilders.matchAllQuery(), 2, parameter);
+        assertEquals(500, request.source().size());
+        assertEquals(2, request.source().slice().getId());
+        assertEquals(3, request.source().slice().getMax());
+        assertEquals(FieldSortBuilder.DOC_FIELD_NAME, ((FieldSortBuilder) request.source().sorts().get(0)).getFieldName());
+
+        assertNull(exporter.searchRequest("test-index", QueryBuilders.matchAllQuery(), 0, ExportParameter.DEFAULT).source().slice());
+    }
+
+    @Test
+    public void testReformatPrettySource() throws Exception {
+        final TestExporter exporter = new TestExporter(1, 0);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertTrue(exporter.writeSource(hit("{\n  \"id\" : \"1\",\n  \"title\" : \"Title\"\n}"), outputStream));
+        assertEquals("{\"id\":\"1\",\"title\":\"Title\"}\n", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFailedSlice() {
+        final TestExporter exporter = new TestExporter(2, 50) {
+            @Override
+            protected CloseableIterator<SearchHit> scrollIterator(SearchRequest searchRequest) {
+                if (searchRequest.source().slice().getId() == 1) {
+                    throw new ElasticsearchException("Scroll failed");
+                }
+                return super.scrollIterator(searchRequest);
+            }
+        };
+
+        try {
+            exporter.export("test-index", QueryBuilders.matchAllQuery(), new ByteArrayOutputStream(), ExportParameter.builder().slices(2).build());
+            fail("Export should fail");
+        } catch (ElasticsearchException e) {
+            assertEquals("Scroll failed", e.getMessage());
+        }
+    }
+
+    private static SearchHit hit(String source) {
+        return new SearchHit(0, "1", new Text("_doc"), Collections.emptyMap(), Collections.emptyMap())
+                .sourceRef(new BytesArray(source.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static class TestExporter extends NdjsonExporter {
+
+        final int slices;
+        final int documentsPerSlice;
+        final Set<Integer> closedSlices = ConcurrentHashMap.newKeySet();
+
+        TestExporter(int slices, int documentsPerSlice) {
+            super(null, 1000, 1000);
+            this.slices = slices;
+            this.documentsPerSlice = documentsPerSlice;
+        }
+
+        @Override
+        protected CloseableIterator<SearchHit> scrollIterator(SearchRequest searchRequest) {
+            final int slice = (slices > 1) ? searchRequest.source().slice().getId() : 0;
+            final Iterator<SearchHit> hits = IntStream.range(0, documentsPerSlice)
+                    .mapToObj(i -> hit("{\"id\":\"" + slice + "-" + i + "\",\"title\":\"Title " + i + "\"}"))
+                    .collect(Collectors.toList()).iterator();
+            return new CloseableIterator<SearchHit>() {
+                @Override
+                public void close() {
+                    closedSlices.add(slice);
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return hits.hasNext();
+                }
+
+                @Override
+                public SearchHit next() {
+                    return hits.next();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.impl;
+
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScrollIteratorTest {
+
+    @Test
+    public void testIterateAllPages() {
+        final TestScrollIterator iterator = new TestScrollIterator(25, 10);
+        final List<String> ids;
+        try (Stream<String> stream = iterator.stream()) {
+            ids = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(IntStream.range(0, 25).mapToObj(String::valueOf).collect(Collectors.toList()), ids);
+        assertEquals(2, iterator.scrollRequests.size());
+        assertEquals(Collections.singletonList(Collections.singletonList("scroll-id")), iterator.clearedScrollIds);
+    }
+
+    @Test
+    public void testPrefetchNextPage() {
+        final TestScrollIterator iterator = new TestScrollIterator(25, 10);
+        assertTrue(iterator.hasNext());
+        assertEquals(1, iterator.scrollRequests.size());
+        assertEquals("0", iterator.next());
+        assertEquals(1, iterator.scrollRequests.size());
+    }
+
+    @Test
+    public void testLastPageComplete() {
+        final TestScrollIterator iterator = new TestScrollIterator(20, 10);
+        assertEquals(20, iterator.stream().count());
+        assertEquals(2, iterator.scrollRequests.size());
+        assertEquals(1, iterator.clearedScrollIds.size());
+    }
+
+    @Test
+    public void testCloseBeforeConsumed() {
+        final TestScrollIterator iterator = new TestScrollIterator(25, 10);
+        try (Stream<String> stream = iterator.stream()) {
+            assertEquals(3, stream.limit(3).count());
+        }
+
+        assertFalse(iterator.hasNext());
+        assertEquals(1, iterator.clearedScrollIds.size());
+        iterator.close();
+        assertEquals(1, iterator.clearedScrollIds.size());
+    }
+
+    @Test
+    public void testCloseWhileNextPageIsPending() {
+        final TestScrollIterator iterator = new TestScrollIterator(25, 10);
+        iterator.pendingScroll = new CompletableFuture<>();
+        assertTrue(iterator.hasNext());
+        iterator.close();
+        assertEquals(Collections.singletonList(Collections.singletonList("scroll-id")), iterator.clearedScrollIds);
+
+        iterator.pendingScroll.complete(iterator.nextResponse("pending-scroll-id"));
+        assertEquals(2, iterator.clearedScrollIds.size());
+        assertEquals(Collections.singletonList("pending-scroll-id"), iterator.clearedScrollIds.get(1));
+    }
+
+    @Test
+    public void testEmptyResult() {
+        final TestScrollIterator iterator = new TestScrollIterator(0, 10);
+        assertFalse(iterator.hasNext());
+        assertTrue(iterator.scrollRequests.isEmpty());
+        assertEquals(1, iterator.clearedScrollIds.size());
+    }
+
+    private static class TestScrollIterator extends ScrollIterator<String> {
+
+        final int totalHits;
+        final int pageSize;
+        final List<SearchScrollRequest> scrollRequests = new ArrayList<>();
+        final List<List<String>> clearedScrollIds = new ArrayList<>();
+        CompletableFuture<SearchResponse> pendingScroll;
+        int offset;
+
+        TestScrollIterator(int totalHits, int pageSize) {
+            super(null, new SearchRequest("test-index").source(new SearchSourceBuilder().size(pageSize)), SearchHit::getId, 1000, 1000);
+            this.totalHits = totalHits;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        protected CompletableFuture<SearchResponse> executeSearch(SearchRequest request) {
+            assertEquals(1000, request.scroll().keepAlive().millis());
+            return CompletableFuture.completedFuture(nextResponse());
+        }
+
+        @Override
+        protected CompletableFuture<SearchResponse> executeScroll(SearchScrollRequest request) {
+            scrollRequests.add(request);
+            return (pendingScroll != null) ? pendingScroll : CompletableFuture.completedFuture(nextResponse());
+        }
+
+        @Override
+        protected CompletableFuture<ClearScrollResponse> executeClearScroll(ClearScrollRequest request) {
+            clearedScrollIds.add(request.getScrollIds());
+            return CompletableFuture.completedFuture(new ClearScrollResponse(true, 1));
+        }
+
+        private SearchResponse nextResponse() {
+            return nextResponse("scroll-id");
+        }
+
+        private SearchResponse nextResponse(String scrollId) {
+            final SearchHit[] hits = IntStream.range(offset, Math.min(offset + pageSize, totalHits))
+                    .mapToObj(i -> new SearchHit(i, String.valueOf(i), new Text("_doc"), Collections.emptyMap(), Collections.emptyMap()))
+                    .toArray(SearchHit[]::new);
+            offset += hits.length;
+            final SearchHits searchHits = new SearchHits(hits, new TotalHits(totalHits, TotalHits.Relation.EQUAL_TO), 1f);
+            final InternalSearchResponse internalResponse = new InternalSearchResponse(searchHits, null, null, null, false, null, 1);
+            return new SearchResponse(internalResponse, scrollId, 1, 1, 0, 1, ShardSearchFailure.EMPTY_ARRAY, SearchResponse.Clusters.EMPTY);
+        }
+    }
+}
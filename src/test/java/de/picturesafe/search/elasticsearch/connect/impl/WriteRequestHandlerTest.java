@@ -19,7 +19,10 @@ package de.picturesafe.search.elasticsearch.connect.impl;
 import de.picturesafe.search.elasticsearch.config.RestClientConfiguration;
 import de.picturesafe.search.elasticsearch.connect.ElasticsearchAdmin;
 import de.picturesafe.search.elasticsearch.model.DocumentBuilder;
+import de.picturesafe.search.parameter.ScriptDefinition;
+import de.picturesafe.search.parameter.UpdateDefinition;
 import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteResponse;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
@@ -28,6 +31,10 @@ import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.action.update.UpdateResponse;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.index.shard.ShardId;
 import org.junit.Before;
 import org.junit.Test;
@@ -37,9 +44,16 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
@@ -67,12 +81,17 @@ public class WriteRequestHandlerTest {
                 = spy(new ElasticsearchImpl(elasticsearchAdmin, restClientConfiguration, Collections.emptyList(), Collections.emptyList(), "Europe/Berlin"));
         elasticsearch.setWriteRequestHandler(requestHandler);
         elasticsearch.indexingBulkSize = 100;
+        elasticsearch.removingBulkSize = 100;
+        elasticsearch.removingConcurrentRequests = 2;
+        elasticsearch.indexingConcurrentRequests = 2;
         doAnswer(invocation -> {
             final WriteRequest<?> request = (WriteRequest<?>) invocation.getArguments()[0];
             if (request instanceof IndexRequest) {
                 return indexResponse((IndexRequest) request);
             } else if (request instanceof DeleteRequest) {
                 return deleteResponse((DeleteRequest) request);
+            } else if (request instanceof UpdateRequest) {
+                return updateResponse((UpdateRequest) request);
             } else if (request instanceof BulkRequest) {
                 final BulkItemResponse[] responses = ((BulkRequest) request).requests().stream().map(this::bulkItemResponse).toArray(BulkItemResponse[]::new);
                 return new BulkResponse(responses, 0);
@@ -80,6 +99,10 @@ public class WriteRequestHandlerTest {
                 throw new RuntimeException("Unsupported request type: " + request.getClass().getName());
             }
         }).when(elasticsearch).handleRequest(any(WriteRequest.class));
+        doAnswer(invocation -> {
+            final BulkRequest request = (BulkRequest) invocation.getArguments()[0];
+            return CompletableFuture.completedFuture(requestHandler.handle(request) ? null : elasticsearch.handleRequest(request));
+        }).when(elasticsearch).handleRequestAsync(any(BulkRequest.class));
     }
 
     private IndexResponse indexResponse(IndexRequest request) {
@@ -90,11 +113,18 @@ public class WriteRequestHandlerTest {
         return new DeleteResponse(shardId(), "test", request.id(), 0, 0, 0, true);
     }
 
+    private UpdateResponse updateResponse(UpdateRequest request) {
+        return new UpdateResponse(shardId(), "test", request.id(), 0, 0, 1, DocWriteResponse.Result.UPDATED);
+    }
+
     private ShardId shardId() {
         return new ShardId("test", "uuid", 1);
     }
 
     private BulkItemResponse bulkItemResponse(DocWriteRequest<?> request) {
+        if (request instanceof UpdateRequest) {
+            return new BulkItemResponse(0, DocWriteRequest.OpType.UPDATE, updateResponse((UpdateRequest) request));
+        }
         return new BulkItemResponse(0, (request instanceof IndexRequest ? DocWriteRequest.OpType.INDEX : DocWriteRequest.OpType.DELETE),
                 (request instanceof IndexRequest ? indexResponse((IndexRequest) request) : deleteResponse((DeleteRequest) request)));
     }
@@ -126,6 +156,22 @@ public class WriteRequestHandlerTest {
         verify(elasticsearch, times(1)).handleRequest(any(WriteRequest.class));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAddSources() {
+        final List<BytesReference> sources = Arrays.asList(new BytesArray("{\"id\":\"1\",\"title\":\"Titel 1\"}"),
+                new BytesArray("{\"title\":\"Titel 2\",\"id\":\"2\"}"));
+        final Map<String, Boolean> results = new HashMap<>();
+        elasticsearch.addSourcesToIndex("test", false, sources.iterator(), results::put);
+        verify(requestHandler, times(1)).handle(any(BulkRequest.class));
+        verify(elasticsearch, times(1)).handleRequest(any(WriteRequest.class));
+        assertEquals(2, results.size());
+
+        final IndexRequest request = elasticsearch.createIndexRequest(sources.get(1), "test");
+        assertEquals("2", request.id());
+        assertEquals(sources.get(1), request.source());
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testRemoveSingle() {
@@ -152,4 +198,75 @@ public class WriteRequestHandlerTest {
         verify(requestHandler, times(2)).handle(any(IndexRequest.class));
         verify(elasticsearch, times(1)).handleRequest(any(WriteRequest.class));
     }
+
+    @Test
+    public void testRemoveStream() {
+        Map<String, String> failures = elasticsearch.removeFromIndex("test", false, IntStream.range(0, 25).iterator(), 10, 2);
+        assertTrue(failures.isEmpty());
+        verify(elasticsearch, times(3)).handleRequestAsync(any(BulkRequest.class));
+
+        doAnswer(invocation -> {
+            final List<DocWriteRequest<?>> requests = ((BulkRequest) invocation.getArguments()[0]).requests();
+            final BulkItemResponse[] responses = IntStream.range(0, requests.size()).mapToObj(i -> "7".equals(requests.get(i).id())
+                    ? new BulkItemResponse(i, DocWriteRequest.OpType.DELETE, new BulkItemResponse.Failure("test", "_doc", "7", new RuntimeException("failed")))
+                    : bulkItemResponse(requests.get(i))).toArray(BulkItemResponse[]::new);
+            return CompletableFuture.completedFuture(new BulkResponse(responses, 0));
+        }).when(elasticsearch).handleRequestAsync(any(BulkRequest.class));
+        failures = elasticsearch.removeFromIndex("test", false, IntStream.range(0, 25).iterator(), 0, 0);
+        assertEquals(Collections.singleton("7"), failures.keySet());
+        assertTrue(failures.get("7").contains("failed"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateSingle() {
+        elasticsearch.updateDocument("test", false, 1, UpdateDefinition.fields(DocumentBuilder.withoutId().put("title", "Titel").build()));
+        verify(requestHandler, times(1)).handle(any(UpdateRequest.class));
+        verify(elasticsearch, times(1)).handleRequest(any(WriteRequest.class));
+
+        doReturn(true).when(requestHandler).handle(any(WriteRequest.class));
+        elasticsearch.updateDocument("test", false, 1, UpdateDefinition.script(ScriptDefinition.inline("ctx._source.count++")));
+        verify(requestHandler, times(2)).handle(any(UpdateRequest.class));
+        verify(elasticsearch, times(1)).handleRequest(any(WriteRequest.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUpdateBulk() {
+        final Map<Object, UpdateDefinition> updates = new HashMap<>();
+        updates.put(1, UpdateDefinition.fields(DocumentBuilder.withoutId().put("title", "Titel 1").build()));
+        updates.put(2, UpdateDefinition.fields(Collections.singletonMap("title", null)));
+        final Map<String, Boolean> results = elasticsearch.updateDocuments("test", false, true, updates);
+        assertEquals(2, results.size());
+        verify(requestHandler, times(1)).handle(any(BulkRequest.class));
+        verify(elasticsearch, times(1)).handleRequest(any(WriteRequest.class));
+
+        doReturn(true).when(requestHandler).handle(any(WriteRequest.class));
+        elasticsearch.updateDocuments("test", false, true, updates);
+        verify(requestHandler, times(2)).handle(any(BulkRequest.class));
+        verify(elasticsearch, times(1)).handleRequest(any(WriteRequest.class));
+    }
+
+    @Test
+    public void testCreateUpdateRequest() {
+        final Map<String, Object> fields = new HashMap<>();
+        fields.put("title", " Titel ");
+        fields.put("caption", null);
+        UpdateRequest request = elasticsearch.createUpdateRequest(1, UpdateDefinition.fields(fields), "test", false);
+        assertEquals("1", request.id());
+        assertEquals("Titel", request.doc().sourceAsMap().get("title"));
+        assertTrue(request.doc().sourceAsMap().containsKey("caption"));
+        assertFalse(request.docAsUpsert());
+
+        request = elasticsearch.createUpdateRequest(1, UpdateDefinition.fields(fields).docAsUpsert(true).retryOnConflict(3), "test", false);
+        assertEquals("1", request.doc().sourceAsMap().get("id"));
+        assertTrue(request.docAsUpsert());
+        assertEquals(3, request.retryOnConflict());
+
+        request = elasticsearch.createUpdateRequest(1, UpdateDefinition.script(ScriptDefinition.inline("ctx._source.count++"))
+                .upsert(DocumentBuilder.withoutId().put("count", 1).build()), "test", false);
+        assertNull(request.doc());
+        assertEquals("ctx._source.count++", request.script().getIdOrCode());
+        assertEquals("1", request.upsertRequest().sourceAsMap().get("id"));
+    }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ContinuationTokenUtilsTest {
+
+    @Test
+    public void testEncodeDecode() {
+        final Object[] sortValues = {1.5, "title/with+special?chars", 4711, null, true};
+        final String token = ContinuationTokenUtils.encode(sortValues);
+        assertFalse(token, token.matches(".*[+/=].*"));
+        assertArrayEquals(sortValues, ContinuationTokenUtils.decode(token));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeInvalidToken() {
+        ContinuationTokenUtils.decode("no valid token!");
+    }
+}
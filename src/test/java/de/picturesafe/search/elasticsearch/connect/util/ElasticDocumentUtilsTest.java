@@ -0,0 +1,34 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.util;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ElasticDocumentUtilsTest {
+
+    @Test
+    public void testGetIdFromSource() {
+        assertEquals("4711", ElasticDocumentUtils.getId(new BytesArray("{\"title\":{\"de\":\"Titel\"},\"tags\":[1,2],\"id\":\"4711\",\"count\":1}")));
+        assertEquals("42", ElasticDocumentUtils.getId(new BytesArray("{\"id\":42}")));
+        assertNull(ElasticDocumentUtils.getId(new BytesArray("{\"title\":{\"id\":\"1\"}}")));
+        assertNull(ElasticDocumentUtils.getId(new BytesArray("[]")));
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.elasticsearch.connect.util;
+
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.Test;
+
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ElasticExceptionUtilsTest {
+
+    @Test
+    public void testIsIndexNotFound() {
+        final ElasticsearchStatusException notFound = new ElasticsearchStatusException(
+                "Elasticsearch exception [type=index_not_found_exception, reason=no such index [test]]", RestStatus.NOT_FOUND);
+        assertTrue(ElasticExceptionUtils.isIndexNotFound(notFound));
+        assertTrue(ElasticExceptionUtils.isIndexNotFound(new RuntimeException("Action failed!", notFound)));
+        assertTrue(ElasticExceptionUtils.isIndexNotFound(new CompletionException(new IndexNotFoundException("test"))));
+
+        assertFalse(ElasticExceptionUtils.isIndexNotFound(new ElasticsearchStatusException("Not found", RestStatus.NOT_FOUND)));
+        assertFalse(ElasticExceptionUtils.isIndexNotFound(new RuntimeException("Action failed!")));
+    }
+}
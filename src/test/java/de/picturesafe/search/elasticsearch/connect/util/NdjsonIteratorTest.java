@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.picturesafe.search.elasticsearch.connect.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class NdjsonIteratorTest {
+
+    @Test
+    public void testReadLines() {
+        final String ndjson = "{\"id\":\"1\"}\n\n{\"id\":\"2\"}\r\n  \n{\"id\":\"3\"}";
+        assertEquals(Arrays.asList("{\"id\":\"1\"}", "{\"id\":\"2\"}", "{\"id\":\"3\"}"), readLines(ndjson));
+        assertEquals(Arrays.asList("{\"id\":\"1\"}", "{\"id\":\"2\"}"), readLines("{\"id\":\"1\"}\n{\"id\":\"2\"}\n"));
+        assertFalse(new NdjsonIterator(new ByteArrayInputStream(new byte[0])).hasNext());
+    }
+
+    @Test
+    public void testReadLinesSpanningChunks() {
+        final List<String> lines = IntStream.range(0, 5000)
+                .mapToObj(i -> "{\"id\":\"" + i + "\",\"title\":\"" + StringUtils.repeat('x', i % 100) + "\"}")
+                .collect(Collectors.toList());
+        assertEquals(lines, readLines(String.join("\n", lines)));
+    }
+
+    private static List<String> readLines(String ndjson) {
+        final NdjsonIterator iterator = new NdjsonIterator(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+        final List<String> lines = new ArrayList<>();
+        iterator.forEachRemaining(line -> lines.add(line.utf8ToString()));
+        return lines;
+    }
+}
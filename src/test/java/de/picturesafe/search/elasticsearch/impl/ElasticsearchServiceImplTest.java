@@ -16,17 +16,35 @@
 
 package de.picturesafe.search.elasticsearch.impl;
 
+import de.picturesafe.search.elasticsearch.DataChangeProcessingMode;
 import de.picturesafe.search.elasticsearch.FieldConfigurationProvider;
 import de.picturesafe.search.elasticsearch.IndexPresetConfigurationProvider;
 import de.picturesafe.search.elasticsearch.config.IndexPresetConfiguration;
+import de.picturesafe.search.elasticsearch.config.MappingConfiguration;
 import de.picturesafe.search.elasticsearch.connect.Elasticsearch;
+import de.picturesafe.search.elasticsearch.connect.dto.FacetDto;
+import de.picturesafe.search.elasticsearch.connect.dto.FacetEntryDto;
 import de.picturesafe.search.elasticsearch.connect.dto.QueryDto;
 import de.picturesafe.search.elasticsearch.connect.dto.QueryRangeDto;
+import de.picturesafe.search.elasticsearch.connect.dto.SearchHitDto;
+import de.picturesafe.search.elasticsearch.connect.dto.SearchRequestDto;
+import de.picturesafe.search.elasticsearch.connect.dto.SearchResultDto;
+import de.picturesafe.search.elasticsearch.connect.error.ElasticsearchException;
+import de.picturesafe.search.elasticsearch.model.ByQueryStatus;
+import de.picturesafe.search.elasticsearch.model.ByQueryTask;
+import de.picturesafe.search.elasticsearch.model.MultiGetResult;
+import de.picturesafe.search.elasticsearch.model.MultiSearchItem;
+import de.picturesafe.search.elasticsearch.model.SearchResult;
 import de.picturesafe.search.expression.Expression;
+import de.picturesafe.search.expression.FulltextExpression;
+import de.picturesafe.search.expression.ValueExpression;
 import de.picturesafe.search.expression.internal.EmptyExpression;
 import de.picturesafe.search.parameter.AccountContext;
+import de.picturesafe.search.parameter.ByQueryParameter;
+import de.picturesafe.search.parameter.GetParameter;
 import de.picturesafe.search.parameter.SearchAggregation;
 import de.picturesafe.search.parameter.SearchParameter;
+import de.picturesafe.search.parameter.SearchRequestSpec;
 import de.picturesafe.search.parameter.SortOption;
 import de.picturesafe.search.parameter.aggregation.TermsAggregation;
 import org.junit.Before;
@@ -35,12 +53,27 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -96,4 +129,336 @@ public class ElasticsearchServiceImplTest {
         queryDto = elasticsearchService.createQueryDto(new AccountContext(), expression, start, limit, searchParameter);
         assertEquals(Locale.GERMANY, queryDto.getLocale());
     }
+
+    @Test
+    public void testMultiSearch() {
+        final String indexAlias = indexPresetConfiguration.getIndexAlias();
+        final SearchResultDto searchResultDto = new SearchResultDto(1, true,
+                Collections.singletonList(new SearchHitDto("1", Collections.singletonMap("title", "test"))), Collections.emptyList());
+        final CompletableFuture<SearchResultDto> failedSearch = new CompletableFuture<>();
+        failedSearch.completeExceptionally(new ElasticsearchException("Search failed!"));
+        when(elasticsearch.multiSearchAsync(anyListOf(SearchRequestDto.class), anyInt()))
+                .thenReturn(Arrays.asList(CompletableFuture.completedFuture(searchResultDto), failedSearch));
+
+        final List<MultiSearchItem> items = elasticsearchService.multiSearch(Arrays.asList(
+                SearchRequestSpec.of(indexAlias, new ValueExpression("title", "test"), SearchParameter.builder().pageSize(5).build()),
+                SearchRequestSpec.of(indexAlias, new FulltextExpression("test"), null)));
+        assertEquals(2, items.size());
+        assertFalse(items.get(0).isFailed());
+        assertEquals(1, items.get(0).getSearchResult().getTotalHitCount());
+        assertEquals(5, items.get(0).getSearchResult().getPageSize());
+        assertTrue(items.get(1).isFailed());
+        assertTrue(items.get(1).getFailure() instanceof ElasticsearchException);
+        // Configurations of an index are resolved once for all searches
+        verify(fieldConfigurationProvider, times(1)).getFieldConfigurations(indexAlias);
+    }
+
+    @Test
+    public void testSearchCoalescing() {
+        final String indexAlias = indexPresetConfiguration.getIndexAlias();
+        final CompletableFuture<SearchResultDto> searchResultDto = new CompletableFuture<>();
+        when(elasticsearch.createQueryJson(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class), eq(false)))
+                .thenReturn("{\"query\":{}}");
+        when(elasticsearch.searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class)))
+                .thenReturn(searchResultDto);
+        elasticsearchService.setSearchCoalescingEnabled(true);
+
+        final Expression expression = new ValueExpression("title", "test");
+        final CompletableFuture<SearchResult> result1 = elasticsearchService.searchAsync(indexAlias, expression, SearchParameter.DEFAULT);
+        final CompletableFuture<SearchResult> result2 = elasticsearchService.searchAsync(indexAlias, expression, SearchParameter.DEFAULT);
+        final CompletableFuture<SearchResult> result3
+                = elasticsearchService.searchAsync(indexAlias, expression, SearchParameter.builder().pageIndex(2).build());
+        searchResultDto.complete(new SearchResultDto(1, true,
+                Collections.singletonList(new SearchHitDto("1", new HashMap<>(Collections.singletonMap("title", "test")))), Collections.emptyList()));
+
+        // Coalesced searches share the result, but each caller gets its own copy
+        assertNotSame(result1.join(), result2.join());
+        result1.join().getSearchResultItem(0).getAttributes().put("title", "changed");
+        assertEquals("test", result2.join().getSearchResultItem(0).getAttribute("title"));
+        assertEquals(2, result3.join().getPageIndex());
+        verify(elasticsearch, times(2)).searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class));
+        assertEquals(2, elasticsearchService.getExecutedSearches());
+        assertEquals(1, elasticsearchService.getCoalescedSearches());
+    }
+
+    @Test
+    public void testSearchCoalescingAfterWrite() {
+        final String indexAlias = indexPresetConfiguration.getIndexAlias();
+        final CompletableFuture<SearchResultDto> searchResultDto = new CompletableFuture<>();
+        when(elasticsearch.createQueryJson(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class), eq(false)))
+                .thenReturn("{\"query\":{}}");
+        when(elasticsearch.searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class)))
+                .thenReturn(searchResultDto);
+        elasticsearchService.setSearchCoalescingEnabled(true);
+
+        final Expression expression = new ValueExpression("title", "test");
+        final CompletableFuture<SearchResult> result1 = elasticsearchService.searchAsync(indexAlias, expression, SearchParameter.DEFAULT);
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, Collections.singletonMap("id", 1));
+        // A search started after a write must not share the result of a search started before the write
+        final CompletableFuture<SearchResult> result2 = elasticsearchService.searchAsync(indexAlias, expression, SearchParameter.DEFAULT);
+        searchResultDto.complete(new SearchResultDto(0, true, Collections.emptyList(), Collections.emptyList()));
+
+        result1.join();
+        result2.join();
+        verify(elasticsearch, times(2)).searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class));
+        assertEquals(0, elasticsearchService.getCoalescedSearches());
+    }
+
+    @Test
+    public void testGetDocuments() {
+        final Map<String, Object> doc1 = Collections.singletonMap("id", 1);
+        final Map<String, Object> doc3 = Collections.singletonMap("id", 3);
+        when(elasticsearch.getDocuments(eq("test-index"), eq(Arrays.asList(3, 2, 1)), any(GetParameter.class))).thenReturn(Arrays.asList(doc3, null, doc1));
+
+        final MultiGetResult<Map<String, Object>> result = elasticsearchService.getDocuments("test-index", Arrays.asList(3, 2, 3, 1));
+        assertEquals(Arrays.asList(3, 1), new ArrayList<>(result.getItemsById().keySet()));
+        assertEquals(Arrays.asList(doc3, doc1), result.getItems());
+        assertEquals(Collections.singletonList(2), result.getMissingIds());
+    }
+
+    @Test
+    public void testGetDocumentWithParameter() {
+        final GetParameter sourceParameter = GetParameter.builder().fieldsToResolve("title").build();
+        elasticsearchService.getDocument("test-index", 1, sourceParameter);
+        verify(elasticsearch).getDocument("test-index", 1, sourceParameter, null);
+
+        final GetParameter docValuesParameter = GetParameter.builder().fieldsToResolve("title").docValues(true).build();
+        elasticsearchService.getDocument("test-index", 2, docValuesParameter);
+        verify(elasticsearch).getDocument(eq("test-index"), eq(2), eq(docValuesParameter), any(MappingConfiguration.class));
+    }
+
+    @Test
+    public void testMappingConfigurationCacheWithChangedLocales() {
+        final String indexAlias = indexPresetConfiguration.getIndexAlias();
+        final StaticFieldConfigurationProvider staticFieldConfigurationProvider
+                = new StaticFieldConfigurationProvider(Collections.singletonMap(indexAlias, Collections.emptyList()));
+        elasticsearchService = new ElasticsearchServiceImpl(elasticsearch,
+                new StaticIndexPresetConfigurationProvider(Collections.singletonList(indexPresetConfiguration)), staticFieldConfigurationProvider);
+
+        final MappingConfiguration mappingConfiguration = elasticsearchService.getMappingConfiguration(indexAlias, true);
+        assertEquals(2, mappingConfiguration.getLanguageSortConfigurations().size());
+        staticFieldConfigurationProvider.setSupportedLocales(Collections.singletonList(Locale.GERMAN));
+        assertEquals(1, elasticsearchService.getMappingConfiguration(indexAlias, true).getLanguageSortConfigurations().size());
+    }
+
+    @Test
+    public void testMappingConfigurationCache() {
+        final String indexAlias = indexPresetConfiguration.getIndexAlias();
+        final MappingConfiguration mappingConfiguration = elasticsearchService.getMappingConfiguration(indexAlias, true);
+        assertSame(mappingConfiguration, elasticsearchService.getMappingConfiguration(indexAlias, true));
+        verify(fieldConfigurationProvider, times(1)).getFieldConfigurations(indexAlias);
+
+        when(fieldConfigurationProvider.getVersion(indexAlias)).thenReturn(1L);
+        final MappingConfiguration changedMappingConfiguration = elasticsearchService.getMappingConfiguration(indexAlias, true);
+        assertNotSame(mappingConfiguration, changedMappingConfiguration);
+        assertSame(changedMappingConfiguration, elasticsearchService.getMappingConfiguration(indexAlias, true));
+
+        elasticsearchService.createAlias(indexAlias, "test-index");
+        assertNotSame(changedMappingConfiguration, elasticsearchService.getMappingConfiguration(indexAlias, true));
+        verify(fieldConfigurationProvider, times(3)).getFieldConfigurations(indexAlias);
+    }
+
+    @Test
+    public void testSearchResultCache() {
+        final String indexAlias = indexPresetConfiguration.getIndexAlias();
+        when(elasticsearch.createQueryJson(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class), eq(false)))
+                .thenReturn("{\"query\":{}}");
+        when(elasticsearch.searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(new SearchResultDto(1, true,
+                        Collections.singletonList(new SearchHitDto("1", new HashMap<>(Collections.singletonMap("title", "test")))),
+                        Collections.emptyList())));
+        final BoundedSearchResultCache searchResultCache = new BoundedSearchResultCache(10, 0, 0);
+        elasticsearchService.setSearchResultCache(searchResultCache);
+
+        final Expression expression = new ValueExpression("title", "test");
+        final SearchResult result = elasticsearchService.search(indexAlias, expression, SearchParameter.DEFAULT);
+        result.getSearchResultItem(0).getAttributes().put("title", "changed");
+        final SearchResult cachedResult = elasticsearchService.search(indexAlias, expression, SearchParameter.DEFAULT);
+        assertNotSame(result, cachedResult);
+        // Modifications of returned results must not affect the cached result
+        assertEquals("test", cachedResult.getSearchResultItem(0).getAttribute("title"));
+        elasticsearchService.searchAsync(indexAlias, expression, SearchParameter.builder().bypassCache(true).build()).join();
+        verify(elasticsearch, times(2)).searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class));
+
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, Collections.singletonMap("id", 1));
+        elasticsearchService.search(indexAlias, expression, SearchParameter.DEFAULT);
+        elasticsearchService.search(indexAlias, expression, SearchParameter.DEFAULT);
+        verify(elasticsearch, times(3)).searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class));
+        assertEquals(2, searchResultCache.getHits());
+    }
+
+    @Test
+    public void testSearchResultCacheWithBackgroundWrite() {
+        final String indexAlias = indexPresetConfiguration.getIndexAlias();
+        when(elasticsearch.createQueryJson(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class), eq(false)))
+                .thenReturn("{\"query\":{}}");
+        when(elasticsearch.searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(new SearchResultDto(0, true, Collections.emptyList(), Collections.emptyList())));
+        final CompletableFuture<Void> backgroundWrite = new CompletableFuture<>();
+        when(elasticsearch.removeFromIndexInBackground(indexAlias, 1)).thenReturn(backgroundWrite);
+        elasticsearchService.setSearchResultCache(new BoundedSearchResultCache(10, 0, 0));
+
+        final Expression expression = new ValueExpression("title", "test");
+        elasticsearchService.removeFromIndex(indexAlias, DataChangeProcessingMode.BACKGROUND, 1);
+        elasticsearchService.search(indexAlias, expression, SearchParameter.DEFAULT);
+        elasticsearchService.search(indexAlias, expression, SearchParameter.DEFAULT);
+        verify(elasticsearch, times(1)).searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class));
+
+        // Results cached before the background write has been executed must not be returned afterwards
+        backgroundWrite.complete(null);
+        elasticsearchService.search(indexAlias, expression, SearchParameter.DEFAULT);
+        verify(elasticsearch, times(2)).searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class));
+    }
+
+    @Test
+    public void testSearchResultCacheWithByQueryTask() {
+        final String indexAlias = indexPresetConfiguration.getIndexAlias();
+        when(elasticsearch.createQueryJson(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class), eq(false)))
+                .thenReturn("{\"query\":{}}");
+        when(elasticsearch.searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(new SearchResultDto(0, true, Collections.emptyList(), Collections.emptyList())));
+        final CompletableFuture<ByQueryStatus> completion = new CompletableFuture<>();
+        final ByQueryTask task = mock(ByQueryTask.class);
+        when(task.completion()).thenReturn(completion);
+        when(elasticsearch.submitDeleteByQuery(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class),
+                any(ByQueryParameter.class), eq(false))).thenReturn(task);
+        elasticsearchService.setSearchResultCache(new BoundedSearchResultCache(10, 0, 0));
+
+        final Expression expression = new ValueExpression("title", "test");
+        assertSame(task, elasticsearchService.submitDeleteByQuery(indexAlias, DataChangeProcessingMode.BACKGROUND, expression, Locale.ROOT, null));
+        elasticsearchService.search(indexAlias, expression, SearchParameter.DEFAULT);
+        elasticsearchService.search(indexAlias, expression, SearchParameter.DEFAULT);
+        verify(elasticsearch, times(1)).searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class));
+
+        // Results cached while the task was running must not be returned after its completion
+        completion.complete(ByQueryStatus.builder().completed(true).build());
+        elasticsearchService.search(indexAlias, expression, SearchParameter.DEFAULT);
+        verify(elasticsearch, times(2)).searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class));
+    }
+
+    @Test
+    public void testFacetResultCache() {
+        final String indexAlias = indexPresetConfiguration.getIndexAlias();
+        when(elasticsearch.createQueryJson(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class), eq(false)))
+                .thenAnswer(invocation -> "{\"from\":" + ((QueryDto) invocation.getArguments()[0]).getQueryRange().getStart() + "}");
+        final List<QueryDto> executedQueries = new ArrayList<>();
+        when(elasticsearch.searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class)))
+                .thenAnswer(invocation -> {
+                    final QueryDto queryDto = (QueryDto) invocation.getArguments()[0];
+                    executedQueries.add(queryDto);
+                    final List<FacetDto> facets = queryDto.getAggregations().isEmpty()
+                            ? Collections.emptyList()
+                            : Collections.singletonList(new FacetDto("title", "title", 1, Collections.singletonList(new FacetEntryDto("test", 1))));
+                    return CompletableFuture.completedFuture(new SearchResultDto(1, true, Collections.emptyList(), facets));
+                });
+        final BoundedFacetResultCache facetResultCache = new BoundedFacetResultCache(10, 0, 0);
+        elasticsearchService.setFacetResultCache(facetResultCache);
+
+        final Expression expression = new ValueExpression("title", "test");
+        final SearchParameter.Builder searchParameterBuilder = SearchParameter.builder().pageSize(10).aggregations(TermsAggregation.field("title"));
+        final SearchResult page1 = elasticsearchService.search(indexAlias, expression, searchParameterBuilder.pageIndex(1).build());
+        final SearchResult page2 = elasticsearchService.search(indexAlias, expression, searchParameterBuilder.pageIndex(2).build());
+        assertEquals(1, page1.getFacets().size());
+        assertEquals(page1.getFacets(), page2.getFacets());
+        assertNotSame(page1.getFacets(), page2.getFacets());
+        assertEquals(1, executedQueries.get(0).getAggregations().size());
+        assertTrue(executedQueries.get(1).getAggregations().isEmpty());
+        assertEquals(1, facetResultCache.getHits());
+
+        // Modifications of returned facets must not affect the cached facets
+        page2.getFacets().clear();
+        assertEquals(page1.getFacets(), elasticsearchService.search(indexAlias, expression, searchParameterBuilder.pageIndex(3).build()).getFacets());
+        assertEquals(2, facetResultCache.getHits());
+
+        elasticsearchService.search(indexAlias, expression, searchParameterBuilder.bypassCache(true).build());
+        assertEquals(1, executedQueries.get(3).getAggregations().size());
+
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, Collections.singletonMap("id", 1));
+        elasticsearchService.search(indexAlias, expression, searchParameterBuilder.bypassCache(false).build());
+        assertEquals(1, executedQueries.get(4).getAggregations().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDocumentCache() {
+        final String indexAlias = indexPresetConfiguration.getIndexAlias();
+        final Map<String, Object> doc = new HashMap<>();
+        doc.put("id", 1);
+        doc.put("title", "test");
+        doc.put("keywords", Arrays.asList("a", "b"));
+        when(elasticsearch.getDocument(indexAlias, 1)).thenAnswer(invocation -> {
+            final Map<String, Object> loadedDoc = new HashMap<>(doc);
+            loadedDoc.put("keywords", new ArrayList<>(Arrays.asList("a", "b")));
+            return loadedDoc;
+        });
+        final BoundedDocumentCache documentCache = new BoundedDocumentCache(10, 0, 0);
+        elasticsearchService.setDocumentCache(documentCache);
+
+        final Map<String, Object> result1 = elasticsearchService.getDocument(indexAlias, 1);
+        result1.put("title", "modified");
+        ((List<String>) result1.get("keywords")).add("c");
+        final Map<String, Object> result2 = elasticsearchService.getDocument(indexAlias, 1);
+        assertEquals(doc, result2);
+        ((List<String>) result2.get("keywords")).add("c");
+        assertEquals(doc, elasticsearchService.getDocument(indexAlias, 1));
+        verify(elasticsearch, times(1)).getDocument(indexAlias, 1);
+        assertEquals(2, documentCache.getHits());
+
+        elasticsearchService.updateFields(indexAlias, DataChangeProcessingMode.BLOCKING, 1, Collections.singletonMap("title", "changed"));
+        assertEquals(0, documentCache.size());
+        elasticsearchService.getDocument(indexAlias, 1);
+        verify(elasticsearch, times(2)).getDocument(indexAlias, 1);
+
+        elasticsearchService.addToIndex(indexAlias, DataChangeProcessingMode.BLOCKING, Collections.singletonMap("id", 2));
+        assertEquals(1, documentCache.size());
+        elasticsearchService.removeFromIndex(indexAlias, DataChangeProcessingMode.BLOCKING, 1);
+        assertEquals(0, documentCache.size());
+
+        elasticsearchService.getDocument(indexAlias, 1);
+        elasticsearchService.removeFromIndex(indexAlias, DataChangeProcessingMode.BLOCKING, new ValueExpression("title", "test"), Locale.ROOT);
+        assertEquals(0, documentCache.size());
+        assertEquals(3, documentCache.getMisses());
+    }
+
+    @Test
+    public void testTimedOutSearchIsNotCached() {
+        final String indexAlias = indexPresetConfiguration.getIndexAlias();
+        when(elasticsearch.createQueryJson(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class), eq(false)))
+                .thenReturn("{\"query\":{}}");
+        when(elasticsearch.searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(new SearchResultDto(0, true, Collections.emptyList(),
+                        Collections.singletonList(new FacetDto("title", "title", 0, Collections.emptyList())), null, true)));
+        final BoundedSearchResultCache searchResultCache = new BoundedSearchResultCache(10, 0, 0);
+        final BoundedFacetResultCache facetResultCache = new BoundedFacetResultCache(10, 0, 0);
+        elasticsearchService.setSearchResultCache(searchResultCache);
+        elasticsearchService.setFacetResultCache(facetResultCache);
+
+        final Expression expression = new ValueExpression("title", "test");
+        final SearchParameter searchParameter = SearchParameter.builder().aggregations(TermsAggregation.field("title")).build();
+        assertTrue(elasticsearchService.search(indexAlias, expression, searchParameter).isTimedOut());
+        assertTrue(elasticsearchService.search(indexAlias, expression, searchParameter).isTimedOut());
+        verify(elasticsearch, times(2)).searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class));
+        assertEquals(0, searchResultCache.size());
+        assertEquals(0, facetResultCache.size());
+    }
+
+    @Test
+    public void testExactCountIsOnlyRequestedIfMissing() {
+        final String indexAlias = indexPresetConfiguration.getIndexAlias();
+        when(elasticsearch.searchAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class)))
+                .thenReturn(CompletableFuture.completedFuture(new SearchResultDto(5, true, Collections.emptyList(), Collections.emptyList())))
+                .thenReturn(CompletableFuture.completedFuture(new SearchResultDto(10000, false, Collections.emptyList(), Collections.emptyList())));
+        when(elasticsearch.countAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class)))
+                .thenReturn(CompletableFuture.completedFuture(12345L));
+
+        final Expression expression = new ValueExpression("title", "test");
+        final SearchParameter searchParameter = SearchParameter.builder().exactCount(true).build();
+        assertEquals(5, elasticsearchService.searchAsync(indexAlias, expression, searchParameter).join().getTotalHitCount());
+        verify(elasticsearch, times(0)).countAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class));
+
+        final SearchResult result = elasticsearchService.searchAsync(indexAlias, expression, searchParameter).join();
+        assertEquals(12345, result.getTotalHitCount());
+        assertTrue(result.isExactHitCount());
+        verify(elasticsearch, times(1)).countAsync(any(QueryDto.class), any(MappingConfiguration.class), any(IndexPresetConfiguration.class));
+    }
 }
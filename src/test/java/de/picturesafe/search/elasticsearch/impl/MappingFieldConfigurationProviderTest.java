@@ -22,9 +22,18 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class MappingFieldConfigurationProviderTest {
@@ -35,6 +44,7 @@ public class MappingFieldConfigurationProviderTest {
     @Test
     public void testCacheTimeout() throws Exception {
         final MappingFieldConfigurationProvider provider = new MappingFieldConfigurationProvider(elasticsearchAdmin, 100);
+        provider.setRefreshExecutor(Runnable::run);
         final String indexAlias = "test";
         provider.getFieldConfigurations(indexAlias);
         provider.getFieldConfigurations(indexAlias);
@@ -42,4 +52,68 @@ public class MappingFieldConfigurationProviderTest {
         provider.getFieldConfigurations(indexAlias);
         verify(elasticsearchAdmin, times(2)).resolveIndexNames(eq(indexAlias));
     }
+
+    @Test
+    public void testRefreshAhead() throws Exception {
+        final MappingFieldConfigurationProvider provider = new MappingFieldConfigurationProvider(elasticsearchAdmin, 100);
+        final List<Runnable> refreshes = new ArrayList<>();
+        provider.setRefreshExecutor(refreshes::add);
+        final String indexAlias = "test";
+        when(elasticsearchAdmin.getMapping(indexAlias)).thenReturn(mapping("title"));
+        provider.getFieldConfigurations(indexAlias);
+
+        when(elasticsearchAdmin.getMapping(indexAlias)).thenReturn(mapping("title", "caption"));
+        Thread.sleep(90);
+        // Readers get the cached mapping while one refresh is pending
+        assertEquals(1, provider.getFieldConfigurations(indexAlias).size());
+        assertEquals(1, provider.getFieldConfigurations(indexAlias).size());
+        assertEquals(1, refreshes.size());
+
+        refreshes.get(0).run();
+        assertEquals(2, provider.getFieldConfigurations(indexAlias).size());
+    }
+
+    @Test
+    public void testFailedRefreshKeepsCachedMapping() throws Exception {
+        final MappingFieldConfigurationProvider provider = new MappingFieldConfigurationProvider(elasticsearchAdmin, 100);
+        provider.setRefreshExecutor(Runnable::run);
+        final String indexAlias = "test";
+        when(elasticsearchAdmin.getMapping(indexAlias)).thenReturn(mapping("title"));
+        final long version = provider.getVersion(indexAlias);
+
+        when(elasticsearchAdmin.getMapping(indexAlias)).thenThrow(new IllegalStateException("Elasticsearch unavailable"));
+        Thread.sleep(110);
+        assertEquals(1, provider.getFieldConfigurations(indexAlias).size());
+        assertEquals(1, provider.getFieldConfigurations(indexAlias).size());
+        assertEquals(version, provider.getVersion(indexAlias));
+        // The failed refresh resets the cache time, so no further refresh is attempted immediately
+        verify(elasticsearchAdmin, times(2)).getMapping(indexAlias);
+    }
+
+    @Test
+    public void testVersion() throws Exception {
+        final MappingFieldConfigurationProvider provider = new MappingFieldConfigurationProvider(elasticsearchAdmin, 100);
+        provider.setRefreshExecutor(Runnable::run);
+        final String indexAlias = "test";
+        when(elasticsearchAdmin.getMapping(indexAlias)).thenReturn(mapping("title"));
+        final long version = provider.getVersion(indexAlias);
+
+        Thread.sleep(110);
+        provider.getVersion(indexAlias);
+        assertEquals("Unchanged mapping must keep the version", version, provider.getVersion(indexAlias));
+
+        when(elasticsearchAdmin.getMapping(indexAlias)).thenReturn(mapping("title", "caption"));
+        Thread.sleep(110);
+        provider.getVersion(indexAlias);
+        assertNotEquals(version, provider.getVersion(indexAlias));
+        assertEquals(2, provider.getFieldConfigurations(indexAlias).size());
+    }
+
+    private Map<String, Object> mapping(String... fieldNames) {
+        final Map<String, Object> properties = new HashMap<>();
+        for (String fieldName : fieldNames) {
+            properties.put(fieldName, Collections.singletonMap("type", "keyword"));
+        }
+        return Collections.singletonMap("properties", properties);
+    }
 }
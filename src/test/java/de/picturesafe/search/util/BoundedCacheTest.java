@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        final BoundedCache<String, String> cache = new BoundedCache<>(2, 0, 0, String::length);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a"));
+        cache.put("c", "3");
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testWeightBound() {
+        final BoundedCache<String, String> cache = new BoundedCache<>(100, 10, 0, String::length);
+        cache.put("a", "12345");
+        cache.put("b", "1234");
+        assertEquals(9, cache.getWeight());
+        cache.put("c", "123");
+
+        assertNull(cache.get("a"));
+        assertEquals(7, cache.getWeight());
+        cache.put("d", "12345678901");
+        assertNull("Values heavier than the maximum weight must not be cached", cache.get("d"));
+        assertEquals(2, cache.size());
+
+        cache.put("b", "1");
+        assertEquals(4, cache.getWeight());
+        cache.remove("c");
+        assertEquals(1, cache.getWeight());
+    }
+
+    @Test
+    public void testTimeToLive() throws Exception {
+        final BoundedCache<String, String> cache = new BoundedCache<>(10, 0, 50, String::length);
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+        Thread.sleep(60);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+public class CopyUtilsTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDeepCopy() {
+        final Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("title", "test");
+        final Map<String, Object> document = new LinkedHashMap<>();
+        document.put("id", 1);
+        document.put("created", new Date(1000));
+        document.put("keywords", new ArrayList<>(Arrays.asList("a", "b")));
+        document.put("nested", new ArrayList<>(Collections.singletonList(nested)));
+
+        final Map<String, Object> copy = CopyUtils.deepCopy(document);
+        assertEquals(document, copy);
+        assertNotSame(document.get("created"), copy.get("created"));
+
+        ((List<String>) copy.get("keywords")).add("c");
+        ((Date) copy.get("created")).setTime(2000);
+        ((List<Map<String, Object>>) copy.get("nested")).get(0).put("title", "changed");
+        assertEquals(Arrays.asList("a", "b"), document.get("keywords"));
+        assertEquals(new Date(1000), document.get("created"));
+        assertEquals("test", nested.get("title"));
+    }
+
+    @Test
+    public void testDeepCopyNull() {
+        assertNull(CopyUtils.deepCopy(null));
+        assertNull(CopyUtils.deepCopyValue(null));
+    }
+}
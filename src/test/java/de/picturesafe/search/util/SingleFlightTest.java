@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 picturesafe media/data/bank GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.picturesafe.search.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testCoalesce() {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final AtomicInteger executions = new AtomicInteger();
+        final CompletableFuture<String> operation = new CompletableFuture<>();
+
+        final CompletableFuture<String> result1 = singleFlight.execute("key", () -> {
+            executions.incrementAndGet();
+            return operation;
+        });
+        final CompletableFuture<String> result2 = singleFlight.execute("key", () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        final CompletableFuture<String> result3 = singleFlight.execute("other-key", () -> CompletableFuture.completedFuture("other"));
+        assertEquals(1, singleFlight.getInFlight());
+
+        operation.complete("result");
+        assertEquals("result", result1.join());
+        assertSame(result1.join(), result2.join());
+        assertEquals("other", result3.join());
+        assertEquals(1, executions.get());
+        assertEquals(2, singleFlight.getExecutions());
+        assertEquals(1, singleFlight.getCoalesced());
+        assertEquals(0, singleFlight.getInFlight());
+
+        // Completed operations are not cached
+        assertEquals("next", singleFlight.execute("key", () -> CompletableFuture.completedFuture("next")).join());
+    }
+
+    @Test
+    public void testFailure() {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final CompletableFuture<String> operation = new CompletableFuture<>();
+        final CompletableFuture<String> result1 = singleFlight.execute("key", () -> operation);
+        final CompletableFuture<String> result2 = singleFlight.execute("key", () -> operation);
+        operation.completeExceptionally(new IllegalStateException("failed"));
+
+        for (CompletableFuture<String> result : Arrays.asList(result1, result2)) {
+            try {
+                result.join();
+                fail("Operation should fail!");
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+        assertEquals(0, singleFlight.getInFlight());
+
+        try {
+            singleFlight.execute("key", () -> {
+                throw new IllegalArgumentException("invalid");
+            }).join();
+            fail("Operation should fail!");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    public void testCancel() {
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final CompletableFuture<String> operation = new CompletableFuture<>();
+        final CompletableFuture<String> result1 = singleFlight.execute("key", () -> operation);
+        final CompletableFuture<String> result2 = singleFlight.execute("key", () -> operation);
+
+        result1.cancel(true);
+        assertFalse(operation.isCancelled());
+        operation.complete("result");
+        assertEquals("result", result2.join());
+    }
+}